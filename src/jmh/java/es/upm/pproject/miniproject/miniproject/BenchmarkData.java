@@ -0,0 +1,64 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * This class builds the data sets shared by the benchmarks.
+ * <br><li> Students are registered with identifiers from 1 to {@code students}.
+ * <br><li> Courses are registered with codes from 1 to {@code courses}, and each one is filled up to {@link #PREFILLED} students.
+ * <br><li> {@code spare} extra students are registered after the others and never enrolled, so benchmarks can enroll them without failures.
+ *
+ */
+final class BenchmarkData {
+	/**
+	 * Number of students enrolled in every course during the setup, half of the capacity of a course.
+	 */
+	static final int PREFILLED = 25;
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * {@summary It creates an empty manager that does not log its regular operations.}
+	 * @param implementation Specifies the simple name of the class: {@code EnrollmentManager} or {@code ConcurrentEnrollmentManager}.
+	 * @return The new manager.
+	 */
+	static InterfaceEnrollmentManager newManager(String implementation) {
+		switch(implementation) {
+			case "EnrollmentManager":
+				EnrollmentManager manager = new EnrollmentManager();
+				manager.setLogVerbosity(LogVerbosity.QUIET);
+				return manager;
+			case "ConcurrentEnrollmentManager":
+				ConcurrentEnrollmentManager concurrent = new ConcurrentEnrollmentManager();
+				concurrent.setLogVerbosity(LogVerbosity.QUIET);
+				return concurrent;
+			default:
+				throw new IllegalArgumentException("Unknown implementation: " + implementation);
+		}
+	}
+
+	/**
+	 * {@summary It creates a manager and fills it with the described data set.}
+	 * @param implementation Specifies the simple name of the class of the manager.
+	 * @param students Specifies the number of regular students.
+	 * @param courses Specifies the number of courses.
+	 * @param spare Specifies the number of students registered but never enrolled.
+	 * @return The populated manager.
+	 * @throws Exception when the data set cannot be registered.
+	 */
+	static InterfaceEnrollmentManager populate(String implementation, int students, int courses, int spare) throws Exception {
+		InterfaceEnrollmentManager manager = newManager(implementation);
+		for(int id = 1; id <= students + spare; id++) {
+			manager.registerStudent(id, "Student" + id, "student" + id + "@example.com");
+		}
+		for(int code = 1; code <= courses; code++) {
+			manager.registerCourse(code, "Course" + code, "Coordinator" + (code % 100));
+			int[] enrolled = new int[Math.min(PREFILLED, students)];
+			for(int k = 0; k < enrolled.length; k++) {
+				// Consecutive courses take consecutive blocks of students, wrapping around the registry.
+				enrolled[k] = (int) (((long) code * PREFILLED + k) % students) + 1;
+			}
+			manager.enrollAll(code, enrolled);
+		}
+		return manager;
+	}
+}
@@ -0,0 +1,122 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Multi-threaded benchmarks of the enrollment operations.
+ *
+ * <p>{@code EnrollmentManager} is not thread-safe, so it is measured behind a single global lock, which is how
+ * it has to be shared between threads. {@code ConcurrentEnrollmentManager} is called without any external lock.
+ * Every thread works with its own spare students, so the operations never fail. Run it with:
+ * <pre>
+ * mvn -Pbenchmark package -DskipTests
+ * java -jar target/benchmarks.jar ConcurrentEnrollmentBenchmark -t 8 -p students=100000 -p courses=10000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ConcurrentEnrollmentBenchmark {
+	private static final int MAX_THREADS = 256;
+	private static final int SPARE_PER_THREAD = 32;
+
+	@Param({"10000", "100000", "1000000"})
+	int students;
+
+	@Param({"1000", "10000", "100000"})
+	int courses;
+
+	@Param({"EnrollmentManager", "ConcurrentEnrollmentManager"})
+	String implementation;
+
+	private InterfaceEnrollmentManager manager;
+	private Lock lock;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		manager = BenchmarkData.populate(implementation, students, courses, MAX_THREADS * SPARE_PER_THREAD);
+		lock = implementation.equals("EnrollmentManager") ? new ReentrantLock() : null;
+	}
+
+	/**
+	 * Random generator and spare students owned by a single benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private static final AtomicInteger partitions = new AtomicInteger();
+
+		SplittableRandom random;
+		int firstSpare;
+
+		@Setup(Level.Trial)
+		public void setup(ConcurrentEnrollmentBenchmark benchmark) {
+			int partition = partitions.getAndIncrement() % MAX_THREADS;
+			random = new SplittableRandom(partition);
+			firstSpare = benchmark.students + 1 + partition * SPARE_PER_THREAD;
+		}
+	}
+
+	/**
+	 * Enrolls one of the thread's spare students in a random course and cancels the enrollment.
+	 */
+	@Benchmark
+	public void enrollAndCancel(ThreadState state) throws Exception {
+		int course = 1 + state.random.nextInt(courses);
+		int student = state.firstSpare + state.random.nextInt(SPARE_PER_THREAD);
+		if(lock != null) {
+			lock.lock();
+		}
+		try {
+			manager.enroll(course, student);
+			manager.cancelEnrollment(course, student);
+		} finally {
+			if(lock != null) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Obtains the roster of a random course and reads every student in it.
+	 */
+	@Benchmark
+	public void getStudentsEnrolledInCourse(ThreadState state, Blackhole blackhole) throws Exception {
+		int course = 1 + state.random.nextInt(courses);
+		if(lock != null) {
+			lock.lock();
+		}
+		try {
+			List<Student> roster = manager.getStudentsEnrolledInCourse(course);
+			for(Student s : roster) {
+				blackhole.consume(s);
+			}
+		} finally {
+			if(lock != null) {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Single-threaded benchmarks of the operations of {@link InterfaceEnrollmentManager}.
+ *
+ * <p>Every operation is measured on each implementation and on registries of different sizes. Run it with:
+ * <pre>
+ * mvn -Pbenchmark package -DskipTests
+ * java -jar target/benchmarks.jar EnrollmentManagerBenchmark -p students=10000 -p courses=1000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnrollmentManagerBenchmark {
+	private static final int SPARE = 64;
+
+	@Param({"10000", "100000", "1000000"})
+	int students;
+
+	@Param({"1000", "10000", "100000"})
+	int courses;
+
+	@Param({"EnrollmentManager", "ConcurrentEnrollmentManager"})
+	String implementation;
+
+	private InterfaceEnrollmentManager manager;
+	private SplittableRandom random;
+	private int nextStudent;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		manager = BenchmarkData.populate(implementation, students, courses, SPARE);
+		random = new SplittableRandom(42);
+		nextStudent = students + SPARE + 1;
+	}
+
+	/**
+	 * Registers a new student. The registry keeps growing during the trial.
+	 */
+	@Benchmark
+	public void registerStudent() throws Exception {
+		int id = nextStudent++;
+		manager.registerStudent(id, "Student", "student" + id + "@example.com");
+	}
+
+	/**
+	 * Enrolls a spare student in a random course and cancels the enrollment, so the data set does not change.
+	 */
+	@Benchmark
+	public void enrollAndCancel() throws Exception {
+		int course = 1 + random.nextInt(courses);
+		int student = students + 1 + random.nextInt(SPARE);
+		manager.enroll(course, student);
+		manager.cancelEnrollment(course, student);
+	}
+
+	/**
+	 * Enrolls again the first student of a random course, which is rejected with an exception.
+	 */
+	@Benchmark
+	public Exception rejectedEnroll() throws Exception {
+		int course = 1 + random.nextInt(courses);
+		try {
+			manager.enroll(course, firstEnrolled(course));
+			return null;
+		} catch (StudentAlreadyEnrolledException e) {
+			return e;
+		}
+	}
+
+	/**
+	 * Enrolls again the first student of a random course with {@code tryEnroll}, which is rejected with an outcome.
+	 */
+	@Benchmark
+	public EnrollmentOutcome rejectedTryEnroll() {
+		int course = 1 + random.nextInt(courses);
+		return manager.tryEnroll(course, firstEnrolled(course));
+	}
+
+	/**
+	 * Obtains the roster of a random course and reads every student in it.
+	 */
+	@Benchmark
+	public void getStudentsEnrolledInCourse(Blackhole blackhole) throws Exception {
+		List<Student> roster = manager.getStudentsEnrolledInCourse(1 + random.nextInt(courses));
+		for(Student s : roster) {
+			blackhole.consume(s);
+		}
+	}
+
+	/**
+	 * Fills a random course with {@link BenchmarkData#PREFILLED} spare students and restarts it.
+	 */
+	@Benchmark
+	public void refillAndRestartCourse() throws Exception {
+		int course = 1 + random.nextInt(courses);
+		manager.restartCourse(course);
+		for(int k = 1; k <= BenchmarkData.PREFILLED; k++) {
+			manager.enroll(course, students + k);
+		}
+		manager.restartCourse(course);
+	}
+
+	/**
+	 * @return The first student enrolled in a course by {@link BenchmarkData#populate}.
+	 */
+	private int firstEnrolled(int course) {
+		return (int) ((long) course * BenchmarkData.PREFILLED % students) + 1;
+	}
+}
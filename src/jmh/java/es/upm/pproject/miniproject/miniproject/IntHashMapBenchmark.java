@@ -0,0 +1,105 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-threaded benchmarks of {@code IntHashMap} against the boxed maps it replaced in {@code EnrollmentManager}.
+ *
+ * <p>The lookup benchmarks look up random registered identifiers. The build benchmarks register {@code size}
+ * identifiers into an empty map: run them with the GC profiler, and {@code gc.alloc.rate.norm} gives the bytes
+ * allocated per map, which is its footprint plus the tables discarded when it grows:
+ * <pre>
+ * mvn -Pbenchmark package -DskipTests
+ * java -jar target/benchmarks.jar IntHashMapBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntHashMapBenchmark {
+	@Param({"1000", "100000", "1000000"})
+	int size;
+
+	private IntHashMap<Object> intHashMap;
+	private Map<Integer, Object> treeMap;
+	private Map<Integer, Object> hashMap;
+	private int[] probes;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		intHashMap = buildIntHashMap();
+		treeMap = buildTreeMap();
+		hashMap = buildHashMap();
+		SplittableRandom random = new SplittableRandom(42);
+		probes = new int[1 << 16];
+		for(int i = 0; i < probes.length; i++) {
+			probes[i] = 1 + random.nextInt(size);
+		}
+	}
+
+	private int nextProbe() {
+		return probes[next++ & (probes.length - 1)];
+	}
+
+	@Benchmark
+	public Object lookupIntHashMap() {
+		return intHashMap.get(nextProbe());
+	}
+
+	@Benchmark
+	public Object lookupTreeMap() {
+		return treeMap.get(nextProbe());
+	}
+
+	@Benchmark
+	public Object lookupHashMap() {
+		return hashMap.get(nextProbe());
+	}
+
+	@Benchmark
+	public IntHashMap<Object> buildIntHashMap() {
+		IntHashMap<Object> map = new IntHashMap<>();
+		for(int id = 1; id <= size; id++) {
+			map.put(id, Boolean.TRUE);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Map<Integer, Object> buildTreeMap() {
+		Map<Integer, Object> map = new TreeMap<>();
+		for(int id = 1; id <= size; id++) {
+			map.put(id, Boolean.TRUE);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Map<Integer, Object> buildHashMap() {
+		Map<Integer, Object> map = new HashMap<>();
+		for(int id = 1; id <= size; id++) {
+			map.put(id, Boolean.TRUE);
+		}
+		return map;
+	}
+}
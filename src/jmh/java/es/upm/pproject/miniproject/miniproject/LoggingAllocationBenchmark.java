@@ -0,0 +1,77 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.varia.NullAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the hot paths of {@link EnrollmentManager} for every {@link LogVerbosity}, both with the INFO level
+ * enabled and with the logger set to WARN.
+ *
+ * <p>Every call enrolls a student in a course with {@value #ROSTER} students, obtains the roster of the course and
+ * cancels the enrollment. The appenders are replaced by a {@link NullAppender}, so the figures include building the
+ * messages and the logging events, but not writing them. Run it with the GC profiler, and {@code gc.alloc.rate.norm}
+ * gives the bytes allocated per cycle:
+ * <pre>
+ * mvn -Pbenchmark package -DskipTests
+ * java -jar target/benchmarks.jar LoggingAllocationBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingAllocationBenchmark {
+	private static final int ROSTER = 40;
+
+	@Param({"FULL", "SUMMARY", "QUIET"})
+	LogVerbosity verbosity;
+
+	@Param({"INFO", "WARN"})
+	String level;
+
+	private EnrollmentManager manager;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		LogManager.getRootLogger().removeAllAppenders();
+		LogManager.getRootLogger().addAppender(new NullAppender());
+		LogManager.getRootLogger().setLevel(org.apache.log4j.Level.toLevel(level));
+
+		manager = new EnrollmentManager();
+		manager.setLogVerbosity(LogVerbosity.QUIET);
+		manager.registerCourse(1, "Course1", "Coordinator1");
+		for(int i = 1; i <= ROSTER + 1; i++) {
+			manager.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+		for(int i = 1; i <= ROSTER; i++) {
+			manager.enroll(1, i);
+		}
+		manager.setLogVerbosity(verbosity);
+	}
+
+	/**
+	 * Enrolls the spare student, obtains the roster and cancels the enrollment, so the data set does not change.
+	 */
+	@Benchmark
+	public int enrollListAndCancel() throws Exception {
+		manager.enroll(1, ROSTER + 1);
+		int size = manager.getStudentsEnrolledInCourse(1).size();
+		manager.cancelEnrollment(1, ROSTER + 1);
+		return size;
+	}
+}
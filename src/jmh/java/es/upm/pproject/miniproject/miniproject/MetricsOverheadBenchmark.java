@@ -0,0 +1,103 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Multi-threaded benchmarks of the overhead of {@code MeteredEnrollmentManager}.
+ *
+ * <p>The same {@code ConcurrentEnrollmentManager} is called directly and through the metered wrapper, which
+ * records into an {@code EnrollmentMetrics}. Every thread works with its own spare students, so the operations
+ * never fail. Run it with:
+ * <pre>
+ * mvn -Pbenchmark package -DskipTests
+ * java -jar target/benchmarks.jar MetricsOverheadBenchmark -t 8
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MetricsOverheadBenchmark {
+	private static final int MAX_THREADS = 256;
+	private static final int SPARE_PER_THREAD = 32;
+
+	@Param({"100000"})
+	int students;
+
+	@Param({"10000"})
+	int courses;
+
+	@Param({"false", "true"})
+	boolean metered;
+
+	private InterfaceEnrollmentManager manager;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		manager = BenchmarkData.populate("ConcurrentEnrollmentManager", students, courses, MAX_THREADS * SPARE_PER_THREAD);
+		if(metered) {
+			manager = new MeteredEnrollmentManager(manager, new EnrollmentMetrics());
+		}
+	}
+
+	/**
+	 * Random generator and spare students owned by a single benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private static final AtomicInteger partitions = new AtomicInteger();
+
+		SplittableRandom random;
+		int firstSpare;
+
+		@Setup(Level.Trial)
+		public void setup(MetricsOverheadBenchmark benchmark) {
+			int partition = partitions.getAndIncrement() % MAX_THREADS;
+			random = new SplittableRandom(partition);
+			firstSpare = benchmark.students + 1 + partition * SPARE_PER_THREAD;
+		}
+	}
+
+	/**
+	 * Enrolls one of the thread's spare students in a random course and cancels the enrollment.
+	 */
+	@Benchmark
+	public void enrollAndCancel(ThreadState state) throws Exception {
+		int course = 1 + state.random.nextInt(courses);
+		int student = state.firstSpare + state.random.nextInt(SPARE_PER_THREAD);
+		manager.enroll(course, student);
+		manager.cancelEnrollment(course, student);
+	}
+
+	/**
+	 * Obtains the roster of a random course and reads every student in it.
+	 */
+	@Benchmark
+	public void getStudentsEnrolledInCourse(ThreadState state, Blackhole blackhole) throws Exception {
+		int course = 1 + state.random.nextInt(courses);
+		List<Student> roster = manager.getStudentsEnrolledInCourse(course);
+		for(Student s : roster) {
+			blackhole.consume(s);
+		}
+	}
+}
@@ -0,0 +1,391 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * This class is a read-only copy of the state of another {@link InterfaceEnrollmentManager}, for the terms that are over.
+ *
+ * <p>The state is kept in a few flat arrays instead of maps and sets:
+ * <br><li> Courses and students are sorted by their identifiers, and found by binary search over an {@code int[]} of identifiers.
+ * <br><li> The rosters, the waitlists, the prerequisites, the courses of every student and the courses completed by
+ * every student are each stored as a single {@code int[]} of identifiers, plus the offset where every row starts.
+ * <br><li> E-mail addresses are sorted, and found by binary search too.
+ * <br>An archived term therefore takes a small fraction of the memory of a live manager, creates no garbage while it
+ * is queried, and never needs a lock, so it can be queried by any number of threads at once.
+ *
+ * <p>Every query behaves as in the live manager, except that nothing is logged. Every mutation throws
+ * {@link UnsupportedOperationException}, including {@link #tryEnroll(int, int)} and {@link #registerStudents(Collection)}.
+ *
+ */
+public final class ArchivedEnrollmentManager implements InterfaceEnrollmentManager {
+	private static final String MSG_ARCHIVED = "The term is archived and cannot be modified.";
+
+	private final int[] courseCodes;
+	private final Course[] courses;
+	private final int[] studentIds;
+	private final Student[] students;
+	private final String[] emails;
+	private final int[] emailOwners;
+	private final Rows rosters;
+	private final Rows waitlists;
+	private final Rows prerequisites;
+	private final Rows coursesOfStudents;
+	private final Rows completed;
+	private volatile LogVerbosity verbosity = LogVerbosity.QUIET;
+
+	private ArchivedEnrollmentManager(Course[] courses, Student[] students, int[][] rosters, int[][] waitlists,
+			int[][] prerequisites, int[][] completed) {
+		this.courses = courses;
+		this.students = students;
+		this.courseCodes = new int[courses.length];
+		for(int i = 0; i < courses.length; i++) {
+			courseCodes[i] = courses[i].getCode();
+		}
+		this.studentIds = new int[students.length];
+		for(int i = 0; i < students.length; i++) {
+			studentIds[i] = students[i].getId();
+		}
+		Integer[] order = new Integer[students.length];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing(i -> Student.normalizeEmail(students[i].getEmailAddress())));
+		this.emails = new String[students.length];
+		this.emailOwners = new int[students.length];
+		for(int i = 0; i < order.length; i++) {
+			emails[i] = Student.normalizeEmail(students[order[i]].getEmailAddress());
+			emailOwners[i] = studentIds[order[i]];
+		}
+		this.rosters = new Rows(rosters);
+		this.waitlists = new Rows(waitlists);
+		this.prerequisites = new Rows(prerequisites);
+		this.completed = new Rows(completed);
+		this.coursesOfStudents = new Rows(invert(rosters));
+	}
+
+	/**
+	 * {@summary It copies the state of a manager into a read-only archive.}
+	 * The manager should not be modified while it is copied. Otherwise, the archive may hold a student in the roster of one
+	 * course and not yet in the roster of another, just like an {@link EnrollmentSnapshot} taken at the same time.
+	 * @param source Specifies the manager to copy. It does not log while it is read, on the calling thread only.
+	 * @return The archive, which shares nothing with the manager.
+	 * @throws IllegalStateException when a course or a student disappears while the manager is copied.
+	 */
+	public static ArchivedEnrollmentManager of(InterfaceEnrollmentManager source) {
+		QuietScope.enter();
+		try {
+			Course[] courses = source.getCourses().toArray(new Course[0]);
+			Arrays.sort(courses, Comparator.comparingInt(Course::getCode));
+			Student[] students = source.getStudents().toArray(new Student[0]);
+			Arrays.sort(students, Comparator.comparingInt(Student::getId));
+			int[][] rosters = new int[courses.length][];
+			int[][] waitlists = new int[courses.length][];
+			int[][] prerequisites = new int[courses.length][];
+			for(int i = 0; i < courses.length; i++) {
+				int code = courses[i].getCode();
+				rosters[i] = studentIdsOf(source.getStudentsEnrolledInCourse(code));
+				waitlists[i] = studentIdsOf(source.getWaitlist(code));
+				prerequisites[i] = courseCodesOf(source.getPrerequisites(code));
+			}
+			int[][] completed = new int[students.length][];
+			for(int i = 0; i < students.length; i++) {
+				completed[i] = courseCodesOf(source.getCompletedCourses(students[i].getId()));
+			}
+			return new ArchivedEnrollmentManager(courses, students, rosters, waitlists, prerequisites, completed);
+		} catch (MissingCourseException | MissingStudentException e) {
+			throw new IllegalStateException("A course or a student disappeared while the term was being archived.", e);
+		} finally {
+			QuietScope.exit();
+		}
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public void registerStudent(int id, String name, String email) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public BatchReport registerStudents(Collection<Student> students) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public void enroll(int courseCode, int studentId) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public EnrollmentOutcome tryEnroll(int courseCode, int studentId) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public BatchReport enrollAll(int courseCode, int[] studentIds) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public boolean enrollOrWaitlist(int courseCode, int studentId) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public List<Student> getWaitlist(int courseCode) throws MissingCourseException {
+		return waitlists.list(courseIndex(courseCode), this::student);
+	}
+
+	@Override
+	public void leaveWaitlist(int courseCode, int studentId) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		return rosters.list(courseIndex(course), this::student);
+	}
+
+	/**
+	 * {@summary It returns a page of the students enrolled in a course, sorted by their identifiers.}
+	 * @param course Specifies the course's unique code.
+	 * @param afterId Specifies the identifier after which the page starts. Use 0 for the first page.
+	 * @param limit Specifies the maximum number of students of the page. Must be a positive integer.
+	 * @return A list backed by the archive, which never changes.
+	 * @throws MissingCourseException when the course is not registered in the archive.
+	 * @throws IllegalArgumentException when the limit is not a positive integer.
+	 */
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course, int afterId, int limit) throws MissingCourseException {
+		Pages.checkLimit(limit);
+		return rosters.page(courseIndex(course), afterId, limit, this::student);
+	}
+
+	@Override
+	public Stream<Student> streamStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		return getStudentsEnrolledInCourse(course).stream();
+	}
+
+	@Override
+	public int getEnrollmentCount(int course) throws MissingCourseException {
+		return rosters.size(courseIndex(course));
+	}
+
+	@Override
+	public List<Course> getCoursesOfStudent(int studentId) throws MissingStudentException {
+		return coursesOfStudents.list(studentIndex(studentId), this::course);
+	}
+
+	@Override
+	public Student findStudentByEmail(String email) throws MissingStudentException {
+		int position = email == null ? -1 : Arrays.binarySearch(emails, Student.normalizeEmail(email));
+		if(position < 0) {
+			throw new MissingStudentException();
+		}
+		return student(emailOwners[position]);
+	}
+
+	@Override
+	public void cancelEnrollment(int courseCode, int studentId) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public void restartCourse(int courseCode) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public void addPrerequisite(int courseCode, int prerequisiteCode) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public List<Course> getPrerequisites(int courseCode) throws MissingCourseException {
+		return prerequisites.list(courseIndex(courseCode), this::course);
+	}
+
+	@Override
+	public void completeCourse(int courseCode, int studentId) {
+		throw new UnsupportedOperationException(MSG_ARCHIVED);
+	}
+
+	@Override
+	public List<Course> getCompletedCourses(int studentId) throws MissingStudentException {
+		return completed.list(studentIndex(studentId), this::course);
+	}
+
+	@Override
+	public Collection<Student> getStudents() {
+		return Collections.unmodifiableList(Arrays.asList(students));
+	}
+
+	@Override
+	public Collection<Course> getCourses() {
+		return Collections.unmodifiableList(Arrays.asList(courses));
+	}
+
+	@Override
+	public List<Student> getStudents(int afterId, int limit) {
+		Pages.checkLimit(limit);
+		int from = after(studentIds, 0, studentIds.length, afterId);
+		return SortedIntSet.asList(studentIds, from, (int) Math.min(studentIds.length, (long) from + limit), this::student);
+	}
+
+	@Override
+	public List<Course> getCourses(int afterCode, int limit) {
+		Pages.checkLimit(limit);
+		int from = after(courseCodes, 0, courseCodes.length, afterCode);
+		return SortedIntSet.asList(courseCodes, from, (int) Math.min(courseCodes.length, (long) from + limit), this::course);
+	}
+
+	@Override
+	public Stream<Student> streamStudents() {
+		return Arrays.stream(students);
+	}
+
+	@Override
+	public Stream<Course> streamCourses() {
+		return Arrays.stream(courses);
+	}
+
+	/**
+	 * {@summary It records the verbosity, which has no effect because the archive logs nothing.}
+	 * @param verbosity Specifies the new verbosity.
+	 */
+	@Override
+	public void setLogVerbosity(LogVerbosity verbosity) {
+		this.verbosity = verbosity;
+	}
+
+	@Override
+	public LogVerbosity getLogVerbosity() {
+		return verbosity;
+	}
+
+	private Student student(int id) {
+		return students[Arrays.binarySearch(studentIds, id)];
+	}
+
+	private Course course(int code) {
+		return courses[Arrays.binarySearch(courseCodes, code)];
+	}
+
+	private int courseIndex(int code) throws MissingCourseException {
+		int index = Arrays.binarySearch(courseCodes, code);
+		if(index < 0) {
+			throw new MissingCourseException();
+		}
+		return index;
+	}
+
+	private int studentIndex(int id) throws MissingStudentException {
+		int index = Arrays.binarySearch(studentIds, id);
+		if(index < 0) {
+			throw new MissingStudentException();
+		}
+		return index;
+	}
+
+	/**
+	 * @return The first position of a sorted range whose identifier is greater than {@code key}.
+	 */
+	private static int after(int[] ids, int from, int to, int key) {
+		int position = Arrays.binarySearch(ids, from, to, key);
+		return position >= 0 ? position + 1 : -(position + 1);
+	}
+
+	/**
+	 * @return The rows of the courses of every student, from the rosters of the courses, which are sorted by course.
+	 */
+	private int[][] invert(int[][] rosters) {
+		int[] counts = new int[students.length];
+		for(int[] roster : rosters) {
+			for(int id : roster) {
+				counts[Arrays.binarySearch(studentIds, id)]++;
+			}
+		}
+		int[][] rows = new int[students.length][];
+		for(int i = 0; i < rows.length; i++) {
+			rows[i] = new int[counts[i]];
+			counts[i] = 0;
+		}
+		for(int c = 0; c < rosters.length; c++) {
+			for(int id : rosters[c]) {
+				int s = Arrays.binarySearch(studentIds, id);
+				rows[s][counts[s]++] = courseCodes[c];
+			}
+		}
+		return rows;
+	}
+
+	private static int[] studentIdsOf(List<Student> students) {
+		int[] ids = new int[students.size()];
+		for(int i = 0; i < ids.length; i++) {
+			ids[i] = students.get(i).getId();
+		}
+		return ids;
+	}
+
+	private static int[] courseCodesOf(List<Course> courses) {
+		int[] codes = new int[courses.size()];
+		for(int i = 0; i < codes.length; i++) {
+			codes[i] = courses.get(i).getCode();
+		}
+		return codes;
+	}
+
+	/**
+	 * Rows of identifiers stored back to back in a single array, with the offset where every row starts.
+	 */
+	private static final class Rows {
+		private final int[] start;
+		private final int[] ids;
+
+		Rows(int[][] rows) {
+			start = new int[rows.length + 1];
+			for(int i = 0; i < rows.length; i++) {
+				start[i + 1] = start[i] + rows[i].length;
+			}
+			ids = new int[start[rows.length]];
+			for(int i = 0; i < rows.length; i++) {
+				System.arraycopy(rows[i], 0, ids, start[i], rows[i].length);
+			}
+		}
+
+		int size(int row) {
+			return start[row + 1] - start[row];
+		}
+
+		<T> List<T> list(int row, IntFunction<T> resolver) {
+			return SortedIntSet.asList(ids, start[row], start[row + 1], resolver);
+		}
+
+		/**
+		 * @return The elements of a row sorted by identifier whose identifier is greater than {@code afterId}, up to {@code limit} of them.
+		 */
+		<T> List<T> page(int row, int afterId, int limit, IntFunction<T> resolver) {
+			int from = after(ids, start[row], start[row + 1], afterId);
+			return SortedIntSet.asList(ids, from, (int) Math.min(start[row + 1], (long) from + limit), resolver);
+		}
+	}
+}
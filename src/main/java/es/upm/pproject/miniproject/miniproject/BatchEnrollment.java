@@ -0,0 +1,82 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * This class decides which students of a batch can be enrolled in a course. It is shared by the
+ * implementations of {@link InterfaceEnrollmentManager#enrollAll(int, int[])}, which call it while
+ * the roster of the course cannot be modified by anybody else.
+ *
+ */
+final class BatchEnrollment {
+
+	private BatchEnrollment() {
+	}
+
+	/**
+	 * {@summary It selects the students of a batch that can be enrolled in a course.}
+	 * The batch is sorted once, so duplicates are found next to each other and the accepted identifiers
+	 * come out in ascending order, ready to be merged into the roster in a single pass.
+	 * <br>The items are checked in the order of the batch, failing with the same exceptions as a single enrollment:
+	 * <br><li> {@link MissingStudentException} when the student is not registered.
+	 * <br><li> {@link StudentAlreadyEnrolledException} when the student is already enrolled, or appears earlier in the batch.
+	 * <br><li> {@link MissingPrerequisiteException} when the student has not completed all the prerequisites of the course.
+	 * <br><li> {@link FullCourseException} when the seats of the course have already been taken by earlier items.
+	 * <br><li> {@link ScheduleConflictException} when the course meets at the same time as another course of the student.
+	 * @param studentIds Specifies the students to enroll, in order of priority.
+	 * @param roster Specifies the students already enrolled in the course.
+	 * @param capacity Specifies the maximum number of students of the course.
+	 * @param registered Specifies which student identifiers are registered in the system.
+	 * @param qualified Specifies which students have completed all the prerequisites of the course.
+	 * @param claim Specifies how the course is added to the index and the timetable of a student that gets a seat. It returns
+	 * false, changing nothing, when the course conflicts with the student's timetable. The caller still has to add the accepted students to the roster.
+	 * @param report Specifies where the failed items are recorded.
+	 * @return The identifiers of the accepted students, in ascending order and without duplicates.
+	 */
+	static int[] select(int[] studentIds, SortedIntSet roster, int capacity, IntPredicate registered, IntPredicate qualified, IntPredicate claim, BatchReport report) {
+		// Each entry packs the identifier in the high half and the position in the low half, so sorting
+		// the entries sorts by identifier and, for duplicates, keeps the earliest position first.
+		long[] entries = new long[studentIds.length];
+		for(int i = 0; i < studentIds.length; i++) {
+			entries[i] = ((long) studentIds[i] << 32) | i;
+		}
+		Arrays.sort(entries);
+		boolean[] valid = new boolean[studentIds.length];
+		for(int i = 0; i < entries.length; i++) {
+			int id = (int) (entries[i] >> 32);
+			int index = (int) entries[i];
+			if(!registered.test(id)) {
+				report.fail(index, new MissingStudentException());
+			} else if((i > 0 && (int) (entries[i - 1] >> 32) == id) || roster.contains(id)) {
+				report.fail(index, new StudentAlreadyEnrolledException());
+			} else if(!qualified.test(id)) {
+				report.fail(index, new MissingPrerequisiteException());
+			} else {
+				valid[index] = true;
+			}
+		}
+		int free = Math.max(0, capacity - roster.size());
+		for(int index = 0; index < valid.length; index++) {
+			if(valid[index]) {
+				if(free == 0) {
+					valid[index] = false;
+					report.fail(index, new FullCourseException(capacity));
+				} else if(!claim.test(studentIds[index])) {
+					valid[index] = false;
+					report.fail(index, new ScheduleConflictException());
+				} else {
+					free--;
+				}
+			}
+		}
+		int[] accepted = new int[entries.length];
+		int count = 0;
+		for(long entry : entries) {
+			if(valid[(int) entry]) {
+				accepted[count++] = (int) (entry >> 32);
+			}
+		}
+		return Arrays.copyOf(accepted, count);
+	}
+}
@@ -0,0 +1,87 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class reports the outcome of a batch operation, item by item. Items are identified by their position
+ * in the batch, starting at 0, and each one has either succeeded or failed with the same exception that the
+ * equivalent single-item operation would have thrown.
+ *
+ * <p>A batch operation never stops at the first failure: every item is processed and reported.
+ *
+ */
+public class BatchReport {
+	private Exception[] failures;
+	private int failureCount;
+
+	/**
+	 * {@summary It creates a report in which every item has succeeded.}
+	 * @param size Specifies the number of items of the batch.
+	 */
+	BatchReport(int size) {
+		failures = new Exception[size];
+	}
+
+	/**
+	 * {@summary It records that an item has failed.}
+	 * @param index Specifies the position of the item in the batch.
+	 * @param cause Specifies the reason of the failure.
+	 */
+	void fail(int index, Exception cause) {
+		if(failures[index] == null) {
+			failureCount++;
+		}
+		failures[index] = cause;
+	}
+
+	/**
+	 * @return The number of items of the batch.
+	 */
+	public int size() {
+		return failures.length;
+	}
+
+	/**
+	 * @return The number of items that have succeeded.
+	 */
+	public int getSuccessCount() {
+		return failures.length - failureCount;
+	}
+
+	/**
+	 * @return The number of items that have failed.
+	 */
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * @param index Specifies the position of the item in the batch.
+	 * @return <strong>true</strong> if the item has succeeded and <strong>false</strong> otherwise.
+	 */
+	public boolean isSuccessful(int index) {
+		return failures[index] == null;
+	}
+
+	/**
+	 * @param index Specifies the position of the item in the batch.
+	 * @return The exception that explains why the item has failed, or <strong>null</strong> if it has succeeded.
+	 */
+	public Exception getFailure(int index) {
+		return failures[index];
+	}
+
+	/**
+	 * @return The failed items, in the order of the batch, mapped from their position to the reason of the failure.
+	 */
+	public Map<Integer, Exception> getFailures() {
+		Map<Integer, Exception> result = new LinkedHashMap<>();
+		for(int i = 0; i < failures.length; i++) {
+			if(failures[i] != null) {
+				result.put(i, failures[i]);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,404 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * This class publishes every change of another {@link InterfaceEnrollmentManager} to an {@link EnrollmentChangeFeed},
+ * so downstream systems can follow the deltas instead of polling and comparing the rosters.
+ *
+ * <p>Every mutation that succeeds on the wrapped manager publishes one event per change, including the students
+ * promoted from a waitlist when a seat is freed. New prerequisites are not published, since they change no roster
+ * and no record of a student. Publishing stores one event in the ring of the feed and never waits for the subscribers.
+ * Queries are not published and go straight to the wrapped manager, which must be thread-safe if this one is used by
+ * several threads, like a {@link ConcurrentEnrollmentManager}.
+ *
+ * <p>The events are ordered per course, not globally:
+ * <br><li> The mutations of a course hold one of {@value #STRIPES} course locks while they are applied and published,
+ * so the events of a course are published in the order in which its changes are applied, while other courses change
+ * and publish concurrently. Events of different courses may interleave in either order, even those of the same student:
+ * a student who cancels a course and enrolls in another at once may appear in both for a moment.
+ * <br><li> Registering students and completing courses hold an exclusive lock that stops every other mutation, so a student
+ * is published as registered before any event that refers to it, and a completion before the enrollments it allows.
+ * They are not expected to be frequent while students are enrolling.
+ *
+ */
+public class ChangeFeedEnrollmentManager implements InterfaceEnrollmentManager {
+	private final InterfaceEnrollmentManager delegate;
+	private final EnrollmentChangeFeed feed;
+	private static final int STRIPES = 64;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Object[] courseLocks = new Object[STRIPES];
+
+	/**
+	 * This constructor wraps a manager with a feed of {@value EnrollmentChangeFeed#DEFAULT_CAPACITY} events.
+	 * @param delegate Specifies the manager whose changes are published.
+	 */
+	public ChangeFeedEnrollmentManager(InterfaceEnrollmentManager delegate) {
+		this(delegate, new EnrollmentChangeFeed(EnrollmentChangeFeed.DEFAULT_CAPACITY));
+	}
+
+	/**
+	 * This constructor wraps a manager with a given feed, which must not be fed by anything else.
+	 * @param delegate Specifies the manager whose changes are published.
+	 * @param feed Specifies where the changes are published.
+	 */
+	public ChangeFeedEnrollmentManager(InterfaceEnrollmentManager delegate, EnrollmentChangeFeed feed) {
+		this.delegate = delegate;
+		this.feed = feed;
+		for(int i = 0; i < STRIPES; i++) {
+			courseLocks[i] = new Object();
+		}
+	}
+
+	/**
+	 * @return The feed where the changes are published, to subscribe to it.
+	 */
+	public EnrollmentChangeFeed getFeed() {
+		return feed;
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator) throws CourseAlreadyExistsException, CourseBlankInputException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(code)) {
+				delegate.registerCourse(code, name, coordinator);
+				feed.publish(EnrollmentEvent.Type.COURSE_REGISTERED, code, 0);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity) throws CourseAlreadyExistsException, CourseBlankInputException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(code)) {
+				delegate.registerCourse(code, name, coordinator, capacity);
+				feed.publish(EnrollmentEvent.Type.COURSE_REGISTERED, code, 0);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) throws CourseAlreadyExistsException, CourseBlankInputException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(code)) {
+				delegate.registerCourse(code, name, coordinator, capacity, timetable);
+				feed.publish(EnrollmentEvent.Type.COURSE_REGISTERED, code, 0);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public void registerStudent(int id, String name, String email) throws StudentAlreadyExistsException, StudentBlankInputException, EmailFormatException {
+		Lock exclusive = lock.writeLock();
+		exclusive.lock();
+		try {
+			delegate.registerStudent(id, name, email);
+			feed.publish(EnrollmentEvent.Type.STUDENT_REGISTERED, 0, id);
+		} finally {
+			exclusive.unlock();
+		}
+	}
+
+	@Override
+	public BatchReport registerStudents(Collection<Student> students) {
+		Lock exclusive = lock.writeLock();
+		exclusive.lock();
+		try {
+			BatchReport report = delegate.registerStudents(students);
+			int i = 0;
+			for(Student student : students) {
+				if(report.isSuccessful(i++)) {
+					feed.publish(EnrollmentEvent.Type.STUDENT_REGISTERED, 0, student.getId());
+				}
+			}
+			return report;
+		} finally {
+			exclusive.unlock();
+		}
+	}
+
+	@Override
+	public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				delegate.enroll(courseCode, studentId);
+				feed.publish(EnrollmentEvent.Type.ENROLLED, courseCode, studentId);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public EnrollmentOutcome tryEnroll(int courseCode, int studentId) {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				EnrollmentOutcome outcome = delegate.tryEnroll(courseCode, studentId);
+				if(outcome == EnrollmentOutcome.ENROLLED) {
+					feed.publish(EnrollmentEvent.Type.ENROLLED, courseCode, studentId);
+				}
+				return outcome;
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public BatchReport enrollAll(int courseCode, int[] studentIds) throws MissingCourseException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				BatchReport report = delegate.enrollAll(courseCode, studentIds);
+				for(int i = 0; i < studentIds.length; i++) {
+					if(report.isSuccessful(i)) {
+						feed.publish(EnrollmentEvent.Type.ENROLLED, courseCode, studentIds[i]);
+					}
+				}
+				return report;
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public boolean enrollOrWaitlist(int courseCode, int studentId) throws StudentAlreadyEnrolledException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				boolean enrolled = delegate.enrollOrWaitlist(courseCode, studentId);
+				feed.publish(enrolled ? EnrollmentEvent.Type.ENROLLED : EnrollmentEvent.Type.WAITLISTED, courseCode, studentId);
+				return enrolled;
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public List<Student> getWaitlist(int courseCode) throws MissingCourseException {
+		return delegate.getWaitlist(courseCode);
+	}
+
+	@Override
+	public void leaveWaitlist(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				delegate.leaveWaitlist(courseCode, studentId);
+				feed.publish(EnrollmentEvent.Type.LEFT_WAITLIST, courseCode, studentId);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public void addPrerequisite(int courseCode, int prerequisiteCode) throws MissingCourseException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				delegate.addPrerequisite(courseCode, prerequisiteCode);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public List<Course> getPrerequisites(int courseCode) throws MissingCourseException {
+		return delegate.getPrerequisites(courseCode);
+	}
+
+	@Override
+	public void completeCourse(int courseCode, int studentId) throws MissingStudentException, MissingCourseException {
+		Lock exclusive = lock.writeLock();
+		exclusive.lock();
+		try {
+			delegate.completeCourse(courseCode, studentId);
+			feed.publish(EnrollmentEvent.Type.COURSE_COMPLETED, courseCode, studentId);
+		} finally {
+			exclusive.unlock();
+		}
+	}
+
+	@Override
+	public List<Course> getCompletedCourses(int studentId) throws MissingStudentException {
+		return delegate.getCompletedCourses(studentId);
+	}
+
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		return delegate.getStudentsEnrolledInCourse(course);
+	}
+
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course, int afterId, int limit) throws MissingCourseException {
+		return delegate.getStudentsEnrolledInCourse(course, afterId, limit);
+	}
+
+	@Override
+	public Stream<Student> streamStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		return delegate.streamStudentsEnrolledInCourse(course);
+	}
+
+	@Override
+	public int getEnrollmentCount(int course) throws MissingCourseException {
+		return delegate.getEnrollmentCount(course);
+	}
+
+	@Override
+	public List<Course> getCoursesOfStudent(int studentId) throws MissingStudentException {
+		return delegate.getCoursesOfStudent(studentId);
+	}
+
+	@Override
+	public Student findStudentByEmail(String email) throws MissingStudentException {
+		return delegate.findStudentByEmail(email);
+	}
+
+	@Override
+	public void cancelEnrollment(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				List<Student> waiting = waitlistOf(courseCode);
+				delegate.cancelEnrollment(courseCode, studentId);
+				feed.publish(EnrollmentEvent.Type.CANCELLED, courseCode, studentId);
+				publishPromotions(courseCode, waiting);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public void restartCourse(int courseCode) throws MissingCourseException {
+		Lock shared = lock.readLock();
+		shared.lock();
+		try {
+			synchronized(courseLock(courseCode)) {
+				List<Student> waiting = waitlistOf(courseCode);
+				delegate.restartCourse(courseCode);
+				feed.publish(EnrollmentEvent.Type.COURSE_RESTARTED, courseCode, 0);
+				publishPromotions(courseCode, waiting);
+			}
+		} finally {
+			shared.unlock();
+		}
+	}
+
+	@Override
+	public Collection<Student> getStudents() {
+		return delegate.getStudents();
+	}
+
+	@Override
+	public Collection<Course> getCourses() {
+		return delegate.getCourses();
+	}
+
+	@Override
+	public List<Student> getStudents(int afterId, int limit) {
+		return delegate.getStudents(afterId, limit);
+	}
+
+	@Override
+	public List<Course> getCourses(int afterCode, int limit) {
+		return delegate.getCourses(afterCode, limit);
+	}
+
+	@Override
+	public Stream<Student> streamStudents() {
+		return delegate.streamStudents();
+	}
+
+	@Override
+	public Stream<Course> streamCourses() {
+		return delegate.streamCourses();
+	}
+
+	@Override
+	public void setLogVerbosity(LogVerbosity verbosity) {
+		delegate.setLogVerbosity(verbosity);
+	}
+
+	@Override
+	public LogVerbosity getLogVerbosity() {
+		return delegate.getLogVerbosity();
+	}
+
+	/**
+	 * @return The lock that orders the mutations of a course, shared with the courses whose codes are congruent modulo {@value #STRIPES}.
+	 */
+	private Object courseLock(int courseCode) {
+		return courseLocks[courseCode & (STRIPES - 1)];
+	}
+
+	/**
+	 * @return The waitlist of a course before a seat is freed, or an empty list if the course is not registered,
+	 * so that the mutation itself reports the missing course.
+	 */
+	private List<Student> waitlistOf(int courseCode) {
+		try {
+			return delegate.getWaitlist(courseCode);
+		} catch (MissingCourseException e) {
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * {@summary It publishes the enrollment of the students promoted from a waitlist.} Must be called while holding the lock of the course.
+	 * Students are taken from the head of the waitlist, so they are the first ones that are no longer waiting. Those that
+	 * were not enrolled have been dropped because of a schedule conflict, and are published as leaving the waitlist.
+	 * @param waiting Specifies the waitlist of the course before the seats were freed.
+	 */
+	private void publishPromotions(int courseCode, List<Student> waiting) {
+		if(waiting.isEmpty()) {
+			return;
+		}
+		int taken;
+		List<Student> roster;
+		try {
+			taken = waiting.size() - delegate.getWaitlist(courseCode).size();
+			roster = delegate.getStudentsEnrolledInCourse(courseCode);
+		} catch (MissingCourseException e) {
+			throw new IllegalStateException("The course " + courseCode + " disappeared after a successful operation.", e);
+		}
+		for(int i = 0; i < taken; i++) {
+			int studentId = waiting.get(i).getId();
+			boolean enrolled = Collections.binarySearch(roster, waiting.get(i), Comparator.comparingInt(Student::getId)) >= 0;
+			feed.publish(enrolled ? EnrollmentEvent.Type.ENROLLED : EnrollmentEvent.Type.LEFT_WAITLIST, courseCode, studentId);
+		}
+	}
+}
@@ -0,0 +1,861 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The ConcurrentEnrollmentManager class is a thread-safe implementation of {@link InterfaceEnrollmentManager}.
+ * It offers the same operations and the same error conditions as {@link EnrollmentManager}, but it can be
+ * shared by any number of threads without external synchronization.
+ *
+ * <p>Courses and students are kept in concurrent skip lists, so registrations never block each other and
+ * the listings are still sorted by their identifiers. Each course has its own roster, and every operation
+ * that modifies a roster locks only that roster. This way, enrollments into different courses
+ * proceed in parallel, while the capacity of a course and the uniqueness of an enrollment are still
+ * guaranteed when several threads work on the same course. Rosters are copy-on-write, so queries read
+ * the latest published version of a roster without locking it and never delay its writers.
+ *
+ */
+public class ConcurrentEnrollmentManager implements InterfaceEnrollmentManager {
+    private ConcurrentNavigableMap<Integer, Course> courses;
+    private ConcurrentNavigableMap<Integer, Student> students;
+    private ConcurrentMap<String, Integer> studentsByEmail;
+    private ConcurrentMap<Integer, SortedIntSet> enrollment;
+    private ConcurrentMap<Integer, SortedIntSet> coursesOfStudent;
+    private ConcurrentMap<Integer, LinkedHashSet<Integer>> waitlists;
+    private ConcurrentMap<Integer, Timetable> schedules;
+    private PrerequisiteGraph prerequisites;
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentEnrollmentManager.class);
+
+    private static final String MSG_NOT_REGISTERED = "{} was not registered in the system.";
+
+    private volatile LogVerbosity verbosity;
+
+    /**
+     * This constructor creates an object of type ConcurrentEnrollmentManager that will take care of managing the database.
+     * It logs with {@link LogVerbosity#SUMMARY} verbosity, since it never logs the intermediate steps of the operations.
+     *
+     */
+    public ConcurrentEnrollmentManager() {
+        courses = new ConcurrentSkipListMap<>();
+        students = new ConcurrentSkipListMap<>();
+        studentsByEmail = new ConcurrentHashMap<>();
+        enrollment = new ConcurrentHashMap<>();
+        coursesOfStudent = new ConcurrentHashMap<>();
+        waitlists = new ConcurrentHashMap<>();
+        schedules = new ConcurrentHashMap<>();
+        prerequisites = new PrerequisiteGraph();
+        verbosity = LogVerbosity.SUMMARY;
+    }
+
+    /**
+     * {@summary It changes how much the manager writes to its log.}
+     * <p>{@link LogVerbosity#FULL} behaves like {@link LogVerbosity#SUMMARY}, because rosters are never dumped by this manager.
+     * @param verbosity Specifies the new verbosity.
+     */
+    public void setLogVerbosity(LogVerbosity verbosity) {
+        this.verbosity = verbosity;
+    }
+
+    /**
+     * @return The verbosity with which the manager is currently logging.
+     */
+    public LogVerbosity getLogVerbosity() {
+        return verbosity;
+    }
+
+    /**
+     * {@summary It registers a new course.}
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @throws CourseAlreadyExistsException when the course's code is already registered in the database.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code is not a positive integer.
+     */
+    public void registerCourse(int code, String name, String coordinator) throws CourseAlreadyExistsException, CourseBlankInputException {
+        registerCourse(code, name, coordinator, Course.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * {@summary It registers a new course with a given capacity.}
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @throws CourseAlreadyExistsException when the course's code is already registered in the database.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     */
+    public void registerCourse(int code, String name, String coordinator, int capacity) throws CourseAlreadyExistsException, CourseBlankInputException {
+        registerCourse(code, name, coordinator, capacity, Timetable.EMPTY);
+    }
+
+    /**
+     * {@summary It registers a new course with a given capacity and weekly meetings.}
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @param timetable Specifies when the course meets every week. Students cannot be enrolled in it and in another course that meets at the same time.
+     * @throws CourseAlreadyExistsException when the course's code is already registered in the database.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     */
+    public void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) throws CourseAlreadyExistsException, CourseBlankInputException {
+        Course course = new Course(code, name, coordinator, capacity, timetable);
+        // The roster and the waitlist are published before the course, so any thread that finds the course also finds them.
+        enrollment.putIfAbsent(code, new SortedIntSet());
+        waitlists.putIfAbsent(code, new LinkedHashSet<>());
+        if(courses.putIfAbsent(code, course) != null) {
+            if(logRejections()) {
+                logger.error("\n--CourseAlreadyExistsException(): Can't register course. Course with code: {} already registered in the system.", code);
+            }
+            throw new CourseAlreadyExistsException();
+        }
+        if(logEvents()) {
+            logger.info("\n--Course {} successfully registered in the system.", code);
+        }
+    }
+
+    /**
+     * {@summary It registers a new student.}
+     * @param id Specifies the unique student identifier. Must be a positive integer.
+     * @param name Specifies the student's name.
+     * @param email Specifies the student's e-mail address. It must contain a '@' and cannot end with a '.'.
+     * @throws StudentAlreadyExistsException when the student's id or e-mail is already registered in the database.
+     * @throws StudentBlankInputException when any of the input parameters are blank or null or the id is not a positive integer.
+     * @throws EmailFormatException when the email ends with a '.' or does not contain '@'.
+     */
+    public void registerStudent(int id, String name, String email) throws StudentAlreadyExistsException, StudentBlankInputException, EmailFormatException {
+        Student student = new Student(id, name, email);
+        if(!register(student)) {
+            if(logRejections()) {
+                logger.error("\n--StudentAlreadyExistsException(): Can't register student. Student with identification: {} or e-mail: {} already registered in the system.", id, email);
+            }
+            throw new StudentAlreadyExistsException();
+        }
+        if(logEvents()) {
+            logger.info("\n--Student {} successfully registered in the system.", id);
+        }
+    }
+
+    /**
+     * {@summary It registers several students at once.}
+     * Each student is registered atomically, so the batch may interleave with registrations made by other threads.
+     * An item fails with the same exception that {@link #registerStudent(int, String, String)} would throw:
+     * <br><li> {@code StudentBlankInputException} when the item is null.
+     * <br><li> {@code StudentAlreadyExistsException} when the student's id or e-mail is already registered, or appears earlier in the batch.
+     * @param newStudents Specifies the students to register.
+     * @return A report with the outcome of every student, in the iteration order of the collection.
+     */
+    public BatchReport registerStudents(Collection<Student> newStudents) {
+        BatchReport report = new BatchReport(newStudents.size());
+        int index = 0;
+        for(Student student : newStudents) {
+            if(student == null) {
+                report.fail(index, new StudentBlankInputException());
+            } else if(!register(student)) {
+                report.fail(index, new StudentAlreadyExistsException());
+            }
+            index++;
+        }
+        if(logEvents()) {
+            logger.info("\n--{} of {} students successfully registered in the system.", report.getSuccessCount(), report.size());
+        }
+        return report;
+    }
+
+    /**
+     * {@summary It enrolls a student in a course.}
+     * <p>Only the roster of the given course is locked, so enrollments into other courses are not delayed.
+     * @param courseCode Specifies the unique course identifier of an already registered course.
+     * @param studentId Specifies the unique student identifier of an already registered student.
+     * @throws StudentAlreadyEnrolledException when the student is already enrolled in the course.
+     * @throws FullCourseException when the capacity of the course is already filled.
+     * @throws MissingPrerequisiteException when the student has not completed all the prerequisites of the course, direct or not.
+     * @throws ScheduleConflictException when the course meets at the same time as another course of the student.
+     * @throws MissingStudentException when the student's unique identifier is not registered in the database.
+     * @throws MissingCourseException  when the course's unique code is not registered in the database.
+     */
+    public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+        EnrollmentOutcome outcome = tryEnroll(courseCode, studentId);
+        if(outcome != EnrollmentOutcome.ENROLLED) {
+            outcome.raise(courses.get(courseCode));
+        }
+    }
+
+    /**
+     * {@summary It enrolls a student in a course, reporting a rejection as a result instead of an exception.}
+     * <p>Only the roster of the given course is locked, and a rejection creates no exception, so the threads that
+     * keep trying a full course spend little time in it.
+     * @param courseCode Specifies the unique course identifier.
+     * @param studentId Specifies the unique student identifier.
+     * @return {@link EnrollmentOutcome#ENROLLED} if the student has been enrolled, or the reason of the rejection otherwise.
+     */
+    public EnrollmentOutcome tryEnroll(int courseCode, int studentId) {
+        if(students.get(studentId) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't enroll student. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            return EnrollmentOutcome.MISSING_STUDENT;
+        }
+        Course course = courses.get(courseCode);
+        if(course == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): Can't enroll student. Course " + MSG_NOT_REGISTERED, courseCode);
+            }
+            return EnrollmentOutcome.MISSING_COURSE;
+        }
+        SortedIntSet studentsEnrolled = enrollment.get(courseCode);
+        int capacity = course.getCapacity();
+        synchronized(studentsEnrolled) {
+            if(studentsEnrolled.size() >= capacity) {
+                if(logRejections()) {
+                    logger.error("\n--FullCourseException(): Can't enroll the student {}. There are already {} students enrolled in {}.", studentId, capacity, courseCode);
+                }
+                return EnrollmentOutcome.COURSE_FULL;
+            }
+            if(studentsEnrolled.contains(studentId)) {
+                if(logRejections()) {
+                    logger.error("\n--StudentAlreadyEnrolledException(): Can't enroll student. Student already enrolled in the course.");
+                }
+                return EnrollmentOutcome.ALREADY_ENROLLED;
+            }
+            if(!prerequisites.isQualified(studentId, courseCode)) {
+                if(logRejections()) {
+                    logger.error("\n--MissingPrerequisiteException(): Can't enroll the student {}. The student has not completed all the prerequisites of the course {}.", studentId, courseCode);
+                }
+                return EnrollmentOutcome.MISSING_PREREQUISITE;
+            }
+            if(!addCourseOfStudent(studentId, course)) {
+                if(logRejections()) {
+                    logger.error("\n--ScheduleConflictException(): Can't enroll the student {}. The course {} meets at the same time as another course of the student.", studentId, courseCode);
+                }
+                return EnrollmentOutcome.SCHEDULE_CONFLICT;
+            }
+            studentsEnrolled.add(studentId);
+        }
+        if(logEvents()) {
+            logger.info("\n--Student {} successfully enrolled in course {}.", studentId, courseCode);
+        }
+        return EnrollmentOutcome.ENROLLED;
+    }
+
+    /**
+     * {@summary It enrolls several students in a course at once.}
+     * <p>The roster of the course is locked once for the whole batch, and the accepted students are merged into it in a single pass.
+     * An item fails with the same exception that {@link #enroll(int, int)} would throw:
+     * <br><li> {@code MissingStudentException} when the student is not registered.
+     * <br><li> {@code StudentAlreadyEnrolledException} when the student is already enrolled, or appears earlier in the batch.
+     * <br><li> {@code FullCourseException} when the remaining seats have been taken by earlier items of the batch.
+     * <br><li> {@code MissingPrerequisiteException} when the student has not completed all the prerequisites of the course.
+     * <br><li> {@code ScheduleConflictException} when the course meets at the same time as another course of the student.
+     * @param courseCode Specifies the unique course identifier of an already registered course.
+     * @param studentIds Specifies the students to enroll, in order of priority.
+     * @return A report with the outcome of every student, in the order of the array.
+     * @throws MissingCourseException when the course's unique code is not registered in the database.
+     */
+    public BatchReport enrollAll(int courseCode, int[] studentIds) throws MissingCourseException {
+        SortedIntSet studentsEnrolled = getRoster(courseCode, "\n--MissingCourseException(): Can't enroll students. Course ");
+        BatchReport report = new BatchReport(studentIds.length);
+        Course course = courses.get(courseCode);
+        synchronized(studentsEnrolled) {
+            int[] accepted = BatchEnrollment.select(studentIds, studentsEnrolled, course.getCapacity(), students::containsKey, id -> prerequisites.isQualified(id, courseCode), id -> addCourseOfStudent(id, course), report);
+            studentsEnrolled.addAllSorted(accepted);
+        }
+        if(logEvents()) {
+            logger.info("\n--{} of {} students successfully enrolled in course {}.", report.getSuccessCount(), report.size(), courseCode);
+        }
+        return report;
+    }
+
+    /**
+     * {@summary It returns the sorted list of students enrolled in a course.}
+     * <p>The roster is copy-on-write, so the latest version published by a writer is returned without taking the roster's
+     * lock and without copying it. Readers never wait for writers, and the returned list is not affected by later changes.
+     * @param course Specifies the course's unique code.
+     * @returns List<Students> when the course is registered in the system. This list is sorted by their identifiers in an ascending order.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public List<Student> getStudentsEnrolledInCourse(int course) throws MissingCourseException {
+        SortedIntSet studentsEnrolled = getRoster(course, "\n--MissingCourseException(): Can't get the students enrolled in the course. Course ");
+        List<Student> roster = studentsEnrolled.asList(students::get);
+        if(logEvents()) {
+            logger.info("\n--Students enrolled in course {} have been successfully obtained: {} students.", course, roster.size());
+        }
+        return roster;
+    }
+
+    /**
+     * {@summary It returns a page of the sorted list of students enrolled in a course.}
+     * <p>Like the whole roster, the page is taken from the latest published version of the roster without locking it.
+     * @param course Specifies the course's unique code.
+     * @param afterId Specifies the identifier after which the page starts. Use 0 for the first page.
+     * @param limit Specifies the maximum number of students of the page. Must be a positive integer.
+     * @returns List<Student> with the first students enrolled in the course whose identifier is greater than {@code afterId}, sorted by their identifiers in an ascending order.
+     * @throws MissingCourseException when the course is not registered in the system.
+     * @throws IllegalArgumentException when the limit is not a positive integer.
+     */
+    public List<Student> getStudentsEnrolledInCourse(int course, int afterId, int limit) throws MissingCourseException {
+        Pages.checkLimit(limit);
+        SortedIntSet studentsEnrolled = getRoster(course, "\n--MissingCourseException(): Can't get the students enrolled in the course. Course ");
+        List<Student> page = studentsEnrolled.page(afterId, limit, students::get);
+        if(logEvents()) {
+            logger.info("\n--Page of {} students enrolled in course {} after {} successfully obtained.", page.size(), course, afterId);
+        }
+        return page;
+    }
+
+    /**
+     * {@summary It returns a stream over the students enrolled in a course.}
+     * @param course Specifies the course's unique code.
+     * @returns Stream<Student> over the latest published version of the roster, sorted by their identifiers in an ascending order. It can be run in parallel.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public Stream<Student> streamStudentsEnrolledInCourse(int course) throws MissingCourseException {
+        SortedIntSet studentsEnrolled = getRoster(course, "\n--MissingCourseException(): Can't stream the students enrolled in the course. Course ");
+        return studentsEnrolled.stream(students::get);
+    }
+
+    /**
+     * {@summary It returns the number of students enrolled in a course, without listing them.}
+     * <p>The size of the latest published version of the roster is read without locking it. Nothing is logged unless
+     * the course is missing, so the call can be used to poll the size of the rosters.
+     * @param course Specifies the course's unique code.
+     * @returns int with the size of the course's roster.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public int getEnrollmentCount(int course) throws MissingCourseException {
+        return getRoster(course, "\n--MissingCourseException(): Can't count the students enrolled in the course. Course ").size();
+    }
+
+    /**
+     * {@summary It returns the sorted list of courses in which a student is enrolled.}
+     * <p>Like the rosters, the student's index entry is copy-on-write, so it is read without locking and the returned list is not affected by later changes.
+     * @param studentId Specifies the student's unique identifier.
+     * @returns List<Course> when the student is registered in the system. This list is sorted by the courses' codes in an ascending order.
+     * @throws MissingStudentException when the student is not registered in the system.
+     */
+    public List<Course> getCoursesOfStudent(int studentId) throws MissingStudentException {
+        SortedIntSet enrolledCourses = students.containsKey(studentId) ? coursesOfStudent.get(studentId) : null;
+        if(enrolledCourses == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't get the courses of the student. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        List<Course> enrolled = enrolledCourses.asList(courses::get);
+        if(logEvents()) {
+            logger.info("\n--The student {} is enrolled in {} courses.", studentId, enrolled.size());
+        }
+        return enrolled;
+    }
+
+    /**
+     * {@summary It returns the student registered with an e-mail address.}
+     * @param email Specifies the student's e-mail address.
+     * @returns Student when some student is registered with that address.
+     * @throws MissingStudentException when no student is registered with that address, or it is null.
+     */
+    public Student findStudentByEmail(String email) throws MissingStudentException {
+        Integer id = email == null ? null : studentsByEmail.get(Student.normalizeEmail(email));
+        Student student = id == null ? null : students.get(id);
+        if(student == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't find student. Student with e-mail: {} was not registered in the system.", email);
+            }
+            throw new MissingStudentException();
+        }
+        if(logEvents()) {
+            logger.info("\n--Student with e-mail: {} successfully found: {}.", email, id);
+        }
+        return student;
+    }
+
+    /**
+     * {@summary It cancels a student's enrollment in a course.}
+     * The seat is given to the first student of the course's waitlist, if any, before the roster's lock is released.
+     * @param courseCode Specifies the course's unique code.
+     * @param studentId Specifies the student's unique identifier.
+     * @throws StudentNotEnrolledException when the student is not enrolled in the course.
+     * @throws MissingStudentException when the student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public void cancelEnrollment(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+        if(students.get(studentId) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't cancel enrollment. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        SortedIntSet enrolled = getRoster(courseCode, "\n--MissingCourseException(): Can't cancel enrollment. Course ");
+        synchronized(enrolled) {
+            if(!enrolled.remove(studentId)) {
+                if(logRejections()) {
+                    logger.error("\n--StudentNotEnrolledException(): Can't cancel enrollment. Student: {} was not enrolled in the course: {}.", studentId, courseCode);
+                }
+                throw new StudentNotEnrolledException();
+            }
+            removeCourseOfStudent(studentId, courses.get(courseCode));
+            promote(courseCode, enrolled);
+        }
+        if(logEvents()) {
+            logger.info("\n--The student's ({}) enrollment in the course ({}) has been sucessfully cancelled.", studentId, courseCode);
+        }
+    }
+
+    /**
+     * {@summary It restarts a course, canceling any active enrollments in that course at the moment of the call.}
+     * The freed seats are then given to the first students of the course's waitlist, in order.
+     * @param courseCode Specifies the course's unique code.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public void restartCourse(int courseCode) throws MissingCourseException {
+        SortedIntSet enrolled = getRoster(courseCode, "\n--MissingCourseException(): Can't restart course. Course ");
+        synchronized(enrolled) {
+            Course course = courses.get(courseCode);
+            for(int studentId : enrolled.version()) {
+                removeCourseOfStudent(studentId, course);
+            }
+            enrolled.clear();
+            promote(courseCode, enrolled);
+        }
+        if(logEvents()) {
+            logger.info("\n--The course {} has been successfully restarted.", courseCode);
+        }
+    }
+
+    /**
+     * {@summary It makes a course a direct prerequisite of another one.}
+     * <p>The prerequisites are kept apart from the rosters, so no roster is locked. Enrollments that are already
+     * being checked may not see the new prerequisite, but every enrollment that starts afterwards does.
+     * @param courseCode Specifies the unique code of the course that requires the prerequisite.
+     * @param prerequisiteCode Specifies the unique code of the course that must be completed before.
+     * @throws MissingCourseException when either course is not registered in the system.
+     * @throws IllegalArgumentException when the course is already a prerequisite of the prerequisite, directly or not, or both are the same course.
+     */
+    public void addPrerequisite(int courseCode, int prerequisiteCode) throws MissingCourseException {
+        getRoster(courseCode, "\n--MissingCourseException(): Can't add the prerequisite. Course ");
+        getRoster(prerequisiteCode, "\n--MissingCourseException(): Can't add the prerequisite. Course ");
+        if(!prerequisites.add(courseCode, prerequisiteCode)) {
+            if(logRejections()) {
+                logger.error("\n--IllegalArgumentException(): Can't add the prerequisite. Course {} is already a prerequisite of course {}.", courseCode, prerequisiteCode);
+            }
+            throw new IllegalArgumentException("The course " + courseCode + " is already a prerequisite of the course " + prerequisiteCode + ".");
+        }
+        if(logEvents()) {
+            logger.info("\n--Course {} successfully added as a prerequisite of course {}.", prerequisiteCode, courseCode);
+        }
+    }
+
+    /**
+     * @param courseCode Specifies the course's unique code.
+     * @return The direct prerequisites of the course, sorted by their codes in an ascending order.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public List<Course> getPrerequisites(int courseCode) throws MissingCourseException {
+        getRoster(courseCode, "\n--MissingCourseException(): Can't get the prerequisites. Course ");
+        return SortedIntSet.asList(prerequisites.prerequisitesOf(courseCode), courses::get);
+    }
+
+    /**
+     * {@summary It records that a student has completed a course, so that it counts as a prerequisite for the student.}
+     * <p>The student does not need to be enrolled in the course, and no roster is locked.
+     * @param courseCode Specifies the course's unique code.
+     * @param studentId Specifies the student's unique identifier.
+     * @throws MissingStudentException when the student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public void completeCourse(int courseCode, int studentId) throws MissingStudentException, MissingCourseException {
+        if(students.get(studentId) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't complete the course. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        getRoster(courseCode, "\n--MissingCourseException(): Can't complete the course. Course ");
+        prerequisites.complete(studentId, courseCode);
+        if(logEvents()) {
+            logger.info("\n--Student {} successfully recorded as having completed course {}.", studentId, courseCode);
+        }
+    }
+
+    /**
+     * @param studentId Specifies the student's unique identifier.
+     * @return The courses completed by the student, sorted by their codes in an ascending order.
+     * @throws MissingStudentException when the student is not registered in the system.
+     */
+    public List<Course> getCompletedCourses(int studentId) throws MissingStudentException {
+        if(students.get(studentId) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't get the completed courses of the student. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        return SortedIntSet.asList(prerequisites.completedBy(studentId), courses::get);
+    }
+
+    /**
+     * {@summary It enrolls a student in a course, or adds the student to the end of the course's waitlist if the course is full.}
+     * <p>The waitlist is guarded by the roster's lock, so a student is never waitlisted while a seat is free. A waitlisted
+     * student who has meanwhile been enrolled in a course that meets at the same time, or who lacks a prerequisite added meanwhile,
+     * is removed from the waitlist when a seat is freed.
+     * @param courseCode Specifies the unique course identifier of an already registered course.
+     * @param studentId Specifies the unique student identifier of an already registered student.
+     * @return <strong>true</strong> if the student has been enrolled, or <strong>false</strong> if the student has been waitlisted.
+     * @throws StudentAlreadyEnrolledException when the student is already enrolled in the course or waiting for it.
+     * @throws MissingPrerequisiteException when the student has not completed all the prerequisites of the course, direct or not.
+     * @throws ScheduleConflictException when the course meets at the same time as another course of the student.
+     * @throws MissingStudentException when the student's unique identifier is not registered in the database.
+     * @throws MissingCourseException when the course's unique code is not registered in the database.
+     */
+    public boolean enrollOrWaitlist(int courseCode, int studentId) throws StudentAlreadyEnrolledException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+        if(students.get(studentId) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't enroll student. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        SortedIntSet studentsEnrolled = getRoster(courseCode, "\n--MissingCourseException(): Can't enroll student. Course ");
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        boolean enrolled;
+        synchronized(studentsEnrolled) {
+            if(studentsEnrolled.contains(studentId) || waitlist.contains(studentId)) {
+                if(logRejections()) {
+                    logger.error("\n--StudentAlreadyEnrolledException(): Can't enroll student. Student already enrolled in the course or waiting for it.");
+                }
+                throw new StudentAlreadyEnrolledException();
+            }
+            if(!prerequisites.isQualified(studentId, courseCode)) {
+                if(logRejections()) {
+                    logger.error("\n--MissingPrerequisiteException(): Can't enroll the student {}. The student has not completed all the prerequisites of the course {}.", studentId, courseCode);
+                }
+                throw new MissingPrerequisiteException();
+            }
+            Course course = courses.get(courseCode);
+            enrolled = studentsEnrolled.size() < course.getCapacity();
+            if(enrolled ? !addCourseOfStudent(studentId, course) : conflicts(studentId, course)) {
+                if(logRejections()) {
+                    logger.error("\n--ScheduleConflictException(): Can't enroll the student {}. The course {} meets at the same time as another course of the student.", studentId, courseCode);
+                }
+                throw new ScheduleConflictException();
+            }
+            if(enrolled) {
+                studentsEnrolled.add(studentId);
+            } else {
+                waitlist.add(studentId);
+            }
+        }
+        if(logEvents()) {
+            logger.info(enrolled ? "\n--Student {} successfully enrolled in course {}." : "\n--Student {} added to the waitlist of course {}.", studentId, courseCode);
+        }
+        return enrolled;
+    }
+
+    /**
+     * {@summary It returns the students waiting for a seat in a course, in the order in which they will be enrolled.}
+     * @param courseCode Specifies the course's unique code.
+     * @return A copy of the waitlist taken while holding the roster's lock, so it is not affected by later changes.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public List<Student> getWaitlist(int courseCode) throws MissingCourseException {
+        SortedIntSet studentsEnrolled = getRoster(courseCode, "\n--MissingCourseException(): Can't get the waitlist. Course ");
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        int[] ids;
+        synchronized(studentsEnrolled) {
+            ids = new int[waitlist.size()];
+            int i = 0;
+            for(int id : waitlist) {
+                ids[i++] = id;
+            }
+        }
+        return SortedIntSet.asList(ids, students::get);
+    }
+
+    /**
+     * {@summary It appends students to the waitlist of a course as they were saved, without the checks of {@link #enrollOrWaitlist(int, int)}.}
+     * Used by {@link EnrollmentSnapshot} to restore a waitlist whose students have meanwhile been enrolled in courses that meet
+     * at the same time, which {@link #enrollOrWaitlist(int, int)} would reject. Such students are dropped when the seat is freed.
+     * @param courseCode Specifies the course's unique code.
+     * @param studentIds Specifies the students to append, in waitlist order.
+     * @throws StudentAlreadyEnrolledException when a student is already enrolled in the course or waiting for it.
+     * @throws MissingStudentException when a student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    void restoreWaitlist(int courseCode, int[] studentIds) throws StudentAlreadyEnrolledException, MissingStudentException, MissingCourseException {
+        SortedIntSet studentsEnrolled = getRoster(courseCode, "\n--MissingCourseException(): Can't restore the waitlist. Course ");
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        synchronized(studentsEnrolled) {
+            for(int studentId : studentIds) {
+                if(students.get(studentId) == null) {
+                    throw new MissingStudentException();
+                }
+                if(studentsEnrolled.contains(studentId) || !waitlist.add(studentId)) {
+                    throw new StudentAlreadyEnrolledException();
+                }
+            }
+        }
+    }
+
+    /**
+     * {@summary It removes a student from the waitlist of a course.}
+     * @param courseCode Specifies the course's unique code.
+     * @param studentId Specifies the student's unique identifier.
+     * @throws StudentNotEnrolledException when the student is not waiting for the course.
+     * @throws MissingStudentException when the student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public void leaveWaitlist(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+        if(students.get(studentId) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't leave the waitlist. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        SortedIntSet studentsEnrolled = getRoster(courseCode, "\n--MissingCourseException(): Can't leave the waitlist. Course ");
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        synchronized(studentsEnrolled) {
+            if(!waitlist.remove(studentId)) {
+                if(logRejections()) {
+                    logger.error("\n--StudentNotEnrolledException(): Can't leave the waitlist. Student: {} was not waiting for the course: {}.", studentId, courseCode);
+                }
+                throw new StudentNotEnrolledException();
+            }
+        }
+        if(logEvents()) {
+            logger.info("\n--Student {} removed from the waitlist of course {}.", studentId, courseCode);
+        }
+    }
+
+    /**
+     * {@summary It returns a list containing all registered students in the system at the moment of the call.}
+     * <p>The collection is a weakly consistent view: it never fails while other threads register students.
+     */
+    public Collection<Student> getStudents() {
+        if(logEvents()) {
+            logger.info("\n--Students successfully obtained.");
+        }
+        return students.values();
+    }
+
+    /**
+     * {@summary It returns a list containing all registered courses in the system at the moment of the call.}
+     * <p>The collection is a weakly consistent view: it never fails while other threads register courses.
+     */
+    public Collection<Course> getCourses() {
+        if(logEvents()) {
+            logger.info("\n--Courses successfully obtained.");
+        }
+        return courses.values();
+    }
+
+    /**
+     * {@summary It returns a page of the registered students, sorted by their identifiers.}
+     * <p>The skip list seeks to {@code afterId}, so the cost of the call does not depend on how many pages come before it.
+     * The page is weakly consistent, like {@link #getStudents()}.
+     * @param afterId Specifies the identifier after which the page starts. Use 0 for the first page, and the identifier of the last student of a page for the next one.
+     * @param limit Specifies the maximum number of students of the page. Must be a positive integer.
+     * @return The first registered students whose identifier is greater than {@code afterId}, in ascending order.
+     * @throws IllegalArgumentException when the limit is not a positive integer.
+     */
+    public List<Student> getStudents(int afterId, int limit) {
+        List<Student> page = Pages.first(students.tailMap(afterId, false).values().iterator(), limit);
+        if(logEvents()) {
+            logger.info("\n--Page of {} students after {} successfully obtained.", page.size(), afterId);
+        }
+        return page;
+    }
+
+    /**
+     * {@summary It returns a page of the registered courses, sorted by their codes.}
+     * <p>The page is weakly consistent, like {@link #getCourses()}.
+     * @param afterCode Specifies the code after which the page starts. Use 0 for the first page, and the code of the last course of a page for the next one.
+     * @param limit Specifies the maximum number of courses of the page. Must be a positive integer.
+     * @return The first registered courses whose code is greater than {@code afterCode}, in ascending order.
+     * @throws IllegalArgumentException when the limit is not a positive integer.
+     */
+    public List<Course> getCourses(int afterCode, int limit) {
+        List<Course> page = Pages.first(courses.tailMap(afterCode, false).values().iterator(), limit);
+        if(logEvents()) {
+            logger.info("\n--Page of {} courses after {} successfully obtained.", page.size(), afterCode);
+        }
+        return page;
+    }
+
+    /**
+     * @return A weakly consistent stream over the registered students, sorted by their identifiers. It can be run in parallel without copying the students into a list.
+     */
+    public Stream<Student> streamStudents() {
+        return students.values().stream();
+    }
+
+    /**
+     * @return A weakly consistent stream over the registered courses, sorted by their codes. It can be run in parallel without copying the courses into a list.
+     */
+    public Stream<Course> streamCourses() {
+        return courses.values().stream();
+    }
+
+    /**
+     * {@summary It registers a student whose identifier and e-mail are both free.}
+     * <p>The e-mail is reserved first. If the identifier turns out to be taken, the reservation is released,
+     * so a concurrent registration with the same e-mail may be rejected while it is held.
+     * @param student Specifies the student to register.
+     * @return False, leaving the manager unchanged, if the identifier or the e-mail is already registered.
+     */
+    private boolean register(Student student) {
+        int id = student.getId();
+        String email = Student.normalizeEmail(student.getEmailAddress());
+        if(students.containsKey(id) || studentsByEmail.putIfAbsent(email, id) != null) {
+            return false;
+        }
+        // The index entry is published before the student, as the roster is published before its course.
+        coursesOfStudent.putIfAbsent(id, new SortedIntSet());
+        if(students.putIfAbsent(id, student) != null) {
+            studentsByEmail.remove(email, id);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@summary It returns the roster of a registered course.}
+     * @param courseCode Specifies the course's unique code.
+     * @param msgError Specifies the beginning of the message logged when the course is missing.
+     * @return The live roster of the course. It must only be modified while holding its lock.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    private SortedIntSet getRoster(int courseCode, String msgError) throws MissingCourseException {
+        SortedIntSet roster = courses.containsKey(courseCode) ? enrollment.get(courseCode) : null;
+        if(roster == null) {
+            if(logRejections()) {
+                logger.error(msgError + MSG_NOT_REGISTERED, courseCode);
+            }
+            throw new MissingCourseException();
+        }
+        return roster;
+    }
+
+    /**
+     * @return <strong>true</strong> if the outcome of the successful operations must be logged.
+     */
+    private boolean logEvents() {
+        return verbosity != LogVerbosity.QUIET && !QuietScope.isActive() && logger.isInfoEnabled();
+    }
+
+    /**
+     * @return <strong>true</strong> if the rejected operations must be logged.
+     */
+    private boolean logRejections() {
+        return verbosity != LogVerbosity.QUIET && !QuietScope.isActive() && logger.isErrorEnabled();
+    }
+
+    /**
+     * {@summary It enrolls the first students of a course's waitlist in its free seats.}
+     * <p>It is called while holding the course's roster lock, which also guards the waitlist. The students whose timetable
+     * has meanwhile come to overlap the course's, or who lack a prerequisite added meanwhile, are removed from the waitlist without a seat.
+     * @param courseCode Specifies the course's unique code.
+     * @param studentsEnrolled Specifies the roster of the course.
+     */
+    private void promote(int courseCode, SortedIntSet studentsEnrolled) {
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        if(waitlist.isEmpty()) {
+            return;
+        }
+        Course course = courses.get(courseCode);
+        int[] promoted = new int[Math.min(waitlist.size(), course.getCapacity() - studentsEnrolled.size())];
+        int count = 0;
+        int dropped = 0;
+        Iterator<Integer> it = waitlist.iterator();
+        while(count < promoted.length && it.hasNext()) {
+            int studentId = it.next();
+            it.remove();
+            if(prerequisites.isQualified(studentId, courseCode) && addCourseOfStudent(studentId, course)) {
+                promoted[count++] = studentId;
+            } else {
+                dropped++;
+            }
+        }
+        promoted = Arrays.copyOf(promoted, count);
+        Arrays.sort(promoted);
+        studentsEnrolled.addAllSorted(promoted);
+        if(logEvents()) {
+            logger.info("\n--{} students of the waitlist successfully enrolled in course {}.", promoted.length, courseCode);
+            if(dropped > 0) {
+                logger.info("\n--{} students removed from the waitlist of course {} because of a schedule conflict or a missing prerequisite.", dropped, courseCode);
+            }
+        }
+    }
+
+    /**
+     * {@summary It records that a student has been enrolled in a course, unless it meets at the same time as another course of the student.}
+     * <p>It is called while holding the course's roster lock. The student's entry is always locked after a roster,
+     * never the other way round, so both locks can be nested without deadlocks. The entry also guards the student's
+     * timetable, so two courses that meet at the same time cannot be added by two threads that lock different rosters.
+     * @param studentId Specifies the student's unique identifier.
+     * @param course Specifies the course, in which the student is not enrolled.
+     * @return <strong>true</strong> if the course has been added and <strong>false</strong>, changing nothing, if it conflicts.
+     */
+    private boolean addCourseOfStudent(int studentId, Course course) {
+        SortedIntSet enrolledCourses = coursesOfStudent.get(studentId);
+        Timetable timetable = course.getTimetable();
+        synchronized(enrolledCourses) {
+            if(!timetable.isEmpty()) {
+                Timetable busy = schedules.getOrDefault(studentId, Timetable.EMPTY);
+                if(busy.overlaps(timetable)) {
+                    return false;
+                }
+                schedules.put(studentId, busy.plus(timetable));
+            }
+            enrolledCourses.add(course.getCode());
+        }
+        return true;
+    }
+
+    /**
+     * {@summary It records that a student is no longer enrolled in a course.}
+     * <p>It is called while holding the course's roster lock, like {@link #addCourseOfStudent(int, Course)}.
+     * @param studentId Specifies the student's unique identifier.
+     * @param course Specifies the course.
+     */
+    private void removeCourseOfStudent(int studentId, Course course) {
+        SortedIntSet enrolledCourses = coursesOfStudent.get(studentId);
+        Timetable timetable = course.getTimetable();
+        synchronized(enrolledCourses) {
+            enrolledCourses.remove(course.getCode());
+            if(!timetable.isEmpty()) {
+                Timetable busy = schedules.get(studentId).minus(timetable);
+                if(busy.isEmpty()) {
+                    schedules.remove(studentId);
+                } else {
+                    schedules.put(studentId, busy);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param studentId Specifies the student's unique identifier.
+     * @param course Specifies the course.
+     * @return <strong>true</strong> if the course meets at the same time as a course in which the student is currently enrolled.
+     */
+    private boolean conflicts(int studentId, Course course) {
+        Timetable timetable = course.getTimetable();
+        if(timetable.isEmpty()) {
+            return false;
+        }
+        SortedIntSet enrolledCourses = coursesOfStudent.get(studentId);
+        synchronized(enrolledCourses) {
+            return schedules.getOrDefault(studentId, Timetable.EMPTY).overlaps(timetable);
+        }
+    }
+}
@@ -8,13 +8,19 @@ import org.slf4j.LoggerFactory;
  * <br><li> <strong>Code</strong>, which must be a unique integer >0.
  * <br><li> <strong>Name</strong>, which must not be a blank or null string.
  * <br><li> <strong>Coordinator</strong>, which must not be a blank or null string.
+ * <br><li> <strong>Capacity</strong>, the maximum number of students enrolled in it, which must be a positive integer. It is {@value #DEFAULT_CAPACITY} by default.
+ * <br><li> <strong>Timetable</strong>, the weekly meetings of the course, which must not be null. It is {@link Timetable#EMPTY} by default.
  * 
  */
 public class Course {
+	/** Capacity of the courses created without an explicit one. */
+	public static final int DEFAULT_CAPACITY = 50;
 
 	private int code;
 	private String name;
 	private String coordinator;
+	private int capacity;
+	private Timetable timetable;
 	
 	private static final Logger logger = LoggerFactory.getLogger(Course.class);
 	
@@ -35,13 +41,46 @@ public class Course {
      * <br><li> {@code new Course(1, "Computer Science 101", " ")} will throw a {@code CourseBlankInputException()}.
      */
 	public Course(int code, String name, String coordinator) throws CourseBlankInputException {
-		if(name == null || coordinator== null || code <= 0 || name.isBlank() || coordinator.isBlank()) {
-			logger.error("\n\t----CourseBlankInputException(): Can't create course. The call contains blank or null inputs or the code is not a positive integer.");
+		this(code, name, coordinator, DEFAULT_CAPACITY);
+	}
+
+	/**
+     * {@summary It creates a new course with a given capacity.}
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     * <br><li> An example of use is provided below: 
+     * <br><li> {@code new Course(1, "Computer Science 101", "Coordinator 1", 300)} will successfully create the course.
+     * <br><li> {@code new Course(1, "Computer Science 101", "Coordinator 1", 0)} will throw a {@code CourseBlankInputException()}.
+     */
+	public Course(int code, String name, String coordinator, int capacity) throws CourseBlankInputException {
+		this(code, name, coordinator, capacity, Timetable.EMPTY);
+	}
+
+	/**
+     * {@summary It creates a new course with a given capacity and weekly meetings.}
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @param timetable Specifies when the course meets every week. A student cannot be enrolled in two courses whose timetables overlap.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     * <br><li> An example of use is provided below: 
+     * <br><li> {@code new Course(1, "Computer Science 101", "Coordinator 1", 300, Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0)))} will successfully create the course.
+     * <br><li> {@code new Course(1, "Computer Science 101", "Coordinator 1", 300, null)} will throw a {@code CourseBlankInputException()}.
+     */
+	public Course(int code, String name, String coordinator, int capacity, Timetable timetable) throws CourseBlankInputException {
+		if(name == null || coordinator== null || timetable == null || code <= 0 || capacity <= 0 || name.isBlank() || coordinator.isBlank()) {
+			logger.error("\n\t----CourseBlankInputException(): Can't create course. The call contains blank or null inputs or the code or the capacity is not a positive integer.");
 			throw new CourseBlankInputException();
 		}
 		this.code = code;
 		this.name = name;
 		this.coordinator = coordinator;
+		this.capacity = capacity;
+		this.timetable = timetable;
 	}
 	
 	/**
@@ -67,6 +106,22 @@ public class Course {
 	public String getCoordinator() {
 		return coordinator;
 	}
+
+	/**
+	 * 
+	 * @return An integer corresponding to the maximum number of students enrolled in the course.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 
+	 * @return The weekly meetings of the course, which are empty if the course was created without a timetable.
+	 */
+	public Timetable getTimetable() {
+		return timetable;
+	}
 	
 	
 }
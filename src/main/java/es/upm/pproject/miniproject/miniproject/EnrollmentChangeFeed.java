@@ -0,0 +1,152 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a bounded, ordered stream of {@link EnrollmentEvent}s, kept in a ring buffer.
+ *
+ * <p>Events are published by any number of writers and read by any number of {@link Subscription}s, each one
+ * at its own pace. Publishing never waits for the subscribers: it stores the event in the next slot of the ring,
+ * overwriting the oldest one, and advances a volatile counter, holding the lock of the feed only meanwhile. The back-pressure is on the
+ * side of the subscribers, which pull the events when they are ready, at most {@code max} at a time. A subscriber
+ * that falls behind by more than the capacity of the ring is told how many events it has lost, by a {@link FeedOverrunException}.
+ *
+ * <p>Reading takes no lock: a subscriber reads the counter, then the slots up to it, and checks the sequence of every
+ * event to detect the slots overwritten meanwhile.
+ *
+ */
+public final class EnrollmentChangeFeed {
+	/** Number of events kept when no capacity is specified. */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	private final EnrollmentEvent[] slots;
+	private final int mask;
+	private volatile long published;
+
+	/**
+	 * This constructor creates an empty feed.
+	 * @param capacity Specifies the number of events kept for the subscribers, which is rounded up to a power of two.
+	 * @throws IllegalArgumentException when the capacity is not positive or exceeds 2<sup>30</sup>.
+	 */
+	public EnrollmentChangeFeed(int capacity) {
+		if(capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("The capacity must be between 1 and 2^30: " + capacity + ".");
+		}
+		int size = Integer.highestOneBit(capacity);
+		if(size < capacity) {
+			size <<= 1;
+		}
+		slots = new EnrollmentEvent[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * {@summary It appends an event to the feed.} Concurrent publishers take turns on the lock of the feed, which is
+	 * held only to store the event, so the order of the events of a writer is the order of its calls.
+	 * @param type Specifies the kind of change.
+	 * @param courseCode Specifies the course that has changed, or 0.
+	 * @param studentId Specifies the student that has changed, or 0.
+	 */
+	synchronized void publish(EnrollmentEvent.Type type, int courseCode, int studentId) {
+		long sequence = published;
+		slots[(int) sequence & mask] = new EnrollmentEvent(sequence, type, courseCode, studentId);
+		// The volatile write makes the slot visible to the subscribers that read the new counter.
+		published = sequence + 1;
+	}
+
+	/**
+	 * @return The number of events published so far, which is also the sequence of the next one.
+	 */
+	public long getPublishedCount() {
+		return published;
+	}
+
+	/**
+	 * @return The number of events kept for the subscribers.
+	 */
+	public int getCapacity() {
+		return slots.length;
+	}
+
+	/**
+	 * {@summary It creates a subscription that reads the events published from now on.}
+	 * @return The new subscription.
+	 */
+	public Subscription subscribe() {
+		return new Subscription(published);
+	}
+
+	/**
+	 * {@summary It creates a subscription that starts at a given event, to resume a previous one.}
+	 * @param sequence Specifies the sequence of the first event to read. If it has already been overwritten, the first read reports it.
+	 * @return The new subscription.
+	 * @throws IllegalArgumentException when the event has not been published yet, nor is the next one.
+	 */
+	public Subscription subscribe(long sequence) {
+		if(sequence < 0 || sequence > published) {
+			throw new IllegalArgumentException("The event " + sequence + " has not been published.");
+		}
+		return new Subscription(sequence);
+	}
+
+	/**
+	 * This class reads the events of the feed in order. A subscription must only be used by one thread at a time.
+	 */
+	public final class Subscription {
+		private long next;
+
+		private Subscription(long next) {
+			this.next = next;
+		}
+
+		/**
+		 * {@summary It reads the next events, without waiting for new ones.}
+		 * @param max Specifies the maximum number of events to read.
+		 * @return The events, in order, which may be none.
+		 * @throws FeedOverrunException when some of the next events have been overwritten. The subscription then
+		 * skips to the oldest event available, so the next call goes on from there.
+		 * @throws IllegalArgumentException when {@code max} is not a positive integer.
+		 */
+		public List<EnrollmentEvent> poll(int max) throws FeedOverrunException {
+			Pages.checkLimit(max);
+			long available = published;
+			checkOverrun(available);
+			long end = Math.min(available, next + max);
+			List<EnrollmentEvent> events = new ArrayList<>((int) (end - next));
+			for(long sequence = next; sequence < end; sequence++) {
+				EnrollmentEvent event = slots[(int) sequence & mask];
+				if(event.getSequence() != sequence) {
+					// The writer has lapped this subscriber while it was reading, maybe before advancing the counter.
+					checkOverrun(Math.max(published, event.getSequence() + 1));
+				}
+				events.add(event);
+			}
+			next = end;
+			return events;
+		}
+
+		/**
+		 * @return The sequence of the next event to read.
+		 */
+		public long getPosition() {
+			return next;
+		}
+
+		/**
+		 * @return The number of events published and not read yet.
+		 */
+		public long getLag() {
+			return published - next;
+		}
+
+		private void checkOverrun(long end) throws FeedOverrunException {
+			long oldest = end - slots.length;
+			if(next < oldest) {
+				long missed = oldest - next;
+				next = oldest;
+				throw new FeedOverrunException(missed);
+			}
+		}
+	}
+}
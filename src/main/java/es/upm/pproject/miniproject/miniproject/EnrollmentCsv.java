@@ -0,0 +1,667 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class imports and exports the students, the courses and the enrollments of a manager as CSV files.
+ *
+ * <p>The files have a header row and one record per line, with the columns:
+ * <br><li> Students: {@code id,name,email}.
+ * <br><li> Courses: {@code code,name,coordinator,capacity}, where the capacity may be left empty to take {@value Course#DEFAULT_CAPACITY}.
+ * Timetables are not part of the files.
+ * <br><li> Enrollments: {@code course,student}.
+ *
+ * <p>Fields may be quoted, with doubled quotes inside, to hold commas, but a record cannot span several lines, so an export
+ * rejects the values that contain a line break. The first line is skipped when it is the header row, with the column names
+ * above in any case; otherwise it is read as a record like the others. Blank lines are ignored.
+ *
+ * <p>An import maps the file and splits it into chunks at line boundaries, which are parsed in parallel on the common
+ * fork/join pool. Numbers are read straight from the mapped bytes, and only the names and e-mails are decoded into strings.
+ * Every record is validated by the constructor of {@link Student} or {@link Course}, and the valid ones are then registered
+ * in the order of the file, students and enrollments in batches. The manager does not log while it is filled, on the calling
+ * thread only. A bad record never stops the import: it is reported in the {@link ImportReport} that is returned, whose item
+ * {@code i} is the {@code i}-th record of the file, not counting the header and the blank lines, and which also gives the
+ * line of the file where every record is.
+ *
+ */
+public final class EnrollmentCsv {
+	private static final Logger logger = LoggerFactory.getLogger(EnrollmentCsv.class);
+
+	static final int MIN_CHUNK_SIZE = 1 << 20;
+	static final int MAX_CHUNK_SIZE = 1 << 28;
+
+	private static final int SCAN = 4096;
+
+	private static final String[] STUDENT_COLUMNS = {"id", "name", "email"};
+	private static final String[] COURSE_COLUMNS = {"code", "name", "coordinator", "capacity"};
+	private static final String[] ENROLLMENT_COLUMNS = {"course", "student"};
+
+	private EnrollmentCsv() {
+	}
+
+	/**
+	 * A parser of a single record, which returns what the record describes or throws the reason why it is invalid.
+	 */
+	@FunctionalInterface
+	private interface RecordParser {
+		Object parse(Record record) throws Exception;
+	}
+
+	/**
+	 * {@summary It imports the students of a file.}
+	 * @param file Specifies the file, with the columns {@code id,name,email}.
+	 * @param manager Specifies the manager where the students are registered.
+	 * @return The report of the records, with their lines: a record fails with the exception of the {@link Student} constructor or of
+	 * {@link InterfaceEnrollmentManager#registerStudents(java.util.Collection)}, or with an {@code IllegalArgumentException} when it
+	 * does not have three fields or the identifier is not an integer.
+	 * @throws IOException when the file cannot be read.
+	 */
+	public static ImportReport importStudents(Path file, InterfaceEnrollmentManager manager) throws IOException {
+		return importStudents(file, manager, MIN_CHUNK_SIZE);
+	}
+
+	static ImportReport importStudents(Path file, InterfaceEnrollmentManager manager, int chunkSize) throws IOException {
+		long start = System.nanoTime();
+		Parsed parsed = parse(file, chunkSize, STUDENT_COLUMNS, record -> {
+			record.expectFields(3);
+			return new Student(record.getInt(0), record.getString(1), record.getString(2));
+		});
+		List<Object> records = parsed.records;
+		ImportReport report = new ImportReport(parsed.lines);
+		List<Student> students = new ArrayList<>();
+		int[] positions = new int[records.size()];
+		for(int i = 0; i < records.size(); i++) {
+			if(records.get(i) instanceof Student) {
+				positions[students.size()] = i;
+				students.add((Student) records.get(i));
+			} else {
+				report.fail(i, (Exception) records.get(i));
+			}
+		}
+		QuietScope.enter();
+		try {
+			BatchReport registered = manager.registerStudents(students);
+			for(Map.Entry<Integer, Exception> failure : registered.getFailures().entrySet()) {
+				report.fail(positions[failure.getKey()], failure.getValue());
+			}
+		} finally {
+			QuietScope.exit();
+		}
+		log("students", file, report, start);
+		return report;
+	}
+
+	/**
+	 * {@summary It imports the courses of a file.}
+	 * @param file Specifies the file, with the columns {@code code,name,coordinator,capacity}.
+	 * @param manager Specifies the manager where the courses are registered.
+	 * @return The report of the records, with their lines: a record fails with the exception of the {@link Course} constructor or of
+	 * {@link InterfaceEnrollmentManager#registerCourse(int, String, String, int)}, or with an {@code IllegalArgumentException}
+	 * when it does not have four fields or the code or the capacity is not an integer.
+	 * @throws IOException when the file cannot be read.
+	 */
+	public static ImportReport importCourses(Path file, InterfaceEnrollmentManager manager) throws IOException {
+		return importCourses(file, manager, MIN_CHUNK_SIZE);
+	}
+
+	static ImportReport importCourses(Path file, InterfaceEnrollmentManager manager, int chunkSize) throws IOException {
+		long start = System.nanoTime();
+		Parsed parsed = parse(file, chunkSize, COURSE_COLUMNS, record -> {
+			record.expectFields(4);
+			int capacity = record.isEmpty(3) ? Course.DEFAULT_CAPACITY : record.getInt(3);
+			return new Course(record.getInt(0), record.getString(1), record.getString(2), capacity);
+		});
+		List<Object> records = parsed.records;
+		ImportReport report = new ImportReport(parsed.lines);
+		QuietScope.enter();
+		try {
+			for(int i = 0; i < records.size(); i++) {
+				if(records.get(i) instanceof Course) {
+					Course course = (Course) records.get(i);
+					try {
+						manager.registerCourse(course.getCode(), course.getName(), course.getCoordinator(), course.getCapacity());
+					} catch (CourseAlreadyExistsException | CourseBlankInputException e) {
+						report.fail(i, e);
+					}
+				} else {
+					report.fail(i, (Exception) records.get(i));
+				}
+			}
+		} finally {
+			QuietScope.exit();
+		}
+		log("courses", file, report, start);
+		return report;
+	}
+
+	/**
+	 * {@summary It imports the enrollments of a file.}
+	 * The students of every course are enrolled with a single call to {@link InterfaceEnrollmentManager#enrollAll(int, int[])},
+	 * in the order of the file, so a course fills up with the first students that are listed for it.
+	 * @param file Specifies the file, with the columns {@code course,student}.
+	 * @param manager Specifies the manager where the students are enrolled. The courses and students must be registered.
+	 * @return The report of the records, with their lines: a record fails with the exception that {@link InterfaceEnrollmentManager#enroll(int, int)}
+	 * would have thrown, or with an {@code IllegalArgumentException} when it does not have two integer fields.
+	 * @throws IOException when the file cannot be read.
+	 */
+	public static ImportReport importEnrollments(Path file, InterfaceEnrollmentManager manager) throws IOException {
+		return importEnrollments(file, manager, MIN_CHUNK_SIZE);
+	}
+
+	static ImportReport importEnrollments(Path file, InterfaceEnrollmentManager manager, int chunkSize) throws IOException {
+		long start = System.nanoTime();
+		Parsed parsed = parse(file, chunkSize, ENROLLMENT_COLUMNS, record -> {
+			record.expectFields(2);
+			return new int[] {record.getInt(0), record.getInt(1)};
+		});
+		List<Object> records = parsed.records;
+		ImportReport report = new ImportReport(parsed.lines);
+		Map<Integer, Roster> rosters = new LinkedHashMap<>();
+		for(int i = 0; i < records.size(); i++) {
+			if(records.get(i) instanceof int[]) {
+				int[] enrollment = (int[]) records.get(i);
+				rosters.computeIfAbsent(enrollment[0], code -> new Roster()).add(i, enrollment[1]);
+			} else {
+				report.fail(i, (Exception) records.get(i));
+			}
+		}
+		QuietScope.enter();
+		try {
+			for(Map.Entry<Integer, Roster> entry : rosters.entrySet()) {
+				Roster roster = entry.getValue();
+				try {
+					BatchReport enrolled = manager.enrollAll(entry.getKey(), roster.students());
+					for(Map.Entry<Integer, Exception> failure : enrolled.getFailures().entrySet()) {
+						report.fail(roster.positions[failure.getKey()], failure.getValue());
+					}
+				} catch (MissingCourseException e) {
+					for(int i = 0; i < roster.size; i++) {
+						report.fail(roster.positions[i], e);
+					}
+				}
+			}
+		} finally {
+			QuietScope.exit();
+		}
+		log("enrollments", file, report, start);
+		return report;
+	}
+
+	/**
+	 * {@summary It exports the students of a manager, replacing the file if it exists.}
+	 * @param manager Specifies the manager.
+	 * @param file Specifies the file, which gets the columns {@code id,name,email}.
+	 * @return The number of students exported.
+	 * @throws IOException when the file cannot be written, or a name or an e-mail contains a line break.
+	 */
+	public static int exportStudents(InterfaceEnrollmentManager manager, Path file) throws IOException {
+		int count = 0;
+		try(Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writeHeader(out, STUDENT_COLUMNS);
+			for(Iterator<Student> students = manager.streamStudents().iterator(); students.hasNext(); count++) {
+				Student student = students.next();
+				out.write(Integer.toString(student.getId()));
+				writeField(out, student.getName());
+				writeField(out, student.getEmailAddress());
+				out.write('\n');
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * {@summary It exports the courses of a manager, without their timetables, replacing the file if it exists.}
+	 * @param manager Specifies the manager.
+	 * @param file Specifies the file, which gets the columns {@code code,name,coordinator,capacity}.
+	 * @return The number of courses exported.
+	 * @throws IOException when the file cannot be written, or a name or a coordinator contains a line break.
+	 */
+	public static int exportCourses(InterfaceEnrollmentManager manager, Path file) throws IOException {
+		int count = 0;
+		try(Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writeHeader(out, COURSE_COLUMNS);
+			for(Iterator<Course> courses = manager.streamCourses().iterator(); courses.hasNext(); count++) {
+				Course course = courses.next();
+				out.write(Integer.toString(course.getCode()));
+				writeField(out, course.getName());
+				writeField(out, course.getCoordinator());
+				out.write(',');
+				out.write(Integer.toString(course.getCapacity()));
+				out.write('\n');
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * {@summary It exports the enrollments of a manager, course by course, replacing the file if it exists.}
+	 * The waitlists are not exported.
+	 * @param manager Specifies the manager.
+	 * @param file Specifies the file, which gets the columns {@code course,student}.
+	 * @return The number of enrollments exported.
+	 * @throws IOException when the file cannot be written.
+	 */
+	public static int exportEnrollments(InterfaceEnrollmentManager manager, Path file) throws IOException {
+		int count = 0;
+		try(Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writeHeader(out, ENROLLMENT_COLUMNS);
+			for(Iterator<Course> courses = manager.streamCourses().iterator(); courses.hasNext();) {
+				int code = courses.next().getCode();
+				Iterator<Student> roster;
+				try {
+					roster = manager.streamStudentsEnrolledInCourse(code).iterator();
+				} catch (MissingCourseException e) {
+					continue;
+				}
+				for(; roster.hasNext(); count++) {
+					out.write(Integer.toString(code));
+					out.write(',');
+					out.write(Integer.toString(roster.next().getId()));
+					out.write('\n');
+				}
+			}
+		}
+		return count;
+	}
+
+	private static void writeHeader(Writer out, String[] columns) throws IOException {
+		out.write(String.join(",", columns));
+		out.write('\n');
+	}
+
+	/**
+	 * {@summary It writes a comma followed by a text field, quoted if it holds commas or quotes.}
+	 * @throws IOException when the value contains a line break, which the importer could not read back.
+	 */
+	private static void writeField(Writer out, String value) throws IOException {
+		if(value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+			throw new IOException("A record cannot span several lines, so a value with a line break cannot be exported: \"" + value + "\".");
+		}
+		out.write(',');
+		if(value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			out.write(value);
+		} else {
+			out.write('"');
+			out.write(value.replace("\"", "\"\""));
+			out.write('"');
+		}
+	}
+
+	private static void log(String what, Path file, BatchReport report, long start) {
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--{} of {} {} successfully imported from {} in {} ms.", report.getSuccessCount(), report.size(), what, file,
+					(System.nanoTime() - start) / 1000000);
+		}
+	}
+
+	/**
+	 * {@summary It parses every record of a file, in chunks parsed in parallel.}
+	 * @param columns Specifies the names of the columns, which make up the header row.
+	 * @return What every record describes, or the exception that explains why it is invalid, in the order of the file, with their lines.
+	 */
+	private static Parsed parse(Path file, int chunkSize, String[] columns, RecordParser parser) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long[] bounds = chunks(channel, chunkSize);
+			try {
+				List<Chunk> chunks = IntStream.range(0, bounds.length - 1).parallel()
+						.mapToObj(i -> parseChunk(channel, bounds[i], bounds[i + 1], i == 0 ? columns : null, parser)).collect(Collectors.toList());
+				// The lines of every chunk are numbered from its start, so they are shifted by the lines of the chunks before it.
+				List<Object> records = new ArrayList<>();
+				int[] lines = new int[chunks.stream().mapToInt(chunk -> chunk.records.size()).sum()];
+				int firstLine = 1;
+				for(Chunk chunk : chunks) {
+					for(int i = 0; i < chunk.records.size(); i++) {
+						lines[records.size() + i] = firstLine + chunk.lines[i];
+					}
+					records.addAll(chunk.records);
+					firstLine += chunk.lineCount;
+				}
+				return new Parsed(records, lines);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	/**
+	 * {@summary It splits a file into chunks of about the same size that start at the beginning of a line.}
+	 * @return The offsets where the chunks start, followed by the size of the file.
+	 */
+	private static long[] chunks(FileChannel channel, int chunkSize) throws IOException {
+		long size = channel.size();
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		long target = Math.min(MAX_CHUNK_SIZE, Math.max(chunkSize, (size + parallelism - 1) / parallelism));
+		List<Long> bounds = new ArrayList<>();
+		bounds.add(0L);
+		ByteBuffer scan = ByteBuffer.allocate(SCAN);
+		long position = target;
+		while(position < size) {
+			long lineEnd = -1;
+			for(long from = position; lineEnd < 0 && from < size; from += SCAN) {
+				scan.clear();
+				int read = channel.read(scan, from);
+				for(int i = 0; i < read; i++) {
+					if(scan.get(i) == '\n') {
+						lineEnd = from + i + 1;
+						break;
+					}
+				}
+			}
+			if(lineEnd < 0 || lineEnd >= size) {
+				break;
+			}
+			if(lineEnd - bounds.get(bounds.size() - 1) > MAX_CHUNK_SIZE) {
+				throw new IOException("A line of " + channel + " is longer than " + MAX_CHUNK_SIZE + " bytes.");
+			}
+			bounds.add(lineEnd);
+			position = lineEnd + target;
+		}
+		bounds.add(size);
+		long[] result = new long[bounds.size()];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * {@summary It parses the records of a chunk.}
+	 * @param columns Specifies the names of the columns if the chunk is the first one of the file, whose first line may be the
+	 * header row, and null otherwise.
+	 */
+	private static Chunk parseChunk(FileChannel channel, long start, long end, String[] columns, RecordParser parser) {
+		MappedByteBuffer buffer;
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Chunk chunk = new Chunk();
+		Record record = new Record(buffer);
+		int limit = buffer.limit();
+		for(int from = 0; from < limit; chunk.lineCount++) {
+			int to = from;
+			while(to < limit && buffer.get(to) != '\n') {
+				to++;
+			}
+			record.reset(from, to > from && buffer.get(to - 1) == '\r' ? to - 1 : to);
+			if(!record.isBlank() && !(chunk.lineCount == 0 && columns != null && record.isHeader(columns))) {
+				Object parsed;
+				try {
+					parsed = parser.parse(record);
+				} catch (Exception e) {
+					parsed = e;
+				}
+				chunk.add(parsed);
+			}
+			from = to + 1;
+		}
+		return chunk;
+	}
+
+	/**
+	 * The records of a whole file, in order, with the lines where they are.
+	 */
+	private static final class Parsed {
+		private final List<Object> records;
+		private final int[] lines;
+
+		Parsed(List<Object> records, int[] lines) {
+			this.records = records;
+			this.lines = lines;
+		}
+	}
+
+	/**
+	 * The records of a chunk, with the lines where they are, counted from 0 at the start of the chunk.
+	 */
+	private static final class Chunk {
+		private final List<Object> records = new ArrayList<>();
+		private int[] lines = new int[64];
+		private int lineCount;
+
+		void add(Object record) {
+			if(records.size() == lines.length) {
+				lines = Arrays.copyOf(lines, lines.length * 2);
+			}
+			lines[records.size()] = lineCount;
+			records.add(record);
+		}
+	}
+
+	/**
+	 * The students listed for a course in an enrollment file, with the positions of their records.
+	 */
+	private static final class Roster {
+		private int[] positions = new int[8];
+		private int[] students = new int[8];
+		private int size;
+
+		void add(int position, int student) {
+			if(size == students.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+				students = Arrays.copyOf(students, size * 2);
+			}
+			positions[size] = position;
+			students[size++] = student;
+		}
+
+		int[] students() {
+			return Arrays.copyOf(students, size);
+		}
+	}
+
+	/**
+	 * A view of one line of a mapped chunk, split into fields without copying it.
+	 */
+	private static final class Record {
+		private final ByteBuffer buffer;
+		private int[] starts = new int[8];
+		private int[] ends = new int[8];
+		private boolean[] quoted = new boolean[8];
+		private int fields;
+
+		Record(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		/**
+		 * {@summary It makes the record a view of the bytes of a line and finds its fields.}
+		 * A quote that is not closed takes the rest of the line.
+		 */
+		void reset(int from, int to) {
+			fields = 0;
+			int position = from;
+			while(true) {
+				if(fields == starts.length) {
+					starts = Arrays.copyOf(starts, fields * 2);
+					ends = Arrays.copyOf(ends, fields * 2);
+					quoted = Arrays.copyOf(quoted, fields * 2);
+				}
+				if(position < to && buffer.get(position) == '"') {
+					int close = ++position;
+					while(close < to && !(buffer.get(close) == '"' && (close + 1 == to || buffer.get(close + 1) != '"'))) {
+						close += buffer.get(close) == '"' ? 2 : 1;
+					}
+					starts[fields] = position;
+					ends[fields] = Math.min(close, to);
+					quoted[fields++] = true;
+					position = close + 1;
+					while(position < to && buffer.get(position) != ',') {
+						position++;
+					}
+				} else {
+					int comma = position;
+					while(comma < to && buffer.get(comma) != ',') {
+						comma++;
+					}
+					starts[fields] = position;
+					ends[fields] = comma;
+					quoted[fields++] = false;
+					position = comma;
+				}
+				if(position >= to) {
+					return;
+				}
+				position++;
+			}
+		}
+
+		void expectFields(int count) {
+			if(fields != count) {
+				throw new IllegalArgumentException("Expected " + count + " fields but found " + fields + ": " + this + ".");
+			}
+		}
+
+		boolean isBlank() {
+			return fields == 1 && !quoted[0] && isEmpty(0);
+		}
+
+		boolean isEmpty(int field) {
+			for(int i = starts[field]; i < ends[field]; i++) {
+				if(buffer.get(i) > ' ') {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @param columns Specifies the names of the columns.
+		 * @return <strong>true</strong> if the record holds the names of the columns, ignoring the case and the spaces around them.
+		 */
+		boolean isHeader(String[] columns) {
+			if(fields != columns.length) {
+				return false;
+			}
+			for(int i = 0; i < fields; i++) {
+				if(!getString(i).trim().equalsIgnoreCase(columns[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * {@summary It reads an integer field, ignoring the spaces around it, straight from the bytes.}
+		 * @throws IllegalArgumentException when the field is not an integer of 32 bits.
+		 */
+		int getInt(int field) {
+			int from = starts[field];
+			int to = ends[field];
+			while(from < to && buffer.get(from) == ' ') {
+				from++;
+			}
+			while(to > from && buffer.get(to - 1) == ' ') {
+				to--;
+			}
+			boolean negative = from < to && buffer.get(from) == '-';
+			if(negative) {
+				from++;
+			}
+			if(from == to || to - from > 10) {
+				throw new IllegalArgumentException("Not an integer: " + getString(field) + ".");
+			}
+			long value = 0;
+			for(int i = from; i < to; i++) {
+				int digit = buffer.get(i) - '0';
+				if(digit < 0 || digit > 9) {
+					throw new IllegalArgumentException("Not an integer: " + getString(field) + ".");
+				}
+				value = value * 10 + digit;
+			}
+			value = negative ? -value : value;
+			if(value != (int) value) {
+				throw new IllegalArgumentException("Not an integer: " + getString(field) + ".");
+			}
+			return (int) value;
+		}
+
+		/**
+		 * @return The text of a field, without its quotes.
+		 */
+		String getString(int field) {
+			int from = starts[field];
+			int to = ends[field];
+			boolean ascii = true;
+			for(int i = from; ascii && i < to; i++) {
+				ascii = buffer.get(i) >= 0;
+			}
+			String text;
+			if(ascii) {
+				char[] chars = new char[to - from];
+				for(int i = 0; i < chars.length; i++) {
+					chars[i] = (char) buffer.get(from + i);
+				}
+				text = new String(chars);
+			} else {
+				byte[] bytes = new byte[to - from];
+				for(int i = 0; i < bytes.length; i++) {
+					bytes[i] = buffer.get(from + i);
+				}
+				text = new String(bytes, StandardCharsets.UTF_8);
+			}
+			return quoted[field] ? text.replace("\"\"", "\"") : text;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for(int i = 0; i < fields; i++) {
+				sb.append(i == 0 ? "" : ",").append(getString(i));
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * This class is the report of an import. Besides the outcome of every record, it gives the line of the file where the
+	 * record is, so a bad record can be found in the file.
+	 */
+	public static final class ImportReport extends BatchReport {
+		private final int[] lines;
+
+		private ImportReport(int[] lines) {
+			super(lines.length);
+			this.lines = lines;
+		}
+
+		/**
+		 * @param index Specifies the position of the record in the batch.
+		 * @return The line of the file where the record is, starting at 1.
+		 */
+		public int getLine(int index) {
+			return lines[index];
+		}
+
+		/**
+		 * @return The failed records, in the order of the file, mapped from their line to the reason of the failure.
+		 */
+		public Map<Integer, Exception> getFailuresByLine() {
+			Map<Integer, Exception> result = new LinkedHashMap<>();
+			for(Map.Entry<Integer, Exception> failure : getFailures().entrySet()) {
+				result.put(lines[failure.getKey()], failure.getValue());
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * This class represents a change of the state of an enrollment manager, as published by an {@link EnrollmentChangeFeed}.
+ * It contains the next attributes:
+ * <br><li> <strong>Sequence</strong>, the position of the event in the feed, starting at 0 and without gaps.
+ * <br><li> <strong>Type</strong>, the kind of change.
+ * <br><li> <strong>Course code</strong>, the course that has changed, or 0 if the change is the registration of a student.
+ * <br><li> <strong>Student identifier</strong>, the student that has changed, or 0 if the change only concerns a course.
+ *
+ * <p>Events are immutable, so they can be shared by every subscriber of the feed.
+ *
+ */
+public final class EnrollmentEvent {
+	/**
+	 * This enumeration defines the kinds of change. It contains the next values:
+	 * <br><li> <strong>COURSE_REGISTERED</strong>, when a course has been registered.
+	 * <br><li> <strong>STUDENT_REGISTERED</strong>, when a student has been registered.
+	 * <br><li> <strong>ENROLLED</strong>, when a student has been enrolled in a course, directly or promoted from its waitlist.
+	 * <br><li> <strong>CANCELLED</strong>, when the enrollment of a student in a course has been cancelled.
+	 * <br><li> <strong>WAITLISTED</strong>, when a student has been appended to the waitlist of a full course.
+	 * <br><li> <strong>LEFT_WAITLIST</strong>, when a student has left the waitlist of a course, or has been dropped from it without a seat.
+	 * <br><li> <strong>COURSE_RESTARTED</strong>, when every enrollment of a course has been cancelled at once.
+	 * <br><li> <strong>COURSE_COMPLETED</strong>, when a student has been recorded as having completed a course.
+	 */
+	public enum Type {
+		COURSE_REGISTERED,
+		STUDENT_REGISTERED,
+		ENROLLED,
+		CANCELLED,
+		WAITLISTED,
+		LEFT_WAITLIST,
+		COURSE_RESTARTED,
+		COURSE_COMPLETED
+	}
+
+	private final long sequence;
+	private final Type type;
+	private final int courseCode;
+	private final int studentId;
+
+	EnrollmentEvent(long sequence, Type type, int courseCode, int studentId) {
+		this.sequence = sequence;
+		this.type = type;
+		this.courseCode = courseCode;
+		this.studentId = studentId;
+	}
+
+	/**
+	 * @return The position of the event in the feed.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return The kind of change.
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return The code of the course that has changed, or 0 if none has.
+	 */
+	public int getCourseCode() {
+		return courseCode;
+	}
+
+	/**
+	 * @return The identifier of the student that has changed, or 0 if none has.
+	 */
+	public int getStudentId() {
+		return studentId;
+	}
+
+	@Override
+	public String toString() {
+		return sequence + " " + type + " course=" + courseCode + " student=" + studentId;
+	}
+}
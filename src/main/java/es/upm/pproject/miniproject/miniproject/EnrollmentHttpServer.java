@@ -0,0 +1,556 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class serves the operations of an {@link InterfaceEnrollmentManager} over HTTP, with JSON requests and responses.
+ *
+ * <p>It is built on the HTTP server embedded in the JDK, so it needs no other process. The resources are:
+ * <br><li> {@code /courses}: {@code GET} lists the courses, with the optional {@code after} and {@code limit} parameters
+ * of a page, and {@code POST} registers one from {@code {"code", "name", "coordinator", "capacity", "timetable"}},
+ * where the optional timetable is a list of {@code {"day": "MONDAY", "start": "09:00", "end": "11:00"}}.
+ * <br><li> {@code /courses/{code}/enrollments}: {@code GET} lists the roster, paged like the courses, and {@code POST}
+ * enrolls {@code {"student": id}}, or several students at once with {@code {"students": [ids]}}. The parameter
+ * {@code mode=try} reports a rejection as an {@link EnrollmentOutcome} instead of an error.
+ * <br><li> {@code /courses/{code}/enrollments/count} ({@code GET}) and {@code /courses/{code}/enrollments/{id}} ({@code DELETE} cancels).
+ * <br><li> {@code /courses/{code}/waitlist}: {@code GET} lists it and {@code POST} enrolls or waitlists {@code {"student": id}}.
+ * {@code DELETE /courses/{code}/waitlist/{id}} leaves it.
+ * <br><li> {@code /courses/{code}/restart} ({@code POST}), {@code /courses/{code}/prerequisites} ({@code GET}, and {@code POST}
+ * with {@code {"course": code}}) and {@code /courses/{code}/completions} ({@code POST} with {@code {"student": id}}).
+ * <br><li> {@code /students}: {@code GET} lists the students, paged like the courses, or finds one with the {@code email}
+ * parameter, and {@code POST} registers {@code {"id", "name", "email"}}, or a list of them at once.
+ * <br><li> {@code /students/{id}/courses} and {@code /students/{id}/completions} ({@code GET}), and {@code /verbosity}
+ * ({@code GET}, and {@code PUT} with {@code {"verbosity": "SUMMARY"}}).
+ *
+ * <p>Lists are written to the connection element by element as they are encoded, so a roster of any size is sent without
+ * building the whole response in memory. Errors are answered with {@code {"error": name, "message": text}} and the status
+ * 404 for missing courses, students and enrollments, 409 for conflicts with the current state, 400 for invalid requests,
+ * and 413 for request bodies larger than {@link #getMaxBodySize()}, which are rejected before they are read in full.
+ *
+ * <p>Requests are handled concurrently, each one on its own virtual thread when the JVM supports them, or on a pool of
+ * threads otherwise, so the manager must be thread-safe, like a {@link ConcurrentEnrollmentManager}.
+ *
+ */
+public class EnrollmentHttpServer implements AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(EnrollmentHttpServer.class);
+
+	/** Maximum size in bytes of a request body when none is specified. */
+	public static final int DEFAULT_MAX_BODY_SIZE = 8 << 20;
+
+	private final InterfaceEnrollmentManager manager;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	private volatile int maxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+	/**
+	 * The body of a response, written while the response is being sent.
+	 */
+	@FunctionalInterface
+	private interface Body {
+		void write(Json.Writer json) throws IOException;
+	}
+
+	private EnrollmentHttpServer(InterfaceEnrollmentManager manager, InetSocketAddress address, ExecutorService executor, boolean ownsExecutor) throws IOException {
+		this.manager = manager;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.server = HttpServer.create(address, 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+		server.start();
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--Enrollment server listening on port {}.", getPort());
+		}
+	}
+
+	/**
+	 * {@summary It disables Nagle's algorithm on the connections of the HTTP servers of the JDK.}
+	 * Responses are written in several small segments, which Nagle's algorithm holds back until the client's delayed
+	 * acknowledgement, adding some 40 ms to every request. It sets the system property {@code sun.net.httpserver.nodelay},
+	 * unless it is already set, so it affects every server of the JDK in the JVM, not only this class's, and the JDK
+	 * reads the property only once: this must be called before the first server of the JVM is started.
+	 */
+	public static void enableNoDelay() {
+		if(System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	/**
+	 * {@summary It starts a server on a port of all the local addresses.}
+	 * The connections keep Nagle's algorithm unless {@link #enableNoDelay()} has been called before.
+	 * @param manager Specifies the thread-safe manager whose operations are served.
+	 * @param port Specifies the port, or 0 to take any free one.
+	 * @return The started server.
+	 * @throws IOException when the port cannot be bound.
+	 */
+	public static EnrollmentHttpServer start(InterfaceEnrollmentManager manager, int port) throws IOException {
+		return new EnrollmentHttpServer(manager, new InetSocketAddress(port), TaskExecutors.newPerTaskExecutor("enrollment-http"), true);
+	}
+
+	/**
+	 * {@summary It starts a server that handles the requests on a given executor, which is not shut down by {@link #close()}.}
+	 * @param manager Specifies the manager whose operations are served.
+	 * @param address Specifies the address and the port to bind.
+	 * @param executor Specifies where the requests are handled.
+	 * @return The started server.
+	 * @throws IOException when the address cannot be bound.
+	 */
+	public static EnrollmentHttpServer start(InterfaceEnrollmentManager manager, InetSocketAddress address, ExecutorService executor) throws IOException {
+		return new EnrollmentHttpServer(manager, address, executor, false);
+	}
+
+	/**
+	 * @return The port where the server listens.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * @return The maximum size in bytes of a request body.
+	 */
+	public int getMaxBodySize() {
+		return maxBodySize;
+	}
+
+	/**
+	 * {@summary It changes the maximum size of a request body.} Larger bodies are answered with the status 413.
+	 * @param maxBodySize Specifies the maximum size in bytes.
+	 * @throws IllegalArgumentException when the size is not positive.
+	 */
+	public void setMaxBodySize(int maxBodySize) {
+		if(maxBodySize <= 0) {
+			throw new IllegalArgumentException("The maximum body size must be positive: " + maxBodySize + ".");
+		}
+		this.maxBodySize = maxBodySize;
+	}
+
+	/**
+	 * {@summary It stops accepting connections, waits for the requests being handled and releases the port.}
+	 * If the calling thread is interrupted while waiting, it stops waiting and the interrupt is restored.
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+		if(ownsExecutor) {
+			executor.shutdown();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+			Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+			String method = exchange.getRequestMethod();
+			if(path[0].equals("courses")) {
+				if(path.length == 1) {
+					courses(exchange, method, query);
+				} else {
+					course(exchange, method, path, query);
+				}
+			} else if(path[0].equals("students")) {
+				if(path.length == 1) {
+					students(exchange, method, query);
+				} else {
+					student(exchange, method, path);
+				}
+			} else if(path[0].equals("verbosity") && path.length == 1) {
+				verbosity(exchange, method);
+			} else {
+				error(exchange, 404, "NotFound", "There is no resource " + exchange.getRequestURI().getPath() + ".");
+			}
+		} catch (Exception e) {
+			int status = statusOf(e);
+			if(status == 500) {
+				logger.error("\n--The request {} {} failed.", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+			}
+			error(exchange, status, e.getClass().getSimpleName(), e.getMessage());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void courses(HttpExchange exchange, String method, Map<String, String> query) throws Exception {
+		if(method.equals("GET")) {
+			if(query.containsKey("limit")) {
+				List<Course> page = manager.getCourses(intParameter(query, "after", 0), intParameter(query, "limit", 0));
+				send(exchange, 200, json -> writeCourses(json, page.iterator()));
+			} else {
+				Stream<Course> all = manager.streamCourses();
+				send(exchange, 200, json -> writeCourses(json, all.iterator()));
+			}
+		} else if(method.equals("POST")) {
+			Map<String, Object> body = object(exchange);
+			int code = intMember(body, "code");
+			String name = stringMember(body, "name");
+			String coordinator = stringMember(body, "coordinator");
+			int capacity = body.containsKey("capacity") ? intMember(body, "capacity") : Course.DEFAULT_CAPACITY;
+			manager.registerCourse(code, name, coordinator, capacity, timetable(body.get("timetable")));
+			send(exchange, 201, json -> json.beginObject().name("code").value(code).endObject());
+		} else {
+			methodNotAllowed(exchange);
+		}
+	}
+
+	private void course(HttpExchange exchange, String method, String[] path, Map<String, String> query) throws Exception {
+		int code = pathId(path[1]);
+		String resource = path.length > 2 ? path[2] : "";
+		if(resource.equals("enrollments") && path.length == 3) {
+			enrollments(exchange, method, code, query);
+		} else if(resource.equals("enrollments") && path.length == 4 && path[3].equals("count") && method.equals("GET")) {
+			int count = manager.getEnrollmentCount(code);
+			send(exchange, 200, json -> json.beginObject().name("count").value(count).endObject());
+		} else if(resource.equals("enrollments") && path.length == 4 && method.equals("DELETE")) {
+			manager.cancelEnrollment(code, pathId(path[3]));
+			noContent(exchange);
+		} else if(resource.equals("waitlist") && path.length == 3 && method.equals("GET")) {
+			List<Student> waitlist = manager.getWaitlist(code);
+			send(exchange, 200, json -> writeStudents(json, waitlist.iterator()));
+		} else if(resource.equals("waitlist") && path.length == 3 && method.equals("POST")) {
+			boolean enrolled = manager.enrollOrWaitlist(code, intMember(object(exchange), "student"));
+			send(exchange, 200, json -> json.beginObject().name("enrolled").value(enrolled).endObject());
+		} else if(resource.equals("waitlist") && path.length == 4 && method.equals("DELETE")) {
+			manager.leaveWaitlist(code, pathId(path[3]));
+			noContent(exchange);
+		} else if(resource.equals("restart") && path.length == 3 && method.equals("POST")) {
+			manager.restartCourse(code);
+			noContent(exchange);
+		} else if(resource.equals("prerequisites") && path.length == 3 && method.equals("GET")) {
+			List<Course> prerequisites = manager.getPrerequisites(code);
+			send(exchange, 200, json -> writeCourses(json, prerequisites.iterator()));
+		} else if(resource.equals("prerequisites") && path.length == 3 && method.equals("POST")) {
+			manager.addPrerequisite(code, intMember(object(exchange), "course"));
+			noContent(exchange);
+		} else if(resource.equals("completions") && path.length == 3 && method.equals("POST")) {
+			manager.completeCourse(code, intMember(object(exchange), "student"));
+			noContent(exchange);
+		} else {
+			error(exchange, 404, "NotFound", "There is no resource " + exchange.getRequestURI().getPath() + " for " + method + ".");
+		}
+	}
+
+	private void enrollments(HttpExchange exchange, String method, int code, Map<String, String> query) throws Exception {
+		if(method.equals("GET")) {
+			if(query.containsKey("limit")) {
+				List<Student> page = manager.getStudentsEnrolledInCourse(code, intParameter(query, "after", 0), intParameter(query, "limit", 0));
+				send(exchange, 200, json -> writeStudents(json, page.iterator()));
+			} else {
+				Stream<Student> roster = manager.streamStudentsEnrolledInCourse(code);
+				send(exchange, 200, json -> writeStudents(json, roster.iterator()));
+			}
+		} else if(method.equals("POST")) {
+			Map<String, Object> body = object(exchange);
+			if(body.containsKey("students")) {
+				BatchReport report = manager.enrollAll(code, ids(body.get("students")));
+				send(exchange, 200, json -> writeReport(json, report));
+			} else if("try".equals(query.get("mode"))) {
+				EnrollmentOutcome outcome = manager.tryEnroll(code, intMember(body, "student"));
+				send(exchange, 200, json -> json.beginObject().name("outcome").value(outcome.name()).endObject());
+			} else {
+				manager.enroll(code, intMember(body, "student"));
+				noContent(exchange);
+			}
+		} else {
+			methodNotAllowed(exchange);
+		}
+	}
+
+	private void students(HttpExchange exchange, String method, Map<String, String> query) throws Exception {
+		if(method.equals("GET")) {
+			if(query.containsKey("email")) {
+				Student student = manager.findStudentByEmail(query.get("email"));
+				send(exchange, 200, json -> json.student(student));
+			} else if(query.containsKey("limit")) {
+				List<Student> page = manager.getStudents(intParameter(query, "after", 0), intParameter(query, "limit", 0));
+				send(exchange, 200, json -> writeStudents(json, page.iterator()));
+			} else {
+				Stream<Student> all = manager.streamStudents();
+				send(exchange, 200, json -> writeStudents(json, all.iterator()));
+			}
+		} else if(method.equals("POST")) {
+			Object body = body(exchange);
+			if(body instanceof List) {
+				List<Student> students = new ArrayList<>();
+				for(Object item : (List<?>) body) {
+					students.add(newStudent(asObject(item)));
+				}
+				BatchReport report = manager.registerStudents(students);
+				send(exchange, 200, json -> writeReport(json, report));
+			} else {
+				Student student = newStudent(asObject(body));
+				manager.registerStudent(student.getId(), student.getName(), student.getEmailAddress());
+				send(exchange, 201, json -> json.beginObject().name("id").value(student.getId()).endObject());
+			}
+		} else {
+			methodNotAllowed(exchange);
+		}
+	}
+
+	private void student(HttpExchange exchange, String method, String[] path) throws Exception {
+		int id = pathId(path[1]);
+		if(path.length == 3 && path[2].equals("courses") && method.equals("GET")) {
+			List<Course> courses = manager.getCoursesOfStudent(id);
+			send(exchange, 200, json -> writeCourses(json, courses.iterator()));
+		} else if(path.length == 3 && path[2].equals("completions") && method.equals("GET")) {
+			List<Course> completed = manager.getCompletedCourses(id);
+			send(exchange, 200, json -> writeCourses(json, completed.iterator()));
+		} else {
+			error(exchange, 404, "NotFound", "There is no resource " + exchange.getRequestURI().getPath() + " for " + method + ".");
+		}
+	}
+
+	private void verbosity(HttpExchange exchange, String method) throws IOException {
+		if(method.equals("PUT")) {
+			String name = stringMember(object(exchange), "verbosity");
+			try {
+				manager.setLogVerbosity(LogVerbosity.valueOf(name));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unknown verbosity " + name + ".", e);
+			}
+			noContent(exchange);
+		} else if(method.equals("GET")) {
+			LogVerbosity verbosity = manager.getLogVerbosity();
+			send(exchange, 200, json -> json.beginObject().name("verbosity").value(verbosity.name()).endObject());
+		} else {
+			methodNotAllowed(exchange);
+		}
+	}
+
+	/**
+	 * {@summary It sends a JSON response, written to the connection while it is encoded.}
+	 */
+	private static void send(HttpExchange exchange, int status, Body body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, 0);
+		Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+		body.write(new Json.Writer(out));
+		out.flush();
+	}
+
+	private static void noContent(HttpExchange exchange) throws IOException {
+		exchange.sendResponseHeaders(204, -1);
+	}
+
+	private static void methodNotAllowed(HttpExchange exchange) throws IOException {
+		error(exchange, 405, "MethodNotAllowed", "The method " + exchange.getRequestMethod() + " is not allowed on " + exchange.getRequestURI().getPath() + ".");
+	}
+
+	/**
+	 * {@summary It sends an error, unless the response has already started, in which case the connection is just closed.}
+	 */
+	private static void error(HttpExchange exchange, int status, String error, String message) throws IOException {
+		if(exchange.getResponseCode() != -1) {
+			return;
+		}
+		send(exchange, status, json -> json.beginObject().name("error").value(error).name("message").value(message).endObject());
+	}
+
+	/**
+	 * @return The status of the response to a request that failed with an exception.
+	 */
+	static int statusOf(Exception e) {
+		if(e instanceof MissingCourseException || e instanceof MissingStudentException || e instanceof StudentNotEnrolledException) {
+			return 404;
+		}
+		if(e instanceof CourseAlreadyExistsException || e instanceof StudentAlreadyExistsException || e instanceof StudentAlreadyEnrolledException
+				|| e instanceof FullCourseException || e instanceof ScheduleConflictException || e instanceof MissingPrerequisiteException
+				|| e instanceof UnsupportedOperationException) {
+			return 409;
+		}
+		if(e instanceof PayloadTooLargeException) {
+			return 413;
+		}
+		if(e instanceof CourseBlankInputException || e instanceof StudentBlankInputException || e instanceof EmailFormatException
+				|| e instanceof IllegalArgumentException) {
+			return 400;
+		}
+		return 500;
+	}
+
+	private static void writeCourses(Json.Writer json, Iterator<Course> courses) throws IOException {
+		json.beginArray();
+		while(courses.hasNext()) {
+			json.course(courses.next());
+		}
+		json.endArray();
+	}
+
+	private static void writeStudents(Json.Writer json, Iterator<Student> students) throws IOException {
+		json.beginArray();
+		while(students.hasNext()) {
+			json.student(students.next());
+		}
+		json.endArray();
+	}
+
+	private static void writeReport(Json.Writer json, BatchReport report) throws IOException {
+		json.beginObject().name("succeeded").value(report.getSuccessCount()).name("failed").value(report.getFailureCount());
+		json.name("failures").beginArray();
+		for(Map.Entry<Integer, Exception> failure : report.getFailures().entrySet()) {
+			json.beginObject().name("index").value(failure.getKey()).name("error").value(failure.getValue().getClass().getSimpleName()).endObject();
+		}
+		json.endArray().endObject();
+	}
+
+	/**
+	 * {@summary It reads and parses the body of a request.}
+	 * @throws PayloadTooLargeException as soon as the declared length or the bytes read exceed the maximum size.
+	 */
+	private Object body(HttpExchange exchange) throws IOException {
+		int limit = maxBodySize;
+		String length = exchange.getRequestHeaders().getFirst("Content-Length");
+		if(length != null && Long.parseLong(length.trim()) > limit) {
+			throw new PayloadTooLargeException(limit);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] chunk = new byte[4096];
+		try(InputStream in = exchange.getRequestBody()) {
+			for(int read = in.read(chunk); read >= 0; read = in.read(chunk)) {
+				if(bytes.size() + read > limit) {
+					throw new PayloadTooLargeException(limit);
+				}
+				bytes.write(chunk, 0, read);
+			}
+		}
+		return Json.parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	private Map<String, Object> object(HttpExchange exchange) throws IOException {
+		return asObject(body(exchange));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> asObject(Object value) {
+		if(!(value instanceof Map)) {
+			throw new IllegalArgumentException("A JSON object was expected.");
+		}
+		return (Map<String, Object>) value;
+	}
+
+	private static Student newStudent(Map<String, Object> body) throws StudentBlankInputException, EmailFormatException {
+		return new Student(intMember(body, "id"), stringMember(body, "name"), stringMember(body, "email"));
+	}
+
+	private static int intMember(Map<String, Object> object, String name) {
+		return toInt(object.get(name), name);
+	}
+
+	private static String stringMember(Map<String, Object> object, String name) {
+		Object value = object.get(name);
+		if(value != null && !(value instanceof String)) {
+			throw new IllegalArgumentException("The member " + name + " must be a string.");
+		}
+		return (String) value;
+	}
+
+	private static int toInt(Object value, String name) {
+		if(!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+			throw new IllegalArgumentException("The member " + name + " must be an integer.");
+		}
+		return ((Long) value).intValue();
+	}
+
+	private static int[] ids(Object value) {
+		if(!(value instanceof List)) {
+			throw new IllegalArgumentException("The member students must be a list of identifiers.");
+		}
+		List<?> list = (List<?>) value;
+		int[] ids = new int[list.size()];
+		for(int i = 0; i < ids.length; i++) {
+			ids[i] = toInt(list.get(i), "students");
+		}
+		return ids;
+	}
+
+	private static Timetable timetable(Object value) {
+		if(value == null) {
+			return Timetable.EMPTY;
+		}
+		if(!(value instanceof List)) {
+			throw new IllegalArgumentException("The member timetable must be a list of meetings.");
+		}
+		Timetable timetable = Timetable.EMPTY;
+		for(Object item : (List<?>) value) {
+			Map<String, Object> meeting = asObject(item);
+			try {
+				timetable = timetable.with(DayOfWeek.valueOf(stringMember(meeting, "day")),
+						LocalTime.parse(stringMember(meeting, "start")), LocalTime.parse(stringMember(meeting, "end")));
+			} catch (DateTimeParseException | NullPointerException e) {
+				throw new IllegalArgumentException("Every meeting needs a day, a start and an end such as 09:00.", e);
+			}
+		}
+		return timetable;
+	}
+
+	private static int pathId(String segment) {
+		try {
+			return Integer.parseInt(segment);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Not an identifier: " + segment + ".", e);
+		}
+	}
+
+	private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+		String value = query.get(name);
+		try {
+			return value == null ? defaultValue : Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("The parameter " + name + " must be an integer.", e);
+		}
+	}
+
+	private static Map<String, String> query(String rawQuery) throws UnsupportedEncodingException {
+		Map<String, String> parameters = new HashMap<>();
+		if(rawQuery == null || rawQuery.isEmpty()) {
+			return parameters;
+		}
+		for(String pair : rawQuery.split("&")) {
+			int equals = pair.indexOf('=');
+			String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), "UTF-8");
+			parameters.put(name, equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+		}
+		return parameters;
+	}
+
+	/**
+	 * This exception is thrown when the body of a request is larger than the maximum size, and is answered with the status 413.
+	 */
+	static final class PayloadTooLargeException extends IllegalArgumentException {
+		private static final long serialVersionUID = 1L;
+
+		PayloadTooLargeException(int limit) {
+			super("The request body is larger than " + limit + " bytes.");
+		}
+	}
+}
@@ -0,0 +1,408 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class is an append-only file that records the successful mutations of an enrollment manager.
+ *
+ * <p>Every record is written as its length in bytes, the CRC-32 of its content and the content itself,
+ * which starts with the type of the operation followed by its arguments. Integers are big-endian,
+ * strings are written as their length in bytes followed by their UTF-8 encoding, and timetables as the
+ * {@code long} words of their bitmask.
+ *
+ * <p>Records are accumulated in memory and only written and forced to the storage device by {@link #flush()},
+ * so many records share a single {@code fsync}. When the journal is replayed, a record that was only partially
+ * written before a crash is detected by its length or its checksum, and the file is truncated before it.
+ *
+ * <p>The journal fails stop: once a flush has failed, the file may end with a torn record and the device may have
+ * dropped pages that were already written, so retrying cannot be trusted. Every later append or flush is rejected,
+ * and the owner must start a new journal from a snapshot.
+ *
+ * <p>This class is not thread-safe. {@link JournaledEnrollmentManager} calls it while holding its own lock.
+ *
+ */
+final class EnrollmentJournal implements AutoCloseable {
+	static final byte REGISTER_COURSE = 1;
+	static final byte REGISTER_STUDENT = 2;
+	static final byte ENROLL = 3;
+	static final byte CANCEL_ENROLLMENT = 4;
+	static final byte RESTART_COURSE = 5;
+	static final byte ENROLL_ALL = 6;
+	static final byte REGISTER_COURSE_WITH_CAPACITY = 7;
+	static final byte ENROLL_OR_WAITLIST = 8;
+	static final byte LEAVE_WAITLIST = 9;
+	static final byte REGISTER_COURSE_WITH_TIMETABLE = 10;
+	static final byte ADD_PREREQUISITE = 11;
+	static final byte COMPLETE_COURSE = 12;
+
+	private static final int HEADER = 2 * Integer.BYTES;
+	private static final int INITIAL_BUFFER = 64 * 1024;
+
+	private static final Logger logger = LoggerFactory.getLogger(EnrollmentJournal.class);
+
+	private final FileChannel channel;
+	private final CRC32 crc = new CRC32();
+	private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER);
+	private int recordStart;
+	private int pending;
+	private IOException failure;
+
+	EnrollmentJournal(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * {@summary It opens a journal to append records at its end, creating the file if needed.}
+	 * @param file Specifies the journal file.
+	 * @return The opened journal.
+	 * @throws IOException when the file cannot be opened.
+	 */
+	static EnrollmentJournal open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		channel.position(channel.size());
+		return new EnrollmentJournal(channel);
+	}
+
+	/**
+	 * @return The number of records appended since the last flush.
+	 */
+	int pending() {
+		return pending;
+	}
+
+	/**
+	 * {@summary It checks that records can still be appended.}
+	 * @throws UncheckedIOException when a previous flush has failed.
+	 */
+	void checkWritable() {
+		if(failure != null) {
+			throw new UncheckedIOException("The journal has failed and rejects further records.", failure);
+		}
+	}
+
+	void registerCourse(int code, String name, String coordinator) {
+		begin(REGISTER_COURSE);
+		putInt(code);
+		putString(name);
+		putString(coordinator);
+		end();
+	}
+
+	void registerCourse(int code, String name, String coordinator, int capacity) {
+		begin(REGISTER_COURSE_WITH_CAPACITY);
+		putInt(code);
+		putString(name);
+		putString(coordinator);
+		putInt(capacity);
+		end();
+	}
+
+	void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) {
+		begin(REGISTER_COURSE_WITH_TIMETABLE);
+		putInt(code);
+		putString(name);
+		putString(coordinator);
+		putInt(capacity);
+		for(int i = 0; i < Timetable.WORDS; i++) {
+			putLong(timetable.word(i));
+		}
+		end();
+	}
+
+	void registerStudent(int id, String name, String email) {
+		begin(REGISTER_STUDENT);
+		putInt(id);
+		putString(name);
+		putString(email);
+		end();
+	}
+
+	void enroll(int courseCode, int studentId) {
+		begin(ENROLL);
+		putInt(courseCode);
+		putInt(studentId);
+		end();
+	}
+
+	void enrollAll(int courseCode, int[] studentIds, int count) {
+		begin(ENROLL_ALL);
+		putInt(courseCode);
+		putInt(count);
+		for(int i = 0; i < count; i++) {
+			putInt(studentIds[i]);
+		}
+		end();
+	}
+
+	void enrollOrWaitlist(int courseCode, int studentId) {
+		begin(ENROLL_OR_WAITLIST);
+		putInt(courseCode);
+		putInt(studentId);
+		end();
+	}
+
+	void leaveWaitlist(int courseCode, int studentId) {
+		begin(LEAVE_WAITLIST);
+		putInt(courseCode);
+		putInt(studentId);
+		end();
+	}
+
+	void cancelEnrollment(int courseCode, int studentId) {
+		begin(CANCEL_ENROLLMENT);
+		putInt(courseCode);
+		putInt(studentId);
+		end();
+	}
+
+	void addPrerequisite(int courseCode, int prerequisiteCode) {
+		begin(ADD_PREREQUISITE);
+		putInt(courseCode);
+		putInt(prerequisiteCode);
+		end();
+	}
+
+	void completeCourse(int courseCode, int studentId) {
+		begin(COMPLETE_COURSE);
+		putInt(courseCode);
+		putInt(studentId);
+		end();
+	}
+
+	void restartCourse(int courseCode) {
+		begin(RESTART_COURSE);
+		putInt(courseCode);
+		end();
+	}
+
+	/**
+	 * {@summary It writes the pending records and forces them to the storage device.}
+	 * @throws IOException when the records cannot be written, now or by a previous flush. The journal then rejects
+	 * every later append and flush.
+	 */
+	void flush() throws IOException {
+		if(failure != null) {
+			throw new IOException("The journal has failed and can no longer be flushed.", failure);
+		}
+		if(pending == 0) {
+			return;
+		}
+		buffer.flip();
+		try {
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		} catch (IOException | RuntimeException e) {
+			failure = e instanceof IOException ? (IOException) e : new IOException(e);
+			throw e;
+		} finally {
+			buffer.clear();
+			pending = 0;
+		}
+	}
+
+	/**
+	 * {@summary It closes the file without writing the pending records.}
+	 * It is used when a snapshot already holds every record of the journal.
+	 * @throws IOException when the file cannot be closed.
+	 */
+	void discard() throws IOException {
+		buffer.clear();
+		pending = 0;
+		channel.close();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * {@summary It applies every complete record of a journal to a manager.}
+	 * If the journal ends with an incomplete or corrupted record, the file is truncated before it.
+	 * @param file Specifies the journal file. Nothing is done if it does not exist.
+	 * @param manager Specifies the manager to which the operations are applied, in the order in which they were recorded.
+	 * @return The number of records applied.
+	 * @throws IOException when the file cannot be read, or a record cannot be applied to the manager.
+	 */
+	static int replay(Path file, InterfaceEnrollmentManager manager) throws IOException {
+		if(!Files.exists(file)) {
+			return 0;
+		}
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE) {
+				throw new IOException("The journal " + file + " is too large to be replayed. It should be compacted more often.");
+			}
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			CRC32 crc = new CRC32();
+			int applied = 0;
+			while(data.remaining() >= HEADER) {
+				int start = data.position();
+				int length = data.getInt();
+				int checksum = data.getInt();
+				if(length <= 0 || length > data.remaining()) {
+					data.position(start);
+					break;
+				}
+				ByteBuffer record = data.slice();
+				record.limit(length);
+				crc.reset();
+				crc.update(record.duplicate());
+				if((int) crc.getValue() != checksum) {
+					data.position(start);
+					break;
+				}
+				apply(record, manager);
+				data.position(start + HEADER + length);
+				applied++;
+			}
+			if(data.position() < size) {
+				logger.warn("\n--Discarding {} bytes of an incomplete record at the end of the journal {}.", size - data.position(), file);
+				channel.truncate(data.position());
+				channel.force(false);
+			}
+			return applied;
+		}
+	}
+
+	/**
+	 * {@summary It applies a single record to a manager.}
+	 * @param record Specifies the content of the record.
+	 * @param manager Specifies the manager to which the operation is applied.
+	 * @throws IOException when the record is unknown or the operation fails.
+	 */
+	private static void apply(ByteBuffer record, InterfaceEnrollmentManager manager) throws IOException {
+		byte type = record.get();
+		try {
+			switch(type) {
+				case REGISTER_COURSE:
+					manager.registerCourse(record.getInt(), getString(record), getString(record));
+					break;
+				case REGISTER_COURSE_WITH_CAPACITY:
+					manager.registerCourse(record.getInt(), getString(record), getString(record), record.getInt());
+					break;
+				case REGISTER_COURSE_WITH_TIMETABLE:
+					manager.registerCourse(record.getInt(), getString(record), getString(record), record.getInt(), getTimetable(record));
+					break;
+				case REGISTER_STUDENT:
+					manager.registerStudent(record.getInt(), getString(record), getString(record));
+					break;
+				case ENROLL:
+					manager.enroll(record.getInt(), record.getInt());
+					break;
+				case ENROLL_ALL:
+					int courseCode = record.getInt();
+					int[] ids = new int[record.getInt()];
+					for(int i = 0; i < ids.length; i++) {
+						ids[i] = record.getInt();
+					}
+					BatchReport report = manager.enrollAll(courseCode, ids);
+					if(report.getFailureCount() > 0) {
+						throw new IOException("The journal does not match the state of the manager.", report.getFailures().values().iterator().next());
+					}
+					break;
+				case ENROLL_OR_WAITLIST:
+					manager.enrollOrWaitlist(record.getInt(), record.getInt());
+					break;
+				case LEAVE_WAITLIST:
+					manager.leaveWaitlist(record.getInt(), record.getInt());
+					break;
+				case CANCEL_ENROLLMENT:
+					manager.cancelEnrollment(record.getInt(), record.getInt());
+					break;
+				case RESTART_COURSE:
+					manager.restartCourse(record.getInt());
+					break;
+				case ADD_PREREQUISITE:
+					manager.addPrerequisite(record.getInt(), record.getInt());
+					break;
+				case COMPLETE_COURSE:
+					manager.completeCourse(record.getInt(), record.getInt());
+					break;
+				default:
+					throw new IOException("Unknown journal record: " + type + ".");
+			}
+		} catch (CourseAlreadyExistsException | CourseBlankInputException | StudentAlreadyExistsException
+				| StudentBlankInputException | EmailFormatException | StudentAlreadyEnrolledException
+				| FullCourseException | MissingPrerequisiteException | ScheduleConflictException | MissingStudentException | MissingCourseException | StudentNotEnrolledException e) {
+			throw new IOException("The journal does not match the state of the manager.", e);
+		}
+	}
+
+	private static String getString(ByteBuffer record) {
+		byte[] bytes = new byte[record.getInt()];
+		record.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static Timetable getTimetable(ByteBuffer record) {
+		long[] words = new long[Timetable.WORDS];
+		for(int i = 0; i < words.length; i++) {
+			words[i] = record.getLong();
+		}
+		return Timetable.of(words);
+	}
+
+	private void begin(byte type) {
+		checkWritable();
+		ensure(HEADER + 1);
+		recordStart = buffer.position();
+		buffer.position(recordStart + HEADER);
+		buffer.put(type);
+	}
+
+	private void end() {
+		int length = buffer.position() - recordStart - HEADER;
+		crc.reset();
+		crc.update(buffer.array(), recordStart + HEADER, length);
+		buffer.putInt(recordStart, length);
+		buffer.putInt(recordStart + Integer.BYTES, (int) crc.getValue());
+		pending++;
+	}
+
+	private void putInt(int value) {
+		ensure(Integer.BYTES);
+		buffer.putInt(value);
+	}
+
+	private void putLong(long value) {
+		ensure(Long.BYTES);
+		buffer.putLong(value);
+	}
+
+	private void putString(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		ensure(Integer.BYTES + bytes.length);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+
+	/**
+	 * Grows the buffer, keeping its content, when fewer than {@code count} bytes are left.
+	 */
+	private void ensure(int count) {
+		if(buffer.remaining() < count) {
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + count));
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+	}
+}
@@ -0,0 +1,325 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class measures an {@link EnrollmentHttpServer} by sending it a mix of requests from many concurrent clients.
+ *
+ * <p>{@link #prepare()} registers the courses and the students. {@link #run(int, int, int, int, long)} then makes every client
+ * send its requests back to back, each one chosen at random among:
+ * <br><li> Enroll: {@code POST /courses/{code}/enrollments?mode=try} with a random student.
+ * <br><li> Cancel: {@code DELETE /courses/{code}/enrollments/{id}} with a random student, who may not be enrolled.
+ * <br><li> Query: {@code GET /courses/{code}/enrollments}, which reads the whole roster.
+ *
+ * <p>The latency of every request is recorded in a {@link LatencyHistogram} per kind, and the {@link Report} gives the
+ * throughput and the percentiles of each one. Rejections, such as a full course or a cancellation of a student who is
+ * not enrolled, are normal answers; only failed connections and server errors count as errors.
+ *
+ * <p>It can also be run from the command line with arguments such as {@code clients=16 requests=2000 enroll=40 cancel=20}:
+ * <pre>mvn compile exec:java -Dexec.mainClass=es.upm.pproject.miniproject.miniproject.EnrollmentLoadGenerator -Dexec.args="clients=16"</pre>
+ * Without a {@code url} argument, it starts a server on a free port over a {@link ConcurrentEnrollmentManager} and measures it.
+ *
+ */
+public final class EnrollmentLoadGenerator {
+	private final String baseUrl;
+	private final int courses;
+	private final int students;
+	private final int capacity;
+
+	/**
+	 * The kinds of request sent by the generator.
+	 */
+	public enum Operation {
+		ENROLL, CANCEL, QUERY
+	}
+
+	/**
+	 * The results of a run.
+	 */
+	public static final class Report {
+		private final Map<Operation, LatencyHistogram> latencies;
+		private final Map<Operation, Long> errors;
+		private final long elapsedNanos;
+
+		private Report(Map<Operation, LatencyHistogram> latencies, Map<Operation, Long> errors, long elapsedNanos) {
+			this.latencies = latencies;
+			this.errors = errors;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * @return The number of requests sent, successful or not.
+		 */
+		public long getCount() {
+			long count = 0;
+			for(Operation operation : Operation.values()) {
+				count += getCount(operation);
+			}
+			return count;
+		}
+
+		/**
+		 * @param operation Specifies the kind of request.
+		 * @return The number of requests of that kind sent, successful or not.
+		 */
+		public long getCount(Operation operation) {
+			return latencies.get(operation).getCount();
+		}
+
+		/**
+		 * @param operation Specifies the kind of request.
+		 * @return The number of requests of that kind that failed to connect or got a server error.
+		 */
+		public long getErrors(Operation operation) {
+			return errors.get(operation);
+		}
+
+		/**
+		 * @param operation Specifies the kind of request.
+		 * @return The latencies of the requests of that kind, in nanoseconds.
+		 */
+		public LatencyHistogram getLatencies(Operation operation) {
+			return latencies.get(operation);
+		}
+
+		/**
+		 * @return The time from the start of the first client to the end of the last one, in nanoseconds.
+		 */
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/**
+		 * @return The number of requests answered per second over the whole run.
+		 */
+		public double getThroughput() {
+			return elapsedNanos == 0 ? 0 : getCount() * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * @return A table with the count, errors, mean, p50, p99 and maximum latency of every kind of request, in microseconds,
+		 * followed by the throughput.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(String.format("operation     count  errors    mean_us     p50_us     p99_us     max_us%n"));
+			for(Operation operation : Operation.values()) {
+				LatencyHistogram histogram = latencies.get(operation);
+				sb.append(String.format("%-9s %9d %7d %10.1f %10.1f %10.1f %10.1f%n", operation, histogram.getCount(), errors.get(operation),
+						histogram.getMean() / 1e3, histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3, histogram.getMax() / 1e3));
+			}
+			return sb.append(String.format("throughput: %.1f requests/s over %.3f s", getThroughput(), elapsedNanos / 1e9)).toString();
+		}
+	}
+
+	/**
+	 * This constructor creates a generator for a server.
+	 * @param baseUrl Specifies the address of the server, such as {@code http://localhost:8080}.
+	 * @param courses Specifies the number of courses, with codes from 1.
+	 * @param students Specifies the number of students, with identifiers from 1.
+	 * @param capacity Specifies the capacity of every course.
+	 * @throws IllegalArgumentException when there are no courses or no students, or the capacity is not positive.
+	 */
+	public EnrollmentLoadGenerator(String baseUrl, int courses, int students, int capacity) {
+		if(courses <= 0 || students <= 0 || capacity <= 0) {
+			throw new IllegalArgumentException("The courses, the students and the capacity must be positive.");
+		}
+		this.baseUrl = baseUrl.replaceAll("/+$", "");
+		this.courses = courses;
+		this.students = students;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * {@summary It registers the courses and the students in the server.}
+	 * Those that are already registered are kept.
+	 * @throws IOException when the server cannot be reached or answers with an unexpected status.
+	 */
+	public void prepare() throws IOException {
+		for(int code = 1; code <= courses; code++) {
+			expect(send("POST", "/courses", "{\"code\":" + code + ",\"name\":\"Course" + code + "\",\"coordinator\":\"Coordinator" + code
+					+ "\",\"capacity\":" + capacity + "}"), 201, 409);
+		}
+		StringBuilder batch = new StringBuilder("[");
+		for(int id = 1; id <= students; id++) {
+			batch.append(id == 1 ? "" : ",").append("{\"id\":").append(id).append(",\"name\":\"Student").append(id)
+				.append("\",\"email\":\"student").append(id).append("@gmail.com\"}");
+		}
+		expect(send("POST", "/students", batch.append(']').toString()), 200);
+	}
+
+	/**
+	 * {@summary It sends a mix of requests from concurrent clients and measures them.}
+	 * @param clients Specifies the number of clients, each one on its own thread.
+	 * @param requestsPerClient Specifies the number of requests sent by every client.
+	 * @param enrollPercent Specifies the share of enrollments, in percent.
+	 * @param cancelPercent Specifies the share of cancellations, in percent. The rest are queries.
+	 * @param seed Specifies the seed of the random choices, so that runs can be repeated.
+	 * @return The report of the run.
+	 * @throws IllegalArgumentException when there are no clients or the shares are not between 0 and 100 in total.
+	 * @throws InterruptedException when the thread is interrupted while the clients run.
+	 */
+	public Report run(int clients, int requestsPerClient, int enrollPercent, int cancelPercent, long seed) throws InterruptedException {
+		if(clients <= 0 || requestsPerClient < 0 || enrollPercent < 0 || cancelPercent < 0 || enrollPercent + cancelPercent > 100) {
+			throw new IllegalArgumentException("Invalid load: " + clients + " clients, " + enrollPercent + "% enrollments and " + cancelPercent + "% cancellations.");
+		}
+		Map<Operation, LatencyHistogram> latencies = new HashMap<>();
+		Map<Operation, LongAdder> errors = new HashMap<>();
+		for(Operation operation : Operation.values()) {
+			latencies.put(operation, new LatencyHistogram());
+			errors.put(operation, new LongAdder());
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		List<Future<?>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		try {
+			for(int client = 0; client < clients; client++) {
+				Random random = new Random(seed + client);
+				futures.add(pool.submit(() -> {
+					for(int i = 0; i < requestsPerClient; i++) {
+						int draw = random.nextInt(100);
+						Operation operation = draw < enrollPercent ? Operation.ENROLL : draw < enrollPercent + cancelPercent ? Operation.CANCEL : Operation.QUERY;
+						int code = 1 + random.nextInt(courses);
+						int id = 1 + random.nextInt(students);
+						long sent = System.nanoTime();
+						boolean failed;
+						try {
+							failed = request(operation, code, id) >= 500;
+						} catch (IOException e) {
+							failed = true;
+						}
+						latencies.get(operation).record(System.nanoTime() - sent);
+						if(failed) {
+							errors.get(operation).increment();
+						}
+					}
+				}));
+			}
+			for(Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("A client failed.", e.getCause());
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		long elapsed = System.nanoTime() - start;
+		Map<Operation, Long> totals = new HashMap<>();
+		for(Operation operation : Operation.values()) {
+			totals.put(operation, errors.get(operation).sum());
+		}
+		return new Report(latencies, totals, elapsed);
+	}
+
+	private int request(Operation operation, int code, int id) throws IOException {
+		switch(operation) {
+			case ENROLL:
+				return send("POST", "/courses/" + code + "/enrollments?mode=try", "{\"student\":" + id + "}");
+			case CANCEL:
+				return send("DELETE", "/courses/" + code + "/enrollments/" + id, null);
+			default:
+				return send("GET", "/courses/" + code + "/enrollments", null);
+		}
+	}
+
+	/**
+	 * {@summary It sends a request and reads the whole response, so the connection can be reused by the next request.}
+	 * @return The status of the response.
+	 */
+	private int send(String method, String path, String body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+		connection.setRequestMethod(method);
+		if(body != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+			try(OutputStream out = connection.getOutputStream()) {
+				out.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		int status = connection.getResponseCode();
+		InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+		if(in != null) {
+			try(InputStream response = in) {
+				drain(response);
+			}
+		}
+		return status;
+	}
+
+	private static void drain(InputStream in) throws IOException {
+		byte[] chunk = new byte[8192];
+		while(in.read(chunk) >= 0) {
+			// The body is not needed, only the end of the response.
+		}
+	}
+
+	private static void expect(int status, int... expected) throws IOException {
+		for(int allowed : expected) {
+			if(status == allowed) {
+				return;
+			}
+		}
+		throw new IOException("Unexpected status " + status + " from the server.");
+	}
+
+	/**
+	 * {@summary It runs the generator from the command line.}
+	 * @param args Specifies the options as {@code name=value}: {@code url}, {@code clients} (8), {@code requests} per client (1000),
+	 * {@code enroll} (40) and {@code cancel} (20) in percent, {@code courses} (100), {@code students} (10000), {@code capacity} (50)
+	 * and {@code seed} (42).
+	 * @throws Exception when the server cannot be started or reached.
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for(String arg : args) {
+			int equals = arg.indexOf('=');
+			if(equals < 0) {
+				throw new IllegalArgumentException("Expected name=value: " + arg);
+			}
+			options.put(arg.substring(0, equals), arg.substring(equals + 1));
+		}
+		EnrollmentHttpServer server = null;
+		String url = options.get("url");
+		if(url == null) {
+			ConcurrentEnrollmentManager manager = new ConcurrentEnrollmentManager();
+			manager.setLogVerbosity(LogVerbosity.QUIET);
+			EnrollmentHttpServer.enableNoDelay();
+			server = EnrollmentHttpServer.start(manager, 0);
+			url = "http://localhost:" + server.getPort();
+		}
+		try {
+			EnrollmentLoadGenerator generator = new EnrollmentLoadGenerator(url, option(options, "courses", 100),
+					option(options, "students", 10_000), option(options, "capacity", 50));
+			generator.prepare();
+			Report report = generator.run(option(options, "clients", 8), option(options, "requests", 1000),
+					option(options, "enroll", 40), option(options, "cancel", 20), option(options, "seed", 42));
+			System.out.println(report);
+		} finally {
+			if(server != null) {
+				server.close();
+			}
+		}
+	}
+
+	private static int option(Map<String, String> options, String name, int defaultValue) {
+		String value = options.get(name);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+}
@@ -1,10 +1,11 @@
 package es.upm.pproject.miniproject.miniproject;
 
-import java.util.*;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,25 +45,62 @@ import org.slf4j.LoggerFactory;
  * 
  */
 public class EnrollmentManager implements InterfaceEnrollmentManager{
-    private Map<Integer, Course> courses;
-    private Map<Integer, Student> students;
-    private Map<Integer, List<Student>> enrollment;
+    private IntHashMap<Course> courses;
+    private StudentStore students;
+    private IntHashMap<SortedIntSet> enrollment;
+    private IntHashMap<SortedIntSet> coursesOfStudent;
+    private IntHashMap<LinkedHashSet<Integer>> waitlists;
+    private IntHashMap<Timetable> schedules;
+    private PrerequisiteGraph prerequisites;
 
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentManager.class);
     
-    private static final String MSG_NOT_REGISTERED = " was not registered in the system.";
-    private static final String MSG_NAME = "\n\tName: ";
-    private static final String MSG_EMAIL = "\n\tE-mail: ";
+    private static final String MSG_NOT_REGISTERED = "{} was not registered in the system.";
+
+    private static final SortedIntSet NO_COURSES = new SortedIntSet();
     
+    private LogVerbosity verbosity;
     
     /**
      * This constructor creates an object of type EnrollmentManager that will take care of managing the database.
+     * It logs with {@link LogVerbosity#FULL} verbosity.
      * 
      */
     public EnrollmentManager() {
-        courses= new TreeMap<>();
-        students= new TreeMap<>();
-        enrollment= new HashMap<>();
+        this(new HeapStudentStore());
+    }
+
+    /**
+     * This constructor creates an EnrollmentManager that keeps its students in the given store, for instance
+     * a {@link MappedStudentStore} for registries too large for the heap. Students already kept in the store
+     * are registered in the manager, without scanning them: the store also indexes their e-mail addresses.
+     * It logs with {@link LogVerbosity#FULL} verbosity.
+     * @param students Specifies the store of the students.
+     */
+    public EnrollmentManager(StudentStore students) {
+        courses= new IntHashMap<>();
+        this.students= students;
+        enrollment= new IntHashMap<>();
+        coursesOfStudent= new IntHashMap<>();
+        waitlists= new IntHashMap<>();
+        schedules= new IntHashMap<>();
+        prerequisites= new PrerequisiteGraph();
+        verbosity= LogVerbosity.FULL;
+    }
+    
+    /**
+     * {@summary It changes how much the manager writes to its log.}
+     * @param verbosity Specifies the new verbosity. {@link LogVerbosity#SUMMARY} or {@link LogVerbosity#QUIET} are recommended in production.
+     */
+    public void setLogVerbosity(LogVerbosity verbosity) {
+        this.verbosity = verbosity;
+    }
+    
+    /**
+     * @return The verbosity with which the manager is currently logging.
+     */
+    public LogVerbosity getLogVerbosity() {
+        return verbosity;
     }
     
     /**
@@ -83,24 +121,52 @@ public class EnrollmentManager implements InterfaceEnrollmentManager{
      * <br><li> {@code registerCourse(1, "Computer Science 101", " ")} will throw a {@code CourseBlankInputException()}.
      */
     public void registerCourse(int code, String name, String coordinator) throws CourseAlreadyExistsException, CourseBlankInputException {
-    	String msglog = "\n--Resgistering course...\n\tCode: " + code + MSG_NAME + name + "\n\tCoordinator: " + coordinator + ".";
-    	logger.info(msglog);
+        registerCourse(code, name, coordinator, Course.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * {@summary It registers a new course with a given capacity.}
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @throws CourseAlreadyExistsException when the course's code is already registered in the database.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     */
+    public void registerCourse(int code, String name, String coordinator, int capacity) throws CourseAlreadyExistsException, CourseBlankInputException {
+        registerCourse(code, name, coordinator, capacity, Timetable.EMPTY);
+    }
+
+    /**
+     * {@summary It registers a new course with a given capacity and weekly meetings.}
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @param timetable Specifies when the course meets every week. Students cannot be enrolled in it and in another course that meets at the same time.
+     * @throws CourseAlreadyExistsException when the course's code is already registered in the database.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     */
+    public void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) throws CourseAlreadyExistsException, CourseBlankInputException {
+    	if(logSteps()) {
+    		logger.info("\n--Resgistering course...\n\tCode: {}\n\tName: {}\n\tCoordinator: {}\n\tCapacity: {}\n\tTimetable: {}.", code, name, coordinator, capacity, timetable);
+    	}
         if(courses.get(code)==null) {
-            msglog = "\n\t----Creating course " + code + "...";
-            logger.info(msglog);
-                
-            courses.put(code, new Course(code, name, coordinator));
-            
-            msglog = "\n\t----Course " + code + " successfully created.";
-            logger.info(msglog);
-            
-            enrollment.put(code, new ArrayList<>());
-            
-            msglog = "\n--Course successfully registered in the system\n\tCode: " + code + MSG_NAME + name + "\n\tCoordinator: "+ coordinator + ".";
-            logger.info(msglog);
+            if(logSteps()) {
+                logger.info("\n\t----Creating course {}...", code);
+            }
+            courses.put(code, new Course(code, name, coordinator, capacity, timetable));
+            if(logSteps()) {
+                logger.info("\n\t----Course {} successfully created.", code);
+            }
+            enrollment.put(code, new SortedIntSet());
+            if(logEvents()) {
+                logger.info("\n--Course successfully registered in the system\n\tCode: {}\n\tName: {}\n\tCoordinator: {}.", code, name, coordinator);
+            }
         }else {
-        	msglog = "\n--CourseAlreadyExistsException(): Can't register course. Course with code: " + code + " already registered in the system.";
-            logger.error(msglog);
+            if(logRejections()) {
+                logger.error("\n--CourseAlreadyExistsException(): Can't register course. Course with code: {} already registered in the system.", code);
+            }
             throw new CourseAlreadyExistsException();
         }
     }
@@ -128,136 +194,280 @@ public class EnrollmentManager implements InterfaceEnrollmentManager{
      * 
      */
     public void registerStudent(int id, String name, String email) throws StudentAlreadyExistsException, StudentBlankInputException, EmailFormatException {
-    	String msglog = "\n--Registering student...\n\tIdentification: " + id + MSG_NAME + name + MSG_EMAIL + email + ".";
-        logger.info(msglog);
-        if(students.get(id)==null) {
-            msglog = "\n\t----Creating student " + id + "...";
-            logger.info(msglog);
-                
-            students.put(id, new Student(id, name, email));
-            
-            msglog = "\n--Student successfully registered in the system\n\tIdentification: " + id + MSG_NAME + name + MSG_EMAIL + email + ".";
-            logger.info(msglog);
+    	if(logSteps()) {
+    		logger.info("\n--Registering student...\n\tIdentification: {}\n\tName: {}\n\tE-mail: {}.", id, name, email);
+    	}
+        if(!students.contains(id)) {
+            if(logSteps()) {
+                logger.info("\n\t----Creating student {}...", id);
+            }
+            // The identifier is free, so the store only rejects the student for its e-mail address.
+            if(!students.add(new Student(id, name, email))) {
+                if(logRejections()) {
+                    logger.error("\n--StudentAlreadyExistsException(): Can't register student. Student with e-mail: {} already registered in the system.", email);
+                }
+                throw new StudentAlreadyExistsException();
+            }
+            if(logEvents()) {
+                logger.info("\n--Student successfully registered in the system\n\tIdentification: {}\n\tName: {}\n\tE-mail: {}.", id, name, email);
+            }
         }else {
-        	msglog = "\n--StudentAlreadyExistsException(): Can't register student. Student with identification: " + id + " already registered in the system.";
-            logger.error(msglog);
-            
+            if(logRejections()) {
+                logger.error("\n--StudentAlreadyExistsException(): Can't register student. Student with identification: {} already registered in the system.", id);
+            }
             throw new StudentAlreadyExistsException();
         }
     }
+    /**
+     * {@summary It registers several students at once.}
+     * The students have already been validated by their constructor, so they are not validated again.
+     * An item fails with the same exception that {@link #registerStudent(int, String, String)} would throw:
+     * <br><li> {@code StudentBlankInputException} when the item is null.
+     * <br><li> {@code StudentAlreadyExistsException} when the student's id or e-mail is already registered, or appears earlier in the batch.
+     * @param newStudents Specifies the students to register.
+     * @return A report with the outcome of every student, in the iteration order of the collection.
+     */
+    public BatchReport registerStudents(Collection<Student> newStudents) {
+        BatchReport report = new BatchReport(newStudents.size());
+        int index = 0;
+        for(Student student : newStudents) {
+            if(student == null) {
+                report.fail(index, new StudentBlankInputException());
+            } else if(!students.add(student)) {
+                report.fail(index, new StudentAlreadyExistsException());
+            }
+            index++;
+        }
+        if(logEvents()) {
+            logger.info("\n--{} of {} students successfully registered in the system.", report.getSuccessCount(), report.size());
+        }
+        return report;
+    }
+
 	/**
 	 * {@summary It enrolls a student in a course.} 
 	 * @param courseCode Specifies the unique course identifier of an already registered course.
 	 * @param studentId Specifies the unique student identifier of an already registered student.
 	 * @throws StudentAlreadyEnrolledException when the student is already enrolled in the course.
-	 * @throws FullCourseException when there are already 50 students enrolled in the course.
+	 * @throws FullCourseException when the capacity of the course is already filled.
+	 * @throws MissingPrerequisiteException when the student has not completed all the prerequisites of the course, direct or not.
+	 * @throws ScheduleConflictException when the course meets at the same time as another course of the student.
 	 * @throws MissingStudentException when the student's unique identifier is not registered in the database.
 	 * @throws MissingCourseException  when the course's unique code is not registered in the database.
 	 * @
 	 */
-    public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingStudentException, MissingCourseException {
-    	String msglog = "\n--Enrolling student...\n\tIdentification: " + studentId + "\n\tin course:\n\tCode: " + courseCode + ".";
-        logger.info(msglog);
-        if(students.get(studentId)!= null && courses.get(courseCode)!=null) {
-            List<Student> studentsEnrolled = enrollment.get(courseCode);
-            if(studentsEnrolled.size()<50) {
-                if(!isEnrolled(studentId, studentsEnrolled)) {
-                    sortedInsert(courseCode, studentId, studentsEnrolled);
-                    msglog = "\n--Student " + studentId + " successfully enrolled in course " + courseCode + ".";
-                    logger.info(msglog);
-                } else {
-                    logger.error("\n--StudentAlreadyEnrolledException(): Can't enroll student. Student already enrolled in the course.");
-                    throw new StudentAlreadyEnrolledException();
-                }
-            } else {
-            	msglog = "\n--FullCourseException(): Can't enroll the student "+studentId+". There are already 50 students enrolled in " + courseCode +".";
-                logger.error(msglog);
-                throw new FullCourseException();
-            }
-        } else if(students.get(studentId)== null) {
-        	msglog = "\n--MissingStudentException(): Can't enroll student. Student " + studentId + MSG_NOT_REGISTERED;
-            logger.error(msglog);
-            throw new MissingStudentException();
-        } else {
-        	msglog = "\n--MissingCourseException(): Can't enroll student. Course "+ courseCode + MSG_NOT_REGISTERED;
-            logger.error(msglog);
-            throw new MissingCourseException();
+    public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+        EnrollmentOutcome outcome = tryEnroll(courseCode, studentId);
+        if(outcome != EnrollmentOutcome.ENROLLED) {
+            outcome.raise(courses.get(courseCode));
         }
     }
-    /**
-     * {@summary It enrolls a student in a course in a sorted way.}
-     * @param course_code Specifies the course's unique code.
-     * @param student_id Specifies the student's unique identifier.
-     * @param students_enrolled Specifies the list of students already enrolled in the course.
-     */
-    private void sortedInsert(int courseCode, int studentId, List<Student> studentsEnrolled) {
-        int a = 0;
-        int b = studentsEnrolled.size() - 1;
-        while(a<=b) {
-            int middle = (a + b)/2;
-            if(studentsEnrolled.get(middle).getId()<=studentId) {
-                a = middle + 1;
-            } else {
-                b = middle -1;
+
+	/**
+	 * {@summary It enrolls a student in a course, reporting a rejection as a result instead of an exception.}
+	 * Rejections are logged like the ones of {@link #enroll(int, int)}, but no exception is created.
+	 * @param courseCode Specifies the unique course identifier.
+	 * @param studentId Specifies the unique student identifier.
+	 * @return {@link EnrollmentOutcome#ENROLLED} if the student has been enrolled, or the reason of the rejection otherwise.
+	 */
+    public EnrollmentOutcome tryEnroll(int courseCode, int studentId) {
+    	if(logSteps()) {
+    		logger.info("\n--Enrolling student...\n\tIdentification: {}\n\tin course:\n\tCode: {}.", studentId, courseCode);
+    	}
+        if(!students.contains(studentId)) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't enroll student. Student " + MSG_NOT_REGISTERED, studentId);
             }
+            return EnrollmentOutcome.MISSING_STUDENT;
         }
-        studentsEnrolled.add(a,students.get(studentId));
-        enrollment.put(courseCode, studentsEnrolled);
+        Course course = courses.get(courseCode);
+        if(course == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): Can't enroll student. Course " + MSG_NOT_REGISTERED, courseCode);
+            }
+            return EnrollmentOutcome.MISSING_COURSE;
+        }
+        SortedIntSet studentsEnrolled = enrollment.get(courseCode);
+        int capacity = course.getCapacity();
+        if(studentsEnrolled.size() >= capacity) {
+            if(logRejections()) {
+                logger.error("\n--FullCourseException(): Can't enroll the student {}. There are already {} students enrolled in {}.", studentId, capacity, courseCode);
+            }
+            return EnrollmentOutcome.COURSE_FULL;
+        }
+        if(studentsEnrolled.contains(studentId)) {
+            if(logRejections()) {
+                logger.error("\n--StudentAlreadyEnrolledException(): Can't enroll student. Student already enrolled in the course.");
+            }
+            return EnrollmentOutcome.ALREADY_ENROLLED;
+        }
+        if(!prerequisites.isQualified(studentId, courseCode)) {
+            if(logRejections()) {
+                logger.error("\n--MissingPrerequisiteException(): Can't enroll the student {}. The student has not completed all the prerequisites of the course {}.", studentId, courseCode);
+            }
+            return EnrollmentOutcome.MISSING_PREREQUISITE;
+        }
+        if(!addCourseOfStudent(studentId, course)) {
+            if(logRejections()) {
+                logger.error("\n--ScheduleConflictException(): Can't enroll the student {}. The course {} meets at the same time as another course of the student.", studentId, courseCode);
+            }
+            return EnrollmentOutcome.SCHEDULE_CONFLICT;
+        }
+        studentsEnrolled.add(studentId);
+        if(logEvents()) {
+            logger.info("\n--Student {} successfully enrolled in course {}.", studentId, courseCode);
+        }
+        return EnrollmentOutcome.ENROLLED;
     }
-    /**
-     * {@summary It checks whether a student is enrolled in a course.}
-     * @param student_id Specifies the student's unique identifier.
-     * @param students_enrolled Specifies the list of students already enrolled in the course.
-     * @return <strong>true</strong> if the student is enrolled in the course and <strong>false</strong> otherwise.
-     */
-    private boolean isEnrolled(int studentId, List<Student> studentsEnrolled) {
-        boolean enrolled = false;
-        int i = 0;
-        while(i<studentsEnrolled.size() && !enrolled) {
-            if(studentsEnrolled.get(i).getId() == studentId) {
-                enrolled = true;
+
+	/**
+	 * {@summary It enrolls several students in a course at once.}
+	 * The course is checked once and the accepted students are merged into its roster in a single pass.
+	 * An item fails with the same exception that {@link #enroll(int, int)} would throw:
+	 * <br><li> {@code MissingStudentException} when the student is not registered.
+	 * <br><li> {@code StudentAlreadyEnrolledException} when the student is already enrolled, or appears earlier in the batch.
+	 * <br><li> {@code FullCourseException} when the remaining seats have been taken by earlier items of the batch.
+	 * <br><li> {@code MissingPrerequisiteException} when the student has not completed all the prerequisites of the course.
+	 * <br><li> {@code ScheduleConflictException} when the course meets at the same time as another course of the student.
+	 * @param courseCode Specifies the unique course identifier of an already registered course.
+	 * @param studentIds Specifies the students to enroll, in order of priority.
+	 * @return A report with the outcome of every student, in the order of the array.
+	 * @throws MissingCourseException when the course's unique code is not registered in the database.
+	 */
+    public BatchReport enrollAll(int courseCode, int[] studentIds) throws MissingCourseException {
+        Course course = courses.get(courseCode);
+        if(course==null) {
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): Can't enroll students. Course " + MSG_NOT_REGISTERED, courseCode);
             }
-            i++;
+            throw new MissingCourseException();
+        }
+        SortedIntSet studentsEnrolled = enrollment.get(courseCode);
+        BatchReport report = new BatchReport(studentIds.length);
+        int[] accepted = BatchEnrollment.select(studentIds, studentsEnrolled, course.getCapacity(), students::contains, id -> prerequisites.isQualified(id, courseCode), id -> addCourseOfStudent(id, course), report);
+        studentsEnrolled.addAllSorted(accepted);
+        if(logEvents()) {
+            logger.info("\n--{} of {} students successfully enrolled in course {}.", report.getSuccessCount(), report.size(), courseCode);
         }
-        return enrolled;
+        return report;
     }
 
     /**
      * {@summary It returns the sorted list of students enrolled in a course.}
      * @param course Specifies the course's unique code.
      * @returns List<Students> when the course is registered in the system. This list is sorted by their identifiers in an ascending order.
+     * It is an immutable version of the course's roster, taken in constant time, so it is not affected by later enrollments and cancellations.
      * @throws MissingCourseException when the course is not registered in the system.
      */
     public List<Student> getStudentsEnrolledInCourse(int course) throws MissingCourseException {
-    	String msglog = "\n--Getting students enrolled in course " + course + "...";
-        logger.info(msglog);
+    	if(logSteps()) {
+    		logger.info("\n--Getting students enrolled in course {}...", course);
+    	}
         if(courses.get(course)==null) {
-        	msglog = "\n--MissingCourseException(): Can't get the students enrolled in the course. Course "+ course + MSG_NOT_REGISTERED;
-            logger.error(msglog);
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): Can't get the students enrolled in the course. Course " + MSG_NOT_REGISTERED, course);
+            }
             throw new MissingCourseException();
         }
-        msglog= "\n--Students enrolled in the course have been successfully obtained:\n";
-        int i=0;
-        if(!enrollment.get(course).isEmpty()) {
-            for(i=0; i<enrollment.get(course).size()-1; i++) {
-                Student s= new ArrayList<Student>(enrollment.get(course)).get(i);
-                
-                StringBuilder sb = new StringBuilder();
-                sb.append("\tIdentification: ").append(s.getId()).append(MSG_NAME)
-                  .append(s.getName()).append(MSG_EMAIL).append(s.getEmailAddress()).append(".\n\n");
-                msglog = msglog.concat(sb.toString());
-            }
-            Student s= new ArrayList<Student>(enrollment.get(course)).get(i);
-            msglog += "\tIdentification: " + s.getId() + MSG_NAME + s.getName() + MSG_EMAIL + s.getEmailAddress() + ".";
-            logger.info(msglog);
-        }else {
-            msglog += "\tThe course is empty.";
-            logger.info(msglog);
+        List<Student> studentsEnrolled = enrollment.get(course).asList(students::get);
+        if(logSteps()) {
+            logger.info(rosterDump(studentsEnrolled));
+        } else if(logEvents()) {
+            logger.info("\n--Students enrolled in course {} have been successfully obtained: {} students.", course, studentsEnrolled.size());
+        }
+        return studentsEnrolled;
+    }
+
+    /**
+     * {@summary It returns a page of the sorted list of students enrolled in a course.}
+     * The start of the page is found with a binary search in the roster, and the page is a view over the current version of the roster.
+     * @param course Specifies the course's unique code.
+     * @param afterId Specifies the identifier after which the page starts. Use 0 for the first page.
+     * @param limit Specifies the maximum number of students of the page. Must be a positive integer.
+     * @returns List<Student> with the first students enrolled in the course whose identifier is greater than {@code afterId}, sorted by their identifiers in an ascending order.
+     * @throws MissingCourseException when the course is not registered in the system.
+     * @throws IllegalArgumentException when the limit is not a positive integer.
+     */
+    public List<Student> getStudentsEnrolledInCourse(int course, int afterId, int limit) throws MissingCourseException {
+        Pages.checkLimit(limit);
+        List<Student> page = getRoster(course, "Can't get the students enrolled in the course").page(afterId, limit, students::get);
+        if(logEvents()) {
+            logger.info("\n--Page of {} students enrolled in course {} after {} successfully obtained.", page.size(), course, afterId);
+        }
+        return page;
+    }
+
+    /**
+     * {@summary It returns a stream over the students enrolled in a course.}
+     * @param course Specifies the course's unique code.
+     * @returns Stream<Student> over the current version of the roster, sorted by their identifiers in an ascending order. It can be run in parallel.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public Stream<Student> streamStudentsEnrolledInCourse(int course) throws MissingCourseException {
+        return getRoster(course, "Can't stream the students enrolled in the course").stream(students::get);
+    }
+
+    /**
+     * {@summary It returns the number of students enrolled in a course, without listing them.}
+     * Nothing is logged unless the course is missing, so the call can be used to poll the size of the rosters.
+     * @param course Specifies the course's unique code.
+     * @returns int with the size of the course's roster.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public int getEnrollmentCount(int course) throws MissingCourseException {
+        return getRoster(course, "Can't count the students enrolled in the course").size();
+    }
+
+    /**
+     * {@summary It returns the sorted list of courses in which a student is enrolled.}
+     * The courses are taken from an index that is updated on every enrollment, cancellation and restart,
+     * so the cost of the call only depends on the number of courses of the student.
+     * @param studentId Specifies the student's unique identifier.
+     * @returns List<Course> when the student is registered in the system. This list is sorted by the courses' codes in an ascending order.
+     * It is an immutable version of the index, taken in constant time, so it is not affected by later enrollments and cancellations.
+     * @throws MissingStudentException when the student is not registered in the system.
+     */
+    public List<Course> getCoursesOfStudent(int studentId) throws MissingStudentException {
+    	if(logSteps()) {
+    		logger.info("\n--Getting courses of student {}...", studentId);
+    	}
+        if(!students.contains(studentId)) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't get the courses of the student. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        SortedIntSet enrolledCourses = coursesOfStudent.getOrDefault(studentId, NO_COURSES);
+        if(logEvents()) {
+            logger.info("\n--The student {} is enrolled in {} courses.", studentId, enrolledCourses.size());
+        }
+        return enrolledCourses.asList(courses::get);
+    }
+
+    /**
+     * {@summary It returns the student registered with an e-mail address.}
+     * The address is looked up in the e-mail index of the {@link StudentStore}, which is also used to reject duplicates at registration.
+     * @param email Specifies the student's e-mail address.
+     * @returns Student when some student is registered with that address.
+     * @throws MissingStudentException when no student is registered with that address, or it is null.
+     */
+    public Student findStudentByEmail(String email) throws MissingStudentException {
+        Student student = email == null ? null : students.getByEmail(email);
+        if(student == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't find student. Student with e-mail: {} was not registered in the system.", email);
+            }
+            throw new MissingStudentException();
         }
-           return enrollment.get(course);
+        if(logEvents()) {
+            logger.info("\n--Student with e-mail: {} successfully found: {}.", email, student.getId());
+        }
+        return student;
     }
+
     /**
      * {@summary It cancels a student's enrollment in a course.}
+     * The seat is given to the first student of the course's waitlist, if any.
      * @param courseCode Specifies the course's unique code.
      * @param studentId Specifies the student's unique identifier.
      * @throws StudentNotEnrolledException when the student is not enrolled in the course.
@@ -265,54 +475,259 @@ public class EnrollmentManager implements InterfaceEnrollmentManager{
      * @throws MissingCourseException when the course is not registered in the system.
      */
     public void cancelEnrollment(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
-        String msglog = "\n--Cancelling student's (" + studentId + ") enrollment in course " + courseCode + "...";
-    	logger.info(msglog);
-        if(students.get(studentId)!= null && courses.get(courseCode)!=null) {
-            List<Student> enrolled = enrollment.get(courseCode);
-            if(isEnrolled(studentId, enrolled)) {
-                enrolled.remove(students.get(studentId));
-                enrollment.put(courseCode, enrolled);
-                msglog = "\n--The student's (" + studentId + ") enrollment in the course (" + courseCode + ") has been sucessfully cancelled.";
-                logger.info(msglog);
+    	if(logSteps()) {
+    		logger.info("\n--Cancelling student's ({}) enrollment in course {}...", studentId, courseCode);
+    	}
+        if(students.contains(studentId) && courses.get(courseCode)!=null) {
+            if(enrollment.get(courseCode).remove(studentId)) {
+                removeCourseOfStudent(studentId, courseCode);
+                if(logEvents()) {
+                    logger.info("\n--The student's ({}) enrollment in the course ({}) has been sucessfully cancelled.", studentId, courseCode);
+                }
+                promote(courseCode);
             } else {
-            	msglog = "\n--StudentNotEnrolledException(): Can't cancel enrollment. Student: "+ studentId +" was not enrolled in the course: " + courseCode+ ".";
-                logger.error(msglog);
+                if(logRejections()) {
+                    logger.error("\n--StudentNotEnrolledException(): Can't cancel enrollment. Student: {} was not enrolled in the course: {}.", studentId, courseCode);
+                }
                 throw new StudentNotEnrolledException();
             }
-        } else if(students.get(studentId)== null) {
-        	msglog = "\n--MissingStudentException(): Can't cancel enrollment. Student "+ studentId + MSG_NOT_REGISTERED;
-            logger.error(msglog);
+        } else if(!students.contains(studentId)) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't cancel enrollment. Student " + MSG_NOT_REGISTERED, studentId);
+            }
             throw new MissingStudentException();
         } else {
-        	msglog = "\n--MissingCourseException(): Can't cancel enrollment. Course "+ courseCode + MSG_NOT_REGISTERED;
-            logger.error(msglog);
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): Can't cancel enrollment. Course " + MSG_NOT_REGISTERED, courseCode);
+            }
             throw new MissingCourseException();
         }
     }
 
     /**
      * {@summary It restarts a course, canceling any active enrollments in that course at the moment of the call.}
+     * The freed seats are then given to the first students of the course's waitlist, in order.
      * @param courseCode Specifies the course's unique code.
      * @throws MissingCourseException when the course is not registered in the system. 
      */
     public void restartCourse(int courseCode) throws MissingCourseException {
-    	String msglog = "\n--Restarting course " + courseCode + "...";
-        logger.info(msglog);
+    	if(logSteps()) {
+    		logger.info("\n--Restarting course {}...", courseCode);
+    	}
         if(courses.get(courseCode) != null) {
-            enrollment.put(courseCode, new ArrayList<>());
-            msglog = "\n--The course "+courseCode+" has been successfully restarted.";
-            logger.info(msglog);
+            SortedIntSet enrolled = enrollment.get(courseCode);
+            for(int i = 0; i < enrolled.size(); i++) {
+                removeCourseOfStudent(enrolled.get(i), courseCode);
+            }
+            enrolled.clear();
+            if(logEvents()) {
+                logger.info("\n--The course {} has been successfully restarted.", courseCode);
+            }
+            promote(courseCode);
         }else {
-        	msglog = "\n--MissingCourseException(): Can't restart course. Course "+ courseCode + MSG_NOT_REGISTERED;
-            logger.error(msglog);
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): Can't restart course. Course " + MSG_NOT_REGISTERED, courseCode);
+            }
             throw new MissingCourseException();
         }
     }
+
+    /**
+     * {@summary It makes a course a direct prerequisite of another one.}
+     * The transitive prerequisites of the course and of every course that requires it are updated at once, so that
+     * enrollments are checked against them with a few bitwise operations instead of walking the chains of prerequisites.
+     * @param courseCode Specifies the unique code of the course that requires the prerequisite.
+     * @param prerequisiteCode Specifies the unique code of the course that must be completed before.
+     * @throws MissingCourseException when either course is not registered in the system.
+     * @throws IllegalArgumentException when the course is already a prerequisite of the prerequisite, directly or not, or both are the same course.
+     */
+    public void addPrerequisite(int courseCode, int prerequisiteCode) throws MissingCourseException {
+        getRoster(courseCode, "Can't add the prerequisite");
+        getRoster(prerequisiteCode, "Can't add the prerequisite");
+        if(!prerequisites.add(courseCode, prerequisiteCode)) {
+            if(logRejections()) {
+                logger.error("\n--IllegalArgumentException(): Can't add the prerequisite. Course {} is already a prerequisite of course {}.", courseCode, prerequisiteCode);
+            }
+            throw new IllegalArgumentException("The course " + courseCode + " is already a prerequisite of the course " + prerequisiteCode + ".");
+        }
+        if(logEvents()) {
+            logger.info("\n--Course {} successfully added as a prerequisite of course {}.", prerequisiteCode, courseCode);
+        }
+    }
+
+    /**
+     * @param courseCode Specifies the course's unique code.
+     * @return The direct prerequisites of the course, sorted by their codes in an ascending order.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public List<Course> getPrerequisites(int courseCode) throws MissingCourseException {
+        getRoster(courseCode, "Can't get the prerequisites");
+        return SortedIntSet.asList(prerequisites.prerequisitesOf(courseCode), courses::get);
+    }
+
+    /**
+     * {@summary It records that a student has completed a course, so that it counts as a prerequisite for the student.}
+     * The student does not need to be enrolled in the course, so records from other systems can be imported.
+     * @param courseCode Specifies the course's unique code.
+     * @param studentId Specifies the student's unique identifier.
+     * @throws MissingStudentException when the student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public void completeCourse(int courseCode, int studentId) throws MissingStudentException, MissingCourseException {
+        checkRegistered(courseCode, studentId, "Can't complete the course");
+        prerequisites.complete(studentId, courseCode);
+        if(logEvents()) {
+            logger.info("\n--Student {} successfully recorded as having completed course {}.", studentId, courseCode);
+        }
+    }
+
+    /**
+     * @param studentId Specifies the student's unique identifier.
+     * @return The courses completed by the student, sorted by their codes in an ascending order.
+     * @throws MissingStudentException when the student is not registered in the system.
+     */
+    public List<Course> getCompletedCourses(int studentId) throws MissingStudentException {
+        if(!students.contains(studentId)) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): Can't get the completed courses of the student. Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        return SortedIntSet.asList(prerequisites.completedBy(studentId), courses::get);
+    }
+
+    /**
+     * {@summary It enrolls a student in a course, or adds the student to the end of the course's waitlist if the course is full.}
+     * Whenever a seat is freed by {@link #cancelEnrollment(int, int)} or {@link #restartCourse(int)}, the first students
+     * of the waitlist are enrolled automatically. A waitlisted student who has meanwhile been enrolled in a course that
+     * meets at the same time, or who lacks a prerequisite added meanwhile, is removed from the waitlist instead.
+     * @param courseCode Specifies the unique course identifier of an already registered course.
+     * @param studentId Specifies the unique student identifier of an already registered student.
+     * @return <strong>true</strong> if the student has been enrolled, or <strong>false</strong> if the student has been waitlisted.
+     * @throws StudentAlreadyEnrolledException when the student is already enrolled in the course or waiting for it.
+     * @throws MissingPrerequisiteException when the student has not completed all the prerequisites of the course, direct or not.
+     * @throws ScheduleConflictException when the course meets at the same time as another course of the student.
+     * @throws MissingStudentException when the student's unique identifier is not registered in the database.
+     * @throws MissingCourseException when the course's unique code is not registered in the database.
+     */
+    public boolean enrollOrWaitlist(int courseCode, int studentId) throws StudentAlreadyEnrolledException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+        checkRegistered(courseCode, studentId, "Can't enroll student");
+        SortedIntSet studentsEnrolled = enrollment.get(courseCode);
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        if(studentsEnrolled.contains(studentId) || (waitlist != null && waitlist.contains(studentId))) {
+            if(logRejections()) {
+                logger.error("\n--StudentAlreadyEnrolledException(): Can't enroll student. Student already enrolled in the course or waiting for it.");
+            }
+            throw new StudentAlreadyEnrolledException();
+        }
+        if(!prerequisites.isQualified(studentId, courseCode)) {
+            if(logRejections()) {
+                logger.error("\n--MissingPrerequisiteException(): Can't enroll the student {}. The student has not completed all the prerequisites of the course {}.", studentId, courseCode);
+            }
+            throw new MissingPrerequisiteException();
+        }
+        Course course = courses.get(courseCode);
+        Timetable timetable = course.getTimetable();
+        if(!timetable.isEmpty() && schedules.getOrDefault(studentId, Timetable.EMPTY).overlaps(timetable)) {
+            if(logRejections()) {
+                logger.error("\n--ScheduleConflictException(): Can't enroll the student {}. The course {} meets at the same time as another course of the student.", studentId, courseCode);
+            }
+            throw new ScheduleConflictException();
+        }
+        if(studentsEnrolled.size() < course.getCapacity()) {
+            addCourseOfStudent(studentId, course);
+            studentsEnrolled.add(studentId);
+            if(logEvents()) {
+                logger.info("\n--Student {} successfully enrolled in course {}.", studentId, courseCode);
+            }
+            return true;
+        }
+        waitlists.computeIfAbsent(courseCode, code -> new LinkedHashSet<>()).add(studentId);
+        if(logEvents()) {
+            logger.info("\n--Student {} added to the waitlist of course {}.", studentId, courseCode);
+        }
+        return false;
+    }
+
+    /**
+     * {@summary It returns the students waiting for a seat in a course, in the order in which they will be enrolled.}
+     * @param courseCode Specifies the course's unique code.
+     * @return A copy of the waitlist, so it is not affected by later changes.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public List<Student> getWaitlist(int courseCode) throws MissingCourseException {
+        if(courses.get(courseCode) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): Can't get the waitlist. Course " + MSG_NOT_REGISTERED, courseCode);
+            }
+            throw new MissingCourseException();
+        }
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        int[] ids = new int[waitlist == null ? 0 : waitlist.size()];
+        int i = 0;
+        if(waitlist != null) {
+            for(int id : waitlist) {
+                ids[i++] = id;
+            }
+        }
+        return SortedIntSet.asList(ids, students::get);
+    }
+
+    /**
+     * {@summary It appends students to the waitlist of a course as they were saved, without the checks of {@link #enrollOrWaitlist(int, int)}.}
+     * Used by {@link EnrollmentSnapshot} to restore a waitlist whose students have meanwhile been enrolled in courses that meet
+     * at the same time, which {@link #enrollOrWaitlist(int, int)} would reject. Such students are dropped when the seat is freed.
+     * @param courseCode Specifies the course's unique code.
+     * @param studentIds Specifies the students to append, in waitlist order.
+     * @throws StudentAlreadyEnrolledException when a student is already enrolled in the course or waiting for it.
+     * @throws MissingStudentException when a student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    void restoreWaitlist(int courseCode, int[] studentIds) throws StudentAlreadyEnrolledException, MissingStudentException, MissingCourseException {
+        if(courses.get(courseCode) == null) {
+            throw new MissingCourseException();
+        }
+        SortedIntSet studentsEnrolled = enrollment.get(courseCode);
+        LinkedHashSet<Integer> waitlist = waitlists.computeIfAbsent(courseCode, code -> new LinkedHashSet<>());
+        for(int studentId : studentIds) {
+            if(!students.contains(studentId)) {
+                throw new MissingStudentException();
+            }
+            if(studentsEnrolled.contains(studentId) || !waitlist.add(studentId)) {
+                throw new StudentAlreadyEnrolledException();
+            }
+        }
+    }
+
+    /**
+     * {@summary It removes a student from the waitlist of a course.}
+     * @param courseCode Specifies the course's unique code.
+     * @param studentId Specifies the student's unique identifier.
+     * @throws StudentNotEnrolledException when the student is not waiting for the course.
+     * @throws MissingStudentException when the student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    public void leaveWaitlist(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+        checkRegistered(courseCode, studentId, "Can't leave the waitlist");
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        if(waitlist == null || !waitlist.remove(studentId)) {
+            if(logRejections()) {
+                logger.error("\n--StudentNotEnrolledException(): Can't leave the waitlist. Student: {} was not waiting for the course: {}.", studentId, courseCode);
+            }
+            throw new StudentNotEnrolledException();
+        }
+        if(logEvents()) {
+            logger.info("\n--Student {} removed from the waitlist of course {}.", studentId, courseCode);
+        }
+    }
+
    /**
     * {@summary It returns a list containing all registered students in the system at the moment of the call.}
     */
     public Collection<Student> getStudents() {
-        logger.info("\n--Students successfully obtained.");
+        if(logEvents()) {
+            logger.info("\n--Students successfully obtained.");
+        }
         return students.values();
     }
 
@@ -320,8 +735,220 @@ public class EnrollmentManager implements InterfaceEnrollmentManager{
      * {@summary It returns a list containing all registered courses in the system at the moment of the call.}
      */
     public Collection<Course> getCourses() {
-
-        logger.info("\n--Courses successfully obtained.");
+        if(logEvents()) {
+            logger.info("\n--Courses successfully obtained.");
+        }
         return courses.values();
     }
-}
\ No newline at end of file
+
+    /**
+     * {@summary It returns a page of the registered students, sorted by their identifiers.}
+     * The store seeks to {@code afterId}, so the cost of the call does not depend on how many pages come before it.
+     * @param afterId Specifies the identifier after which the page starts. Use 0 for the first page, and the identifier of the last student of a page for the next one.
+     * @param limit Specifies the maximum number of students of the page. Must be a positive integer.
+     * @return The first registered students whose identifier is greater than {@code afterId}, in ascending order.
+     * @throws IllegalArgumentException when the limit is not a positive integer.
+     */
+    public List<Student> getStudents(int afterId, int limit) {
+        Pages.checkLimit(limit);
+        List<Student> page = Pages.first(students.iteratorAfter(afterId), limit);
+        if(logEvents()) {
+            logger.info("\n--Page of {} students after {} successfully obtained.", page.size(), afterId);
+        }
+        return page;
+    }
+
+    /**
+     * {@summary It returns a page of the registered courses, sorted by their codes.}
+     * @param afterCode Specifies the code after which the page starts. Use 0 for the first page, and the code of the last course of a page for the next one.
+     * @param limit Specifies the maximum number of courses of the page. Must be a positive integer.
+     * @return The first registered courses whose code is greater than {@code afterCode}, in ascending order.
+     * @throws IllegalArgumentException when the limit is not a positive integer.
+     */
+    public List<Course> getCourses(int afterCode, int limit) {
+        List<Course> page = Pages.first(courses.valuesAfter(afterCode), limit);
+        if(logEvents()) {
+            logger.info("\n--Page of {} courses after {} successfully obtained.", page.size(), afterCode);
+        }
+        return page;
+    }
+
+    /**
+     * @return A stream over the registered students, sorted by their identifiers. It can be run in parallel without copying the students into a list.
+     */
+    public Stream<Student> streamStudents() {
+        return students.values().stream();
+    }
+
+    /**
+     * @return A stream over the registered courses, sorted by their codes. It can be run in parallel without copying the courses into a list.
+     */
+    public Stream<Course> streamCourses() {
+        return courses.values().stream();
+    }
+
+    /**
+     * {@summary It enrolls the first students of a course's waitlist in its free seats.}
+     * Each promoted student is taken from the head of the waitlist in constant time, and all of them are merged into the roster in a single pass.
+     * The students whose timetable has meanwhile come to overlap the course's, or who lack a prerequisite added meanwhile,
+     * are removed from the waitlist without a seat.
+     * @param courseCode Specifies the course's unique code.
+     */
+    private void promote(int courseCode) {
+        LinkedHashSet<Integer> waitlist = waitlists.get(courseCode);
+        if(waitlist == null || waitlist.isEmpty()) {
+            return;
+        }
+        SortedIntSet studentsEnrolled = enrollment.get(courseCode);
+        Course course = courses.get(courseCode);
+        int[] promoted = new int[Math.min(waitlist.size(), course.getCapacity() - studentsEnrolled.size())];
+        int count = 0;
+        int dropped = 0;
+        Iterator<Integer> it = waitlist.iterator();
+        while(count < promoted.length && it.hasNext()) {
+            int studentId = it.next();
+            it.remove();
+            if(prerequisites.isQualified(studentId, courseCode) && addCourseOfStudent(studentId, course)) {
+                promoted[count++] = studentId;
+            } else {
+                dropped++;
+            }
+        }
+        promoted = Arrays.copyOf(promoted, count);
+        Arrays.sort(promoted);
+        studentsEnrolled.addAllSorted(promoted);
+        if(logEvents()) {
+            logger.info("\n--{} students of the waitlist successfully enrolled in course {}.", promoted.length, courseCode);
+            if(dropped > 0) {
+                logger.info("\n--{} students removed from the waitlist of course {} because of a schedule conflict or a missing prerequisite.", dropped, courseCode);
+            }
+        }
+    }
+
+    /**
+     * {@summary It returns the roster of a registered course.}
+     * @param courseCode Specifies the course's unique code.
+     * @param action Specifies the beginning of the message logged when the course is missing.
+     * @return The roster of the course.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    private SortedIntSet getRoster(int courseCode, String action) throws MissingCourseException {
+        if(courses.get(courseCode) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): " + action + ". Course " + MSG_NOT_REGISTERED, courseCode);
+            }
+            throw new MissingCourseException();
+        }
+        return enrollment.get(courseCode);
+    }
+
+    /**
+     * {@summary It checks that both a course and a student are registered.}
+     * @param courseCode Specifies the course's unique code.
+     * @param studentId Specifies the student's unique identifier.
+     * @param action Specifies the beginning of the message logged when one of them is missing.
+     * @throws MissingStudentException when the student is not registered in the system.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+    private void checkRegistered(int courseCode, int studentId, String action) throws MissingStudentException, MissingCourseException {
+        if(!students.contains(studentId)) {
+            if(logRejections()) {
+                logger.error("\n--MissingStudentException(): " + action + ". Student " + MSG_NOT_REGISTERED, studentId);
+            }
+            throw new MissingStudentException();
+        }
+        if(courses.get(courseCode) == null) {
+            if(logRejections()) {
+                logger.error("\n--MissingCourseException(): " + action + ". Course " + MSG_NOT_REGISTERED, courseCode);
+            }
+            throw new MissingCourseException();
+        }
+    }
+
+    /**
+     * {@summary It adds a course to the index and the timetable of a student, unless it meets at the same time as another course of the student.}
+     * The timetable of a student is the union of the timetables of its courses, which never overlap, so the check takes a few
+     * bitwise operations whatever the number of courses. It is only kept for the students enrolled in some course with meetings.
+     * @param studentId Specifies the student's unique identifier.
+     * @param course Specifies the course, in which the student is not enrolled.
+     * @return <strong>true</strong> if the course has been added and <strong>false</strong>, changing nothing, if it conflicts.
+     */
+    private boolean addCourseOfStudent(int studentId, Course course) {
+        Timetable timetable = course.getTimetable();
+        if(!timetable.isEmpty()) {
+            Timetable busy = schedules.getOrDefault(studentId, Timetable.EMPTY);
+            if(busy.overlaps(timetable)) {
+                return false;
+            }
+            schedules.put(studentId, busy.plus(timetable));
+        }
+        indexOf(studentId).add(course.getCode());
+        return true;
+    }
+
+    /**
+     * {@summary It removes a course from the index and the timetable of a student enrolled in it.}
+     * @param studentId Specifies the student's unique identifier.
+     * @param courseCode Specifies the course's unique code.
+     */
+    private void removeCourseOfStudent(int studentId, int courseCode) {
+        coursesOfStudent.get(studentId).remove(courseCode);
+        Timetable timetable = courses.get(courseCode).getTimetable();
+        if(!timetable.isEmpty()) {
+            Timetable busy = schedules.get(studentId).minus(timetable);
+            if(busy.isEmpty()) {
+                schedules.remove(studentId);
+            } else {
+                schedules.put(studentId, busy);
+            }
+        }
+    }
+
+    /**
+     * {@summary It returns the courses of a registered student, creating the entry of the index the first time.}
+     * Entries are only created for students that enroll, so the index does not grow with the store, and queries never modify it.
+     * @param studentId Specifies the student's unique identifier.
+     */
+    private SortedIntSet indexOf(int studentId) {
+        return coursesOfStudent.computeIfAbsent(studentId, id -> new SortedIntSet());
+    }
+
+    /**
+     * @return <strong>true</strong> if the intermediate steps of the operations, including roster dumps, must be logged.
+     */
+    private boolean logSteps() {
+        return verbosity == LogVerbosity.FULL && !QuietScope.isActive() && logger.isInfoEnabled();
+    }
+
+    /**
+     * @return <strong>true</strong> if the outcome of the successful operations must be logged.
+     */
+    private boolean logEvents() {
+        return verbosity != LogVerbosity.QUIET && !QuietScope.isActive() && logger.isInfoEnabled();
+    }
+
+    /**
+     * @return <strong>true</strong> if the rejected operations must be logged.
+     */
+    private boolean logRejections() {
+        return verbosity != LogVerbosity.QUIET && !QuietScope.isActive() && logger.isErrorEnabled();
+    }
+
+    /**
+     * {@summary It builds the message that lists every student enrolled in a course.}
+     * @param studentsEnrolled Specifies the roster of the course.
+     * @return The message, with one entry per student.
+     */
+    private static String rosterDump(List<Student> studentsEnrolled) {
+        StringBuilder sb = new StringBuilder("\n--Students enrolled in the course have been successfully obtained:\n");
+        if(studentsEnrolled.isEmpty()) {
+            return sb.append("\tThe course is empty.").toString();
+        }
+        for(Student s : studentsEnrolled) {
+            sb.append("\tIdentification: ").append(s.getId()).append("\n\tName: ")
+              .append(s.getName()).append("\n\tE-mail: ").append(s.getEmailAddress()).append(".\n\n");
+        }
+        sb.setLength(sb.length() - 2);
+        return sb.toString();
+    }
+}
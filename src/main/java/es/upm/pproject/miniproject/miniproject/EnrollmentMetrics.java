@@ -0,0 +1,184 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * This class is the built-in {@link MetricsRegistry}, which keeps the measurements in memory:
+ * <br><li> A striped counter ({@link LongAdder}) per operation and outcome, so threads that record the same
+ * operation at once do not contend on a single memory location.
+ * <br><li> A {@link LatencyHistogram} per operation, with the durations of every outcome.
+ * <br><li> A gauge ({@link AtomicInteger}) per course with the last recorded size of its roster. The gauges are
+ * kept in a {@link ConcurrentHashMap}, which is only read when a course is missing from a copy-on-write
+ * {@link IntHashMap} cache, so the course code is not boxed once its gauge is cached. The cache is rebuilt after as
+ * many misses as it has gauges, which keeps the cost of adding a course constant on average.
+ *
+ * <p>Recording looks the counters and the gauges up without locking, and only allocates the first time an operation,
+ * an outcome or a course is seen. The measurements can be read from the getters or through JMX,
+ * once the registry is published with {@link #registerMBean(String)}.
+ *
+ */
+public final class EnrollmentMetrics implements MetricsRegistry, EnrollmentMetricsMXBean {
+	static final String DOMAIN = "es.upm.pproject.miniproject";
+
+	private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> counts = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, AtomicInteger> rosterSizes = new ConcurrentHashMap<>();
+	private final Object cacheLock = new Object();
+	private volatile IntHashMap<AtomicInteger> cachedRosterSizes = new IntHashMap<>();
+	private final AtomicInteger cacheMisses = new AtomicInteger();
+
+	@Override
+	public void recordOperation(String operation, String outcome, long elapsedNanos) {
+		ConcurrentMap<String, LongAdder> outcomes = counts.get(operation);
+		if(outcomes == null) {
+			outcomes = counts.computeIfAbsent(operation, o -> new ConcurrentHashMap<>());
+		}
+		LongAdder counter = outcomes.get(outcome);
+		if(counter == null) {
+			counter = outcomes.computeIfAbsent(outcome, o -> new LongAdder());
+		}
+		counter.increment();
+		LatencyHistogram histogram = latencies.get(operation);
+		if(histogram == null) {
+			histogram = latencies.computeIfAbsent(operation, o -> new LatencyHistogram());
+		}
+		histogram.record(elapsedNanos);
+	}
+
+	@Override
+	public void recordRosterSize(int courseCode, int size) {
+		AtomicInteger gauge = cachedRosterSizes.get(courseCode);
+		if(gauge == null) {
+			gauge = rosterSizes.computeIfAbsent(courseCode, c -> new AtomicInteger());
+			if(cacheMisses.incrementAndGet() > cachedRosterSizes.size()) {
+				refreshCache();
+			}
+		}
+		gauge.set(size);
+	}
+
+	/**
+	 * {@summary It publishes a new cache with all the gauges.}
+	 * The published caches are never modified, so they can be read by any thread without locking. A cache of
+	 * {@code n} gauges is only replaced after {@code n} misses, so each miss pays for a constant part of the copy.
+	 */
+	private void refreshCache() {
+		synchronized(cacheLock) {
+			if(cacheMisses.get() > cachedRosterSizes.size()) {
+				IntHashMap<AtomicInteger> copy = new IntHashMap<>();
+				rosterSizes.forEach(copy::put);
+				cachedRosterSizes = copy;
+				cacheMisses.set(0);
+			}
+		}
+	}
+
+	/**
+	 * @param operation Specifies the name of the operation.
+	 * @param outcome Specifies {@value MeteredEnrollmentManager#SUCCESS} or the simple name of an exception.
+	 * @return The number of calls of the operation that ended with that outcome.
+	 */
+	public long getCount(String operation, String outcome) {
+		ConcurrentMap<String, LongAdder> outcomes = counts.get(operation);
+		LongAdder counter = outcomes == null ? null : outcomes.get(outcome);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	/**
+	 * @param operation Specifies the name of the operation.
+	 * @return The histogram of the latencies of the operation, or null if it has never been recorded.
+	 */
+	public LatencyHistogram getLatency(String operation) {
+		return latencies.get(operation);
+	}
+
+	/**
+	 * @param courseCode Specifies the course's unique code.
+	 * @return The last recorded size of the roster of the course, or 0 if it has never been recorded.
+	 */
+	public int getRosterSize(int courseCode) {
+		AtomicInteger gauge = cachedRosterSizes.get(courseCode);
+		if(gauge == null) {
+			gauge = rosterSizes.get(courseCode);
+		}
+		return gauge == null ? 0 : gauge.get();
+	}
+
+	@Override
+	public Map<String, Long> getCounts() {
+		Map<String, Long> result = new TreeMap<>();
+		counts.forEach((operation, outcomes) -> outcomes.forEach((outcome, counter) -> result.put(operation + "." + outcome, counter.sum())));
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getMedianLatencies() {
+		return latencies(h -> h.getPercentile(50));
+	}
+
+	@Override
+	public Map<String, Long> getP99Latencies() {
+		return latencies(h -> h.getPercentile(99));
+	}
+
+	@Override
+	public Map<String, Long> getMaxLatencies() {
+		return latencies(LatencyHistogram::getMax);
+	}
+
+	@Override
+	public int getObservedCourses() {
+		return rosterSizes.size();
+	}
+
+	@Override
+	public int getLargestRosterSize() {
+		int largest = 0;
+		for(AtomicInteger gauge : rosterSizes.values()) {
+			largest = Math.max(largest, gauge.get());
+		}
+		return largest;
+	}
+
+	@Override
+	public long getTotalEnrollments() {
+		long total = 0;
+		for(AtomicInteger gauge : rosterSizes.values()) {
+			total += gauge.get();
+		}
+		return total;
+	}
+
+	@Override
+	public void reset() {
+		counts.values().forEach(outcomes -> outcomes.values().forEach(LongAdder::reset));
+		latencies.values().forEach(LatencyHistogram::reset);
+	}
+
+	/**
+	 * {@summary It publishes the registry in the platform MBean server.}
+	 * @param name Specifies the name of the registry, which distinguishes several managers of the same process.
+	 * @return The name under which the registry has been published.
+	 * @throws JMException when the name is not valid or is already taken.
+	 */
+	public ObjectName registerMBean(String name) throws JMException {
+		ObjectName objectName = new ObjectName(DOMAIN + ":type=EnrollmentMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	private Map<String, Long> latencies(ToLongFunction<LatencyHistogram> statistic) {
+		Map<String, Long> result = new TreeMap<>();
+		latencies.forEach((operation, histogram) -> result.put(operation, statistic.applyAsLong(histogram)));
+		return result;
+	}
+}
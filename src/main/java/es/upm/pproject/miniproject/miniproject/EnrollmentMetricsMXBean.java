@@ -0,0 +1,51 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Map;
+
+/**
+ * This interface is the JMX view of an {@link EnrollmentMetrics}. Operations are named {@code operation.outcome}
+ * in the counters, and latencies are given in nanoseconds.
+ *
+ */
+public interface EnrollmentMetricsMXBean {
+
+	/**
+	 * @return The number of calls of every operation with every outcome.
+	 */
+	public Map<String, Long> getCounts();
+
+	/**
+	 * @return The median latency of every operation.
+	 */
+	public Map<String, Long> getMedianLatencies();
+
+	/**
+	 * @return The 99th percentile of the latency of every operation.
+	 */
+	public Map<String, Long> getP99Latencies();
+
+	/**
+	 * @return The maximum latency of every operation.
+	 */
+	public Map<String, Long> getMaxLatencies();
+
+	/**
+	 * @return The number of courses whose roster size has been recorded.
+	 */
+	public int getObservedCourses();
+
+	/**
+	 * @return The largest recorded roster size.
+	 */
+	public int getLargestRosterSize();
+
+	/**
+	 * @return The sum of the last recorded size of every roster.
+	 */
+	public long getTotalEnrollments();
+
+	/**
+	 * {@summary It discards every counter and latency, keeping the roster sizes.}
+	 */
+	public void reset();
+}
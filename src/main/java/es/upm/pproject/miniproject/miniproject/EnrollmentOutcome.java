@@ -0,0 +1,78 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * This enumeration defines the outcome of {@link InterfaceEnrollmentManager#tryEnroll(int, int)}. It contains the next values:
+ * <br><li> <strong>ENROLLED</strong>, when the student has been enrolled in the course.
+ * <br><li> <strong>ALREADY_ENROLLED</strong>, when the student was already enrolled in the course.
+ * <br><li> <strong>COURSE_FULL</strong>, when the capacity of the course is already filled.
+ * <br><li> <strong>MISSING_PREREQUISITE</strong>, when the student has not completed all the prerequisites of the course.
+ * <br><li> <strong>SCHEDULE_CONFLICT</strong>, when the course meets at the same time as another course of the student.
+ * <br><li> <strong>MISSING_STUDENT</strong>, when the student is not registered.
+ * <br><li> <strong>MISSING_COURSE</strong>, when the course is not registered.
+ *
+ * <p>Every rejection corresponds to one of the exceptions of {@link InterfaceEnrollmentManager#enroll(int, int)}, but
+ * returning a constant allocates nothing and captures no stack trace, which matters when most attempts are rejected.
+ *
+ */
+public enum EnrollmentOutcome {
+	ENROLLED,
+	ALREADY_ENROLLED,
+	COURSE_FULL,
+	MISSING_PREREQUISITE,
+	SCHEDULE_CONFLICT,
+	MISSING_STUDENT,
+	MISSING_COURSE;
+
+	/**
+	 * {@summary It throws the exception that corresponds to a rejection.}
+	 * @param course Specifies the course of the attempt, whose capacity is reported by {@code FullCourseException}.
+	 * @throws StudentAlreadyEnrolledException when the outcome is <strong>ALREADY_ENROLLED</strong>.
+	 * @throws FullCourseException when the outcome is <strong>COURSE_FULL</strong>.
+	 * @throws MissingPrerequisiteException when the outcome is <strong>MISSING_PREREQUISITE</strong>.
+	 * @throws ScheduleConflictException when the outcome is <strong>SCHEDULE_CONFLICT</strong>.
+	 * @throws MissingStudentException when the outcome is <strong>MISSING_STUDENT</strong>.
+	 * @throws MissingCourseException when the outcome is <strong>MISSING_COURSE</strong>.
+	 */
+	void raise(Course course) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		switch(this) {
+			case ALREADY_ENROLLED:
+				throw new StudentAlreadyEnrolledException();
+			case COURSE_FULL:
+				throw new FullCourseException(course.getCapacity());
+			case MISSING_PREREQUISITE:
+				throw new MissingPrerequisiteException();
+			case SCHEDULE_CONFLICT:
+				throw new ScheduleConflictException();
+			case MISSING_STUDENT:
+				throw new MissingStudentException();
+			case MISSING_COURSE:
+				throw new MissingCourseException();
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * @param failure Specifies the exception of a failed enrollment, as reported by a {@link BatchReport}.
+	 * @return The outcome that corresponds to the exception, or <strong>ENROLLED</strong> if there is none.
+	 * @throws IllegalArgumentException when the exception is not one of a failed enrollment.
+	 */
+	static EnrollmentOutcome of(Exception failure) {
+		if(failure == null) {
+			return ENROLLED;
+		} else if(failure instanceof StudentAlreadyEnrolledException) {
+			return ALREADY_ENROLLED;
+		} else if(failure instanceof FullCourseException) {
+			return COURSE_FULL;
+		} else if(failure instanceof MissingPrerequisiteException) {
+			return MISSING_PREREQUISITE;
+		} else if(failure instanceof ScheduleConflictException) {
+			return SCHEDULE_CONFLICT;
+		} else if(failure instanceof MissingStudentException) {
+			return MISSING_STUDENT;
+		} else if(failure instanceof MissingCourseException) {
+			return MISSING_COURSE;
+		}
+		throw new IllegalArgumentException("Not an enrollment failure: " + failure, failure);
+	}
+}
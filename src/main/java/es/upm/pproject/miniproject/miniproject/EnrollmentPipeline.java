@@ -0,0 +1,213 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is an asynchronous front end that enrolls students through another {@link InterfaceEnrollmentManager}.
+ *
+ * <p>{@link #enroll(int, int)} never blocks: the request is appended to the queue of its course and a future is
+ * returned. Each course has at most one task draining its queue at any time, so the requests of a course are
+ * applied by a single writer, in the order in which they arrived, in batches of up to {@code batchSize} students
+ * with {@link InterfaceEnrollmentManager#enrollAll(int, int[])}. Thousands of clients competing for a popular course
+ * therefore turn into a few sequential merges of its roster instead of thousands of threads fighting for its lock.
+ *
+ * <p>A request for a student that is already queued for the same course is coalesced with it: both callers get
+ * the same future. After a batch, the task gives its thread back to the executor, so busy courses do not starve the others.
+ *
+ * <p>The wrapped manager must be thread-safe if it is also used directly, or if several courses may be drained at once,
+ * as with a {@link ConcurrentEnrollmentManager}. An {@link EnrollmentManager} can only be used with a single-threaded executor.
+ *
+ */
+public class EnrollmentPipeline implements AutoCloseable {
+	/** Maximum number of requests applied at once when none is specified. */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	private final InterfaceEnrollmentManager manager;
+	private final Executor executor;
+	private final boolean ownsExecutor;
+	private final int batchSize;
+	private final ConcurrentMap<Integer, CourseQueue> queues = new ConcurrentHashMap<>();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private volatile boolean closed;
+
+	/**
+	 * This constructor creates a pipeline that drains the courses on its own executor: a new virtual thread per task
+	 * when the JVM has them, or a pool of daemon threads otherwise.
+	 * @param manager Specifies the thread-safe manager where the students are enrolled.
+	 */
+	public EnrollmentPipeline(InterfaceEnrollmentManager manager) {
+		this(manager, TaskExecutors.newPerTaskExecutor("enrollment-pipeline"), true, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * This constructor creates a pipeline that drains the courses on a given executor, which is not shut down by {@link #close()}.
+	 * @param manager Specifies the manager where the students are enrolled.
+	 * @param executor Specifies where the queues of the courses are drained.
+	 * @param batchSize Specifies the maximum number of requests applied at once.
+	 * @throws IllegalArgumentException when the batch size is not positive.
+	 */
+	public EnrollmentPipeline(InterfaceEnrollmentManager manager, Executor executor, int batchSize) {
+		this(manager, executor, false, batchSize);
+	}
+
+	private EnrollmentPipeline(InterfaceEnrollmentManager manager, Executor executor, boolean ownsExecutor, int batchSize) {
+		if(batchSize <= 0) {
+			throw new IllegalArgumentException("The batch size must be positive: " + batchSize + ".");
+		}
+		this.manager = manager;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * {@summary It requests the enrollment of a student in a course, without waiting for it.}
+	 * @param courseCode Specifies the unique course identifier.
+	 * @param studentId Specifies the unique student identifier.
+	 * @return A future completed with the outcome of the enrollment, or exceptionally if the manager fails unexpectedly
+	 * or the pipeline is closed. A request coalesced with a queued one returns the same future.
+	 */
+	public CompletableFuture<EnrollmentOutcome> enroll(int courseCode, int studentId) {
+		if(closed) {
+			CompletableFuture<EnrollmentOutcome> rejected = new CompletableFuture<>();
+			rejected.completeExceptionally(new IllegalStateException("The enrollment pipeline is closed."));
+			return rejected;
+		}
+		CourseQueue queue = queues.get(courseCode);
+		if(queue == null) {
+			queue = queues.computeIfAbsent(courseCode, CourseQueue::new);
+		}
+		return queue.submit(studentId);
+	}
+
+	/**
+	 * @return The number of requests that have been coalesced with an earlier one.
+	 */
+	public long getCoalescedCount() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * @return The number of batches applied to the manager.
+	 */
+	public long getBatchCount() {
+		return batches.sum();
+	}
+
+	/**
+	 * {@summary It stops accepting requests.}
+	 * If the pipeline owns its executor, it waits until the requests already accepted have been applied. If the calling
+	 * thread is interrupted meanwhile, it stops waiting and the interrupt is restored.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		if(ownsExecutor) {
+			ExecutorService service = (ExecutorService) executor;
+			service.shutdown();
+			try {
+				service.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * The requests of a single course and the flag that guarantees that only one task drains them.
+	 */
+	private final class CourseQueue implements Runnable {
+		private final int courseCode;
+		private final ConcurrentLinkedQueue<Integer> requests = new ConcurrentLinkedQueue<>();
+		private final ConcurrentMap<Integer, CompletableFuture<EnrollmentOutcome>> pending = new ConcurrentHashMap<>();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		CourseQueue(int courseCode) {
+			this.courseCode = courseCode;
+		}
+
+		CompletableFuture<EnrollmentOutcome> submit(int studentId) {
+			CompletableFuture<EnrollmentOutcome> future = new CompletableFuture<>();
+			CompletableFuture<EnrollmentOutcome> queued = pending.putIfAbsent(studentId, future);
+			if(queued != null) {
+				coalesced.increment();
+				return queued;
+			}
+			requests.add(studentId);
+			schedule();
+			return future;
+		}
+
+		void schedule() {
+			if(scheduled.compareAndSet(false, true)) {
+				try {
+					executor.execute(this);
+				} catch (RejectedExecutionException e) {
+					// The executor is shutting down: the caller drains the queue itself.
+					run();
+				}
+			}
+		}
+
+		/**
+		 * {@summary It applies the next batch of requests and schedules itself again if more are queued.}
+		 */
+		@Override
+		public void run() {
+			int[] studentIds = new int[batchSize];
+			List<CompletableFuture<EnrollmentOutcome>> futures = new ArrayList<>(batchSize);
+			int count = 0;
+			Integer studentId;
+			while(count < batchSize && (studentId = requests.poll()) != null) {
+				studentIds[count++] = studentId;
+				// Removed before the batch is applied, so a later request of the student is not coalesced with a decided one.
+				futures.add(pending.remove(studentId));
+			}
+			try {
+				apply(Arrays.copyOf(studentIds, count), futures);
+			} finally {
+				scheduled.set(false);
+				if(!requests.isEmpty()) {
+					schedule();
+				}
+			}
+		}
+
+		private void apply(int[] studentIds, List<CompletableFuture<EnrollmentOutcome>> futures) {
+			if(studentIds.length == 0) {
+				return;
+			}
+			batches.increment();
+			BatchReport report;
+			try {
+				report = manager.enrollAll(courseCode, studentIds);
+			} catch (MissingCourseException e) {
+				for(int i = 0; i < studentIds.length; i++) {
+					futures.get(i).complete(EnrollmentOutcome.MISSING_COURSE);
+				}
+				return;
+			} catch (RuntimeException e) {
+				for(int i = 0; i < studentIds.length; i++) {
+					futures.get(i).completeExceptionally(e);
+				}
+				return;
+			}
+			for(int i = 0; i < studentIds.length; i++) {
+				futures.get(i).complete(EnrollmentOutcome.of(report.getFailure(i)));
+			}
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class holds aggregate figures about the enrollments of a manager, computed in parallel.
+ *
+ * <p>The report is computed with two passes, each one a parallel stream run on a fork/join pool:
+ * <br><li> One over the courses, which finds the fill rate of every course, the number of courses of every
+ * coordinator and the histogram of roster sizes. Only the size of each roster is read, in constant time.
+ * <br><li> One over the students, which finds the histogram of the number of courses per student and the students
+ * that are not enrolled in any course, reading the index of the courses of every student.
+ *
+ * <p>Every worker accumulates its share into private tables, which are merged when the workers join, so the
+ * passes need no locking. A million enrollments are summarized in a fraction of a second.
+ *
+ * <p>An {@link EnrollmentManager} must not be modified while the report is computed. A {@link ConcurrentEnrollmentManager}
+ * can be, and then the figures of every single course are consistent, but not necessarily across courses.
+ *
+ */
+public final class EnrollmentReport {
+	private static final Logger logger = LoggerFactory.getLogger(EnrollmentReport.class);
+
+	private final Map<Integer, Double> fillRates;
+	private final Map<String, Integer> coursesPerCoordinator;
+	private final int[] rosterSizes;
+	private final int[] coursesPerStudent;
+	private final List<Student> studentsWithoutEnrollments;
+	private final long enrollments;
+	private final long seats;
+
+	private EnrollmentReport(CourseTotals courses, StudentTotals students) {
+		fillRates = Collections.unmodifiableMap(new TreeMap<>(courses.fillRates));
+		coursesPerCoordinator = Collections.unmodifiableMap(new TreeMap<>(courses.coordinators));
+		rosterSizes = courses.rosterSizes;
+		coursesPerStudent = students.coursesPerStudent;
+		studentsWithoutEnrollments = Collections.unmodifiableList(students.idle);
+		enrollments = courses.enrollments;
+		seats = courses.seats;
+	}
+
+	/**
+	 * {@summary It computes the report of a manager on the common fork/join pool.}
+	 * @param manager Specifies the manager to summarize. It does not log while the workers read it.
+	 * @return The report.
+	 */
+	public static EnrollmentReport of(InterfaceEnrollmentManager manager) {
+		return of(manager, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * {@summary It computes the report of a manager on a given fork/join pool.}
+	 * @param manager Specifies the manager to summarize. It does not log while the workers read it.
+	 * @param pool Specifies the pool whose workers run both passes.
+	 * @return The report.
+	 */
+	public static EnrollmentReport of(InterfaceEnrollmentManager manager, ForkJoinPool pool) {
+		long start = System.nanoTime();
+		CourseTotals courses = pool.submit(() -> manager.streamCourses().parallel()
+				.collect(CourseTotals::new, (totals, course) -> totals.add(course, rosterSize(manager, course)), CourseTotals::merge)).join();
+		StudentTotals students = pool.submit(() -> manager.streamStudents().parallel()
+				.collect(StudentTotals::new, (totals, student) -> totals.add(student, courseCount(manager, student)), StudentTotals::merge)).join();
+		EnrollmentReport report = new EnrollmentReport(courses, students);
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--Report successfully computed in {} ms: {} enrollments.", (System.nanoTime() - start) / 1000000, report.enrollments);
+		}
+		return report;
+	}
+
+	/**
+	 * Reads the size of a roster on a worker, which is silenced for the call only, so the other threads that use the manager keep logging.
+	 */
+	private static int rosterSize(InterfaceEnrollmentManager manager, Course course) {
+		QuietScope.enter();
+		try {
+			return manager.getEnrollmentCount(course.getCode());
+		} catch (MissingCourseException e) {
+			throw new IllegalStateException("The course " + course.getCode() + " disappeared while the report was being computed.", e);
+		} finally {
+			QuietScope.exit();
+		}
+	}
+
+	private static int courseCount(InterfaceEnrollmentManager manager, Student student) {
+		QuietScope.enter();
+		try {
+			return manager.getCoursesOfStudent(student.getId()).size();
+		} catch (MissingStudentException e) {
+			throw new IllegalStateException("The student " + student.getId() + " disappeared while the report was being computed.", e);
+		} finally {
+			QuietScope.exit();
+		}
+	}
+
+	/**
+	 * @return The fill rate of every course, from 0 to 1, by course code in ascending order.
+	 */
+	public Map<Integer, Double> getFillRates() {
+		return fillRates;
+	}
+
+	/**
+	 * @return The number of enrolled students divided by the number of seats of all the courses, or 0 if there are no courses.
+	 */
+	public double getOverallFillRate() {
+		return seats == 0 ? 0 : (double) enrollments / seats;
+	}
+
+	/**
+	 * @return The number of courses of every coordinator, by name in ascending order.
+	 */
+	public Map<String, Integer> getCoursesPerCoordinator() {
+		return coursesPerCoordinator;
+	}
+
+	/**
+	 * @return The histogram of roster sizes: the element {@code n} is the number of courses with {@code n} enrolled students.
+	 */
+	public int[] getRosterSizeHistogram() {
+		return rosterSizes.clone();
+	}
+
+	/**
+	 * @return The histogram of enrollments per student: the element {@code n} is the number of students enrolled in {@code n} courses.
+	 */
+	public int[] getCoursesPerStudentHistogram() {
+		return coursesPerStudent.clone();
+	}
+
+	/**
+	 * @return The students that are not enrolled in any course, sorted by their identifiers in an ascending order.
+	 */
+	public List<Student> getStudentsWithoutEnrollments() {
+		return studentsWithoutEnrollments;
+	}
+
+	/**
+	 * @return The total number of enrollments.
+	 */
+	public long getEnrollmentCount() {
+		return enrollments;
+	}
+
+	/**
+	 * {@summary It increments an element of a histogram, growing it if needed.}
+	 * @return The histogram, which is a new array if it had to grow.
+	 */
+	private static int[] increment(int[] histogram, int value) {
+		if(value >= histogram.length) {
+			histogram = Arrays.copyOf(histogram, value + 1);
+		}
+		histogram[value]++;
+		return histogram;
+	}
+
+	/**
+	 * {@summary It adds two histograms.}
+	 * @return The sum, stored in the longest of both.
+	 */
+	private static int[] sum(int[] left, int[] right) {
+		int[] sum = left.length >= right.length ? left : right;
+		int[] other = sum == left ? right : left;
+		for(int i = 0; i < other.length; i++) {
+			sum[i] += other[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Figures accumulated by a worker of the pass over the courses.
+	 */
+	private static final class CourseTotals {
+		private final Map<Integer, Double> fillRates = new HashMap<>();
+		private final Map<String, Integer> coordinators = new HashMap<>();
+		private int[] rosterSizes = new int[0];
+		private long enrollments;
+		private long seats;
+
+		void add(Course course, int size) {
+			fillRates.put(course.getCode(), (double) size / course.getCapacity());
+			coordinators.merge(course.getCoordinator(), 1, Integer::sum);
+			rosterSizes = increment(rosterSizes, size);
+			enrollments += size;
+			seats += course.getCapacity();
+		}
+
+		void merge(CourseTotals other) {
+			fillRates.putAll(other.fillRates);
+			other.coordinators.forEach((coordinator, count) -> coordinators.merge(coordinator, count, Integer::sum));
+			rosterSizes = sum(rosterSizes, other.rosterSizes);
+			enrollments += other.enrollments;
+			seats += other.seats;
+		}
+	}
+
+	/**
+	 * Figures accumulated by a worker of the pass over the students.
+	 */
+	private static final class StudentTotals {
+		private final List<Student> idle = new ArrayList<>();
+		private int[] coursesPerStudent = new int[0];
+
+		void add(Student student, int courses) {
+			coursesPerStudent = increment(coursesPerStudent, courses);
+			if(courses == 0) {
+				idle.add(student);
+			}
+		}
+
+		void merge(StudentTotals other) {
+			idle.addAll(other.idle);
+			coursesPerStudent = sum(coursesPerStudent, other.coursesPerStudent);
+		}
+	}
+}
@@ -0,0 +1,378 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class saves the whole state of an enrollment manager to a compact binary file and restores it.
+ *
+ * <p>The file contains, in this order:
+ * <br><li> A header with the magic number {@code ENRL} and the version of the format.
+ * <br><li> The number of courses, followed by the code, name, coordinator, capacity and timetable of each course.
+ * A timetable is written as the {@code long} words of its bitmask.
+ * <br><li> The number of students, followed by the identifier, name and e-mail of each student.
+ * <br><li> For every course, in the same order as above, the number of enrolled students followed by their identifiers.
+ * <br><li> For every course, in the same order as above, the number of waitlisted students followed by their identifiers, in waitlist order.
+ * <br><li> For every course, in the same order as above, the number of its direct prerequisites followed by their codes.
+ * <br><li> For every student, in the same order as above, the number of courses completed followed by their codes.
+ *
+ * <p>Prerequisites and completed courses are restored last, after the rosters and the waitlists, because a student
+ * may have been enrolled in a course before one of its prerequisites was added.
+ *
+ * <p>Integers are written in big-endian order and strings as their length in bytes followed by their UTF-8 encoding.
+ * All the data goes through a single buffer and a {@link FileChannel}, and rosters are restored with
+ * {@link InterfaceEnrollmentManager#enrollAll(int, int[])}, so a registry with a million students loads in a few seconds.
+ *
+ * <p>The manager must be quiescent while it is saved. The courses, the students and every roster are read one after
+ * another, so on a {@link ConcurrentEnrollmentManager} that other threads keep modifying, a student registered and
+ * enrolled during the save may appear in a roster but not among the students, or a student may appear in two courses
+ * that meet at the same time, and such a snapshot cannot be loaded. {@link JournaledEnrollmentManager#compact()}
+ * saves its manager while holding the lock that serializes its mutations.
+ *
+ */
+public final class EnrollmentSnapshot {
+	static final int MAGIC = 0x454E524C;
+	static final int VERSION = 1;
+
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private static final Logger logger = LoggerFactory.getLogger(EnrollmentSnapshot.class);
+
+	private EnrollmentSnapshot() {
+	}
+
+	/**
+	 * {@summary It saves the state of a manager to a file.}
+	 * The file is written next to its final location and then moved over it, so an existing snapshot is
+	 * replaced only once the new one is complete and forced to the storage device.
+	 * @param manager Specifies the manager to save. It must not be modified until the method returns. It does not log while it is read.
+	 * @param path Specifies the file where the snapshot is written.
+	 * @throws IOException when the file cannot be written.
+	 */
+	public static void save(InterfaceEnrollmentManager manager, Path path) throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		QuietScope.enter();
+		try(Output out = new Output(FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			List<Course> courses = new ArrayList<>(manager.getCourses());
+			out.writeInt(courses.size());
+			for(Course course : courses) {
+				out.writeInt(course.getCode());
+				out.writeString(course.getName());
+				out.writeString(course.getCoordinator());
+				out.writeInt(course.getCapacity());
+				for(int i = 0; i < Timetable.WORDS; i++) {
+					out.writeLong(course.getTimetable().word(i));
+				}
+			}
+			List<Student> students = new ArrayList<>(manager.getStudents());
+			out.writeInt(students.size());
+			for(Student student : students) {
+				out.writeInt(student.getId());
+				out.writeString(student.getName());
+				out.writeString(student.getEmailAddress());
+			}
+			for(Course course : courses) {
+				List<Student> roster = manager.getStudentsEnrolledInCourse(course.getCode());
+				int[] ids = new int[roster.size()];
+				for(int i = 0; i < ids.length; i++) {
+					ids[i] = roster.get(i).getId();
+				}
+				out.writeInt(ids.length);
+				for(int id : ids) {
+					out.writeInt(id);
+				}
+			}
+			for(Course course : courses) {
+				List<Student> waitlist = manager.getWaitlist(course.getCode());
+				out.writeInt(waitlist.size());
+				for(Student student : waitlist) {
+					out.writeInt(student.getId());
+				}
+			}
+			for(Course course : courses) {
+				writeCodes(out, manager.getPrerequisites(course.getCode()));
+			}
+			for(Student student : students) {
+				writeCodes(out, manager.getCompletedCourses(student.getId()));
+			}
+			out.force();
+		} catch (MissingCourseException | MissingStudentException e) {
+			throw new IOException("A course or a student disappeared while the snapshot was being taken.", e);
+		} finally {
+			QuietScope.exit();
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--Snapshot successfully saved to {}.", path);
+		}
+	}
+
+	/**
+	 * {@summary It creates a new {@link EnrollmentManager} with the state stored in a file.}
+	 * @param path Specifies the snapshot to read.
+	 * @return The restored manager, logging with its default verbosity.
+	 * @throws IOException when the file cannot be read or is not a valid snapshot.
+	 */
+	public static EnrollmentManager load(Path path) throws IOException {
+		EnrollmentManager manager = new EnrollmentManager();
+		load(path, manager);
+		return manager;
+	}
+
+	/**
+	 * {@summary It adds the state stored in a file to a manager.}
+	 * The manager is normally empty. If some course or student of the snapshot is already registered in it, the load fails.
+	 * @param path Specifies the snapshot to read.
+	 * @param manager Specifies the manager that receives the state. It does not log while it is loaded.
+	 * @throws IOException when the file cannot be read, is not a valid snapshot, or does not fit in the manager.
+	 */
+	public static void load(Path path, InterfaceEnrollmentManager manager) throws IOException {
+		QuietScope.enter();
+		try(Input in = new Input(FileChannel.open(path, StandardOpenOption.READ))) {
+			if(in.readInt() != MAGIC) {
+				throw new IOException(path + " is not an enrollment snapshot.");
+			}
+			int version = in.readInt();
+			if(version != VERSION) {
+				throw new IOException("Unsupported snapshot version: " + version + ".");
+			}
+			int[] codes = new int[in.readCount()];
+			for(int i = 0; i < codes.length; i++) {
+				codes[i] = in.readInt();
+				String name = in.readString();
+				String coordinator = in.readString();
+				manager.registerCourse(codes[i], name, coordinator, in.readInt(), in.readTimetable());
+			}
+			int studentCount = in.readCount();
+			List<Student> students = new ArrayList<>(studentCount);
+			for(int i = 0; i < studentCount; i++) {
+				students.add(new Student(in.readInt(), in.readString(), in.readString()));
+			}
+			checkReport(manager.registerStudents(students), "student");
+			for(int code : codes) {
+				int[] ids = new int[in.readCount()];
+				for(int i = 0; i < ids.length; i++) {
+					ids[i] = in.readInt();
+				}
+				checkReport(manager.enrollAll(code, ids), "enrollment");
+			}
+			for(int code : codes) {
+				int[] ids = new int[in.readCount()];
+				for(int i = 0; i < ids.length; i++) {
+					ids[i] = in.readInt();
+				}
+				restoreWaitlist(manager, code, ids);
+			}
+			for(int c = 0; c < codes.length; c++) {
+				int count = in.readCount();
+				for(int i = 0; i < count; i++) {
+					manager.addPrerequisite(codes[c], in.readInt());
+				}
+			}
+			for(int s = 0; s < studentCount; s++) {
+				int count = in.readCount();
+				for(int i = 0; i < count; i++) {
+					manager.completeCourse(in.readInt(), students.get(s).getId());
+				}
+			}
+		} catch (CourseAlreadyExistsException | CourseBlankInputException | StudentBlankInputException
+				| EmailFormatException | MissingCourseException | MissingStudentException | StudentAlreadyEnrolledException
+				| MissingPrerequisiteException | ScheduleConflictException | IllegalArgumentException e) {
+			throw new IOException("The snapshot " + path + " does not fit in the manager.", e);
+		} finally {
+			QuietScope.exit();
+		}
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--Snapshot successfully loaded from {}.", path);
+		}
+	}
+
+	/**
+	 * {@summary It restores the waitlist of a course.}
+	 * A waitlisted student may have been enrolled later in a course that meets at the same time, so the built-in managers
+	 * take the waitlist as it is. Other managers get it through {@link InterfaceEnrollmentManager#enrollOrWaitlist(int, int)},
+	 * which rejects such students.
+	 * @throws IOException when a student would be enrolled instead of waitlisted.
+	 */
+	private static void restoreWaitlist(InterfaceEnrollmentManager manager, int code, int[] ids) throws IOException, StudentAlreadyEnrolledException,
+			MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		if(manager instanceof EnrollmentManager) {
+			((EnrollmentManager) manager).restoreWaitlist(code, ids);
+		} else if(manager instanceof ConcurrentEnrollmentManager) {
+			((ConcurrentEnrollmentManager) manager).restoreWaitlist(code, ids);
+		} else {
+			for(int id : ids) {
+				if(manager.enrollOrWaitlist(code, id)) {
+					throw new IOException("A waitlisted student of the snapshot was enrolled in the course " + code + ".");
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@summary It writes the number of courses of a list followed by their codes.}
+	 */
+	private static void writeCodes(Output out, List<Course> courses) throws IOException {
+		out.writeInt(courses.size());
+		for(Course course : courses) {
+			out.writeInt(course.getCode());
+		}
+	}
+
+	/**
+	 * {@summary It checks that every item of a batch loaded from the snapshot has succeeded.}
+	 * @param report Specifies the outcome of the batch.
+	 * @param item Specifies what the items of the batch are, for the error message.
+	 * @throws IOException when some item has failed.
+	 */
+	private static void checkReport(BatchReport report, String item) throws IOException {
+		if(report.getFailureCount() > 0) {
+			Exception cause = report.getFailures().values().iterator().next();
+			throw new IOException(report.getFailureCount() + " " + item + " entries of the snapshot could not be restored.", cause);
+		}
+	}
+
+	/**
+	 * Buffered writer of integers and strings over a file channel.
+	 */
+	private static final class Output implements AutoCloseable {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void writeInt(int value) throws IOException {
+			if(buffer.remaining() < Integer.BYTES) {
+				flush();
+			}
+			buffer.putInt(value);
+		}
+
+		void writeLong(long value) throws IOException {
+			if(buffer.remaining() < Long.BYTES) {
+				flush();
+			}
+			buffer.putLong(value);
+		}
+
+		void writeString(String value) throws IOException {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length);
+			int offset = 0;
+			while(offset < bytes.length) {
+				if(!buffer.hasRemaining()) {
+					flush();
+				}
+				int length = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, length);
+				offset += length;
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		void force() throws IOException {
+			flush();
+			channel.force(true);
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Buffered reader of integers and strings over a file channel.
+	 */
+	private static final class Input implements AutoCloseable {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		Input(FileChannel channel) {
+			this.channel = channel;
+			buffer.flip();
+		}
+
+		/**
+		 * Makes sure that at least {@code count} bytes, never more than the size of the buffer, can be read from it.
+		 */
+		private void require(int count) throws IOException {
+			if(buffer.remaining() >= count) {
+				return;
+			}
+			buffer.compact();
+			while(buffer.position() < count) {
+				if(channel.read(buffer) < 0) {
+					throw new EOFException("The snapshot is truncated.");
+				}
+			}
+			buffer.flip();
+		}
+
+		int readInt() throws IOException {
+			require(Integer.BYTES);
+			return buffer.getInt();
+		}
+
+		Timetable readTimetable() throws IOException {
+			long[] words = new long[Timetable.WORDS];
+			for(int i = 0; i < words.length; i++) {
+				require(Long.BYTES);
+				words[i] = buffer.getLong();
+			}
+			try {
+				return Timetable.of(words);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("The snapshot is corrupted.", e);
+			}
+		}
+
+		int readCount() throws IOException {
+			int count = readInt();
+			if(count < 0) {
+				throw new IOException("The snapshot is corrupted.");
+			}
+			return count;
+		}
+
+		String readString() throws IOException {
+			int length = readCount();
+			byte[] bytes = new byte[length];
+			int offset = 0;
+			while(offset < length) {
+				require(1);
+				int chunk = Math.min(buffer.remaining(), length - offset);
+				buffer.get(bytes, offset, chunk);
+				offset += chunk;
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
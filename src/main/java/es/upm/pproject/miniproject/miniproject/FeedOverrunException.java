@@ -0,0 +1,28 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * 
+ * Thrown when a subscriber of an {@link EnrollmentChangeFeed} has fallen so far behind that the events it had
+ * not read yet have been overwritten. The subscriber has to rebuild its state from the manager, and can then
+ * go on reading from the oldest event still available.
+ *
+ */
+public class FeedOverrunException extends Exception {
+	private final long missed;
+
+	/**
+	 * {@summary Constructs an exception of type FeedOverrunException}
+	 * @param missed Specifies the number of events lost by the subscriber.
+	 */
+	public FeedOverrunException(long missed) {
+		super("Error: " + missed + " events were overwritten before they were read.");
+		this.missed = missed;
+	}
+
+	/**
+	 * @return The number of events lost by the subscriber.
+	 */
+	public long getMissed() {
+		return missed;
+	}
+}
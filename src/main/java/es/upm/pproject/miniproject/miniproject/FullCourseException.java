@@ -2,15 +2,23 @@ package es.upm.pproject.miniproject.miniproject;
 
 /**
  * 
- * Thrown when an application attempts to enroll a student in a course that already has 50 students enrolled in it.
+ * Thrown when an application attempts to enroll a student in a course whose capacity is already filled.
  *
  */
 public class FullCourseException extends Exception {
 	
 	/**
-	 * {@summary Constructs an exception of type FullCourseException}
+	 * {@summary Constructs an exception of type FullCourseException for a course with the default capacity}
 	 */
 	public FullCourseException() {
-		super("Error: There are already 50 students enrolled in this course.");
+		this(Course.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * {@summary Constructs an exception of type FullCourseException}
+	 * @param capacity Specifies the capacity of the full course.
+	 */
+	public FullCourseException(int capacity) {
+		super("Error: There are already " + capacity + " students enrolled in this course.");
 	}
 }
@@ -0,0 +1,57 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * This class is the default {@link StudentStore}: an {@link IntHashMap} from identifiers to students on the heap.
+ * The sorted views read the table's sorted keys in place, so they reflect later registrations and cost nothing to create.
+ * The e-mail addresses are indexed in a {@link HashMap} from the normalized addresses to the students, which costs an
+ * entry and a normalized copy of the address per student.
+ *
+ */
+final class HeapStudentStore implements StudentStore {
+	private final IntHashMap<Student> students = new IntHashMap<>();
+	private final Map<String, Student> studentsByEmail = new HashMap<>();
+
+	@Override
+	public boolean contains(int id) {
+		return students.containsKey(id);
+	}
+
+	@Override
+	public Student get(int id) {
+		return students.get(id);
+	}
+
+	@Override
+	public Student getByEmail(String email) {
+		return studentsByEmail.get(Student.normalizeEmail(email));
+	}
+
+	@Override
+	public boolean add(Student student) {
+		if(students.containsKey(student.getId()) || studentsByEmail.putIfAbsent(Student.normalizeEmail(student.getEmailAddress()), student) != null) {
+			return false;
+		}
+		students.put(student.getId(), student);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return students.size();
+	}
+
+	@Override
+	public Collection<Student> values() {
+		return students.values();
+	}
+
+	@Override
+	public Iterator<Student> iteratorAfter(int id) {
+		return students.valuesAfter(id);
+	}
+}
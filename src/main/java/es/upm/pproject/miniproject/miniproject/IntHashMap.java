@@ -0,0 +1,402 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * This class maps primitive integer keys to values with open addressing, without boxing the keys.
+ * It is used by {@link EnrollmentManager} to find courses, students, rosters and waitlists by their identifiers:
+ * <br><li> Keys and values are kept in two parallel arrays, so a lookup hashes the key and probes consecutive
+ * slots of an {@code int[]}, instead of walking the nodes of a tree or comparing {@code Integer} objects.
+ * <br><li> Collisions are resolved by linear probing, and removals shift the following entries back, so the
+ * table never holds tombstones. The table doubles when it is more than half full.
+ * <br><li> The keys are sorted into an {@code int[]} the first time the values are listed in key order, or from a
+ * given key on. The sorted keys are kept while keys arrive in ascending order, as identifiers usually do, which
+ * only appends them, and are dropped by any other insertion or removal until the next listing. Maps that are never
+ * listed never sort their keys.
+ *
+ * <p>Values cannot be null, because a null value marks an empty slot. The map is not thread-safe.
+ *
+ * @param <V> The type of the values.
+ */
+final class IntHashMap<V> {
+	private static final int MIN_CAPACITY = 16;
+
+	private int[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	/** The sorted keys, or null if they have not been sorted since the last modification out of order. */
+	private int[] order;
+	private int modifications;
+
+	/**
+	 * {@summary It creates an empty map.}
+	 */
+	IntHashMap() {
+		keys = new int[MIN_CAPACITY];
+		values = new Object[MIN_CAPACITY];
+		mask = MIN_CAPACITY - 1;
+	}
+
+	/**
+	 * @param key Specifies the key to look for.
+	 * @return The value of the key, or null if the key is not in the map.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(int key) {
+		int[] k = keys;
+		Object[] v = values;
+		for(int slot = hash(key) & mask; v[slot] != null; slot = (slot + 1) & mask) {
+			if(k[slot] == key) {
+				return (V) v[slot];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param key Specifies the key to look for.
+	 * @param defaultValue Specifies the value returned when the key is not in the map.
+	 * @return The value of the key, or the default value if the key is not in the map.
+	 */
+	V getOrDefault(int key, V defaultValue) {
+		V value = get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	/**
+	 * @param key Specifies the key to look for.
+	 * @return <strong>true</strong> if the key is in the map and <strong>false</strong> otherwise.
+	 */
+	boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * {@summary It associates a value with a key, replacing the previous value of the key.}
+	 * @param key Specifies the key.
+	 * @param value Specifies the value, which cannot be null.
+	 * @return The previous value of the key, or null if the key was not in the map.
+	 */
+	@SuppressWarnings("unchecked")
+	V put(int key, V value) {
+		if(value == null) {
+			throw new IllegalArgumentException("The values of an IntHashMap cannot be null.");
+		}
+		int slot = find(key);
+		V previous = (V) values[slot];
+		keys[slot] = key;
+		values[slot] = value;
+		if(previous == null) {
+			insertOrdered(key);
+			if(++size > (mask + 1) / 2) {
+				resize(2 * (mask + 1));
+			}
+		}
+		return previous;
+	}
+
+	/**
+	 * {@summary It associates a value with a key, unless the key is already in the map.}
+	 * @param key Specifies the key.
+	 * @param value Specifies the value, which cannot be null.
+	 * @return The current value of the key, or null if the key was not in the map and the value has been added.
+	 */
+	V putIfAbsent(int key, V value) {
+		V current = get(key);
+		return current != null ? current : put(key, value);
+	}
+
+	/**
+	 * {@summary It returns the value of a key, adding one if the key is not in the map.}
+	 * @param key Specifies the key.
+	 * @param factory Specifies how to create the value of a missing key from the key. It cannot return null.
+	 * @return The current or the new value of the key.
+	 */
+	V computeIfAbsent(int key, IntFunction<V> factory) {
+		V value = get(key);
+		if(value == null) {
+			value = factory.apply(key);
+			put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * {@summary It removes a key and its value from the map.}
+	 * @param key Specifies the key to remove.
+	 * @return The value of the key, or null if the key was not in the map.
+	 */
+	@SuppressWarnings("unchecked")
+	V remove(int key) {
+		int slot = find(key);
+		V previous = (V) values[slot];
+		if(previous == null) {
+			return null;
+		}
+		// Every following entry of the same run that could have been placed in the freed slot is shifted back
+		// to it, so lookups never find a hole before their key.
+		int free = slot;
+		for(int next = (free + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if(((next - home) & mask) >= ((next - free) & mask)) {
+				keys[free] = keys[next];
+				values[free] = values[next];
+				free = next;
+			}
+		}
+		values[free] = null;
+		removeOrdered(key);
+		size--;
+		return previous;
+	}
+
+	/**
+	 * @return The number of keys in the map.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return A new array with the keys of the map in an ascending order.
+	 */
+	int[] sortedKeys() {
+		return Arrays.copyOf(sortedOrder(), size);
+	}
+
+	/**
+	 * @return A read-only view of the values of the map, sorted by their keys in an ascending order.
+	 * It reflects later modifications of the map.
+	 */
+	Collection<V> values() {
+		return new Values();
+	}
+
+	/**
+	 * @param key Specifies the key after which the values start. It does not need to be in the map.
+	 * @return An iterator over the values whose key is greater than {@code key}, sorted by their keys in an ascending order.
+	 * It starts with a binary search of the sorted keys, sorting them first if needed, and reads the values in place.
+	 */
+	Iterator<V> valuesAfter(int key) {
+		return new ValueIterator(key);
+	}
+
+	/**
+	 * @return The position of the first sorted key that is greater than {@code key}.
+	 */
+	private int positionAfter(int key) {
+		int position = Arrays.binarySearch(sortedOrder(), 0, size, key);
+		return position >= 0 ? position + 1 : -(position + 1);
+	}
+
+	/**
+	 * @return The sorted keys, which are sorted again if they have been dropped by a modification.
+	 */
+	private int[] sortedOrder() {
+		if(order == null) {
+			int[] sorted = new int[Math.max(size, MIN_CAPACITY / 2)];
+			int count = 0;
+			for(int slot = 0; slot < values.length; slot++) {
+				if(values[slot] != null) {
+					sorted[count++] = keys[slot];
+				}
+			}
+			Arrays.sort(sorted, 0, count);
+			order = sorted;
+		}
+		return order;
+	}
+
+	/**
+	 * {@summary It records a new key.} A key greater than all the others is appended to the sorted keys, and any other
+	 * key drops them.
+	 */
+	private void insertOrdered(int key) {
+		if(order != null) {
+			if(size > 0 && order[size - 1] > key) {
+				order = null;
+			} else {
+				if(size == order.length) {
+					order = Arrays.copyOf(order, 2 * order.length);
+				}
+				order[size] = key;
+			}
+		}
+		modifications++;
+	}
+
+	/**
+	 * {@summary It records a removed key.} Removing the greatest key keeps the sorted keys, and any other key drops them.
+	 */
+	private void removeOrdered(int key) {
+		if(order != null && order[size - 1] != key) {
+			order = null;
+		}
+		modifications++;
+	}
+
+	/**
+	 * @return The slot of the key, or the empty slot where it would be added.
+	 */
+	private int find(int key) {
+		int slot = hash(key) & mask;
+		while(values[slot] != null && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		for(int slot = 0; slot < oldValues.length; slot++) {
+			if(oldValues[slot] != null) {
+				int target = find(oldKeys[slot]);
+				keys[target] = oldKeys[slot];
+				values[target] = oldValues[slot];
+			}
+		}
+	}
+
+	/**
+	 * Spreads consecutive identifiers over the table, mixing the high bits into the low ones used as the slot.
+	 */
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * The live view returned by {@link IntHashMap#values()}.
+	 */
+	private final class Values extends AbstractCollection<V> {
+
+		@Override
+		public Iterator<V> iterator() {
+			return new ValueIterator();
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Spliterator<V> spliterator() {
+			return new ValueSpliterator(0, -1);
+		}
+	}
+
+	/**
+	 * It walks the sorted keys from a position on. When the map is modified meanwhile, it seeks again after the
+	 * last key it has returned, so an iteration interleaved with insertions or removals neither fails nor repeats values.
+	 */
+	private final class ValueIterator implements Iterator<V> {
+		private boolean afterLastKey;
+		private int lastKey;
+		private int position;
+		private int expectedModifications;
+
+		ValueIterator() {
+			expectedModifications = modifications;
+		}
+
+		ValueIterator(int afterKey) {
+			afterLastKey = true;
+			lastKey = afterKey;
+			position = positionAfter(afterKey);
+			expectedModifications = modifications;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if(expectedModifications != modifications) {
+				position = afterLastKey ? positionAfter(lastKey) : 0;
+				expectedModifications = modifications;
+			}
+			return position < size;
+		}
+
+		@Override
+		public V next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			afterLastKey = true;
+			lastKey = sortedOrder()[position++];
+			return get(lastKey);
+		}
+	}
+
+	/**
+	 * It splits the positions of the sorted keys, so the values can be streamed in parallel. It binds to the size of the map
+	 * when it is first used, and fails if the map is modified afterwards.
+	 */
+	private final class ValueSpliterator implements Spliterator<V> {
+		private int position;
+		private int fence;
+		private int expectedModifications;
+
+		ValueSpliterator(int position, int fence) {
+			this.position = position;
+			this.fence = fence;
+			this.expectedModifications = modifications;
+		}
+
+		private int fence() {
+			if(fence < 0) {
+				fence = size;
+				expectedModifications = modifications;
+			}
+			return fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super V> action) {
+			if(position >= fence()) {
+				return false;
+			}
+			V value = get(sortedOrder()[position++]);
+			if(expectedModifications != modifications) {
+				throw new ConcurrentModificationException();
+			}
+			action.accept(value);
+			return true;
+		}
+
+		@Override
+		public Spliterator<V> trySplit() {
+			int high = fence();
+			int middle = (position + high) >>> 1;
+			if(middle <= position) {
+				return null;
+			}
+			ValueSpliterator prefix = new ValueSpliterator(position, middle);
+			prefix.expectedModifications = expectedModifications;
+			position = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return (long) fence() - position;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
+}
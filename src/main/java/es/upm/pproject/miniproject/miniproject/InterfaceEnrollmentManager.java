@@ -2,6 +2,7 @@ package es.upm.pproject.miniproject.miniproject;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The EnrollmentManager interface facilitates the management of course enrollments and student registrations.
@@ -60,6 +61,37 @@ public interface InterfaceEnrollmentManager {
      * <br><li> {@code registerCourse(1, "Computer Science 101", " ")} will throw a {@code CourseBlankInputException()}.
      */
 	public void registerCourse(int code, String name, String coordinator) throws CourseAlreadyExistsException, CourseBlankInputException;
+
+    /**
+     * {@summary It registers a new course with a given capacity.}
+     * {@link #registerCourse(int, String, String)} registers courses with {@value Course#DEFAULT_CAPACITY} seats.
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @throws CourseAlreadyExistsException when the course's code is already registered in the database.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     * <br><li> An example of use is provided below: 
+     * <br><li> {@code registerCourse(1, "Computer Science 101", "Coordinator 1", 300)} will successfully register the course.
+     * <br><li> {@code registerCourse(1, "Computer Science 101", "Coordinator 1", 0)} will throw a {@code CourseBlankInputException()}.
+     */
+	public void registerCourse(int code, String name, String coordinator, int capacity) throws CourseAlreadyExistsException, CourseBlankInputException;
+
+    /**
+     * {@summary It registers a new course with a given capacity and weekly meetings.}
+     * The other overloads register courses with {@link Timetable#EMPTY}, which never conflict with other courses.
+     * @param code Specifies the unique course identifier. Must be a positive integer.
+     * @param name Specifies the title of the course.
+     * @param coordinator Specifies the name of the person coordinating the course.
+     * @param capacity Specifies the maximum number of students enrolled in the course. Must be a positive integer.
+     * @param timetable Specifies when the course meets every week. Students cannot be enrolled in it and in another course that meets at the same time.
+     * @throws CourseAlreadyExistsException when the course's code is already registered in the database.
+     * @throws CourseBlankInputException when any of the input parameters are blank or null or the code or the capacity is not a positive integer.
+     * <br><li> An example of use is provided below: 
+     * <br><li> {@code registerCourse(1, "Computer Science 101", "Coordinator 1", 300, Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0)))} will successfully register the course.
+     * <br><li> {@code registerCourse(1, "Computer Science 101", "Coordinator 1", 300, null)} will throw a {@code CourseBlankInputException()}.
+     */
+	public void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) throws CourseAlreadyExistsException, CourseBlankInputException;
 	
     /**
      * {@summary It registers a new student.}
@@ -85,17 +117,90 @@ public interface InterfaceEnrollmentManager {
      */
 	public void registerStudent(int id, String name, String email) throws StudentAlreadyExistsException, StudentBlankInputException, EmailFormatException;
 
+    /**
+     * {@summary It registers several students at once.}
+     * The students have already been validated by their constructor, so they are not validated again.
+     * An item fails with the same exception that {@link #registerStudent(int, String, String)} would throw:
+     * <br><li> {@code StudentBlankInputException} when the item is null.
+     * <br><li> {@code StudentAlreadyExistsException} when the student's id or e-mail is already registered, or appears earlier in the batch.
+     * @param students Specifies the students to register.
+     * @return A report with the outcome of every student, in the iteration order of the collection.
+     */
+	public BatchReport registerStudents(Collection<Student> students);
+
 	/**
 	 * {@summary It enrolls a student in a course.} 
 	 * @param courseCode Specifies the unique course identifier of an already registered course.
 	 * @param studentId Specifies the unique student identifier of an already registered student.
 	 * @throws StudentAlreadyEnrolledException when the student is already enrolled in the course.
-	 * @throws FullCourseException when there are already 50 students enrolled in the course.
+	 * @throws FullCourseException when the capacity of the course is already filled.
+	 * @throws MissingPrerequisiteException when the student has not completed all the prerequisites of the course, direct or not.
+	 * @throws ScheduleConflictException when the course meets at the same time as another course of the student.
 	 * @throws MissingStudentException when the student's unique identifier is not registered in the database.
 	 * @throws MissingCourseException  when the course's unique code is not registered in the database.
 	 * @
 	 */
-	public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingStudentException, MissingCourseException;
+	public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException;
+
+	/**
+	 * {@summary It enrolls a student in a course, reporting a rejection as a result instead of an exception.}
+	 * It behaves like {@link #enroll(int, int)}, but a rejected attempt allocates nothing, so it suits callers
+	 * where most attempts are expected to fail, such as the opening of the registration period.
+	 * @param courseCode Specifies the unique course identifier.
+	 * @param studentId Specifies the unique student identifier.
+	 * @return {@link EnrollmentOutcome#ENROLLED} if the student has been enrolled, or the reason of the rejection otherwise.
+	 */
+	public EnrollmentOutcome tryEnroll(int courseCode, int studentId);
+
+	/**
+	 * {@summary It enrolls several students in a course at once.}
+	 * The course is checked once and the accepted students are merged into its roster in a single pass.
+	 * An item fails with the same exception that {@link #enroll(int, int)} would throw:
+	 * <br><li> {@code MissingStudentException} when the student is not registered.
+	 * <br><li> {@code StudentAlreadyEnrolledException} when the student is already enrolled, or appears earlier in the batch.
+	 * <br><li> {@code FullCourseException} when the remaining seats have been taken by earlier items of the batch.
+	 * <br><li> {@code MissingPrerequisiteException} when the student has not completed all the prerequisites of the course.
+	 * <br><li> {@code ScheduleConflictException} when the course meets at the same time as another course of the student.
+	 * @param courseCode Specifies the unique course identifier of an already registered course.
+	 * @param studentIds Specifies the students to enroll, in order of priority.
+	 * @return A report with the outcome of every student, in the order of the array.
+	 * @throws MissingCourseException when the course's unique code is not registered in the database.
+	 */
+	public BatchReport enrollAll(int courseCode, int[] studentIds) throws MissingCourseException;
+
+	/**
+	 * {@summary It enrolls a student in a course, or adds the student to the end of the course's waitlist if the course is full.}
+	 * Whenever a seat is freed by {@link #cancelEnrollment(int, int)} or {@link #restartCourse(int)}, the first students
+	 * of the waitlist are enrolled automatically. A waitlisted student who has meanwhile been enrolled in a course that
+	 * meets at the same time, or who lacks a prerequisite added meanwhile, is removed from the waitlist instead.
+	 * @param courseCode Specifies the unique course identifier of an already registered course.
+	 * @param studentId Specifies the unique student identifier of an already registered student.
+	 * @return <strong>true</strong> if the student has been enrolled, or <strong>false</strong> if the student has been waitlisted.
+	 * @throws StudentAlreadyEnrolledException when the student is already enrolled in the course or waiting for it.
+	 * @throws MissingPrerequisiteException when the student has not completed all the prerequisites of the course, direct or not.
+	 * @throws ScheduleConflictException when the course meets at the same time as another course of the student.
+	 * @throws MissingStudentException when the student's unique identifier is not registered in the database.
+	 * @throws MissingCourseException when the course's unique code is not registered in the database.
+	 */
+	public boolean enrollOrWaitlist(int courseCode, int studentId) throws StudentAlreadyEnrolledException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException;
+
+	/**
+	 * {@summary It returns the students waiting for a seat in a course, in the order in which they will be enrolled.}
+	 * @param courseCode Specifies the course's unique code.
+	 * @return A copy of the waitlist, so it is not affected by later changes.
+	 * @throws MissingCourseException when the course is not registered in the system.
+	 */
+	public List<Student> getWaitlist(int courseCode) throws MissingCourseException;
+
+	/**
+	 * {@summary It removes a student from the waitlist of a course.}
+	 * @param courseCode Specifies the course's unique code.
+	 * @param studentId Specifies the student's unique identifier.
+	 * @throws StudentNotEnrolledException when the student is not waiting for the course.
+	 * @throws MissingStudentException when the student is not registered in the system.
+	 * @throws MissingCourseException when the course is not registered in the system.
+	 */
+	public void leaveWaitlist(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException;
 	
     /**
      * {@summary It returns the sorted list of students enrolled in a course.}
@@ -104,9 +209,55 @@ public interface InterfaceEnrollmentManager {
      * @throws MissingCourseException when the course is not registered in the system.
      */
 	public List<Student> getStudentsEnrolledInCourse(int course) throws MissingCourseException;
+
+    /**
+     * {@summary It returns a page of the sorted list of students enrolled in a course.}
+     * Pages are taken by key: the page after the current one starts after the identifier of its last student.
+     * @param course Specifies the course's unique code.
+     * @param afterId Specifies the identifier after which the page starts. Use 0 for the first page.
+     * @param limit Specifies the maximum number of students of the page. Must be a positive integer.
+     * @returns List<Student> with the first students enrolled in the course whose identifier is greater than {@code afterId}, sorted by their identifiers in an ascending order.
+     * @throws MissingCourseException when the course is not registered in the system.
+     * @throws IllegalArgumentException when the limit is not a positive integer.
+     */
+	public List<Student> getStudentsEnrolledInCourse(int course, int afterId, int limit) throws MissingCourseException;
+
+    /**
+     * {@summary It returns a stream over the students enrolled in a course.}
+     * @param course Specifies the course's unique code.
+     * @returns Stream<Student> sorted by their identifiers in an ascending order. It can be run in parallel.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+	public Stream<Student> streamStudentsEnrolledInCourse(int course) throws MissingCourseException;
+
+    /**
+     * {@summary It returns the number of students enrolled in a course, without listing them.}
+     * @param course Specifies the course's unique code.
+     * @returns int with the size of the course's roster.
+     * @throws MissingCourseException when the course is not registered in the system.
+     */
+	public int getEnrollmentCount(int course) throws MissingCourseException;
 	
+    /**
+     * {@summary It returns the sorted list of courses in which a student is enrolled.}
+     * @param studentId Specifies the student's unique identifier.
+     * @returns List<Course> when the student is registered in the system. This list is sorted by the courses' codes in an ascending order.
+     * @throws MissingStudentException when the student is not registered in the system.
+     */
+	public List<Course> getCoursesOfStudent(int studentId) throws MissingStudentException;
+
+    /**
+     * {@summary It returns the student registered with an e-mail address.}
+     * Addresses are compared ignoring the case and the surrounding whitespace, as when their uniqueness is checked at registration.
+     * @param email Specifies the student's e-mail address.
+     * @returns Student when some student is registered with that address.
+     * @throws MissingStudentException when no student is registered with that address, or it is null.
+     */
+	public Student findStudentByEmail(String email) throws MissingStudentException;
+
     /**
      * {@summary It cancels a student's enrollment in a course.}
+     * The seat is given to the first student of the course's waitlist, if any.
      * @param courseCode Specifies the course's unique code.
      * @param studentId Specifies the student's unique identifier.
      * @throws StudentNotEnrolledException when the student is not enrolled in the course.
@@ -117,10 +268,46 @@ public interface InterfaceEnrollmentManager {
 	
     /**
      * {@summary It restarts a course, canceling any active enrollments in that course at the moment of the call.}
+     * The freed seats are then given to the first students of the course's waitlist, in order.
      * @param courseCode Specifies the course's unique code.
      * @throws MissingCourseException when the course is not registered in the system. 
      */
 	public void restartCourse(int courseCode) throws MissingCourseException;
+
+	/**
+	 * {@summary It makes a course a direct prerequisite of another one.}
+	 * Students can only be enrolled in a course once they have completed all its prerequisites, including the prerequisites
+	 * of its prerequisites. Students already enrolled in the course are not affected.
+	 * @param courseCode Specifies the unique code of the course that requires the prerequisite.
+	 * @param prerequisiteCode Specifies the unique code of the course that must be completed before.
+	 * @throws MissingCourseException when either course is not registered in the system.
+	 * @throws IllegalArgumentException when the course is already a prerequisite of the prerequisite, directly or not, or both are the same course.
+	 */
+	public void addPrerequisite(int courseCode, int prerequisiteCode) throws MissingCourseException;
+
+	/**
+	 * @param courseCode Specifies the course's unique code.
+	 * @return The direct prerequisites of the course, sorted by their codes in an ascending order.
+	 * @throws MissingCourseException when the course is not registered in the system.
+	 */
+	public List<Course> getPrerequisites(int courseCode) throws MissingCourseException;
+
+	/**
+	 * {@summary It records that a student has completed a course, so that it counts as a prerequisite for the student.}
+	 * The student does not need to be enrolled in the course, so records from other systems can be imported.
+	 * @param courseCode Specifies the course's unique code.
+	 * @param studentId Specifies the student's unique identifier.
+	 * @throws MissingStudentException when the student is not registered in the system.
+	 * @throws MissingCourseException when the course is not registered in the system.
+	 */
+	public void completeCourse(int courseCode, int studentId) throws MissingStudentException, MissingCourseException;
+
+	/**
+	 * @param studentId Specifies the student's unique identifier.
+	 * @return The courses completed by the student, sorted by their codes in an ascending order.
+	 * @throws MissingStudentException when the student is not registered in the system.
+	 */
+	public List<Course> getCompletedCourses(int studentId) throws MissingStudentException;
 	
 	  /**
 	    * {@summary It returns a list containing all registered students in the system at the moment of the call.}
@@ -131,4 +318,44 @@ public interface InterfaceEnrollmentManager {
 	    * {@summary It returns a list containing all registered courses in the system at the moment of the call.}
 	    */
 	public Collection<Course> getCourses();
+
+	/**
+	 * {@summary It returns a page of the registered students, sorted by their identifiers.}
+	 * The page is found by seeking to {@code afterId}, so its cost does not depend on how many pages come before it.
+	 * @param afterId Specifies the identifier after which the page starts. Use 0 for the first page, and the identifier of the last student of a page for the next one.
+	 * @param limit Specifies the maximum number of students of the page. Must be a positive integer.
+	 * @return The first registered students whose identifier is greater than {@code afterId}, in ascending order.
+	 * @throws IllegalArgumentException when the limit is not a positive integer.
+	 */
+	public List<Student> getStudents(int afterId, int limit);
+
+	/**
+	 * {@summary It returns a page of the registered courses, sorted by their codes.}
+	 * @param afterCode Specifies the code after which the page starts. Use 0 for the first page, and the code of the last course of a page for the next one.
+	 * @param limit Specifies the maximum number of courses of the page. Must be a positive integer.
+	 * @return The first registered courses whose code is greater than {@code afterCode}, in ascending order.
+	 * @throws IllegalArgumentException when the limit is not a positive integer.
+	 */
+	public List<Course> getCourses(int afterCode, int limit);
+
+	/**
+	 * @return A stream over the registered students, sorted by their identifiers. It can be run in parallel without copying the students into a list.
+	 */
+	public Stream<Student> streamStudents();
+
+	/**
+	 * @return A stream over the registered courses, sorted by their codes. It can be run in parallel without copying the courses into a list.
+	 */
+	public Stream<Course> streamCourses();
+
+	/**
+	 * {@summary It changes how much the manager writes to its log.}
+	 * @param verbosity Specifies the new verbosity.
+	 */
+	public void setLogVerbosity(LogVerbosity verbosity);
+
+	/**
+	 * @return The verbosity with which the manager is currently logging.
+	 */
+	public LogVerbosity getLogVerbosity();
 }
@@ -0,0 +1,484 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class makes the state of another {@link InterfaceEnrollmentManager} survive a crash of the process.
+ *
+ * <p>Every mutation that succeeds on the wrapped manager is appended to a journal. The journal is written
+ * with group commit: records are forced to the storage device once {@code batchSize} of them are pending,
+ * or every {@code flushIntervalMillis} milliseconds, whatever comes first, so a crash loses at most the
+ * records of that window. {@link #flush()} forces the pending records immediately.
+ *
+ * <p>The directory holds a snapshot, written by {@link EnrollmentSnapshot}, and the journal of the mutations
+ * made after it. Both carry a generation number in their name. {@link #compact()} writes the snapshot of the
+ * next generation and starts its empty journal, so the files of the previous generation can be deleted,
+ * and a crash at any point of the compaction leaves a consistent pair behind. When the manager is opened,
+ * the snapshot of the latest generation is loaded and its journal is replayed on top of it.
+ *
+ * <p>If the journal cannot be written, the mutation that triggered the flush has already been applied in memory and
+ * throws an {@link UncheckedIOException}, and every later mutation is rejected with one before it is applied, because
+ * the journal no longer matches the wrapped manager. {@link #compact()} recovers from the failure by writing a snapshot
+ * of the wrapped manager and starting a new journal.
+ *
+ * <p>Mutations are serialized by a single lock so that the journal records them in the same order in which
+ * they are applied, which the replay needs: whether an enrollment succeeds may depend on the other courses of the
+ * student. This caps the throughput of the mutations at one at a time, whatever the concurrency of the wrapped
+ * manager, so wrapping a {@link ConcurrentEnrollmentManager} only keeps its queries concurrent. Queries are not
+ * journaled and go straight to the wrapped manager.
+ *
+ */
+public class JournaledEnrollmentManager implements InterfaceEnrollmentManager, AutoCloseable {
+	/** Number of pending records that triggers a flush when none is specified. */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	/** Milliseconds between background flushes when none is specified. */
+	public static final long DEFAULT_FLUSH_INTERVAL = 10;
+
+	private static final Pattern FILE_NAME = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)(\\.tmp)?");
+
+	private static final Logger logger = LoggerFactory.getLogger(JournaledEnrollmentManager.class);
+
+	private final InterfaceEnrollmentManager delegate;
+	private final Path directory;
+	private final int batchSize;
+	private final ScheduledExecutorService flusher;
+	private final Object lock = new Object();
+	private EnrollmentJournal journal;
+	private long generation;
+
+	private JournaledEnrollmentManager(InterfaceEnrollmentManager delegate, Path directory, int batchSize, long flushIntervalMillis) {
+		this.delegate = delegate;
+		this.directory = directory;
+		this.batchSize = batchSize;
+		if(flushIntervalMillis > 0) {
+			this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "enrollment-journal-flusher");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+		} else {
+			this.flusher = null;
+		}
+	}
+
+	/**
+	 * {@summary It opens a journaled manager with the default group commit settings.}
+	 * @param directory Specifies the directory of the snapshot and the journal. It is created if needed.
+	 * @param delegate Specifies the empty manager that receives the recovered state and every later mutation.
+	 * @return The opened manager.
+	 * @throws IOException when the stored state cannot be read.
+	 */
+	public static JournaledEnrollmentManager open(Path directory, InterfaceEnrollmentManager delegate) throws IOException {
+		return open(directory, delegate, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+	}
+
+	/**
+	 * {@summary It opens a journaled manager, recovering the state stored in a directory.}
+	 * @param directory Specifies the directory of the snapshot and the journal. It is created if needed.
+	 * @param delegate Specifies the empty manager that receives the recovered state and every later mutation.
+	 * @param batchSize Specifies how many records may be pending before they are forced. 1 forces every mutation.
+	 * @param flushIntervalMillis Specifies the milliseconds between background flushes. 0 disables them.
+	 * @return The opened manager.
+	 * @throws IOException when the stored state cannot be read.
+	 * @throws IllegalArgumentException when the batch size is not positive or the interval is negative.
+	 */
+	public static JournaledEnrollmentManager open(Path directory, InterfaceEnrollmentManager delegate, int batchSize, long flushIntervalMillis) throws IOException {
+		if(batchSize < 1 || flushIntervalMillis < 0) {
+			throw new IllegalArgumentException("The batch size must be positive and the flush interval cannot be negative.");
+		}
+		Files.createDirectories(directory);
+		long generation = latestGeneration(directory);
+		Path snapshot = snapshotFile(directory, generation);
+		if(Files.exists(snapshot)) {
+			EnrollmentSnapshot.load(snapshot, delegate);
+		}
+		int replayed;
+		QuietScope.enter();
+		try {
+			replayed = EnrollmentJournal.replay(journalFile(directory, generation), delegate);
+		} finally {
+			QuietScope.exit();
+		}
+		deleteOtherGenerations(directory, generation);
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--Recovered generation {} from {}, replaying {} journal records.", generation, directory, replayed);
+		}
+		JournaledEnrollmentManager manager = new JournaledEnrollmentManager(delegate, directory, batchSize, flushIntervalMillis);
+		manager.generation = generation;
+		manager.journal = EnrollmentJournal.open(journalFile(directory, generation));
+		return manager;
+	}
+
+	/**
+	 * {@summary It forces every pending record of the journal to the storage device.}
+	 * @throws IOException when the journal cannot be written.
+	 */
+	public void flush() throws IOException {
+		synchronized(lock) {
+			journal.flush();
+		}
+	}
+
+	/**
+	 * {@summary It replaces the journal by a snapshot of the current state.}
+	 * The snapshot of the next generation is written first and the files of the current generation are deleted afterwards.
+	 * The snapshot holds every mutation, so this also recovers from a journal that has failed.
+	 * @throws IOException when the snapshot or the new journal cannot be written.
+	 */
+	public void compact() throws IOException {
+		synchronized(lock) {
+			long next = generation + 1;
+			EnrollmentSnapshot.save(delegate, snapshotFile(directory, next));
+			EnrollmentJournal nextJournal = EnrollmentJournal.open(journalFile(directory, next));
+			journal.discard();
+			journal = nextJournal;
+			generation = next;
+			deleteOtherGenerations(directory, next);
+		}
+	}
+
+	/**
+	 * {@summary It stops the background flushes and closes the journal, forcing its pending records.}
+	 * The wrapped manager keeps its state, but this manager cannot be used anymore.
+	 * @throws IOException when the journal cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(flusher != null) {
+			flusher.shutdown();
+		}
+		synchronized(lock) {
+			journal.close();
+		}
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator) throws CourseAlreadyExistsException, CourseBlankInputException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.registerCourse(code, name, coordinator);
+			journal.registerCourse(code, name, coordinator);
+			appended();
+		}
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity) throws CourseAlreadyExistsException, CourseBlankInputException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.registerCourse(code, name, coordinator, capacity);
+			journal.registerCourse(code, name, coordinator, capacity);
+			appended();
+		}
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) throws CourseAlreadyExistsException, CourseBlankInputException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.registerCourse(code, name, coordinator, capacity, timetable);
+			journal.registerCourse(code, name, coordinator, capacity, timetable);
+			appended();
+		}
+	}
+
+	@Override
+	public void registerStudent(int id, String name, String email) throws StudentAlreadyExistsException, StudentBlankInputException, EmailFormatException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.registerStudent(id, name, email);
+			journal.registerStudent(id, name, email);
+			appended();
+		}
+	}
+
+	@Override
+	public BatchReport registerStudents(Collection<Student> students) {
+		synchronized(lock) {
+			journal.checkWritable();
+			BatchReport report = delegate.registerStudents(students);
+			int i = 0;
+			for(Student student : students) {
+				if(report.isSuccessful(i++)) {
+					journal.registerStudent(student.getId(), student.getName(), student.getEmailAddress());
+				}
+			}
+			appended();
+			return report;
+		}
+	}
+
+	@Override
+	public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.enroll(courseCode, studentId);
+			journal.enroll(courseCode, studentId);
+			appended();
+		}
+	}
+
+	@Override
+	public EnrollmentOutcome tryEnroll(int courseCode, int studentId) {
+		synchronized(lock) {
+			journal.checkWritable();
+			EnrollmentOutcome outcome = delegate.tryEnroll(courseCode, studentId);
+			if(outcome == EnrollmentOutcome.ENROLLED) {
+				journal.enroll(courseCode, studentId);
+				appended();
+			}
+			return outcome;
+		}
+	}
+
+	@Override
+	public BatchReport enrollAll(int courseCode, int[] studentIds) throws MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			BatchReport report = delegate.enrollAll(courseCode, studentIds);
+			int[] accepted = new int[report.getSuccessCount()];
+			int count = 0;
+			for(int i = 0; i < studentIds.length; i++) {
+				if(report.isSuccessful(i)) {
+					accepted[count++] = studentIds[i];
+				}
+			}
+			if(count > 0) {
+				journal.enrollAll(courseCode, accepted, count);
+				appended();
+			}
+			return report;
+		}
+	}
+
+	@Override
+	public boolean enrollOrWaitlist(int courseCode, int studentId) throws StudentAlreadyEnrolledException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			boolean enrolled = delegate.enrollOrWaitlist(courseCode, studentId);
+			journal.enrollOrWaitlist(courseCode, studentId);
+			appended();
+			return enrolled;
+		}
+	}
+
+	@Override
+	public List<Student> getWaitlist(int courseCode) throws MissingCourseException {
+		return delegate.getWaitlist(courseCode);
+	}
+
+	@Override
+	public void leaveWaitlist(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.leaveWaitlist(courseCode, studentId);
+			journal.leaveWaitlist(courseCode, studentId);
+			appended();
+		}
+	}
+
+	@Override
+	public void addPrerequisite(int courseCode, int prerequisiteCode) throws MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.addPrerequisite(courseCode, prerequisiteCode);
+			journal.addPrerequisite(courseCode, prerequisiteCode);
+			appended();
+		}
+	}
+
+	@Override
+	public List<Course> getPrerequisites(int courseCode) throws MissingCourseException {
+		return delegate.getPrerequisites(courseCode);
+	}
+
+	@Override
+	public void completeCourse(int courseCode, int studentId) throws MissingStudentException, MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.completeCourse(courseCode, studentId);
+			journal.completeCourse(courseCode, studentId);
+			appended();
+		}
+	}
+
+	@Override
+	public List<Course> getCompletedCourses(int studentId) throws MissingStudentException {
+		return delegate.getCompletedCourses(studentId);
+	}
+
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		return delegate.getStudentsEnrolledInCourse(course);
+	}
+
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course, int afterId, int limit) throws MissingCourseException {
+		return delegate.getStudentsEnrolledInCourse(course, afterId, limit);
+	}
+
+	@Override
+	public Stream<Student> streamStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		return delegate.streamStudentsEnrolledInCourse(course);
+	}
+
+	@Override
+	public int getEnrollmentCount(int course) throws MissingCourseException {
+		return delegate.getEnrollmentCount(course);
+	}
+
+	@Override
+	public List<Course> getCoursesOfStudent(int studentId) throws MissingStudentException {
+		return delegate.getCoursesOfStudent(studentId);
+	}
+
+	@Override
+	public Student findStudentByEmail(String email) throws MissingStudentException {
+		return delegate.findStudentByEmail(email);
+	}
+
+	@Override
+	public void cancelEnrollment(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.cancelEnrollment(courseCode, studentId);
+			journal.cancelEnrollment(courseCode, studentId);
+			appended();
+		}
+	}
+
+	@Override
+	public void restartCourse(int courseCode) throws MissingCourseException {
+		synchronized(lock) {
+			journal.checkWritable();
+			delegate.restartCourse(courseCode);
+			journal.restartCourse(courseCode);
+			appended();
+		}
+	}
+
+	@Override
+	public Collection<Student> getStudents() {
+		return delegate.getStudents();
+	}
+
+	@Override
+	public Collection<Course> getCourses() {
+		return delegate.getCourses();
+	}
+
+	@Override
+	public List<Student> getStudents(int afterId, int limit) {
+		return delegate.getStudents(afterId, limit);
+	}
+
+	@Override
+	public List<Course> getCourses(int afterCode, int limit) {
+		return delegate.getCourses(afterCode, limit);
+	}
+
+	@Override
+	public Stream<Student> streamStudents() {
+		return delegate.streamStudents();
+	}
+
+	@Override
+	public Stream<Course> streamCourses() {
+		return delegate.streamCourses();
+	}
+
+	@Override
+	public void setLogVerbosity(LogVerbosity verbosity) {
+		delegate.setLogVerbosity(verbosity);
+	}
+
+	@Override
+	public LogVerbosity getLogVerbosity() {
+		return delegate.getLogVerbosity();
+	}
+
+	/**
+	 * Flushes the journal once a full batch is pending. Must be called while holding the lock.
+	 * @throws UncheckedIOException when the journal cannot be written. The mutation has already been applied in memory,
+	 * and the journal rejects every later one.
+	 */
+	private void appended() {
+		if(journal.pending() >= batchSize) {
+			try {
+				journal.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException("The journal could not be written.", e);
+			}
+		}
+	}
+
+	/**
+	 * Flushes the pending records in the background. A journal that has failed has no pending records, so its failure
+	 * is only logged once.
+	 */
+	private void flushQuietly() {
+		synchronized(lock) {
+			if(journal.pending() == 0) {
+				return;
+			}
+			try {
+				journal.flush();
+			} catch (IOException e) {
+				logger.error("\n--The journal could not be flushed.", e);
+			}
+		}
+	}
+
+	private static Path snapshotFile(Path directory, long generation) {
+		return directory.resolve("snapshot-" + generation + ".bin");
+	}
+
+	private static Path journalFile(Path directory, long generation) {
+		return directory.resolve("journal-" + generation + ".log");
+	}
+
+	/**
+	 * @return The generation of the newest complete snapshot, or 0 when there is none.
+	 */
+	private static long latestGeneration(Path directory) throws IOException {
+		long latest = 0;
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for(Path file : files) {
+				Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+				if(m.matches() && m.group(1).equals("snapshot") && m.group(4) == null) {
+					latest = Math.max(latest, Long.parseLong(m.group(2)));
+				}
+			}
+		}
+		return latest;
+	}
+
+	/**
+	 * Deletes the snapshots and journals of any other generation, and any unfinished snapshot.
+	 */
+	private static void deleteOtherGenerations(Path directory, long generation) throws IOException {
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for(Path file : files) {
+				Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+				if(m.matches() && (Long.parseLong(m.group(2)) != generation || m.group(4) != null)) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,371 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class writes and reads the JSON documents exchanged by {@link EnrollmentHttpServer} and {@link EnrollmentLoadGenerator}.
+ *
+ * <p>{@link Writer} writes a document token by token, straight to the output, so a roster of any size is sent
+ * without building it in memory first. {@link #parse(String)} reads the small documents sent in the requests into
+ * maps, lists, strings, {@code Long} or {@code Double} numbers, booleans and nulls.
+ *
+ */
+final class Json {
+	/** Maximum number of arrays and objects nested in a document that is read. */
+	static final int MAX_DEPTH = 64;
+
+	private Json() {
+	}
+
+	/**
+	 * Streaming writer of a JSON document, which places the commas and escapes the strings.
+	 */
+	static final class Writer {
+		private final Appendable out;
+		private boolean first = true;
+
+		Writer(Appendable out) {
+			this.out = out;
+		}
+
+		Writer beginObject() throws IOException {
+			separate();
+			out.append('{');
+			first = true;
+			return this;
+		}
+
+		Writer endObject() throws IOException {
+			out.append('}');
+			first = false;
+			return this;
+		}
+
+		Writer beginArray() throws IOException {
+			separate();
+			out.append('[');
+			first = true;
+			return this;
+		}
+
+		Writer endArray() throws IOException {
+			out.append(']');
+			first = false;
+			return this;
+		}
+
+		/**
+		 * {@summary It writes the name of the next member of an object.}
+		 */
+		Writer name(String name) throws IOException {
+			separate();
+			string(name);
+			out.append(':');
+			first = true;
+			return this;
+		}
+
+		Writer value(String value) throws IOException {
+			separate();
+			if(value == null) {
+				out.append("null");
+			} else {
+				string(value);
+			}
+			return this;
+		}
+
+		Writer value(long value) throws IOException {
+			separate();
+			out.append(Long.toString(value));
+			return this;
+		}
+
+		Writer value(boolean value) throws IOException {
+			separate();
+			out.append(value ? "true" : "false");
+			return this;
+		}
+
+		Writer student(Student student) throws IOException {
+			return beginObject().name("id").value(student.getId()).name("name").value(student.getName())
+					.name("email").value(student.getEmailAddress()).endObject();
+		}
+
+		Writer course(Course course) throws IOException {
+			beginObject().name("code").value(course.getCode()).name("name").value(course.getName())
+					.name("coordinator").value(course.getCoordinator()).name("capacity").value(course.getCapacity());
+			if(!course.getTimetable().isEmpty()) {
+				name("timetable").value(course.getTimetable().toString());
+			}
+			return endObject();
+		}
+
+		private void separate() throws IOException {
+			if(!first) {
+				out.append(',');
+			}
+			first = false;
+		}
+
+		private void string(String value) throws IOException {
+			out.append('"');
+			for(int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch(c) {
+					case '"':
+						out.append("\\\"");
+						break;
+					case '\\':
+						out.append("\\\\");
+						break;
+					case '\n':
+						out.append("\\n");
+						break;
+					case '\r':
+						out.append("\\r");
+						break;
+					case '\t':
+						out.append("\\t");
+						break;
+					default:
+						if(c < 0x20) {
+							out.append(String.format("\\u%04x", (int) c));
+						} else {
+							out.append(c);
+						}
+				}
+			}
+			out.append('"');
+		}
+	}
+
+	/**
+	 * {@summary It reads a JSON document.}
+	 * @param text Specifies the document.
+	 * @return The value of the document: a {@code Map<String, Object>} for an object, a {@code List<Object>} for an array,
+	 * a {@code String}, a {@code Long} for an integer, a {@code Double} for any other number, a {@code Boolean} or null.
+	 * @throws IllegalArgumentException when the text is not a single, well-formed JSON value, or nests more than
+	 * {@value #MAX_DEPTH} arrays and objects.
+	 */
+	static Object parse(String text) {
+		Parser parser = new Parser(text);
+		Object value = parser.value();
+		parser.skipWhitespace();
+		if(parser.position < text.length()) {
+			throw parser.error("Unexpected text after the document");
+		}
+		return value;
+	}
+
+	/**
+	 * Recursive descent parser over the text of a document.
+	 */
+	private static final class Parser {
+		private final String text;
+		private int position;
+		private int depth;
+
+		Parser(String text) {
+			this.text = text;
+		}
+
+		Object value() {
+			skipWhitespace();
+			if(position >= text.length()) {
+				throw error("Unexpected end of the document");
+			}
+			char c = text.charAt(position);
+			switch(c) {
+				case '{':
+					enter();
+					Map<String, Object> members = object();
+					depth--;
+					return members;
+				case '[':
+					enter();
+					List<Object> elements = array();
+					depth--;
+					return elements;
+				case '"':
+					return string();
+				case 't':
+					return literal("true", Boolean.TRUE);
+				case 'f':
+					return literal("false", Boolean.FALSE);
+				case 'n':
+					return literal("null", null);
+				default:
+					if(c == '-' || (c >= '0' && c <= '9')) {
+						return number();
+					}
+					throw error("Unexpected character '" + c + "'");
+			}
+		}
+
+		private Map<String, Object> object() {
+			Map<String, Object> members = new LinkedHashMap<>();
+			position++;
+			skipWhitespace();
+			if(peek() == '}') {
+				position++;
+				return members;
+			}
+			while(true) {
+				skipWhitespace();
+				if(peek() != '"') {
+					throw error("Expected the name of a member");
+				}
+				String name = string();
+				skipWhitespace();
+				expect(':');
+				members.put(name, value());
+				skipWhitespace();
+				if(peek() == ',') {
+					position++;
+				} else {
+					expect('}');
+					return members;
+				}
+			}
+		}
+
+		private List<Object> array() {
+			List<Object> elements = new ArrayList<>();
+			position++;
+			skipWhitespace();
+			if(peek() == ']') {
+				position++;
+				return elements;
+			}
+			while(true) {
+				elements.add(value());
+				skipWhitespace();
+				if(peek() == ',') {
+					position++;
+				} else {
+					expect(']');
+					return elements;
+				}
+			}
+		}
+
+		private String string() {
+			StringBuilder sb = new StringBuilder();
+			position++;
+			while(true) {
+				if(position >= text.length()) {
+					throw error("Unterminated string");
+				}
+				char c = text.charAt(position++);
+				if(c == '"') {
+					return sb.toString();
+				}
+				if(c != '\\') {
+					sb.append(c);
+					continue;
+				}
+				if(position >= text.length()) {
+					throw error("Unterminated string");
+				}
+				char escaped = text.charAt(position++);
+				switch(escaped) {
+					case 'n':
+						sb.append('\n');
+						break;
+					case 'r':
+						sb.append('\r');
+						break;
+					case 't':
+						sb.append('\t');
+						break;
+					case 'b':
+						sb.append('\b');
+						break;
+					case 'f':
+						sb.append('\f');
+						break;
+					case 'u':
+						if(position + 4 > text.length()) {
+							throw error("Truncated escape");
+						}
+						try {
+							sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+						} catch (NumberFormatException e) {
+							throw error("Invalid escape");
+						}
+						position += 4;
+						break;
+					default:
+						sb.append(escaped);
+				}
+			}
+		}
+
+		private Object number() {
+			int start = position;
+			boolean integer = true;
+			if(peek() == '-') {
+				position++;
+			}
+			while(position < text.length()) {
+				char c = text.charAt(position);
+				if(c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+					integer = false;
+				} else if(c < '0' || c > '9') {
+					break;
+				}
+				position++;
+			}
+			String token = text.substring(start, position);
+			try {
+				return integer ? (Object) Long.parseLong(token) : (Object) Double.parseDouble(token);
+			} catch (NumberFormatException e) {
+				throw error("Invalid number " + token);
+			}
+		}
+
+		private Object literal(String word, Object value) {
+			if(!text.startsWith(word, position)) {
+				throw error("Unexpected token");
+			}
+			position += word.length();
+			return value;
+		}
+
+		private char peek() {
+			return position < text.length() ? text.charAt(position) : '\0';
+		}
+
+		private void expect(char c) {
+			if(peek() != c) {
+				throw error("Expected '" + c + "'");
+			}
+			position++;
+		}
+
+		void skipWhitespace() {
+			while(position < text.length() && Character.isWhitespace(text.charAt(position))) {
+				position++;
+			}
+		}
+
+		/**
+		 * {@summary It counts one more level of arrays and objects.}
+		 * The parser descends recursively, so a deeper document is rejected before it can exhaust the stack of the thread.
+		 */
+		private void enter() {
+			if(++depth > MAX_DEPTH) {
+				throw error("More than " + MAX_DEPTH + " nested arrays and objects");
+			}
+		}
+
+		IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at position " + position + " of the JSON document.");
+		}
+	}
+}
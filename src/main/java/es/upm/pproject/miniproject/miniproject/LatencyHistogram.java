@@ -0,0 +1,123 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records durations in a histogram with logarithmic buckets, in the style of HdrHistogram.
+ *
+ * <p>Every power of two is divided into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is
+ * reported with a relative error below 1/{@value #SUB_BUCKETS}, from one nanosecond to hundreds of years,
+ * with a fixed table of {@value #BUCKETS} counters. Recording a value takes a few arithmetic operations and
+ * one atomic increment, and never allocates. The histogram can be recorded and read by any number of threads.
+ *
+ */
+public final class LatencyHistogram {
+	static final int SUB_BUCKET_BITS = 4;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder total = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * {@summary It records a value.}
+	 * @param value Specifies the value, normally a duration in nanoseconds. Negative values are recorded as 0.
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts.incrementAndGet(indexOf(value));
+		total.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * @return The number of recorded values.
+	 */
+	public long getCount() {
+		return total.sum();
+	}
+
+	/**
+	 * @return The largest recorded value, or 0 if there are none.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return The mean of the recorded values, or 0 if there are none.
+	 */
+	public double getMean() {
+		long count = total.sum();
+		return count == 0 ? 0 : (double) sum.sum() / count;
+	}
+
+	/**
+	 * {@summary It estimates a percentile of the recorded values.}
+	 * @param percentile Specifies the percentile, from 0 to 100.
+	 * @return The highest value of the bucket where the percentile falls, or 0 if there are no values.
+	 * @throws IllegalArgumentException when the percentile is out of range.
+	 */
+	public long getPercentile(double percentile) {
+		if(percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("The percentile must be between 0 and 100: " + percentile + ".");
+		}
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if(seen >= rank) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * {@summary It discards every recorded value.}
+	 * Values recorded by other threads during the call may be partly kept.
+	 */
+	public void reset() {
+		for(int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		total.reset();
+		sum.reset();
+		max.reset();
+	}
+
+	/**
+	 * @return The bucket of a non-negative value: values below {@value #SUB_BUCKETS} have a bucket each, and
+	 * every later power of two is split into {@value #SUB_BUCKETS} buckets by the bits that follow its highest one.
+	 */
+	static int indexOf(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (exponent + 1) * SUB_BUCKETS + (int) ((value >>> exponent) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * @return The highest value that falls into a bucket.
+	 */
+	static long highestValueOf(int index) {
+		if(index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << exponent;
+		return lowest + (1L << exponent) - 1;
+	}
+}
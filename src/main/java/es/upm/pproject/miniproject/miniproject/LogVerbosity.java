@@ -0,0 +1,17 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * This enumeration defines how much an enrollment manager writes to its log. It contains the next values:
+ * <br><li> <strong>FULL</strong>, which logs every step of every operation, including a dump of the whole roster each time the students of a course are obtained.
+ * <br><li> <strong>SUMMARY</strong>, which logs a single line with the outcome of every operation, without dumping rosters.
+ * <br><li> <strong>QUIET</strong>, which does not log anything on the regular operations, not even rejected ones.
+ *
+ * <p>Messages are only built when the selected verbosity and the level of the logger allow them to be written,
+ * so with <strong>QUIET</strong>, or with the logger above the required level, logging allocates nothing.
+ *
+ */
+public enum LogVerbosity {
+	FULL,
+	SUMMARY,
+	QUIET
+}
@@ -0,0 +1,519 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * This class is a {@link StudentStore} that keeps the students in three memory-mapped files, so the heap
+ * footprint of the registry does not grow with the number of students.
+ *
+ * <p>The index file {@code students.idx} has one 8-byte slot per possible identifier, holding the offset of
+ * the student in the heap file, or 0 if there is none. It is mapped in segments of {@value #SEGMENT_SLOTS}
+ * slots, and only the segments that contain some student take space on a file system with sparse files.
+ *
+ * <p>The heap file {@code students.dat} starts with a header (magic number, version, end of the data and
+ * number of students) followed by the records, each one made of the identifier and the length-prefixed UTF-8
+ * name and e-mail. It is mapped in chunks, and a record never crosses the end of a chunk.
+ *
+ * <p>The e-mail file {@code students.eml} is an open-addressing hash table on the normalized e-mail addresses,
+ * with a header (magic number and number of students) followed by a power of two of 16-byte slots, each one
+ * holding the offset of a student in the heap file and the hash of its address. It is kept at most three
+ * quarters full and doubled into a new file when needed. It is rebuilt from the heap file, which is the only
+ * scan of the students when the store is opened, if it is missing or does not match the other files.
+ *
+ * <p>{@link #get(int)} decodes a new {@link Student} on every call. The files are updated in place, so they
+ * survive a crash of the process; {@link #force()} also makes them survive a crash of the operating system.
+ * This class is not thread-safe, but the students can be streamed in parallel as long as none is added meanwhile.
+ *
+ */
+public final class MappedStudentStore implements StudentStore, AutoCloseable {
+	static final int MAGIC = 0x53545544;
+	static final int VERSION = 1;
+	static final int SEGMENT_SLOTS = 1 << 20;
+	static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+	private static final int SEGMENT_BITS = 20;
+	private static final long SEGMENT_BYTES = (long) SEGMENT_SLOTS * Long.BYTES;
+	private static final int HEADER = 32;
+	private static final int END_OFFSET = 8;
+	private static final int COUNT_OFFSET = 16;
+	private static final int MIN_SPLIT_SLOTS = 1 << 12;
+	private static final int EMAIL_MAGIC = 0x454D4C53;
+	private static final int EMAIL_HEADER = 16;
+	private static final int EMAIL_SLOT = 16;
+	private static final int MIN_EMAIL_SLOTS = 1 << 10;
+	private static final int MAX_EMAIL_SLOTS = 1 << 30;
+
+	private final Path directory;
+	private final FileChannel indexChannel;
+	private final FileChannel heapChannel;
+	private final int chunkSize;
+	private final MappedByteBuffer[] segments = new MappedByteBuffer[1 << (Integer.SIZE - 1 - SEGMENT_BITS)];
+	private final List<MappedByteBuffer> chunks = new ArrayList<>();
+	private final Collection<Student> values = new Values();
+	private long end;
+	private int count;
+	private int mappedSegments;
+	private FileChannel emailChannel;
+	private MappedByteBuffer emailHeader;
+	private MappedByteBuffer[] emailSegments;
+	private int emailSlots;
+
+	private MappedStudentStore(Path directory, FileChannel indexChannel, FileChannel heapChannel, int chunkSize) {
+		this.directory = directory;
+		this.indexChannel = indexChannel;
+		this.heapChannel = heapChannel;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * {@summary It opens the store kept in a directory, creating it if needed.}
+	 * @param directory Specifies the directory of the index and heap files.
+	 * @return The opened store, with every student stored in it before.
+	 * @throws IOException when the files cannot be opened or do not hold a valid store.
+	 */
+	public static MappedStudentStore open(Path directory) throws IOException {
+		return open(directory, DEFAULT_CHUNK_SIZE);
+	}
+
+	static MappedStudentStore open(Path directory, int chunkSize) throws IOException {
+		Files.createDirectories(directory);
+		FileChannel index = FileChannel.open(directory.resolve("students.idx"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		FileChannel heap;
+		try {
+			heap = FileChannel.open(directory.resolve("students.dat"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			index.close();
+			throw e;
+		}
+		MappedStudentStore store = new MappedStudentStore(directory, index, heap, chunkSize);
+		try {
+			store.load();
+		} catch (IOException e) {
+			store.close();
+			throw e;
+		}
+		return store;
+	}
+
+	private void load() throws IOException {
+		boolean created = heapChannel.size() == 0;
+		ByteBuffer header = chunk(0);
+		if(created) {
+			header.putInt(0, MAGIC);
+			header.putInt(4, VERSION);
+			header.putLong(END_OFFSET, HEADER);
+			header.putInt(COUNT_OFFSET, 0);
+		} else if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException("The directory does not hold a valid student store.");
+		}
+		end = header.getLong(END_OFFSET);
+		count = header.getInt(COUNT_OFFSET);
+		long mapped = (indexChannel.size() + SEGMENT_BYTES - 1) / SEGMENT_BYTES;
+		for(int s = 0; s < mapped; s++) {
+			segment(s);
+		}
+		// Every chunk with records is mapped now, so reading the students never modifies the list of chunks.
+		chunk((int) ((end - 1) / chunkSize));
+		loadEmails();
+	}
+
+	private void loadEmails() throws IOException {
+		emailChannel = FileChannel.open(directory.resolve("students.eml"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long slots = (emailChannel.size() - EMAIL_HEADER) / EMAIL_SLOT;
+		if(slots >= MIN_EMAIL_SLOTS && slots <= MAX_EMAIL_SLOTS && Long.bitCount(slots) == 1
+				&& emailChannel.size() == EMAIL_HEADER + slots * EMAIL_SLOT) {
+			mapEmails(emailChannel, (int) slots);
+			if(emailHeader.getInt(0) == EMAIL_MAGIC && emailHeader.getInt(4) == count) {
+				return;
+			}
+		}
+		int size = MIN_EMAIL_SLOTS;
+		while(size < MAX_EMAIL_SLOTS && (long) count * 4 > size * 3L) {
+			size <<= 1;
+		}
+		rebuildEmails(size);
+	}
+
+	@Override
+	public boolean contains(int id) {
+		return offset(id) != 0;
+	}
+
+	@Override
+	public Student get(int id) {
+		long offset = offset(id);
+		return offset == 0 ? null : read(offset);
+	}
+
+	@Override
+	public Student getByEmail(String email) {
+		long offset = emailOffset(Student.normalizeEmail(email));
+		return offset == 0 ? null : read(offset);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException when the record of the student does not fit in a chunk of the heap file.
+	 * @throws UncheckedIOException when the files cannot be grown.
+	 */
+	@Override
+	public boolean add(Student student) {
+		int id = student.getId();
+		String email = Student.normalizeEmail(student.getEmailAddress());
+		if(contains(id) || emailOffset(email) != 0) {
+			return false;
+		}
+		byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+		byte[] address = student.getEmailAddress().getBytes(StandardCharsets.UTF_8);
+		int length = 3 * Integer.BYTES + name.length + address.length;
+		if(length > chunkSize - HEADER) {
+			throw new IllegalArgumentException("The student " + id + " is too large to be stored.");
+		}
+		long offset = end;
+		if(offset % chunkSize + length > chunkSize) {
+			offset += chunkSize - offset % chunkSize;
+		}
+		ByteBuffer record = uncheckedChunk((int) (offset / chunkSize)).duplicate();
+		record.position((int) (offset % chunkSize));
+		record.putInt(id);
+		record.putInt(name.length);
+		record.put(name);
+		record.putInt(address.length);
+		record.put(address);
+		uncheckedSegment(id >>> SEGMENT_BITS).putLong((id & (SEGMENT_SLOTS - 1)) * Long.BYTES, offset);
+		if((count + 1L) * 4 > emailSlots * 3L && emailSlots < MAX_EMAIL_SLOTS) {
+			try {
+				rebuildEmails(emailSlots << 1);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		place(emailSegments, emailSlots, email.hashCode(), offset);
+		end = offset + length;
+		count++;
+		ByteBuffer header = chunks.get(0);
+		header.putLong(END_OFFSET, end);
+		header.putInt(COUNT_OFFSET, count);
+		emailHeader.putInt(4, count);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public Collection<Student> values() {
+		return values;
+	}
+
+	@Override
+	public Iterator<Student> iteratorAfter(int id) {
+		return Spliterators.iterator(new Slots(Math.max(1, (long) id + 1), (long) mappedSegments * SEGMENT_SLOTS));
+	}
+
+	/**
+	 * {@summary It forces every change made to the files to the storage device.}
+	 */
+	public void force() {
+		for(MappedByteBuffer segment : segments) {
+			if(segment != null) {
+				segment.force();
+			}
+		}
+		for(MappedByteBuffer chunk : chunks) {
+			chunk.force();
+		}
+		if(emailHeader != null) {
+			emailHeader.force();
+			for(MappedByteBuffer segment : emailSegments) {
+				segment.force();
+			}
+		}
+	}
+
+	/**
+	 * {@summary It forces the files and closes them.}
+	 * The store cannot be used anymore. The mappings are released when they are garbage collected.
+	 * @throws IOException when the files cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		force();
+		try {
+			indexChannel.close();
+		} finally {
+			try {
+				heapChannel.close();
+			} finally {
+				if(emailChannel != null) {
+					emailChannel.close();
+				}
+			}
+		}
+	}
+
+	private long offset(int id) {
+		if(id <= 0) {
+			return 0;
+		}
+		MappedByteBuffer segment = segments[id >>> SEGMENT_BITS];
+		return segment == null ? 0 : segment.getLong((id & (SEGMENT_SLOTS - 1)) * Long.BYTES);
+	}
+
+	private Student read(long offset) {
+		ByteBuffer record = uncheckedChunk((int) (offset / chunkSize)).duplicate();
+		record.position((int) (offset % chunkSize));
+		int id = record.getInt();
+		byte[] name = new byte[record.getInt()];
+		record.get(name);
+		byte[] email = new byte[record.getInt()];
+		record.get(email);
+		try {
+			return new Student(id, new String(name, StandardCharsets.UTF_8), new String(email, StandardCharsets.UTF_8));
+		} catch (StudentBlankInputException | EmailFormatException e) {
+			throw new IllegalStateException("The record of the student " + id + " is corrupted.", e);
+		}
+	}
+
+	/**
+	 * @return The normalized e-mail address of the student stored at an offset of the heap file.
+	 */
+	private String readEmail(long offset) {
+		ByteBuffer record = uncheckedChunk((int) (offset / chunkSize)).duplicate();
+		record.position((int) (offset % chunkSize) + Integer.BYTES);
+		int name = record.getInt();
+		record.position(record.position() + name);
+		byte[] email = new byte[record.getInt()];
+		record.get(email);
+		return Student.normalizeEmail(new String(email, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * {@summary It looks an address up in the e-mail table.}
+	 * Only the records whose slot holds the same hash are decoded and compared.
+	 * @param email Specifies the normalized address.
+	 * @return The offset of the student with that address in the heap file, or 0 if there is none.
+	 */
+	private long emailOffset(String email) {
+		int hash = email.hashCode();
+		for(int slot = spread(hash) & (emailSlots - 1);; slot = (slot + 1) & (emailSlots - 1)) {
+			ByteBuffer segment = emailSegments[slot >>> SEGMENT_BITS];
+			int position = (slot & (SEGMENT_SLOTS - 1)) * EMAIL_SLOT;
+			long offset = segment.getLong(position);
+			if(offset == 0) {
+				return 0;
+			}
+			if(segment.getInt(position + Long.BYTES) == hash && email.equals(readEmail(offset))) {
+				return offset;
+			}
+		}
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * {@summary It puts an address in the first free slot of its probe sequence, without looking for duplicates.}
+	 */
+	private static void place(MappedByteBuffer[] table, int slots, int hash, long offset) {
+		for(int slot = spread(hash) & (slots - 1);; slot = (slot + 1) & (slots - 1)) {
+			ByteBuffer segment = table[slot >>> SEGMENT_BITS];
+			int position = (slot & (SEGMENT_SLOTS - 1)) * EMAIL_SLOT;
+			if(segment.getLong(position) == 0) {
+				segment.putLong(position, offset);
+				segment.putInt(position + Long.BYTES, hash);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * {@summary It writes the e-mail table with a given number of slots into a new file, which then replaces the current one.}
+	 * The entries are copied from the current table if there is one, and read from the heap file otherwise, so the
+	 * current file is only replaced once the new one is complete.
+	 */
+	private void rebuildEmails(int slots) throws IOException {
+		Path file = directory.resolve("students.eml");
+		Path rebuilt = directory.resolve("students.eml.tmp");
+		boolean copy = emailHeader != null && emailHeader.getInt(0) == EMAIL_MAGIC && emailHeader.getInt(4) == count;
+		MappedByteBuffer oldHeader = emailHeader;
+		MappedByteBuffer[] oldSegments = emailSegments;
+		int oldSlots = emailSlots;
+		try(FileChannel channel = FileChannel.open(rebuilt, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			mapEmails(channel, slots);
+			if(copy) {
+				for(int slot = 0; slot < oldSlots; slot++) {
+					ByteBuffer segment = oldSegments[slot >>> SEGMENT_BITS];
+					int position = (slot & (SEGMENT_SLOTS - 1)) * EMAIL_SLOT;
+					long offset = segment.getLong(position);
+					if(offset != 0) {
+						place(emailSegments, slots, segment.getInt(position + Long.BYTES), offset);
+					}
+				}
+			} else {
+				for(long slot = 1; slot < (long) mappedSegments * SEGMENT_SLOTS; slot++) {
+					MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_BITS)];
+					if(segment == null) {
+						slot |= SEGMENT_SLOTS - 1;
+						continue;
+					}
+					long offset = segment.getLong((int) (slot & (SEGMENT_SLOTS - 1)) * Long.BYTES);
+					if(offset != 0) {
+						place(emailSegments, slots, readEmail(offset).hashCode(), offset);
+					}
+				}
+			}
+			emailHeader.putInt(0, EMAIL_MAGIC);
+			emailHeader.putInt(4, count);
+		} catch (IOException | RuntimeException e) {
+			emailHeader = oldHeader;
+			emailSegments = oldSegments;
+			emailSlots = oldSlots;
+			throw e;
+		}
+		emailChannel.close();
+		Files.move(rebuilt, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		emailChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * {@summary It maps the header and the slots of an e-mail table, in segments of at most {@value #SEGMENT_SLOTS} slots.}
+	 */
+	private void mapEmails(FileChannel channel, int slots) throws IOException {
+		int segmentSlots = Math.min(slots, SEGMENT_SLOTS);
+		MappedByteBuffer[] table = new MappedByteBuffer[slots / segmentSlots];
+		for(int s = 0; s < table.length; s++) {
+			table[s] = channel.map(FileChannel.MapMode.READ_WRITE, EMAIL_HEADER + (long) s * segmentSlots * EMAIL_SLOT, (long) segmentSlots * EMAIL_SLOT);
+		}
+		emailHeader = channel.map(FileChannel.MapMode.READ_WRITE, 0, EMAIL_HEADER);
+		emailSegments = table;
+		emailSlots = slots;
+	}
+
+	private MappedByteBuffer segment(int s) throws IOException {
+		if(segments[s] == null) {
+			segments[s] = indexChannel.map(FileChannel.MapMode.READ_WRITE, s * SEGMENT_BYTES, SEGMENT_BYTES);
+			mappedSegments = Math.max(mappedSegments, s + 1);
+		}
+		return segments[s];
+	}
+
+	private MappedByteBuffer chunk(int c) throws IOException {
+		while(chunks.size() <= c) {
+			chunks.add(heapChannel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkSize, chunkSize));
+		}
+		return chunks.get(c);
+	}
+
+	private MappedByteBuffer uncheckedSegment(int s) {
+		try {
+			return segment(s);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private MappedByteBuffer uncheckedChunk(int c) {
+		try {
+			return chunk(c);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Collection of the stored students, which scans the mapped segments of the index in order.
+	 */
+	private final class Values extends AbstractCollection<Student> {
+		@Override
+		public int size() {
+			return count;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof Student && MappedStudentStore.this.contains(((Student) o).getId());
+		}
+
+		@Override
+		public Iterator<Student> iterator() {
+			return Spliterators.iterator(spliterator());
+		}
+
+		@Override
+		public Spliterator<Student> spliterator() {
+			return new Slots(1, (long) mappedSegments * SEGMENT_SLOTS);
+		}
+	}
+
+	/**
+	 * Spliterator over a range of slots of the index. It splits the range in halves, so the students can be
+	 * decoded by several threads at once, as long as no student is added meanwhile.
+	 */
+	private final class Slots implements Spliterator<Student> {
+		private long next;
+		private final long end;
+
+		Slots(long from, long end) {
+			this.next = from;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Student> action) {
+			for(long slot = next; slot < end; slot++) {
+				MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_BITS)];
+				if(segment == null) {
+					slot |= SEGMENT_SLOTS - 1;
+				} else if(segment.getLong((int) (slot & (SEGMENT_SLOTS - 1)) * Long.BYTES) != 0) {
+					next = slot + 1;
+					action.accept(get((int) slot));
+					return true;
+				}
+			}
+			next = end;
+			return false;
+		}
+
+		@Override
+		public Spliterator<Student> trySplit() {
+			if(end - next < MIN_SPLIT_SLOTS) {
+				return null;
+			}
+			long middle = (next + end) >>> 1;
+			Slots prefix = new Slots(next, middle);
+			next = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Math.min(count, end - next);
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | NONNULL;
+		}
+	}
+}
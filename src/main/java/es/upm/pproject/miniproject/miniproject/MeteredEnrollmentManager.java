@@ -0,0 +1,447 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This class measures the operations of another {@link InterfaceEnrollmentManager} and reports them to a {@link MetricsRegistry}.
+ *
+ * <p>Every call is timed with {@link System#nanoTime()} and recorded with its outcome: {@value #SUCCESS}, or the
+ * simple name of the exception it threw, such as {@code FullCourseException}. The rejections of
+ * {@link #tryEnroll(int, int)} are recorded with the name of their {@link EnrollmentOutcome}, such as
+ * {@code COURSE_FULL}. After every operation that may have changed a roster, and whenever a roster is obtained, its
+ * size is recorded too. The overhead is two clock reads and a few lock-free updates per call, which is negligible
+ * next to the operations themselves.
+ *
+ * <p>The wrapper is as thread-safe as the wrapped manager. Streams are timed when they are created, not while they run.
+ *
+ */
+public class MeteredEnrollmentManager implements InterfaceEnrollmentManager {
+	/** Outcome recorded for the operations that do not throw. */
+	public static final String SUCCESS = "success";
+
+	private final InterfaceEnrollmentManager delegate;
+	private final MetricsRegistry metrics;
+
+	/**
+	 * This constructor wraps a manager, so that its operations are measured.
+	 * @param delegate Specifies the manager that performs the operations.
+	 * @param metrics Specifies where the measurements are recorded.
+	 */
+	public MeteredEnrollmentManager(InterfaceEnrollmentManager delegate, MetricsRegistry metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return The registry where the measurements are recorded.
+	 */
+	public MetricsRegistry getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator) throws CourseAlreadyExistsException, CourseBlankInputException {
+		long start = System.nanoTime();
+		try {
+			delegate.registerCourse(code, name, coordinator);
+		} catch (Exception e) {
+			failed("registerCourse", start, e);
+			throw e;
+		}
+		succeeded("registerCourse", start);
+		metrics.recordRosterSize(code, 0);
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity) throws CourseAlreadyExistsException, CourseBlankInputException {
+		long start = System.nanoTime();
+		try {
+			delegate.registerCourse(code, name, coordinator, capacity);
+		} catch (Exception e) {
+			failed("registerCourse", start, e);
+			throw e;
+		}
+		succeeded("registerCourse", start);
+		metrics.recordRosterSize(code, 0);
+	}
+
+	@Override
+	public void registerCourse(int code, String name, String coordinator, int capacity, Timetable timetable) throws CourseAlreadyExistsException, CourseBlankInputException {
+		long start = System.nanoTime();
+		try {
+			delegate.registerCourse(code, name, coordinator, capacity, timetable);
+		} catch (Exception e) {
+			failed("registerCourse", start, e);
+			throw e;
+		}
+		succeeded("registerCourse", start);
+		metrics.recordRosterSize(code, 0);
+	}
+
+	@Override
+	public void registerStudent(int id, String name, String email) throws StudentAlreadyExistsException, StudentBlankInputException, EmailFormatException {
+		long start = System.nanoTime();
+		try {
+			delegate.registerStudent(id, name, email);
+		} catch (Exception e) {
+			failed("registerStudent", start, e);
+			throw e;
+		}
+		succeeded("registerStudent", start);
+	}
+
+	@Override
+	public BatchReport registerStudents(Collection<Student> students) {
+		long start = System.nanoTime();
+		BatchReport report;
+		try {
+			report = delegate.registerStudents(students);
+		} catch (RuntimeException e) {
+			failed("registerStudents", start, e);
+			throw e;
+		}
+		succeeded("registerStudents", start);
+		return report;
+	}
+
+	@Override
+	public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		long start = System.nanoTime();
+		try {
+			delegate.enroll(courseCode, studentId);
+		} catch (Exception e) {
+			failed("enroll", start, e);
+			throw e;
+		}
+		succeeded("enroll", start);
+		rosterChanged(courseCode);
+	}
+
+	@Override
+	public EnrollmentOutcome tryEnroll(int courseCode, int studentId) {
+		long start = System.nanoTime();
+		EnrollmentOutcome outcome = delegate.tryEnroll(courseCode, studentId);
+		if(outcome == EnrollmentOutcome.ENROLLED) {
+			succeeded("tryEnroll", start);
+			rosterChanged(courseCode);
+		} else {
+			metrics.recordOperation("tryEnroll", outcome.name(), System.nanoTime() - start);
+		}
+		return outcome;
+	}
+
+	@Override
+	public BatchReport enrollAll(int courseCode, int[] studentIds) throws MissingCourseException {
+		long start = System.nanoTime();
+		BatchReport report;
+		try {
+			report = delegate.enrollAll(courseCode, studentIds);
+		} catch (Exception e) {
+			failed("enrollAll", start, e);
+			throw e;
+		}
+		succeeded("enrollAll", start);
+		rosterChanged(courseCode);
+		return report;
+	}
+
+	@Override
+	public boolean enrollOrWaitlist(int courseCode, int studentId) throws StudentAlreadyEnrolledException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+		long start = System.nanoTime();
+		boolean enrolled;
+		try {
+			enrolled = delegate.enrollOrWaitlist(courseCode, studentId);
+		} catch (Exception e) {
+			failed("enrollOrWaitlist", start, e);
+			throw e;
+		}
+		succeeded("enrollOrWaitlist", start);
+		if(enrolled) {
+			rosterChanged(courseCode);
+		}
+		return enrolled;
+	}
+
+	@Override
+	public List<Student> getWaitlist(int courseCode) throws MissingCourseException {
+		long start = System.nanoTime();
+		List<Student> waitlist;
+		try {
+			waitlist = delegate.getWaitlist(courseCode);
+		} catch (Exception e) {
+			failed("getWaitlist", start, e);
+			throw e;
+		}
+		succeeded("getWaitlist", start);
+		return waitlist;
+	}
+
+	@Override
+	public void leaveWaitlist(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+		long start = System.nanoTime();
+		try {
+			delegate.leaveWaitlist(courseCode, studentId);
+		} catch (Exception e) {
+			failed("leaveWaitlist", start, e);
+			throw e;
+		}
+		succeeded("leaveWaitlist", start);
+	}
+
+	@Override
+	public void addPrerequisite(int courseCode, int prerequisiteCode) throws MissingCourseException {
+		long start = System.nanoTime();
+		try {
+			delegate.addPrerequisite(courseCode, prerequisiteCode);
+		} catch (Exception e) {
+			failed("addPrerequisite", start, e);
+			throw e;
+		}
+		succeeded("addPrerequisite", start);
+	}
+
+	@Override
+	public List<Course> getPrerequisites(int courseCode) throws MissingCourseException {
+		long start = System.nanoTime();
+		List<Course> prerequisites;
+		try {
+			prerequisites = delegate.getPrerequisites(courseCode);
+		} catch (Exception e) {
+			failed("getPrerequisites", start, e);
+			throw e;
+		}
+		succeeded("getPrerequisites", start);
+		return prerequisites;
+	}
+
+	@Override
+	public void completeCourse(int courseCode, int studentId) throws MissingStudentException, MissingCourseException {
+		long start = System.nanoTime();
+		try {
+			delegate.completeCourse(courseCode, studentId);
+		} catch (Exception e) {
+			failed("completeCourse", start, e);
+			throw e;
+		}
+		succeeded("completeCourse", start);
+	}
+
+	@Override
+	public List<Course> getCompletedCourses(int studentId) throws MissingStudentException {
+		long start = System.nanoTime();
+		List<Course> completed;
+		try {
+			completed = delegate.getCompletedCourses(studentId);
+		} catch (Exception e) {
+			failed("getCompletedCourses", start, e);
+			throw e;
+		}
+		succeeded("getCompletedCourses", start);
+		return completed;
+	}
+
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		long start = System.nanoTime();
+		List<Student> roster;
+		try {
+			roster = delegate.getStudentsEnrolledInCourse(course);
+		} catch (Exception e) {
+			failed("getStudentsEnrolledInCourse", start, e);
+			throw e;
+		}
+		succeeded("getStudentsEnrolledInCourse", start);
+		metrics.recordRosterSize(course, roster.size());
+		return roster;
+	}
+
+	@Override
+	public List<Student> getStudentsEnrolledInCourse(int course, int afterId, int limit) throws MissingCourseException {
+		long start = System.nanoTime();
+		List<Student> page;
+		try {
+			page = delegate.getStudentsEnrolledInCourse(course, afterId, limit);
+		} catch (Exception e) {
+			failed("getStudentsEnrolledInCoursePage", start, e);
+			throw e;
+		}
+		succeeded("getStudentsEnrolledInCoursePage", start);
+		return page;
+	}
+
+	@Override
+	public Stream<Student> streamStudentsEnrolledInCourse(int course) throws MissingCourseException {
+		long start = System.nanoTime();
+		Stream<Student> stream;
+		try {
+			stream = delegate.streamStudentsEnrolledInCourse(course);
+		} catch (Exception e) {
+			failed("streamStudentsEnrolledInCourse", start, e);
+			throw e;
+		}
+		succeeded("streamStudentsEnrolledInCourse", start);
+		return stream;
+	}
+
+	@Override
+	public int getEnrollmentCount(int course) throws MissingCourseException {
+		long start = System.nanoTime();
+		int count;
+		try {
+			count = delegate.getEnrollmentCount(course);
+		} catch (Exception e) {
+			failed("getEnrollmentCount", start, e);
+			throw e;
+		}
+		succeeded("getEnrollmentCount", start);
+		metrics.recordRosterSize(course, count);
+		return count;
+	}
+
+	@Override
+	public List<Course> getCoursesOfStudent(int studentId) throws MissingStudentException {
+		long start = System.nanoTime();
+		List<Course> courses;
+		try {
+			courses = delegate.getCoursesOfStudent(studentId);
+		} catch (Exception e) {
+			failed("getCoursesOfStudent", start, e);
+			throw e;
+		}
+		succeeded("getCoursesOfStudent", start);
+		return courses;
+	}
+
+	@Override
+	public Student findStudentByEmail(String email) throws MissingStudentException {
+		long start = System.nanoTime();
+		Student student;
+		try {
+			student = delegate.findStudentByEmail(email);
+		} catch (Exception e) {
+			failed("findStudentByEmail", start, e);
+			throw e;
+		}
+		succeeded("findStudentByEmail", start);
+		return student;
+	}
+
+	@Override
+	public void cancelEnrollment(int courseCode, int studentId) throws StudentNotEnrolledException, MissingStudentException, MissingCourseException {
+		long start = System.nanoTime();
+		try {
+			delegate.cancelEnrollment(courseCode, studentId);
+		} catch (Exception e) {
+			failed("cancelEnrollment", start, e);
+			throw e;
+		}
+		succeeded("cancelEnrollment", start);
+		rosterChanged(courseCode);
+	}
+
+	@Override
+	public void restartCourse(int courseCode) throws MissingCourseException {
+		long start = System.nanoTime();
+		try {
+			delegate.restartCourse(courseCode);
+		} catch (Exception e) {
+			failed("restartCourse", start, e);
+			throw e;
+		}
+		succeeded("restartCourse", start);
+		rosterChanged(courseCode);
+	}
+
+	@Override
+	public Collection<Student> getStudents() {
+		long start = System.nanoTime();
+		Collection<Student> students = delegate.getStudents();
+		succeeded("getStudents", start);
+		return students;
+	}
+
+	@Override
+	public Collection<Course> getCourses() {
+		long start = System.nanoTime();
+		Collection<Course> courses = delegate.getCourses();
+		succeeded("getCourses", start);
+		return courses;
+	}
+
+	@Override
+	public List<Student> getStudents(int afterId, int limit) {
+		long start = System.nanoTime();
+		List<Student> page;
+		try {
+			page = delegate.getStudents(afterId, limit);
+		} catch (RuntimeException e) {
+			failed("getStudentsPage", start, e);
+			throw e;
+		}
+		succeeded("getStudentsPage", start);
+		return page;
+	}
+
+	@Override
+	public List<Course> getCourses(int afterCode, int limit) {
+		long start = System.nanoTime();
+		List<Course> page;
+		try {
+			page = delegate.getCourses(afterCode, limit);
+		} catch (RuntimeException e) {
+			failed("getCoursesPage", start, e);
+			throw e;
+		}
+		succeeded("getCoursesPage", start);
+		return page;
+	}
+
+	@Override
+	public Stream<Student> streamStudents() {
+		long start = System.nanoTime();
+		Stream<Student> stream = delegate.streamStudents();
+		succeeded("streamStudents", start);
+		return stream;
+	}
+
+	@Override
+	public Stream<Course> streamCourses() {
+		long start = System.nanoTime();
+		Stream<Course> stream = delegate.streamCourses();
+		succeeded("streamCourses", start);
+		return stream;
+	}
+
+	@Override
+	public void setLogVerbosity(LogVerbosity verbosity) {
+		delegate.setLogVerbosity(verbosity);
+	}
+
+	@Override
+	public LogVerbosity getLogVerbosity() {
+		return delegate.getLogVerbosity();
+	}
+
+	private void succeeded(String operation, long start) {
+		metrics.recordOperation(operation, SUCCESS, System.nanoTime() - start);
+	}
+
+	private void failed(String operation, long start, Exception e) {
+		metrics.recordOperation(operation, e.getClass().getSimpleName(), System.nanoTime() - start);
+	}
+
+	/**
+	 * {@summary It records the size of a roster after an operation that may have changed it.}
+	 * The size is read in constant time and outside of the measured duration.
+	 * @param courseCode Specifies the course's unique code. The course is registered, since the operation has succeeded.
+	 */
+	private void rosterChanged(int courseCode) {
+		try {
+			metrics.recordRosterSize(courseCode, delegate.getEnrollmentCount(courseCode));
+		} catch (MissingCourseException e) {
+			throw new IllegalStateException("The course " + courseCode + " disappeared after a successful operation.", e);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * This interface receives the measurements taken by a {@link MeteredEnrollmentManager}.
+ *
+ * <p>{@link EnrollmentMetrics} is the built-in implementation, which keeps the measurements in memory and exposes
+ * them through JMX. Other implementations can forward them to an external monitoring system. Both methods are
+ * called on the hot path of every operation, by any number of threads at once, so they must be thread-safe and cheap.
+ *
+ */
+public interface MetricsRegistry {
+
+	/**
+	 * {@summary It records the outcome and the duration of an operation.}
+	 * @param operation Specifies the name of the method of {@link InterfaceEnrollmentManager} that was called.
+	 * @param outcome Specifies {@value MeteredEnrollmentManager#SUCCESS}, or the simple name of the exception thrown by the operation.
+	 * @param elapsedNanos Specifies how long the operation took, in nanoseconds.
+	 */
+	public void recordOperation(String operation, String outcome, long elapsedNanos);
+
+	/**
+	 * {@summary It records the current size of the roster of a course.}
+	 * It is called after every operation that may have changed the roster, and whenever the roster is obtained.
+	 * @param courseCode Specifies the course's unique code.
+	 * @param size Specifies the number of students enrolled in the course.
+	 */
+	public void recordRosterSize(int courseCode, int size);
+}
@@ -0,0 +1,16 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * 
+ * Thrown when an application attempts to enroll a student in a course without having completed all its prerequisites.
+ *
+ */
+public class MissingPrerequisiteException extends Exception {
+
+	/**
+	 * {@summary Constructs an exception of type MissingPrerequisiteException}
+	 */
+	public MissingPrerequisiteException() {
+		super("Error: The student has not completed all the prerequisites of the course.");
+	}
+}
@@ -0,0 +1,44 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This class builds the pages returned by the implementations of {@link InterfaceEnrollmentManager}.
+ * Pages are taken by key: each one starts after the last identifier of the previous one, so the manager
+ * seeks to it directly instead of skipping all the previous elements.
+ *
+ */
+final class Pages {
+
+	private Pages() {
+	}
+
+	/**
+	 * {@summary It checks the size requested for a page.}
+	 * @param limit Specifies the maximum number of elements of the page.
+	 * @throws IllegalArgumentException when the limit is not a positive integer.
+	 */
+	static void checkLimit(int limit) {
+		if(limit < 1) {
+			throw new IllegalArgumentException("The limit of a page must be a positive integer: " + limit + ".");
+		}
+	}
+
+	/**
+	 * {@summary It takes a page from an iterator that is already positioned at its start.}
+	 * @param elements Specifies the iterator, which is advanced at most {@code limit} times.
+	 * @param limit Specifies the maximum number of elements of the page.
+	 * @return The page, as a new list.
+	 * @throws IllegalArgumentException when the limit is not a positive integer.
+	 */
+	static <T> List<T> first(Iterator<T> elements, int limit) {
+		checkLimit(limit);
+		List<T> page = new ArrayList<>(Math.min(limit, 1024));
+		while(page.size() < limit && elements.hasNext()) {
+			page.add(elements.next());
+		}
+		return page;
+	}
+}
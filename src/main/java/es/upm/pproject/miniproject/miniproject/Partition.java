@@ -0,0 +1,71 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * This class identifies a shard of a {@link PartitionedEnrollmentManager}: the courses and students of one term of one tenant,
+ * such as a campus or a faculty.
+ *
+ * <p>Partitions are immutable and ordered by tenant and then by term, so the terms of a tenant are listed together.
+ * Terms are compared as strings, so names such as {@code "2024-1"} and {@code "2024-2"} list them chronologically.
+ *
+ */
+public final class Partition implements Comparable<Partition> {
+	private final String tenant;
+	private final String term;
+
+	private Partition(String tenant, String term) {
+		this.tenant = tenant;
+		this.term = term;
+	}
+
+	/**
+	 * {@summary It returns the partition of a term of a tenant.}
+	 * @param tenant Specifies the tenant, such as a campus.
+	 * @param term Specifies the term, such as {@code "2024-1"}.
+	 * @return The partition.
+	 * @throws IllegalArgumentException when the tenant or the term is null or blank.
+	 */
+	public static Partition of(String tenant, String term) {
+		if(tenant == null || tenant.trim().isEmpty() || term == null || term.trim().isEmpty()) {
+			throw new IllegalArgumentException("The tenant and the term of a partition cannot be blank.");
+		}
+		return new Partition(tenant, term);
+	}
+
+	/**
+	 * @return The tenant of the partition.
+	 */
+	public String getTenant() {
+		return tenant;
+	}
+
+	/**
+	 * @return The term of the partition.
+	 */
+	public String getTerm() {
+		return term;
+	}
+
+	@Override
+	public int compareTo(Partition other) {
+		int byTenant = tenant.compareTo(other.tenant);
+		return byTenant != 0 ? byTenant : term.compareTo(other.term);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Partition && tenant.equals(((Partition) other).tenant) && term.equals(((Partition) other).term);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * tenant.hashCode() + term.hashCode();
+	}
+
+	/**
+	 * @return The tenant and the term, such as {@code "north/2024-1"}.
+	 */
+	@Override
+	public String toString() {
+		return tenant + "/" + term;
+	}
+}
@@ -0,0 +1,268 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class keeps an independent {@link InterfaceEnrollmentManager}, called a shard, for every term of every tenant.
+ *
+ * <p>{@link #shard(String, String)} routes the operations of a term to its shard, creating it the first time. Shards
+ * share nothing: each one has its own locks and its own storage, as decided by the factory given to the constructor,
+ * so the enrollments of one term never wait for those of another. The same course code or student identifier can be
+ * used in several shards, where it means different things.
+ *
+ * <p>When a term is over, {@link #archive(String, String)} replaces its shard by an {@link ArchivedEnrollmentManager},
+ * a read-only copy that takes a fraction of the memory. {@link #fanOut(Predicate, ShardQuery)} runs a query on many shards
+ * in parallel, such as the courses taken by a student over all the terms.
+ *
+ */
+public class PartitionedEnrollmentManager implements AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(PartitionedEnrollmentManager.class);
+
+	private static final AtomicInteger threads = new AtomicInteger();
+
+	private final ConcurrentNavigableMap<Partition, InterfaceEnrollmentManager> shards = new ConcurrentSkipListMap<>();
+	private final Object creationLock = new Object();
+	private final Function<Partition, InterfaceEnrollmentManager> factory;
+	private final Executor executor;
+	private final boolean ownsExecutor;
+
+	/**
+	 * A query that is run on a single shard by {@link PartitionedEnrollmentManager#fanOut(Predicate, ShardQuery)}.
+	 * @param <R> The type of the result of the query.
+	 */
+	@FunctionalInterface
+	public interface ShardQuery<R> {
+		/**
+		 * @param shard Specifies the shard to query.
+		 * @return The result of the query in the shard, or null to leave the shard out of the results.
+		 * @throws MissingStudentException when the student is not registered in the shard, which leaves the shard out of the results.
+		 * @throws MissingCourseException when the course is not registered in the shard, which leaves the shard out of the results.
+		 */
+		R apply(InterfaceEnrollmentManager shard) throws MissingStudentException, MissingCourseException;
+	}
+
+	/**
+	 * This constructor creates a manager whose shards are {@link ConcurrentEnrollmentManager}s, queried in parallel by
+	 * its own pool of daemon threads, one per processor.
+	 */
+	public PartitionedEnrollmentManager() {
+		this(partition -> new ConcurrentEnrollmentManager(), Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+			Thread thread = new Thread(r, "enrollment-fan-out-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}), true);
+	}
+
+	/**
+	 * This constructor creates a manager whose shards are created by a factory and queried in parallel by an executor,
+	 * which is not shut down by {@link #close()}.
+	 * @param factory Specifies how the shard of a partition is created, for instance a {@link JournaledEnrollmentManager}
+	 * in a directory of its own. It is called once per partition.
+	 * @param executor Specifies where the queries of {@link #fanOut(Predicate, ShardQuery)} are run.
+	 */
+	public PartitionedEnrollmentManager(Function<Partition, InterfaceEnrollmentManager> factory, Executor executor) {
+		this(factory, executor, false);
+	}
+
+	private PartitionedEnrollmentManager(Function<Partition, InterfaceEnrollmentManager> factory, Executor executor, boolean ownsExecutor) {
+		this.factory = factory;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	/**
+	 * {@summary It returns the shard of a term, creating it if needed.}
+	 * Existing shards are found without locking. Shards are created under a lock of the manager, so the factory is never
+	 * called twice for the same partition, even when several threads touch a new term at the same time.
+	 * @param tenant Specifies the tenant, such as a campus.
+	 * @param term Specifies the term.
+	 * @return The manager of the term. Archived terms return their read-only archive.
+	 * @throws IllegalArgumentException when the tenant or the term is blank.
+	 */
+	public InterfaceEnrollmentManager shard(String tenant, String term) {
+		Partition partition = Partition.of(tenant, term);
+		InterfaceEnrollmentManager shard = shards.get(partition);
+		if(shard == null) {
+			synchronized(creationLock) {
+				shard = shards.get(partition);
+				if(shard == null) {
+					shard = factory.apply(partition);
+					shards.put(partition, shard);
+					if(logger.isInfoEnabled()) {
+						logger.info("\n--Shard {} successfully created.", partition);
+					}
+				}
+			}
+		}
+		return shard;
+	}
+
+	/**
+	 * @return The partitions that have a shard, sorted by tenant and term.
+	 */
+	public List<Partition> getPartitions() {
+		return Collections.unmodifiableList(new ArrayList<>(shards.keySet()));
+	}
+
+	/**
+	 * @param tenant Specifies the tenant.
+	 * @param term Specifies the term.
+	 * @return <strong>true</strong> if the term has been archived and <strong>false</strong> otherwise, including when it has no shard.
+	 */
+	public boolean isArchived(String tenant, String term) {
+		return shards.get(Partition.of(tenant, term)) instanceof ArchivedEnrollmentManager;
+	}
+
+	/**
+	 * {@summary It replaces the shard of a term by a read-only archive of its state.}
+	 * The term must no longer be modified. Later calls to {@link #shard(String, String)} return the archive, and the
+	 * previous shard is closed if it is {@link AutoCloseable}, so a journaled shard forces its pending records.
+	 * Changes made through references to the previous shard obtained before are not archived.
+	 * @param tenant Specifies the tenant.
+	 * @param term Specifies the term.
+	 * @throws IllegalArgumentException when the term has no shard.
+	 * @throws IOException when the previous shard cannot be closed. The archive has already replaced it.
+	 */
+	public void archive(String tenant, String term) throws IOException {
+		Partition partition = Partition.of(tenant, term);
+		InterfaceEnrollmentManager live = shards.get(partition);
+		if(live == null) {
+			throw new IllegalArgumentException("There is no shard for " + partition + ".");
+		}
+		if(live instanceof ArchivedEnrollmentManager || !shards.replace(partition, live, ArchivedEnrollmentManager.of(live))) {
+			return;
+		}
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--Shard {} successfully archived.", partition);
+		}
+		close(partition, live);
+	}
+
+	/**
+	 * {@summary It runs a query on the shards of some partitions in parallel.}
+	 * @param partitions Specifies which partitions are queried.
+	 * @param query Specifies the query.
+	 * @return The results of the shards, sorted by partition. Shards where the query returns null or throws a
+	 * {@code MissingStudentException} or a {@code MissingCourseException} are left out.
+	 * @throws RuntimeException when the query throws an unchecked exception in some shard. The first one is rethrown.
+	 */
+	public <R> SortedMap<Partition, R> fanOut(Predicate<Partition> partitions, ShardQuery<R> query) {
+		Map<Partition, CompletableFuture<R>> futures = new TreeMap<>();
+		for(Map.Entry<Partition, InterfaceEnrollmentManager> entry : shards.entrySet()) {
+			if(partitions.test(entry.getKey())) {
+				InterfaceEnrollmentManager shard = entry.getValue();
+				futures.put(entry.getKey(), CompletableFuture.supplyAsync(() -> {
+					try {
+						return query.apply(shard);
+					} catch (MissingStudentException | MissingCourseException e) {
+						return null;
+					}
+				}, executor));
+			}
+		}
+		SortedMap<Partition, R> results = new TreeMap<>();
+		for(Map.Entry<Partition, CompletableFuture<R>> entry : futures.entrySet()) {
+			R result;
+			try {
+				result = entry.getValue().join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+			if(result != null) {
+				results.put(entry.getKey(), result);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * {@summary It runs a query on every shard of a tenant in parallel.}
+	 * @param tenant Specifies the tenant.
+	 * @param query Specifies the query.
+	 * @return The results of the shards, sorted by term, as returned by {@link #fanOut(Predicate, ShardQuery)}.
+	 */
+	public <R> SortedMap<Partition, R> fanOut(String tenant, ShardQuery<R> query) {
+		return fanOut(partition -> partition.getTenant().equals(tenant), query);
+	}
+
+	/**
+	 * @param tenant Specifies the tenant.
+	 * @param studentId Specifies the student's unique identifier within the tenant.
+	 * @return The courses of the student in every term of the tenant in which the student is registered, sorted by term.
+	 */
+	public SortedMap<Partition, List<Course>> getCoursesOfStudent(String tenant, int studentId) {
+		return fanOut(tenant, shard -> shard.getCoursesOfStudent(studentId));
+	}
+
+	/**
+	 * {@summary It stops the pool of threads of the fan-out queries, if the manager owns it, and closes every shard that is {@link AutoCloseable}.}
+	 * If the calling thread is interrupted while the pool stops, the shards are closed anyway and the interrupt is restored.
+	 * @throws IOException when some shard cannot be closed. The other shards are closed anyway.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(ownsExecutor) {
+			ExecutorService service = (ExecutorService) executor;
+			service.shutdown();
+			try {
+				service.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		IOException failure = null;
+		for(Map.Entry<Partition, InterfaceEnrollmentManager> entry : shards.entrySet()) {
+			try {
+				close(entry.getKey(), entry.getValue());
+			} catch (IOException e) {
+				if(failure == null) {
+					failure = e;
+				} else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if(failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * {@summary It closes a shard if it is {@link AutoCloseable}.}
+	 * @throws IOException when the shard cannot be closed. Checked exceptions other than an {@code IOException} are wrapped in one.
+	 */
+	private static void close(Partition partition, InterfaceEnrollmentManager shard) throws IOException {
+		if(!(shard instanceof AutoCloseable)) {
+			return;
+		}
+		try {
+			((AutoCloseable) shard).close();
+		} catch (IOException | RuntimeException e) {
+			throw e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("The shard " + partition + " was interrupted while closing.", e);
+		} catch (Exception e) {
+			throw new IOException("The shard " + partition + " could not be closed.", e);
+		}
+	}
+}
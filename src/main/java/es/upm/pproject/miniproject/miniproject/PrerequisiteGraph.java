@@ -0,0 +1,153 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class keeps the prerequisites between courses and the courses completed by every student, so that an
+ * enrollment can be checked against them with a few bitwise operations. It is shared by the implementations of
+ * {@link InterfaceEnrollmentManager}, which check that the courses and the students are registered before calling it.
+ *
+ * <p>Every course that takes part in the graph, or that has been completed by some student, gets a dense index,
+ * and sets of courses are bitsets over those indexes:
+ * <br><li> The <strong>closure</strong> of a course is the set of all its prerequisites, direct or not. It is updated
+ * when a prerequisite is added, for the course and for every course that requires it, so checking an enrollment never
+ * walks the graph, however deep the chains of prerequisites are.
+ * <br><li> The <strong>record</strong> of a student is the set of courses that the student has completed.
+ * <br>A student can be enrolled in a course when the closure of the course is a subset of the student's record.
+ *
+ * <p>Bitsets are never modified after they have been published, and every change replaces them. Modifications are
+ * serialized by the graph's lock, while checks read the latest published bitsets without locking, so the graph
+ * can be shared by any number of threads.
+ *
+ */
+final class PrerequisiteGraph {
+	private static final long[] NONE = new long[0];
+
+	private final ConcurrentMap<Integer, Integer> indexes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, long[]> closures = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, int[]> prerequisites = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Integer, long[]> records = new ConcurrentHashMap<>();
+	private int[] codes = new int[16];
+
+	/**
+	 * {@summary It makes a course a direct prerequisite of another one.}
+	 * @param courseCode Specifies the course that requires the prerequisite.
+	 * @param prerequisiteCode Specifies the course that must be completed before.
+	 * @return <strong>true</strong> if the prerequisite has been added or was already there, and <strong>false</strong>,
+	 * changing nothing, if the course would become a prerequisite of itself.
+	 */
+	synchronized boolean add(int courseCode, int prerequisiteCode) {
+		int course = indexFor(courseCode);
+		long[] required = with(closures.getOrDefault(prerequisiteCode, NONE), indexFor(prerequisiteCode));
+		if(contains(required, course)) {
+			return false;
+		}
+		for(Map.Entry<Integer, long[]> entry : closures.entrySet()) {
+			if(contains(entry.getValue(), course)) {
+				entry.setValue(union(entry.getValue(), required));
+			}
+		}
+		closures.put(courseCode, union(closures.getOrDefault(courseCode, NONE), required));
+		int[] direct = prerequisites.getOrDefault(courseCode, new int[0]);
+		int position = Arrays.binarySearch(direct, prerequisiteCode);
+		if(position < 0) {
+			int[] added = new int[direct.length + 1];
+			System.arraycopy(direct, 0, added, 0, -position - 1);
+			added[-position - 1] = prerequisiteCode;
+			System.arraycopy(direct, -position - 1, added, -position, direct.length + position + 1);
+			prerequisites.put(courseCode, added);
+		}
+		return true;
+	}
+
+	/**
+	 * {@summary It records that a student has completed a course.}
+	 * @param studentId Specifies the student's unique identifier.
+	 * @param courseCode Specifies the course's unique code.
+	 */
+	synchronized void complete(int studentId, int courseCode) {
+		records.put(studentId, with(records.getOrDefault(studentId, NONE), indexFor(courseCode)));
+	}
+
+	/**
+	 * @param studentId Specifies the student's unique identifier.
+	 * @param courseCode Specifies the course's unique code.
+	 * @return <strong>true</strong> if the student has completed every prerequisite of the course, direct or not, and <strong>false</strong> otherwise.
+	 */
+	boolean isQualified(int studentId, int courseCode) {
+		long[] closure = closures.get(courseCode);
+		if(closure == null) {
+			return true;
+		}
+		long[] record = records.getOrDefault(studentId, NONE);
+		for(int i = 0; i < closure.length; i++) {
+			if((closure[i] & ~(i < record.length ? record[i] : 0)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param courseCode Specifies the course's unique code.
+	 * @return The codes of the direct prerequisites of the course, in ascending order. The array must not be modified.
+	 */
+	int[] prerequisitesOf(int courseCode) {
+		return prerequisites.getOrDefault(courseCode, new int[0]);
+	}
+
+	/**
+	 * @param studentId Specifies the student's unique identifier.
+	 * @return The codes of the courses completed by the student, in ascending order.
+	 */
+	synchronized int[] completedBy(int studentId) {
+		long[] record = records.getOrDefault(studentId, NONE);
+		int[] completed = new int[Long.SIZE * record.length];
+		int count = 0;
+		for(int index = 0; index < completed.length; index++) {
+			if(contains(record, index)) {
+				completed[count++] = codes[index];
+			}
+		}
+		completed = Arrays.copyOf(completed, count);
+		Arrays.sort(completed);
+		return completed;
+	}
+
+	/**
+	 * @return The dense index of a course, assigning the next one the first time. Must be called while holding the lock.
+	 */
+	private int indexFor(int courseCode) {
+		Integer index = indexes.get(courseCode);
+		if(index == null) {
+			index = indexes.size();
+			if(index == codes.length) {
+				codes = Arrays.copyOf(codes, 2 * codes.length);
+			}
+			codes[index] = courseCode;
+			indexes.put(courseCode, index);
+		}
+		return index;
+	}
+
+	private static boolean contains(long[] set, int index) {
+		return index / Long.SIZE < set.length && (set[index / Long.SIZE] & (1L << index)) != 0;
+	}
+
+	private static long[] with(long[] set, int index) {
+		long[] result = Arrays.copyOf(set, Math.max(set.length, index / Long.SIZE + 1));
+		result[index / Long.SIZE] |= 1L << index;
+		return result;
+	}
+
+	private static long[] union(long[] a, long[] b) {
+		long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+		for(int i = 0; i < b.length; i++) {
+			result[i] |= b[i];
+		}
+		return result;
+	}
+}
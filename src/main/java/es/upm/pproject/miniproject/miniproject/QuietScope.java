@@ -0,0 +1,41 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * This class silences the enrollment managers on the calling thread only, while a tool such as {@link EnrollmentSnapshot}
+ * or {@link EnrollmentReport} reads or fills a manager through its public operations.
+ *
+ * <p>Unlike lowering the verbosity of the manager, a scope does not silence the other threads that use the same manager,
+ * and scopes that overlap on the same thread are nested, so the first one to end never re-enables logging for the others.
+ * Every {@link #enter()} must be followed by an {@link #exit()} in a {@code finally} block.
+ *
+ * <p>The managers only look the scope up when their verbosity would let them log, so a manager that is already
+ * {@link LogVerbosity#QUIET} pays nothing for it.
+ *
+ */
+final class QuietScope {
+	private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+	private QuietScope() {
+	}
+
+	/**
+	 * {@summary It silences the managers on the calling thread until the matching {@link #exit()}.}
+	 */
+	static void enter() {
+		depth.get()[0]++;
+	}
+
+	/**
+	 * {@summary It ends the innermost scope of the calling thread.}
+	 */
+	static void exit() {
+		depth.get()[0]--;
+	}
+
+	/**
+	 * @return <strong>true</strong> if the calling thread is inside a scope, so the managers must not log.
+	 */
+	static boolean isActive() {
+		return depth.get()[0] > 0;
+	}
+}
@@ -0,0 +1,16 @@
+package es.upm.pproject.miniproject.miniproject;
+
+/**
+ * 
+ * Thrown when an application attempts to enroll a student in a course that meets at the same time as another course of the student.
+ *
+ */
+public class ScheduleConflictException extends Exception {
+
+	/**
+	 * {@summary Constructs an exception of type ScheduleConflictException}
+	 */
+	public ScheduleConflictException() {
+		super("Error: The course meets at the same time as another course of the student.");
+	}
+}
@@ -0,0 +1,448 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class allocates the seats of oversubscribed courses by lottery, instead of on a first come, first served basis.
+ *
+ * <p>During the request window every student submits the courses they want, ranked by preference, with
+ * {@link #request(int, int, int...)}. Then {@link #allocate(InterfaceEnrollmentManager)} runs the allocation at once:
+ * <br><li> Students are ordered by priority, highest first, and randomly within the same priority. The random order
+ * only depends on the seed and on the requests, not on the order in which they arrived, so a run can be reproduced.
+ * <br><li> Seats are granted in rounds, one course per student and round, up to {@code coursesPerStudent} rounds. Each student gets
+ * the preferred course that still has free seats, has not been granted yet and does not meet at the same time as the courses
+ * the student is enrolled in or has been granted, so a seat that could not be committed is offered to the next student instead.
+ * Courses whose prerequisites, direct or not, the student has not completed are dropped from their preferences beforehand.
+ * The order is reversed in every other round, so the last students of a round are the first ones of the next.
+ * <br><li> The granted seats are committed course by course with {@link InterfaceEnrollmentManager#enrollAll(int, int[])}.
+ *
+ * <p>Each student's preferences are scanned only once over all the rounds, so the allocation is linear in the number
+ * of preferences. It handles hundreds of thousands of students and courses in seconds.
+ *
+ */
+public final class SeatLottery {
+	private static final Logger logger = LoggerFactory.getLogger(SeatLottery.class);
+
+	private final long seed;
+	private final int coursesPerStudent;
+	private final Map<Integer, Request> requests = new HashMap<>();
+
+	/**
+	 * This constructor creates a lottery with no requests.
+	 * @param seed Specifies the seed of the random order of the students with the same priority.
+	 * @param coursesPerStudent Specifies the maximum number of courses granted to a student.
+	 * @throws IllegalArgumentException when the number of courses per student is not positive.
+	 */
+	public SeatLottery(long seed, int coursesPerStudent) {
+		if(coursesPerStudent <= 0) {
+			throw new IllegalArgumentException("The number of courses per student must be positive: " + coursesPerStudent + ".");
+		}
+		this.seed = seed;
+		this.coursesPerStudent = coursesPerStudent;
+	}
+
+	/**
+	 * {@summary It records the preferences of a student, replacing the previous ones.} It can be called from several threads at once.
+	 * @param studentId Specifies the unique student identifier.
+	 * @param priority Specifies the priority of the student: higher priorities are served first. It cannot be negative.
+	 * @param courseCodes Specifies the courses wanted by the student, from the most to the least preferred. Repeated courses are ignored.
+	 * @throws IllegalArgumentException when the priority is negative.
+	 */
+	public synchronized void request(int studentId, int priority, int... courseCodes) {
+		if(priority < 0) {
+			throw new IllegalArgumentException("The priority cannot be negative: " + priority + ".");
+		}
+		requests.put(studentId, new Request(studentId, priority, courseCodes.clone()));
+	}
+
+	/**
+	 * @return The number of students that have submitted their preferences.
+	 */
+	public synchronized int size() {
+		return requests.size();
+	}
+
+	/**
+	 * {@summary It allocates the seats and enrolls the students in the courses they have been granted.}
+	 * Students who are not registered get nothing. Courses that are not registered, or in which the student is already
+	 * enrolled, are skipped. Only the seats that are free when the allocation starts are granted. If the manager is
+	 * modified concurrently, a granted seat may be lost during the commit, and then it is not part of the allocation.
+	 * @param manager Specifies the manager whose courses are allocated. It does not log while the lottery uses it, on the calling thread only.
+	 * @return The seats granted to every student.
+	 */
+	public Allocation allocate(InterfaceEnrollmentManager manager) {
+		long start = System.nanoTime();
+		Request[] order;
+		synchronized(this) {
+			// The allocation works on copies, so the lottery can be allocated again or receive new requests.
+			order = new Request[requests.size()];
+			int i = 0;
+			for(Request r : requests.values()) {
+				order[i++] = new Request(r.studentId, r.priority, r.preferences);
+			}
+		}
+		QuietScope.enter();
+		Allocation allocation;
+		try {
+			shuffle(order);
+			Courses courses = new Courses(manager);
+			for(Request r : order) {
+				r.resolve(manager, courses);
+			}
+			draft(order, courses);
+			allocation = commit(order, courses, manager);
+		} finally {
+			QuietScope.exit();
+		}
+		if(logger.isInfoEnabled()) {
+			logger.info("\n--Lottery successfully allocated {} seats to {} students in {} ms.", allocation.getSeatCount(), order.length, (System.nanoTime() - start) / 1000000);
+		}
+		return allocation;
+	}
+
+	/**
+	 * {@summary It sorts the requests by priority, highest first, and randomly within the same priority.}
+	 * The requests are first sorted by student, so the outcome does not depend on the order in which they arrived.
+	 */
+	private void shuffle(Request[] order) {
+		Arrays.sort(order, (a, b) -> Integer.compare(a.studentId, b.studentId));
+		SplittableRandom random = new SplittableRandom(seed);
+		int[] ranks = new int[order.length];
+		for(int i = 0; i < ranks.length; i++) {
+			ranks[i] = i;
+		}
+		for(int i = ranks.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = ranks[i];
+			ranks[i] = ranks[j];
+			ranks[j] = swap;
+		}
+		// Each key packs the inverted priority in the high half and the random rank in the low half, which is
+		// unique, so sorting the keys sorts by priority and shuffles the requests of the same priority.
+		long[] keys = new long[order.length];
+		int[] indexOfRank = new int[order.length];
+		for(int i = 0; i < order.length; i++) {
+			keys[i] = ((long) (Integer.MAX_VALUE - order[i].priority) << 32) | ranks[i];
+			indexOfRank[ranks[i]] = i;
+		}
+		Arrays.sort(keys);
+		Request[] byStudent = order.clone();
+		for(int i = 0; i < order.length; i++) {
+			order[i] = byStudent[indexOfRank[(int) keys[i]]];
+		}
+	}
+
+	/**
+	 * {@summary It grants the seats in rounds, reversing the order of the students in every other round.}
+	 */
+	private void draft(Request[] order, Courses courses) {
+		for(int round = 0; round < coursesPerStudent; round++) {
+			boolean granted = false;
+			for(int i = 0; i < order.length; i++) {
+				Request r = order[round % 2 == 0 ? i : order.length - 1 - i];
+				granted |= r.grantNext(courses);
+			}
+			if(!granted) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * {@summary It enrolls the students in their granted courses, one batch per course.}
+	 */
+	private static Allocation commit(Request[] order, Courses courses, InterfaceEnrollmentManager manager) {
+		int[] start = new int[courses.codes.length + 1];
+		for(Request r : order) {
+			for(int g = 0; g < r.grantCount; g++) {
+				start[r.granted[g] + 1]++;
+			}
+		}
+		for(int c = 0; c < courses.codes.length; c++) {
+			start[c + 1] += start[c];
+		}
+		// The students of every course are laid out contiguously, in the order of the lottery.
+		Request[] holders = new Request[start[courses.codes.length]];
+		int[] next = Arrays.copyOf(start, courses.codes.length);
+		for(Request r : order) {
+			for(int g = 0; g < r.grantCount; g++) {
+				holders[next[r.granted[g]]++] = r;
+			}
+		}
+		Map<Integer, BatchReport> failures = new TreeMap<>();
+		int seats = 0;
+		for(int c = 0; c < courses.codes.length; c++) {
+			int count = start[c + 1] - start[c];
+			if(count == 0) {
+				continue;
+			}
+			int[] studentIds = new int[count];
+			for(int i = 0; i < count; i++) {
+				studentIds[i] = holders[start[c] + i].studentId;
+			}
+			BatchReport report;
+			try {
+				report = manager.enrollAll(courses.codes[c], studentIds);
+			} catch (MissingCourseException e) {
+				throw new IllegalStateException("The course " + courses.codes[c] + " disappeared while the lottery was being committed.", e);
+			}
+			if(report.getFailureCount() > 0) {
+				failures.put(courses.codes[c], report);
+				for(int index : report.getFailures().keySet()) {
+					holders[start[c] + index].revoke(c);
+				}
+			}
+			seats += report.getSuccessCount();
+		}
+		Map<Integer, int[]> granted = new HashMap<>();
+		for(Request r : order) {
+			int[] codes = new int[r.grantCount];
+			for(int g = 0; g < codes.length; g++) {
+				codes[g] = courses.codes[r.granted[g]];
+			}
+			granted.put(r.studentId, codes);
+		}
+		return new Allocation(granted, seats, failures);
+	}
+
+	/**
+	 * The dense numbering of the courses of the manager, with their free seats.
+	 */
+	private static final class Courses {
+		private static final int[] NONE = new int[0];
+
+		private final InterfaceEnrollmentManager manager;
+		private final Map<Integer, Integer> indexes = new HashMap<>();
+		private final int[] codes;
+		private final int[] free;
+		private final Timetable[] timetables;
+		private final int[][] requirements;
+
+		Courses(InterfaceEnrollmentManager manager) {
+			this.manager = manager;
+			List<Course> all = new ArrayList<>(manager.getCourses());
+			codes = new int[all.size()];
+			free = new int[all.size()];
+			timetables = new Timetable[all.size()];
+			requirements = new int[all.size()][];
+			for(int c = 0; c < codes.length; c++) {
+				Course course = all.get(c);
+				codes[c] = course.getCode();
+				timetables[c] = course.getTimetable();
+				indexes.put(course.getCode(), c);
+				try {
+					free[c] = Math.max(0, course.getCapacity() - manager.getEnrollmentCount(course.getCode()));
+				} catch (MissingCourseException e) {
+					throw new IllegalStateException("The course " + course.getCode() + " disappeared while the lottery was being allocated.", e);
+				}
+			}
+		}
+
+		/**
+		 * @param courses Specifies some courses of the manager.
+		 * @return Their dense numbers, in an ascending order.
+		 */
+		int[] indexesOf(List<Course> courses) {
+			int[] result = new int[courses.size()];
+			int count = 0;
+			for(Course course : courses) {
+				Integer index = indexes.get(course.getCode());
+				if(index != null) {
+					result[count++] = index;
+				}
+			}
+			Arrays.sort(result, 0, count);
+			return count == result.length ? result : Arrays.copyOf(result, count);
+		}
+
+		/**
+		 * {@summary It returns the prerequisites of a course, direct or not, computing them the first time they are requested.}
+		 * @param course Specifies the dense number of the course.
+		 * @return The dense numbers of the prerequisites, in an ascending order.
+		 */
+		int[] requirements(int course) {
+			if(requirements[course] == null) {
+				List<Course> direct;
+				try {
+					direct = manager.getPrerequisites(codes[course]);
+				} catch (MissingCourseException e) {
+					throw new IllegalStateException("The course " + codes[course] + " disappeared while the lottery was being allocated.", e);
+				}
+				int[] closure = NONE;
+				for(Course prerequisite : direct) {
+					Integer index = indexes.get(prerequisite.getCode());
+					if(index != null) {
+						// The graph has no cycles, so the recursion ends. Its depth is the length of the longest chain of prerequisites.
+						int[] inherited = requirements(index);
+						int[] merged = Arrays.copyOf(closure, closure.length + inherited.length + 1);
+						System.arraycopy(inherited, 0, merged, closure.length, inherited.length);
+						merged[merged.length - 1] = index;
+						closure = merged;
+					}
+				}
+				requirements[course] = Arrays.stream(closure).sorted().distinct().toArray();
+			}
+			return requirements[course];
+		}
+	}
+
+	/**
+	 * The preferences of a student and the courses granted to them.
+	 */
+	private static final class Request {
+		private final int studentId;
+		private final int priority;
+		private int[] preferences;
+		private int next;
+		private int[] granted = new int[0];
+		private int grantCount;
+		private Timetable busy = Timetable.EMPTY;
+
+		Request(int studentId, int priority, int[] preferences) {
+			this.studentId = studentId;
+			this.priority = priority;
+			this.preferences = preferences;
+		}
+
+		/**
+		 * {@summary It replaces the course codes by their dense numbers, dropping the unknown, repeated and already enrolled courses,
+		 * and those whose prerequisites the student has not completed.}
+		 */
+		void resolve(InterfaceEnrollmentManager manager, Courses courses) {
+			List<Course> enrolled;
+			int[] completed;
+			try {
+				enrolled = manager.getCoursesOfStudent(studentId);
+				completed = courses.indexesOf(manager.getCompletedCourses(studentId));
+			} catch (MissingStudentException e) {
+				preferences = new int[0];
+				return;
+			}
+			for(Course c : enrolled) {
+				busy = busy.plus(c.getTimetable());
+			}
+			int[] resolved = new int[preferences.length];
+			int count = 0;
+			for(int code : preferences) {
+				Integer index = courses.indexes.get(code);
+				if(index != null && !contains(resolved, count, index) && !isEnrolled(enrolled, code) && isQualified(completed, courses.requirements(index))) {
+					resolved[count++] = index;
+				}
+			}
+			preferences = Arrays.copyOf(resolved, count);
+		}
+
+		/**
+		 * {@summary It grants the student's preferred course that still has free seats and fits in their timetable, if any.}
+		 * A course skipped because of its timetable never fits later, since the timetable of the student only grows.
+		 * @return <strong>true</strong> if a course has been granted.
+		 */
+		boolean grantNext(Courses courses) {
+			while(next < preferences.length) {
+				int course = preferences[next++];
+				Timetable timetable = courses.timetables[course];
+				if(courses.free[course] > 0 && !busy.overlaps(timetable)) {
+					courses.free[course]--;
+					if(!timetable.isEmpty()) {
+						busy = busy.plus(timetable);
+					}
+					if(grantCount == granted.length) {
+						granted = Arrays.copyOf(granted, Math.max(2, grantCount * 2));
+					}
+					granted[grantCount++] = course;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void revoke(int course) {
+			for(int g = 0; g < grantCount; g++) {
+				if(granted[g] == course) {
+					System.arraycopy(granted, g + 1, granted, g, grantCount - g - 1);
+					grantCount--;
+					return;
+				}
+			}
+		}
+
+		private static boolean contains(int[] values, int count, int value) {
+			for(int i = 0; i < count; i++) {
+				if(values[i] == value) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @param completed Specifies the dense numbers of the courses completed by the student, in an ascending order.
+		 * @param requirements Specifies the dense numbers of the prerequisites of a course, direct or not.
+		 */
+		private static boolean isQualified(int[] completed, int[] requirements) {
+			for(int requirement : requirements) {
+				if(Arrays.binarySearch(completed, requirement) < 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean isEnrolled(List<Course> enrolled, int code) {
+			for(Course c : enrolled) {
+				if(c.getCode() == code) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * This class holds the outcome of a lottery.
+	 */
+	public static final class Allocation {
+		private static final int[] NOTHING = new int[0];
+
+		private final Map<Integer, int[]> granted;
+		private final int seats;
+		private final Map<Integer, BatchReport> failures;
+
+		private Allocation(Map<Integer, int[]> granted, int seats, Map<Integer, BatchReport> failures) {
+			this.granted = granted;
+			this.seats = seats;
+			this.failures = Collections.unmodifiableMap(failures);
+		}
+
+		/**
+		 * @param studentId Specifies the unique student identifier.
+		 * @return The codes of the courses in which the student has been enrolled by the lottery, from the most to the least preferred.
+		 */
+		public int[] getCourses(int studentId) {
+			return granted.getOrDefault(studentId, NOTHING).clone();
+		}
+
+		/**
+		 * @return The number of seats granted and committed.
+		 */
+		public int getSeatCount() {
+			return seats;
+		}
+
+		/**
+		 * @return The reports of the courses where some granted seats could not be committed, by course code.
+		 */
+		public Map<Integer, BatchReport> getCommitFailures() {
+			return failures;
+		}
+	}
+}
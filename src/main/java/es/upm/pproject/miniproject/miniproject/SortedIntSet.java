@@ -0,0 +1,221 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * This class stores a set of positive identifiers as a sorted array of primitive integers.
+ * It is used to keep the roster of every course without boxing the identifiers:
+ * <br><li> Membership is checked with a binary search, in O(log n).
+ * <br><li> Insertions and removals find their position with a binary search and copy the array around it with {@code System.arraycopy}.
+ * <br><li> The identifiers are always kept in ascending order, so listing them never requires sorting.
+ *
+ * <p>The set is copy-on-write: every modification builds a new array and publishes it through a volatile field,
+ * and a published array is never modified again. Each array is therefore an immutable version of the set, which
+ * readers obtain without locking and without copying, while writers keep working on newer versions.
+ * Writers must still be serialized by the caller, synchronizing on the set when it is shared between threads.
+ *
+ */
+final class SortedIntSet {
+	private static final int[] EMPTY = new int[0];
+
+	private volatile int[] elements;
+
+	/**
+	 * {@summary It creates an empty set.}
+	 */
+	SortedIntSet() {
+		elements = EMPTY;
+	}
+
+	/**
+	 * {@summary It checks whether an identifier belongs to the set.}
+	 * @param id Specifies the identifier to look for.
+	 * @return <strong>true</strong> if the identifier is in the set and <strong>false</strong> otherwise.
+	 */
+	boolean contains(int id) {
+		return Arrays.binarySearch(elements, id) >= 0;
+	}
+
+	/**
+	 * {@summary It adds an identifier to the set, keeping the ascending order.}
+	 * @param id Specifies the identifier to add.
+	 * @return <strong>true</strong> if the identifier was added and <strong>false</strong> if it was already in the set.
+	 */
+	boolean add(int id) {
+		int[] current = elements;
+		int position = Arrays.binarySearch(current, id);
+		if(position >= 0) {
+			return false;
+		}
+		position = -(position + 1);
+		int[] next = new int[current.length + 1];
+		System.arraycopy(current, 0, next, 0, position);
+		next[position] = id;
+		System.arraycopy(current, position, next, position + 1, current.length - position);
+		elements = next;
+		return true;
+	}
+
+	/**
+	 * {@summary It adds several identifiers to the set in a single pass.}
+	 * Both sorted sequences are merged into a single new array, so the cost is linear in the final size
+	 * instead of copying the whole set once per identifier.
+	 * @param ids Specifies the identifiers to add. They must be in ascending order, without duplicates and not already in the set.
+	 */
+	void addAllSorted(int[] ids) {
+		if(ids.length == 0) {
+			return;
+		}
+		int[] current = elements;
+		int[] next = new int[current.length + ids.length];
+		int i = 0;
+		int j = 0;
+		for(int k = 0; k < next.length; k++) {
+			if(j == ids.length || (i < current.length && current[i] < ids[j])) {
+				next[k] = current[i++];
+			} else {
+				next[k] = ids[j++];
+			}
+		}
+		elements = next;
+	}
+
+	/**
+	 * {@summary It removes an identifier from the set.}
+	 * @param id Specifies the identifier to remove.
+	 * @return <strong>true</strong> if the identifier was removed and <strong>false</strong> if it was not in the set.
+	 */
+	boolean remove(int id) {
+		int[] current = elements;
+		int position = Arrays.binarySearch(current, id);
+		if(position < 0) {
+			return false;
+		}
+		int[] next = new int[current.length - 1];
+		System.arraycopy(current, 0, next, 0, position);
+		System.arraycopy(current, position + 1, next, position, next.length - position);
+		elements = next;
+		return true;
+	}
+
+	/**
+	 * {@summary It removes every identifier from the set.}
+	 */
+	void clear() {
+		elements = EMPTY;
+	}
+
+	/**
+	 * @return The number of identifiers in the set.
+	 */
+	int size() {
+		return elements.length;
+	}
+
+	/**
+	 * @return <strong>true</strong> if the set contains no identifiers and <strong>false</strong> otherwise.
+	 */
+	boolean isEmpty() {
+		return elements.length == 0;
+	}
+
+	/**
+	 * @param index Specifies a position between 0 and {@code size() - 1}.
+	 * @return The identifier stored at that position in ascending order.
+	 */
+	int get(int index) {
+		int[] current = elements;
+		if(index < 0 || index >= current.length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.length);
+		}
+		return current[index];
+	}
+
+	/**
+	 * @return The current version of the set: its identifiers in ascending order. The array must not be modified.
+	 */
+	int[] version() {
+		return elements;
+	}
+
+	/**
+	 * {@summary It returns a read-only list over the current version of the set.}
+	 * The list is taken in constant time and never changes, even if the set is modified afterwards.
+	 * @param resolver Specifies how every identifier is turned into the element returned by the list.
+	 * @return An immutable list sorted by identifier in ascending order.
+	 */
+	<T> List<T> asList(IntFunction<T> resolver) {
+		return asList(elements, resolver);
+	}
+
+	/**
+	 * {@summary It returns a page of the current version of the set.}
+	 * The start of the page is found with a binary search, and the page is a view over the version, so nothing is copied.
+	 * @param after Specifies the identifier after which the page starts. It does not need to belong to the set.
+	 * @param limit Specifies the maximum number of identifiers of the page.
+	 * @param resolver Specifies how every identifier is turned into the element returned by the list.
+	 * @return An immutable list with the first identifiers greater than {@code after}, in ascending order.
+	 */
+	<T> List<T> page(int after, int limit, IntFunction<T> resolver) {
+		int[] current = elements;
+		int from = Arrays.binarySearch(current, after);
+		from = from >= 0 ? from + 1 : -(from + 1);
+		return asList(current, from, (int) Math.min(current.length, (long) from + limit), resolver);
+	}
+
+	/**
+	 * {@summary It returns a stream over the current version of the set.}
+	 * The stream splits the version in halves of exactly known size, so it runs well in parallel.
+	 * @param resolver Specifies how every identifier is turned into the element of the stream.
+	 * @return A stream sorted by identifier in ascending order, which is not affected by later modifications.
+	 */
+	<T> Stream<T> stream(IntFunction<T> resolver) {
+		return Arrays.stream(elements).mapToObj(resolver);
+	}
+
+	/**
+	 * {@summary It returns a read-only list over a fixed array of identifiers.}
+	 * @param ids Specifies the identifiers, in the order in which they will be listed. The array must not be modified afterwards.
+	 * @param resolver Specifies how every identifier is turned into the element returned by the list.
+	 * @return A list backed by the array.
+	 */
+	static <T> List<T> asList(int[] ids, IntFunction<T> resolver) {
+		return asList(ids, 0, ids.length, resolver);
+	}
+
+	/**
+	 * {@summary It returns a read-only list over a range of a fixed array of identifiers.}
+	 * @param ids Specifies the identifiers. The array must not be modified afterwards.
+	 * @param from Specifies the first position of the range, inclusive.
+	 * @param to Specifies the last position of the range, exclusive.
+	 * @param resolver Specifies how every identifier is turned into the element returned by the list.
+	 * @return A list backed by the range of the array.
+	 */
+	static <T> List<T> asList(int[] ids, int from, int to, IntFunction<T> resolver) {
+		return new View<T>() {
+			@Override
+			public T get(int index) {
+				if(index < 0 || index >= to - from) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+				}
+				return resolver.apply(ids[from + index]);
+			}
+
+			@Override
+			public int size() {
+				return to - from;
+			}
+		};
+	}
+
+	/**
+	 * Base class of the read-only, random access lists returned by this class.
+	 */
+	private abstract static class View<T> extends AbstractList<T> implements RandomAccess {
+	}
+}
@@ -1,5 +1,6 @@
 package es.upm.pproject.miniproject.miniproject;
 
+import java.util.Locale;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,6 +77,16 @@ public class Student {
 	public String getEmailAddress() {
 		return emailAddress;
 	}
+
+	/**
+	 * {@summary It returns the form of an e-mail address under which its uniqueness is checked.}
+	 * Surrounding whitespace is ignored, and so is the case, so {@code " Student1@UPM.es"} and {@code "student1@upm.es"} are the same address.
+	 * @param emailAddress Specifies the e-mail address.
+	 * @return The trimmed and lower-cased address.
+	 */
+	static String normalizeEmail(String emailAddress) {
+		return emailAddress.trim().toLowerCase(Locale.ROOT);
+	}
 	
 	
 	
@@ -0,0 +1,63 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * This interface abstracts where an {@link EnrollmentManager} keeps its registered students.
+ *
+ * <p>The default store keeps {@link Student} objects in an {@link IntHashMap} on the heap. {@link MappedStudentStore}
+ * keeps the records in memory-mapped files instead and creates a {@link Student} every time one is requested,
+ * so two calls to {@link #get(int)} may return different but equal objects.
+ *
+ * <p>A store also indexes the students by their e-mail addresses, which are unique and compared ignoring the case
+ * and the surrounding spaces, so the manager needs no index of its own to find them or to reject duplicates.
+ *
+ * <p>Implementations are not required to be thread-safe.
+ *
+ */
+public interface StudentStore {
+
+	/**
+	 * @param id Specifies the student's unique identifier.
+	 * @return True if a student with that identifier is stored.
+	 */
+	public boolean contains(int id);
+
+	/**
+	 * @param id Specifies the student's unique identifier.
+	 * @return The stored student, or null if there is none with that identifier.
+	 */
+	public Student get(int id);
+
+	/**
+	 * @param email Specifies an e-mail address, which is compared with the stored ones ignoring the case and the surrounding spaces.
+	 * @return The stored student with that address, or null if there is none.
+	 */
+	public Student getByEmail(String email);
+
+	/**
+	 * {@summary It stores a new student.}
+	 * @param student Specifies the student to store.
+	 * @return False, leaving the store unchanged, if a student with the same identifier or e-mail address is already stored.
+	 */
+	public boolean add(Student student);
+
+	/**
+	 * @return The number of stored students.
+	 */
+	public int size();
+
+	/**
+	 * @return A read-only view of the stored students, sorted by their identifiers in an ascending order.
+	 * Its spliterator can be split, so the students can be streamed in parallel.
+	 */
+	public Collection<Student> values();
+
+	/**
+	 * {@summary It iterates over the stored students from a given identifier on, without visiting the previous ones.}
+	 * @param id Specifies the identifier after which the iteration starts. It does not need to be stored.
+	 * @return An iterator over the students whose identifier is greater than {@code id}, sorted by their identifiers in an ascending order.
+	 */
+	public Iterator<Student> iteratorAfter(int id);
+}
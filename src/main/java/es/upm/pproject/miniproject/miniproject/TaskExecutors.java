@@ -0,0 +1,33 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class creates the executors used by {@link EnrollmentPipeline} and {@link EnrollmentHttpServer} when they are not
+ * given one. Virtual threads are looked up by reflection, so the project still compiles and runs on Java 8.
+ *
+ */
+final class TaskExecutors {
+
+	private TaskExecutors() {
+	}
+
+	/**
+	 * @param threadName Specifies the prefix of the names of the pool's threads, which are numbered from 1.
+	 * @return An executor that runs every task on a new virtual thread, when the JVM has them, or a pool of daemon threads otherwise.
+	 */
+	static ExecutorService newPerTaskExecutor(String threadName) {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			AtomicInteger threads = new AtomicInteger();
+			return Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, threadName + "-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+}
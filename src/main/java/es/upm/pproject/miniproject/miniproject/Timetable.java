@@ -0,0 +1,192 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * This class represents the weekly meetings of a course, as a set of half-hour slots of the week.
+ *
+ * <p>The week is divided into {@value #SLOTS} slots of {@value #SLOT_MINUTES} minutes, starting on Monday at midnight,
+ * and a timetable is a bitmask with one bit per slot. Two timetables conflict when they share a slot, which is found by
+ * intersecting {@value #WORDS} {@code long} words, whatever the number of meetings. Timetables are immutable:
+ * {@link #with(DayOfWeek, LocalTime, LocalTime)} returns a new one.
+ * <br><li> An example of use is provided below:
+ * <br><li> {@code Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0))} meets on Mondays from 9:00 to 11:00.
+ * <br><li> It conflicts with a timetable that meets on Mondays from 10:30 to 12:00, but not with one that meets from 11:00 to 12:00.
+ *
+ */
+public final class Timetable {
+	/** Length of a slot, in minutes. Meetings must start and end on a slot boundary. */
+	public static final int SLOT_MINUTES = 30;
+	/** Number of slots of a day. */
+	public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+	/** Number of slots of a week. */
+	public static final int SLOTS = 7 * SLOTS_PER_DAY;
+	/** Number of words of the bitmask. */
+	static final int WORDS = (SLOTS + Long.SIZE - 1) / Long.SIZE;
+
+	/** Timetable without meetings, which never conflicts. Courses registered without a timetable have this one. */
+	public static final Timetable EMPTY = new Timetable(new long[WORDS]);
+
+	private final long[] slots;
+
+	private Timetable(long[] slots) {
+		this.slots = slots;
+	}
+
+	/**
+	 * {@summary It creates a timetable from the words of its bitmask, as returned by {@link #word(int)}.}
+	 * @param words Specifies the {@value #WORDS} words of the bitmask. The array is copied.
+	 * @return The timetable.
+	 * @throws IllegalArgumentException when the number of words is wrong or some bit is beyond the last slot.
+	 */
+	static Timetable of(long[] words) {
+		if(words.length != WORDS || (words[WORDS - 1] >>> (SLOTS - (WORDS - 1) * Long.SIZE)) != 0) {
+			throw new IllegalArgumentException("Not the bitmask of a timetable.");
+		}
+		return new Timetable(words.clone());
+	}
+
+	/**
+	 * {@summary It returns a timetable with an additional meeting.}
+	 * @param day Specifies the day of the week of the meeting.
+	 * @param start Specifies when the meeting starts. It must be a multiple of {@value #SLOT_MINUTES} minutes.
+	 * @param end Specifies when the meeting ends. It must be a multiple of {@value #SLOT_MINUTES} minutes after the start,
+	 * or {@link LocalTime#MIDNIGHT} for a meeting that lasts until the end of the day.
+	 * @return A new timetable with the meetings of this one and the new meeting, which may overlap them.
+	 * @throws IllegalArgumentException when a time is not on a slot boundary or the meeting does not end after it starts.
+	 */
+	public Timetable with(DayOfWeek day, LocalTime start, LocalTime end) {
+		int first = slotOf(start);
+		int last = end.equals(LocalTime.MIDNIGHT) ? SLOTS_PER_DAY : slotOf(end);
+		if(last <= first) {
+			throw new IllegalArgumentException("The meeting must end after it starts: " + start + "-" + end + ".");
+		}
+		long[] result = slots.clone();
+		int offset = (day.getValue() - 1) * SLOTS_PER_DAY;
+		for(int slot = offset + first; slot < offset + last; slot++) {
+			result[slot / Long.SIZE] |= 1L << slot;
+		}
+		return new Timetable(result);
+	}
+
+	/**
+	 * @param other Specifies the timetable to compare with.
+	 * @return <strong>true</strong> if both timetables share some slot and <strong>false</strong> otherwise.
+	 */
+	public boolean overlaps(Timetable other) {
+		for(int i = 0; i < WORDS; i++) {
+			if((slots[i] & other.slots[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return <strong>true</strong> if the timetable has no meetings and <strong>false</strong> otherwise.
+	 */
+	public boolean isEmpty() {
+		for(long word : slots) {
+			if(word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param day Specifies the day of the week.
+	 * @param time Specifies the start of a slot. It must be a multiple of {@value #SLOT_MINUTES} minutes.
+	 * @return <strong>true</strong> if the slot that starts at that time is part of a meeting and <strong>false</strong> otherwise.
+	 * @throws IllegalArgumentException when the time is not on a slot boundary.
+	 */
+	public boolean meetsAt(DayOfWeek day, LocalTime time) {
+		int slot = (day.getValue() - 1) * SLOTS_PER_DAY + slotOf(time);
+		return (slots[slot / Long.SIZE] & (1L << slot)) != 0;
+	}
+
+	/**
+	 * @param index Specifies the index of the word, from 0 to {@value #WORDS} - 1.
+	 * @return A word of the bitmask, where bit {@code s % 64} of word {@code s / 64} is slot {@code s} of the week.
+	 */
+	long word(int index) {
+		return slots[index];
+	}
+
+	/**
+	 * @param other Specifies a timetable that does not overlap this one.
+	 * @return A timetable with the slots of both.
+	 */
+	Timetable plus(Timetable other) {
+		long[] result = new long[WORDS];
+		for(int i = 0; i < WORDS; i++) {
+			result[i] = slots[i] | other.slots[i];
+		}
+		return new Timetable(result);
+	}
+
+	/**
+	 * @param other Specifies the timetable whose slots are removed.
+	 * @return A timetable with the slots of this one that are not in the other.
+	 */
+	Timetable minus(Timetable other) {
+		long[] result = new long[WORDS];
+		for(int i = 0; i < WORDS; i++) {
+			result[i] = slots[i] & ~other.slots[i];
+		}
+		return new Timetable(result);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Timetable && Arrays.equals(slots, ((Timetable) other).slots);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(slots);
+	}
+
+	/**
+	 * @return The meetings of the timetable, such as {@code "MONDAY 09:00-11:00, THURSDAY 15:30-17:00"}.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for(DayOfWeek day : DayOfWeek.values()) {
+			int offset = (day.getValue() - 1) * SLOTS_PER_DAY;
+			int slot = 0;
+			while(slot < SLOTS_PER_DAY) {
+				if(!isSet(offset + slot)) {
+					slot++;
+					continue;
+				}
+				int start = slot;
+				while(slot < SLOTS_PER_DAY && isSet(offset + slot)) {
+					slot++;
+				}
+				sb.append(sb.length() == 0 ? "" : ", ").append(day).append(' ')
+					.append(timeOf(start)).append('-').append(timeOf(slot % SLOTS_PER_DAY));
+			}
+		}
+		return sb.toString();
+	}
+
+	private boolean isSet(int slot) {
+		return (slots[slot / Long.SIZE] & (1L << slot)) != 0;
+	}
+
+	private static int slotOf(LocalTime time) {
+		int minutes = time.toSecondOfDay() / 60;
+		if(time.toNanoOfDay() % (SLOT_MINUTES * 60_000_000_000L) != 0) {
+			throw new IllegalArgumentException(time + " is not a multiple of " + SLOT_MINUTES + " minutes.");
+		}
+		return minutes / SLOT_MINUTES;
+	}
+
+	private static LocalTime timeOf(int slot) {
+		return LocalTime.ofSecondOfDay((long) slot * SLOT_MINUTES * 60);
+	}
+}
@@ -6,6 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 import org.junit.jupiter.api.BeforeEach;
@@ -170,8 +173,61 @@ public class AppTest {
 			}
 			assertEquals(100, man.getStudents().size());
 		}
+
+		@Test
+		void testDuplicatedEmail() throws StudentAlreadyExistsException, StudentBlankInputException, EmailFormatException {
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			assertThrows(StudentAlreadyExistsException.class, () -> man.registerStudent(2, "Student2", "student1@gmail.com"));
+			assertThrows(StudentAlreadyExistsException.class, () -> man.registerStudent(3, "Student3", " Student1@GMAIL.com "));
+			assertEquals(1, man.getStudents().size());
+			man.registerStudent(2, "Student2", "student2@gmail.com");
+		}
+
+		@Test
+		void testDuplicatedEmailInBatch() throws Exception {
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			List<Student> batch = new ArrayList<>();
+			batch.add(new Student(2, "Student2", "student1@gmail.com"));
+			batch.add(new Student(3, "Student3", "student3@gmail.com"));
+			batch.add(new Student(4, "Student4", "STUDENT3@gmail.com"));
+			BatchReport report = man.registerStudents(batch);
+			assertEquals(2, report.getFailureCount());
+			assertTrue(report.isSuccessful(1));
+			assertEquals(2, man.getStudents().size());
+		}
 	}
-	
+
+	@DisplayName ("Tests related to finding students by their e-mail")
+	@Nested
+	class FindStudentByEmailTests {
+		@Test
+		void testFound() throws Exception {
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			man.registerStudent(2, "Student2", "Student2@UPM.es");
+			assertEquals(1, man.findStudentByEmail("student1@gmail.com").getId());
+			assertEquals(2, man.findStudentByEmail("student2@upm.es").getId());
+			assertEquals("Student2@UPM.es", man.findStudentByEmail(" STUDENT2@upm.es").getEmailAddress());
+		}
+
+		@Test
+		void testNotFound() throws Exception {
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			assertThrows(MissingStudentException.class, () -> man.findStudentByEmail("student2@gmail.com"));
+			assertThrows(MissingStudentException.class, () -> man.findStudentByEmail(null));
+		}
+
+		@Test
+		void testConcurrentManager() throws Exception {
+			ConcurrentEnrollmentManager con = new ConcurrentEnrollmentManager();
+			con.registerStudent(1, "Student1", "student1@gmail.com");
+			assertThrows(StudentAlreadyExistsException.class, () -> con.registerStudent(2, "Student2", "STUDENT1@gmail.com"));
+			assertThrows(StudentAlreadyExistsException.class, () -> con.registerStudent(1, "Student1", "other@gmail.com"));
+			con.registerStudent(2, "Student2", "other@gmail.com");
+			assertEquals(2, con.findStudentByEmail("Other@gmail.com").getId());
+			assertThrows(MissingStudentException.class, () -> con.findStudentByEmail("student3@gmail.com"));
+		}
+	}
+
 	
 	@DisplayName ("Tests related to enrolling students in courses")
 	@Nested
@@ -232,6 +288,25 @@ public class AppTest {
 			assertEquals(2, man.getStudentsEnrolledInCourse(10).size());
 		}
 		
+		@Test
+		void testRosterIsASnapshot() throws Exception {
+			man.registerCourse(1, "Course1", "Coordinator1");
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			man.registerStudent(2, "Student2", "student2@gmail.com");
+			man.enroll(1, 2);
+			List<Student> before = man.getStudentsEnrolledInCourse(1);
+			List<Course> coursesBefore = man.getCoursesOfStudent(2);
+			
+			man.enroll(1, 1);
+			man.cancelEnrollment(1, 2);
+			
+			assertEquals(1, before.size());
+			assertEquals(2, before.get(0).getId());
+			assertEquals(1, coursesBefore.size());
+			assertEquals(1, man.getStudentsEnrolledInCourse(1).get(0).getId());
+			assertThrows(UnsupportedOperationException.class, () -> before.add(before.get(0)));
+		}
+		
 		@Test
 		void testMaxCapacity() throws Exception{
 			man.registerCourse(100, "Course100", "Coordinator100");
@@ -279,8 +354,104 @@ public class AppTest {
 			
 			assertThrows(StudentAlreadyEnrolledException.class, () -> man.enroll(1, 1));
 		}
+		
+		@Test
+		void testTryEnrollOutcomes() throws Exception {
+			man.registerCourse(1, "Course1", "Coordinator1", 1);
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			man.registerStudent(2, "Student2", "student2@gmail.com");
+			
+			assertEquals(EnrollmentOutcome.MISSING_COURSE, man.tryEnroll(2, 1));
+			assertEquals(EnrollmentOutcome.MISSING_STUDENT, man.tryEnroll(1, 3));
+			assertEquals(EnrollmentOutcome.ENROLLED, man.tryEnroll(1, 1));
+			assertEquals(EnrollmentOutcome.COURSE_FULL, man.tryEnroll(1, 2));
+			man.registerCourse(2, "Course2", "Coordinator2");
+			man.enroll(2, 1);
+			assertEquals(EnrollmentOutcome.ALREADY_ENROLLED, man.tryEnroll(2, 1));
+			
+			assertEquals(1, man.getStudentsEnrolledInCourse(1).size());
+			assertEquals(2, man.getCoursesOfStudent(1).size());
+			assertEquals(0, man.getCoursesOfStudent(2).size());
+		}
 	}
 	
+	@DisplayName ("Tests related to registering and enrolling students in batches")
+	@Nested
+	class BatchTests {
+		@Test
+		void testRegisterStudents() throws Exception {
+			man.registerStudent(2, "Student2", "student2@gmail.com");
+			List<Student> batch = new ArrayList<>();
+			batch.add(new Student(1, "Student1", "student1@gmail.com"));
+			batch.add(new Student(2, "Student2", "student2@gmail.com"));
+			batch.add(null);
+			batch.add(new Student(3, "Student3", "student3@gmail.com"));
+			batch.add(new Student(3, "Student3", "student3@gmail.com"));
+
+			BatchReport report = man.registerStudents(batch);
+
+			assertEquals(5, report.size());
+			assertEquals(2, report.getSuccessCount());
+			assertTrue(report.isSuccessful(0));
+			assertTrue(report.getFailure(1) instanceof StudentAlreadyExistsException);
+			assertTrue(report.getFailure(2) instanceof StudentBlankInputException);
+			assertTrue(report.isSuccessful(3));
+			assertTrue(report.getFailure(4) instanceof StudentAlreadyExistsException);
+			assertEquals(3, man.getStudents().size());
+		}
+
+		@Test
+		void testEnrollAllMissingCourse() {
+			assertThrows(MissingCourseException.class, () -> man.enrollAll(1, new int[] {1}));
+		}
+
+		@Test
+		void testEnrollAllMergesSorted() throws Exception {
+			man.registerCourse(1, "Course1", "Coordinator1");
+			for(int i = 1; i <= 10; i++) {
+				man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+			}
+			man.enroll(1, 4);
+			man.enroll(1, 7);
+
+			BatchReport report = man.enrollAll(1, new int[] {9, 1, 7, 5, 11, 1, 10});
+
+			assertEquals(4, report.getSuccessCount());
+			assertTrue(report.getFailure(2) instanceof StudentAlreadyEnrolledException);
+			assertTrue(report.getFailure(4) instanceof MissingStudentException);
+			assertTrue(report.getFailure(5) instanceof StudentAlreadyEnrolledException);
+			List<Student> res = man.getStudentsEnrolledInCourse(1);
+			int[] expected = {1, 4, 5, 7, 9, 10};
+			assertEquals(expected.length, res.size());
+			for(int i = 0; i < expected.length; i++) {
+				assertEquals(expected[i], res.get(i).getId());
+			}
+			assertEquals(1, man.getCoursesOfStudent(9).size());
+		}
+
+		@Test
+		void testEnrollAllRespectsCapacityInOrder() throws Exception {
+			man.registerCourse(1, "Course1", "Coordinator1");
+			int[] batch = new int[60];
+			for(int i = 0; i < 60; i++) {
+				int id = 60 - i;
+				man.registerStudent(id, "Student" + id, "student" + id + "@gmail.com");
+				batch[i] = id;
+			}
+			man.enroll(1, 1);
+
+			BatchReport report = man.enrollAll(1, batch);
+
+			assertEquals(49, report.getSuccessCount());
+			assertEquals(50, man.getStudentsEnrolledInCourse(1).size());
+			assertTrue(report.isSuccessful(0));
+			assertTrue(report.isSuccessful(48));
+			assertTrue(report.getFailure(49) instanceof FullCourseException);
+			assertTrue(report.getFailure(59) instanceof StudentAlreadyEnrolledException);
+			assertEquals(11, report.getFailures().size());
+		}
+	}
+
 	@DisplayName ("Tests related to students enrolled in a course")
 	@Nested
 	class StudentsEnrolledInCourseTests {
@@ -356,6 +527,37 @@ public class AppTest {
             assertEquals(3, man.getStudentsEnrolledInCourse(1).size());
         }
 
+        @Test
+        void testCancelEnrollmentKeepsOrder() throws Exception {
+            man.registerCourse(1, "Course1", "Coordinator1");
+            for(int i = 1; i <= 5; i++) {
+                man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+            }
+            man.enroll(1, 5);
+            man.enroll(1, 1);
+            man.enroll(1, 3);
+            man.enroll(1, 2);
+            man.enroll(1, 4);
+            man.cancelEnrollment(1, 3);
+            List<Student> res = man.getStudentsEnrolledInCourse(1);
+            assertEquals(4, res.size());
+            assertEquals(1, res.get(0).getId());
+            assertEquals(2, res.get(1).getId());
+            assertEquals(4, res.get(2).getId());
+            assertEquals(5, res.get(3).getId());
+        }
+
+        @Test
+        void testEnrollAgainAfterCancel() throws Exception {
+            man.registerCourse(1, "Course1", "Coordinator1");
+            man.registerStudent(1, "Student1", "student1@gmail.com");
+            man.enroll(1, 1);
+            man.cancelEnrollment(1, 1);
+            assertThrows(StudentNotEnrolledException.class, () -> man.cancelEnrollment(1, 1));
+            man.enroll(1, 1);
+            assertEquals(1, man.getStudentsEnrolledInCourse(1).size());
+        }
+
         @Test
         void testMissingCourseException() throws Exception {
             man.registerStudent(1, "Student1", "student1@gmail.com");
@@ -378,6 +580,50 @@ public class AppTest {
         }
     }
 
+    @DisplayName ("Tests related to the courses of a student")
+    @Nested
+    class CoursesOfStudentTests {
+        @Test
+        void testMissingStudentException() {
+            assertThrows(MissingStudentException.class, () -> man.getCoursesOfStudent(1));
+        }
+
+        @Test
+        void testCoursesOfStudentOrdered() throws Exception {
+            man.registerStudent(1, "Student1", "student1@gmail.com");
+            man.registerCourse(3, "Course3", "Coordinator3");
+            man.registerCourse(1, "Course1", "Coordinator1");
+            man.registerCourse(2, "Course2", "Coordinator2");
+            assertEquals(0, man.getCoursesOfStudent(1).size());
+
+            man.enroll(3, 1);
+            man.enroll(1, 1);
+
+            List<Course> res = man.getCoursesOfStudent(1);
+            assertEquals(2, res.size());
+            assertEquals(1, res.get(0).getCode());
+            assertEquals(3, res.get(1).getCode());
+        }
+
+        @Test
+        void testCoursesOfStudentAfterCancelAndRestart() throws Exception {
+            man.registerStudent(1, "Student1", "student1@gmail.com");
+            man.registerStudent(2, "Student2", "student2@gmail.com");
+            man.registerCourse(1, "Course1", "Coordinator1");
+            man.registerCourse(2, "Course2", "Coordinator2");
+            man.enroll(1, 1);
+            man.enroll(2, 1);
+            man.enroll(2, 2);
+
+            man.cancelEnrollment(1, 1);
+            assertEquals(2, man.getCoursesOfStudent(1).get(0).getCode());
+
+            man.restartCourse(2);
+            assertEquals(0, man.getCoursesOfStudent(1).size());
+            assertEquals(0, man.getCoursesOfStudent(2).size());
+        }
+    }
+
     @DisplayName ("Tests related to restarting a course")
     @Nested
     class RestartCourseTests {
@@ -407,6 +653,222 @@ public class AppTest {
         }
     }
 
+    @DisplayName ("Tests related to the capacity of the courses")
+    @Nested
+    class CapacityTests {
+        @Test
+        void testDefaultCapacity() throws Exception {
+            man.registerCourse(1, "Course1", "Coordinator1");
+            assertEquals(Course.DEFAULT_CAPACITY, man.getCourses().iterator().next().getCapacity());
+        }
+
+        @Test
+        void testInvalidCapacity() {
+            assertThrows(CourseBlankInputException.class, () -> man.registerCourse(1, "Course1", "Coordinator1", 0));
+            assertThrows(CourseBlankInputException.class, () -> new Course(1, "Course1", "Coordinator1", -5));
+        }
+
+        @Test
+        void testLargeLecture() throws Exception {
+            man.setLogVerbosity(LogVerbosity.QUIET);
+            man.registerCourse(1, "Course1", "Coordinator1", 300);
+            int[] ids = new int[301];
+            for(int i = 1; i <= 301; i++) {
+                man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+                ids[i - 1] = i;
+            }
+            BatchReport report = man.enrollAll(1, ids);
+            assertEquals(300, report.getSuccessCount());
+            assertEquals(300, man.getStudentsEnrolledInCourse(1).size());
+            FullCourseException e = assertThrows(FullCourseException.class, () -> man.enroll(1, 301));
+            assertTrue(e.getMessage().contains("300"));
+        }
+
+        @Test
+        void testSmallSeminar() throws Exception {
+            man.registerCourse(1, "Course1", "Coordinator1", 2);
+            for(int i = 1; i <= 3; i++) {
+                man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+            }
+            man.enroll(1, 3);
+            man.enroll(1, 1);
+            assertThrows(FullCourseException.class, () -> man.enroll(1, 2));
+        }
+    }
+
+    @DisplayName ("Tests related to the paginated and streaming accessors")
+    @Nested
+    class PaginationTests {
+        @BeforeEach
+        void fill() throws Exception {
+            int[] ids = new int[25];
+            for(int i = 1; i <= 25; i++) {
+                man.registerStudent(2 * i, "Student" + i, "student" + i + "@gmail.com");
+                man.registerCourse(26 - i, "Course" + i, "Coordinator" + i);
+                ids[i - 1] = 2 * i;
+            }
+            man.enrollAll(1, ids);
+        }
+
+        @Test
+        void testStudentPages() {
+            List<Student> first = man.getStudents(0, 10);
+            assertEquals(10, first.size());
+            assertEquals(2, first.get(0).getId());
+            List<Student> second = man.getStudents(first.get(9).getId(), 10);
+            assertEquals(22, second.get(0).getId());
+            List<Student> last = man.getStudents(second.get(9).getId(), 10);
+            assertEquals(5, last.size());
+            assertEquals(50, last.get(4).getId());
+            assertEquals(0, man.getStudents(50, 10).size());
+            assertEquals(12, man.getStudents(11, 1).get(0).getId());
+        }
+
+        @Test
+        void testCoursePages() {
+            List<Course> page = man.getCourses(20, 100);
+            assertEquals(5, page.size());
+            assertEquals(21, page.get(0).getCode());
+            assertEquals(25, page.get(4).getCode());
+        }
+
+        @Test
+        void testRosterPages() throws Exception {
+            List<Student> page = man.getStudentsEnrolledInCourse(1, 7, 3);
+            assertEquals(3, page.size());
+            assertEquals(8, page.get(0).getId());
+            assertEquals(12, page.get(2).getId());
+            assertEquals(0, man.getStudentsEnrolledInCourse(1, 50, 3).size());
+            assertEquals(0, man.getStudentsEnrolledInCourse(2, 0, 3).size());
+            assertThrows(MissingCourseException.class, () -> man.getStudentsEnrolledInCourse(26, 0, 3));
+        }
+
+        @Test
+        void testInvalidLimit() {
+            assertThrows(IllegalArgumentException.class, () -> man.getStudents(0, 0));
+            assertThrows(IllegalArgumentException.class, () -> man.getCourses(0, -1));
+            assertThrows(IllegalArgumentException.class, () -> man.getStudentsEnrolledInCourse(1, 0, 0));
+        }
+
+        @Test
+        void testStreams() throws Exception {
+            assertEquals(25, man.streamStudents().parallel().count());
+            assertEquals(650, man.streamStudents().parallel().mapToInt(Student::getId).sum());
+            assertEquals(325, man.streamCourses().mapToInt(Course::getCode).sum());
+            assertEquals(650, man.streamStudentsEnrolledInCourse(1).parallel().mapToInt(Student::getId).sum());
+            assertEquals(2, man.streamStudentsEnrolledInCourse(1).findFirst().get().getId());
+            assertThrows(MissingCourseException.class, () -> man.streamStudentsEnrolledInCourse(26));
+        }
+    }
+
+    @DisplayName ("Tests related to the waitlists of the courses")
+    @Nested
+    class WaitlistTests {
+        @BeforeEach
+        void fillCourse() throws Exception {
+            man.registerCourse(1, "Course1", "Coordinator1", 3);
+            for(int i = 1; i <= 8; i++) {
+                man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+            }
+            man.enroll(1, 4);
+            man.enroll(1, 2);
+            assertTrue(man.enrollOrWaitlist(1, 3));
+        }
+
+        private List<Integer> ids(List<Student> students) {
+            List<Integer> ids = new ArrayList<>();
+            for(Student s : students) {
+                ids.add(s.getId());
+            }
+            return ids;
+        }
+
+        @Test
+        void testWaitlistOrder() throws Exception {
+            assertFalse(man.enrollOrWaitlist(1, 7));
+            assertFalse(man.enrollOrWaitlist(1, 1));
+            assertFalse(man.enrollOrWaitlist(1, 5));
+            assertEquals(Arrays.asList(7, 1, 5), ids(man.getWaitlist(1)));
+            assertThrows(StudentAlreadyEnrolledException.class, () -> man.enrollOrWaitlist(1, 1));
+            assertThrows(StudentAlreadyEnrolledException.class, () -> man.enrollOrWaitlist(1, 2));
+            assertThrows(FullCourseException.class, () -> man.enroll(1, 6));
+        }
+
+        @Test
+        void testPromotionOnCancel() throws Exception {
+            man.enrollOrWaitlist(1, 7);
+            man.enrollOrWaitlist(1, 1);
+            man.cancelEnrollment(1, 2);
+            assertEquals(Arrays.asList(3, 4, 7), ids(man.getStudentsEnrolledInCourse(1)));
+            assertEquals(Arrays.asList(1), ids(man.getWaitlist(1)));
+            assertEquals(1, man.getCoursesOfStudent(7).size());
+            man.cancelEnrollment(1, 7);
+            assertEquals(Arrays.asList(1, 3, 4), ids(man.getStudentsEnrolledInCourse(1)));
+            assertTrue(man.getWaitlist(1).isEmpty());
+            man.cancelEnrollment(1, 1);
+            assertEquals(2, man.getStudentsEnrolledInCourse(1).size());
+        }
+
+        @Test
+        void testBulkPromotionOnRestart() throws Exception {
+            for(int id : new int[] {8, 6, 1, 5, 7}) {
+                man.enrollOrWaitlist(1, id);
+            }
+            man.restartCourse(1);
+            assertEquals(Arrays.asList(1, 6, 8), ids(man.getStudentsEnrolledInCourse(1)));
+            assertEquals(Arrays.asList(5, 7), ids(man.getWaitlist(1)));
+            assertEquals(0, man.getCoursesOfStudent(2).size());
+            assertEquals(1, man.getCoursesOfStudent(8).size());
+        }
+
+        @Test
+        void testLeaveWaitlist() throws Exception {
+            man.enrollOrWaitlist(1, 7);
+            man.enrollOrWaitlist(1, 1);
+            man.leaveWaitlist(1, 7);
+            assertThrows(StudentNotEnrolledException.class, () -> man.leaveWaitlist(1, 7));
+            assertThrows(StudentNotEnrolledException.class, () -> man.leaveWaitlist(1, 2));
+            man.cancelEnrollment(1, 4);
+            assertEquals(Arrays.asList(1, 2, 3), ids(man.getStudentsEnrolledInCourse(1)));
+        }
+
+        @Test
+        void testMissing() {
+            assertThrows(MissingCourseException.class, () -> man.enrollOrWaitlist(2, 1));
+            assertThrows(MissingStudentException.class, () -> man.enrollOrWaitlist(1, 9));
+            assertThrows(MissingCourseException.class, () -> man.getWaitlist(2));
+            assertThrows(MissingCourseException.class, () -> man.leaveWaitlist(2, 1));
+            assertThrows(MissingStudentException.class, () -> man.leaveWaitlist(1, 9));
+        }
+    }
+
+    @DisplayName ("Tests related to the verbosity of the log")
+    @Nested
+    class LogVerbosityTests {
+        @Test
+        void testDefaultVerbosity() {
+            assertEquals(LogVerbosity.FULL, man.getLogVerbosity());
+        }
+
+        @Test
+        void testOperationsWithEveryVerbosity() throws Exception {
+            man.registerCourse(1, "Course1", "Coordinator1");
+            int id = 1;
+            for(LogVerbosity verbosity : LogVerbosity.values()) {
+                man.setLogVerbosity(verbosity);
+                assertEquals(verbosity, man.getLogVerbosity());
+                man.registerStudent(id, "Student" + id, "student" + id + "@gmail.com");
+                man.enroll(1, id);
+                final int enrolled = id;
+                assertThrows(StudentAlreadyEnrolledException.class, () -> man.enroll(1, enrolled));
+                assertEquals(id, man.getStudentsEnrolledInCourse(1).size());
+                id++;
+            }
+            man.restartCourse(1);
+            assertEquals(0, man.getStudentsEnrolledInCourse(1).size());
+        }
+    }
+
     @DisplayName ("Tests related to displaying information about students and courses")
     @Nested
     class GettersTests {
@@ -476,6 +938,175 @@ public class AppTest {
     }
 
 
+
+    @DisplayName ("Tests related to timetables and schedule conflicts")
+    @Nested
+    class ScheduleTests {
+        private final Timetable mondayMorning = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+        private final Timetable mondayLate = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(10, 30), LocalTime.of(12, 0));
+        private final Timetable mondayNoon = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(11, 0), LocalTime.of(12, 0))
+                .with(DayOfWeek.THURSDAY, LocalTime.of(15, 30), LocalTime.MIDNIGHT);
+
+        @BeforeEach
+        void fill() throws Exception {
+            man.setLogVerbosity(LogVerbosity.QUIET);
+            man.registerCourse(1, "Course1", "Coordinator1", 2, mondayMorning);
+            man.registerCourse(2, "Course2", "Coordinator2", 2, mondayLate);
+            man.registerCourse(3, "Course3", "Coordinator3", 2, mondayNoon);
+            man.registerCourse(4, "Course4", "Coordinator4");
+            for(int i = 1; i <= 4; i++) {
+                man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+            }
+        }
+
+        @Test
+        void testTimetables() {
+            assertTrue(mondayMorning.overlaps(mondayLate));
+            assertFalse(mondayMorning.overlaps(mondayNoon));
+            assertTrue(mondayLate.overlaps(mondayNoon));
+            assertFalse(mondayMorning.overlaps(Timetable.EMPTY));
+            assertTrue(Timetable.EMPTY.isEmpty());
+            assertTrue(mondayNoon.meetsAt(DayOfWeek.THURSDAY, LocalTime.of(23, 30)));
+            assertFalse(mondayNoon.meetsAt(DayOfWeek.FRIDAY, LocalTime.MIDNIGHT));
+            assertEquals("MONDAY 11:00-12:00, THURSDAY 15:30-00:00", mondayNoon.toString());
+            assertEquals(mondayMorning, Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)).with(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+            assertThrows(IllegalArgumentException.class, () -> Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 15), LocalTime.of(10, 0)));
+            assertThrows(IllegalArgumentException.class, () -> Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(10, 0)));
+            assertThrows(CourseBlankInputException.class, () -> man.registerCourse(5, "Course5", "Coordinator5", 2, null));
+            assertEquals(Timetable.EMPTY, man.getCourses(3, 1).get(0).getTimetable());
+        }
+
+        @Test
+        void testConflictingEnrollments() throws Exception {
+            man.enroll(1, 1);
+            assertThrows(ScheduleConflictException.class, () -> man.enroll(2, 1));
+            assertEquals(EnrollmentOutcome.SCHEDULE_CONFLICT, man.tryEnroll(2, 1));
+            assertEquals(EnrollmentOutcome.ALREADY_ENROLLED, man.tryEnroll(1, 1));
+            man.enroll(3, 1);
+            man.enroll(4, 1);
+            assertEquals(3, man.getCoursesOfStudent(1).size());
+            assertEquals(0, man.getEnrollmentCount(2));
+            man.cancelEnrollment(1, 1);
+            assertThrows(ScheduleConflictException.class, () -> man.enroll(2, 1));
+            man.cancelEnrollment(3, 1);
+            man.enroll(2, 1);
+            assertThrows(ScheduleConflictException.class, () -> man.enrollOrWaitlist(1, 1));
+            man.restartCourse(2);
+            assertTrue(man.enrollOrWaitlist(1, 1));
+        }
+
+        @Test
+        void testConflictsInBatches() throws Exception {
+            man.enroll(2, 2);
+            BatchReport report = man.enrollAll(1, new int[] {1, 2, 3, 4});
+            assertEquals(Arrays.asList(1, 3), ids(man.getStudentsEnrolledInCourse(1)));
+            assertTrue(report.getFailure(1) instanceof ScheduleConflictException);
+            assertTrue(report.getFailure(3) instanceof FullCourseException);
+        }
+
+        @Test
+        void testConflictingStudentsLeaveTheWaitlist() throws Exception {
+            man.enroll(1, 1);
+            man.enroll(1, 2);
+            assertFalse(man.enrollOrWaitlist(1, 3));
+            assertFalse(man.enrollOrWaitlist(1, 4));
+            man.enroll(2, 3);
+            man.cancelEnrollment(1, 1);
+            assertEquals(Arrays.asList(2, 4), ids(man.getStudentsEnrolledInCourse(1)));
+            assertEquals(0, man.getWaitlist(1).size());
+            assertEquals(Arrays.asList(2), ids(man.getCoursesOfStudent(3)));
+        }
+
+        private List<Integer> ids(List<?> items) {
+            List<Integer> ids = new ArrayList<>();
+            for(Object item : items) {
+                ids.add(item instanceof Student ? ((Student) item).getId() : ((Course) item).getCode());
+            }
+            return ids;
+        }
+    }
+
+    @DisplayName ("Tests related to prerequisites and completed courses")
+    @Nested
+    class PrerequisiteTests {
+        @BeforeEach
+        void fill() throws Exception {
+            man.setLogVerbosity(LogVerbosity.QUIET);
+            for(int i = 1; i <= 4; i++) {
+                man.registerCourse(i, "Course" + i, "Coordinator" + i, 2);
+                man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+            }
+            man.addPrerequisite(2, 1);
+            man.addPrerequisite(3, 2);
+        }
+
+        @Test
+        void testPrerequisiteGraph() throws Exception {
+            assertEquals(Arrays.asList(1), ids(man.getPrerequisites(2)));
+            assertEquals(Arrays.asList(), ids(man.getPrerequisites(1)));
+            assertThrows(IllegalArgumentException.class, () -> man.addPrerequisite(1, 3));
+            assertThrows(IllegalArgumentException.class, () -> man.addPrerequisite(4, 4));
+            assertThrows(MissingCourseException.class, () -> man.addPrerequisite(3, 5));
+            assertThrows(MissingCourseException.class, () -> man.getPrerequisites(5));
+            man.addPrerequisite(3, 4);
+            man.addPrerequisite(3, 1);
+            man.addPrerequisite(3, 4);
+            assertEquals(Arrays.asList(1, 2, 4), ids(man.getPrerequisites(3)));
+        }
+
+        @Test
+        void testTransitivePrerequisites() throws Exception {
+            assertEquals(EnrollmentOutcome.MISSING_PREREQUISITE, man.tryEnroll(3, 1));
+            man.completeCourse(2, 1);
+            assertThrows(MissingPrerequisiteException.class, () -> man.enroll(3, 1));
+            man.completeCourse(1, 1);
+            man.enroll(3, 1);
+            assertEquals(Arrays.asList(1, 2), ids(man.getCompletedCourses(1)));
+            man.enroll(1, 2);
+            man.addPrerequisite(1, 4);
+            assertEquals(EnrollmentOutcome.MISSING_PREREQUISITE, man.tryEnroll(2, 1));
+            assertEquals(EnrollmentOutcome.ALREADY_ENROLLED, man.tryEnroll(3, 1));
+            assertEquals(EnrollmentOutcome.ALREADY_ENROLLED, man.tryEnroll(1, 2));
+            assertThrows(MissingStudentException.class, () -> man.completeCourse(1, 5));
+            assertThrows(MissingCourseException.class, () -> man.completeCourse(5, 1));
+            assertThrows(MissingStudentException.class, () -> man.getCompletedCourses(5));
+        }
+
+        @Test
+        void testPrerequisitesInBatches() throws Exception {
+            man.completeCourse(1, 2);
+            man.completeCourse(1, 4);
+            BatchReport report = man.enrollAll(2, new int[] {1, 2, 3, 4});
+            assertEquals(Arrays.asList(2, 4), ids(man.getStudentsEnrolledInCourse(2)));
+            assertTrue(report.getFailure(0) instanceof MissingPrerequisiteException);
+            assertTrue(report.getFailure(2) instanceof MissingPrerequisiteException);
+        }
+
+        @Test
+        void testUnqualifiedStudentsLeaveTheWaitlist() throws Exception {
+            for(int i = 1; i <= 4; i++) {
+                man.completeCourse(1, i);
+            }
+            man.enroll(2, 1);
+            man.enroll(2, 2);
+            assertFalse(man.enrollOrWaitlist(2, 3));
+            assertFalse(man.enrollOrWaitlist(2, 4));
+            assertThrows(MissingPrerequisiteException.class, () -> man.enrollOrWaitlist(3, 1));
+            man.completeCourse(4, 4);
+            man.addPrerequisite(2, 4);
+            man.cancelEnrollment(2, 1);
+            assertEquals(Arrays.asList(2, 4), ids(man.getStudentsEnrolledInCourse(2)));
+            assertEquals(0, man.getWaitlist(2).size());
+        }
+
+        private List<Integer> ids(List<?> items) {
+            List<Integer> ids = new ArrayList<>();
+            for(Object item : items) {
+                ids.add(item instanceof Student ? ((Student) item).getId() : ((Course) item).getCode());
+            }
+            return ids;
+        }
+    }
 }
 	
 
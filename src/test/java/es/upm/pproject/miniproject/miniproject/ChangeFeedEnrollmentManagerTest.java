@@ -0,0 +1,288 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ChangeFeedEnrollmentManagerTest {
+	private ChangeFeedEnrollmentManager man;
+	private EnrollmentChangeFeed.Subscription subscription;
+
+	@BeforeEach
+	void runBeforeEach() {
+		EnrollmentManager inner = new EnrollmentManager();
+		inner.setLogVerbosity(LogVerbosity.QUIET);
+		man = new ChangeFeedEnrollmentManager(inner);
+		subscription = man.getFeed().subscribe();
+	}
+
+	private static String describe(List<EnrollmentEvent> events) {
+		StringBuilder sb = new StringBuilder();
+		for(EnrollmentEvent e : events) {
+			sb.append(e.getType()).append(' ').append(e.getCourseCode()).append(' ').append(e.getStudentId()).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Applies the enrollment events to a map of rosters, as a downstream system would.
+	 */
+	private static void apply(Map<Integer, TreeSet<Integer>> rosters, EnrollmentEvent e) {
+		switch(e.getType()) {
+			case COURSE_REGISTERED:
+				rosters.put(e.getCourseCode(), new TreeSet<>());
+				break;
+			case ENROLLED:
+				rosters.get(e.getCourseCode()).add(e.getStudentId());
+				break;
+			case CANCELLED:
+				rosters.get(e.getCourseCode()).remove(e.getStudentId());
+				break;
+			case COURSE_RESTARTED:
+				rosters.get(e.getCourseCode()).clear();
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Test
+	void testEventsInOrder() throws Exception {
+		man.registerCourse(1, "Course1", "Coordinator1", 1);
+		man.registerStudent(1, "Student1", "student1@gmail.com");
+		man.registerStudent(2, "Student2", "student2@gmail.com");
+		man.registerStudent(3, "Student3", "student3@gmail.com");
+		man.enroll(1, 1);
+		assertThrows(FullCourseException.class, () -> man.enroll(1, 2));
+		assertEquals(EnrollmentOutcome.COURSE_FULL, man.tryEnroll(1, 2));
+		man.enrollOrWaitlist(1, 2);
+		man.enrollOrWaitlist(1, 3);
+		man.leaveWaitlist(1, 3);
+		man.enrollOrWaitlist(1, 3);
+		man.cancelEnrollment(1, 1);
+		man.restartCourse(1);
+		List<EnrollmentEvent> events = subscription.poll(100);
+		assertEquals("COURSE_REGISTERED 1 0\n"
+				+ "STUDENT_REGISTERED 0 1\n"
+				+ "STUDENT_REGISTERED 0 2\n"
+				+ "STUDENT_REGISTERED 0 3\n"
+				+ "ENROLLED 1 1\n"
+				+ "WAITLISTED 1 2\n"
+				+ "WAITLISTED 1 3\n"
+				+ "LEFT_WAITLIST 1 3\n"
+				+ "WAITLISTED 1 3\n"
+				+ "CANCELLED 1 1\n"
+				+ "ENROLLED 1 2\n"
+				+ "COURSE_RESTARTED 1 0\n"
+				+ "ENROLLED 1 3\n", describe(events));
+		for(int i = 0; i < events.size(); i++) {
+			assertEquals(i, events.get(i).getSequence());
+		}
+		assertEquals(0, subscription.poll(100).size());
+		assertEquals(3, man.getStudentsEnrolledInCourse(1).get(0).getId());
+	}
+
+	@Test
+	void testScheduleConflictsLeaveTheWaitlist() throws Exception {
+		Timetable timetable = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 0));
+		man.registerCourse(1, "Course1", "Coordinator1", 1, timetable);
+		man.registerCourse(2, "Course2", "Coordinator2", 2, timetable);
+		for(int i = 1; i <= 3; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+		man.enroll(1, 1);
+		man.enrollOrWaitlist(1, 2);
+		man.enrollOrWaitlist(1, 3);
+		man.enroll(2, 2);
+		assertThrows(ScheduleConflictException.class, () -> man.enroll(2, 1));
+		subscription.poll(9);
+		man.cancelEnrollment(1, 1);
+		assertEquals("CANCELLED 1 1\n"
+				+ "LEFT_WAITLIST 1 2\n"
+				+ "ENROLLED 1 3\n", describe(subscription.poll(100)));
+	}
+
+	@Test
+	void testCompletedCoursesAndPrerequisites() throws Exception {
+		man.registerCourse(1, "Course1", "Coordinator1", 1);
+		man.registerCourse(2, "Course2", "Coordinator2", 1);
+		for(int i = 1; i <= 3; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+		man.enroll(1, 1);
+		man.enrollOrWaitlist(1, 2);
+		man.enrollOrWaitlist(1, 3);
+		subscription.poll(8);
+		man.completeCourse(2, 3);
+		man.addPrerequisite(1, 2);
+		man.cancelEnrollment(1, 1);
+		assertEquals("COURSE_COMPLETED 2 3\n"
+				+ "CANCELLED 1 1\n"
+				+ "LEFT_WAITLIST 1 2\n"
+				+ "ENROLLED 1 3\n", describe(subscription.poll(100)));
+	}
+
+	@Test
+	void testBatches() throws Exception {
+		man.registerCourse(1, "Course1", "Coordinator1", 2);
+		List<Student> students = new ArrayList<>();
+		for(int i = 1; i <= 3; i++) {
+			students.add(new Student(i, "Student" + i, "student" + i + "@gmail.com"));
+		}
+		students.add(new Student(1, "Student1", "other@gmail.com"));
+		man.registerStudents(students);
+		man.enrollAll(1, new int[] {3, 9, 1, 2});
+		assertEquals("COURSE_REGISTERED 1 0\n"
+				+ "STUDENT_REGISTERED 0 1\n"
+				+ "STUDENT_REGISTERED 0 2\n"
+				+ "STUDENT_REGISTERED 0 3\n"
+				+ "ENROLLED 1 3\n"
+				+ "ENROLLED 1 1\n", describe(subscription.poll(2 * 3)));
+	}
+
+	@Test
+	void testPollingAndOverrun() throws Exception {
+		EnrollmentChangeFeed feed = new EnrollmentChangeFeed(3);
+		assertEquals(4, feed.getCapacity());
+		EnrollmentChangeFeed.Subscription slow = feed.subscribe();
+		for(int i = 1; i <= 3; i++) {
+			feed.publish(EnrollmentEvent.Type.STUDENT_REGISTERED, 0, i);
+		}
+		assertEquals(2, slow.poll(2).size());
+		assertEquals(1, slow.getLag());
+		EnrollmentChangeFeed.Subscription resumed = feed.subscribe(slow.getPosition());
+		for(int i = 4; i <= 10; i++) {
+			feed.publish(EnrollmentEvent.Type.STUDENT_REGISTERED, 0, i);
+		}
+		FeedOverrunException e = assertThrows(FeedOverrunException.class, () -> slow.poll(10));
+		assertEquals(4, e.getMissed());
+		List<EnrollmentEvent> rest = slow.poll(10);
+		assertEquals(4, rest.size());
+		assertEquals(7, rest.get(0).getStudentId());
+		assertEquals(10, resumed.getLag() + 2);
+		assertThrows(FeedOverrunException.class, () -> resumed.poll(1));
+		assertThrows(IllegalArgumentException.class, () -> feed.subscribe(11));
+		assertThrows(IllegalArgumentException.class, () -> slow.poll(0));
+		assertThrows(IllegalArgumentException.class, () -> new EnrollmentChangeFeed(0));
+	}
+
+	@Test
+	void testConcurrentWritersAndReader() throws Exception {
+		ConcurrentEnrollmentManager inner = new ConcurrentEnrollmentManager();
+		inner.setLogVerbosity(LogVerbosity.QUIET);
+		ChangeFeedEnrollmentManager concurrent = new ChangeFeedEnrollmentManager(inner);
+		EnrollmentChangeFeed.Subscription reader = concurrent.getFeed().subscribe();
+		for(int c = 1; c <= 4; c++) {
+			concurrent.registerCourse(c, "Course" + c, "Coordinator" + c, 10);
+		}
+		for(int s = 1; s <= 40; s++) {
+			concurrent.registerStudent(s, "Student" + s, "student" + s + "@gmail.com");
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(5);
+		AtomicBoolean done = new AtomicBoolean();
+		Map<Integer, TreeSet<Integer>> rosters = new HashMap<>();
+		try {
+			Future<Long> consumer = pool.submit(() -> {
+				long expected = 0;
+				while(true) {
+					boolean finished = done.get();
+					for(EnrollmentEvent e : reader.poll(64)) {
+						assertEquals(expected++, e.getSequence());
+						apply(rosters, e);
+					}
+					if(finished && reader.getLag() == 0) {
+						return expected;
+					}
+				}
+			});
+			List<Future<?>> writers = new ArrayList<>();
+			for(int t = 0; t < 4; t++) {
+				int first = 1 + t * 10;
+				writers.add(pool.submit(() -> {
+					for(int round = 0; round < 200; round++) {
+						int course = 1 + round % 4;
+						int student = first + round % 10;
+						if(concurrent.tryEnroll(course, student) == EnrollmentOutcome.ALREADY_ENROLLED) {
+							concurrent.cancelEnrollment(course, student);
+						}
+					}
+					return null;
+				}));
+			}
+			for(Future<?> w : writers) {
+				w.get();
+			}
+			done.set(true);
+			assertEquals(concurrent.getFeed().getPublishedCount(), (long) consumer.get());
+		} finally {
+			pool.shutdown();
+		}
+		for(int c = 1; c <= 4; c++) {
+			TreeSet<Integer> actual = new TreeSet<>();
+			for(Student s : concurrent.getStudentsEnrolledInCourse(c)) {
+				actual.add(s.getId());
+			}
+			assertEquals(actual, rosters.get(c));
+			assertTrue(actual.size() <= 10);
+		}
+	}
+
+	@Test
+	void testCoursesChangeConcurrently() throws Exception {
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ConcurrentEnrollmentManager inner = new ConcurrentEnrollmentManager() {
+			@Override
+			public void enroll(int courseCode, int studentId) throws StudentAlreadyEnrolledException, FullCourseException, MissingPrerequisiteException, ScheduleConflictException, MissingStudentException, MissingCourseException {
+				if(courseCode == 1) {
+					entered.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				super.enroll(courseCode, studentId);
+			}
+		};
+		inner.setLogVerbosity(LogVerbosity.QUIET);
+		ChangeFeedEnrollmentManager concurrent = new ChangeFeedEnrollmentManager(inner);
+		EnrollmentChangeFeed.Subscription reader = concurrent.getFeed().subscribe();
+		concurrent.registerCourse(1, "Course1", "Coordinator1");
+		concurrent.registerCourse(2, "Course2", "Coordinator2");
+		concurrent.registerStudent(1, "Student1", "student1@gmail.com");
+		concurrent.registerStudent(2, "Student2", "student2@gmail.com");
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> slow = pool.submit(() -> {
+				concurrent.enroll(1, 1);
+				return null;
+			});
+			entered.await();
+			// The enrollment in course 1 is still being applied, and does not hold back course 2.
+			concurrent.enroll(2, 2);
+			release.countDown();
+			slow.get();
+		} finally {
+			release.countDown();
+			pool.shutdown();
+		}
+		assertEquals("COURSE_REGISTERED 1 0\nCOURSE_REGISTERED 2 0\nSTUDENT_REGISTERED 0 1\nSTUDENT_REGISTERED 0 2\n"
+				+ "ENROLLED 2 2\nENROLLED 1 1\n", describe(reader.poll(10)));
+	}
+}
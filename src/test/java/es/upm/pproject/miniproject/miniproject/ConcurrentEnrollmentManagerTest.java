@@ -0,0 +1,441 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentEnrollmentManagerTest {
+	private static final int THREADS = 8;
+	private static final int COURSES = 8;
+	private static final int STUDENTS = 120;
+
+	private ConcurrentEnrollmentManager man;
+	private ExecutorService pool;
+
+	@BeforeEach
+	void runBeforeEach() throws Exception {
+		man = new ConcurrentEnrollmentManager();
+		pool = Executors.newFixedThreadPool(THREADS);
+		for(int i = 1; i <= COURSES; i++) {
+			man.registerCourse(i, "Course" + i, "Coordinator" + i);
+		}
+		for(int i = 1; i <= STUDENTS; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+	}
+
+	@AfterEach
+	void runAfterEach() throws InterruptedException {
+		pool.shutdownNow();
+		pool.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Runs the same task on every thread of the pool, releasing all of them at the same time.
+	 */
+	private void runConcurrently(Callable<Void> task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> futures = new ArrayList<>();
+		for(int t = 0; t < THREADS; t++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				return task.call();
+			}));
+		}
+		start.countDown();
+		for(Future<Void> f : futures) {
+			f.get(60, TimeUnit.SECONDS);
+		}
+	}
+
+	private void assertRosterInvariants(List<Student> roster) {
+		assertTrue(roster.size() <= 50);
+		for(int i = 1; i < roster.size(); i++) {
+			assertTrue(roster.get(i - 1).getId() < roster.get(i).getId());
+		}
+	}
+
+	private static List<Integer> ids(List<Student> students) {
+		List<Integer> ids = new ArrayList<>();
+		for(Student s : students) {
+			ids.add(s.getId());
+		}
+		return ids;
+	}
+
+	private void assertIndexMatchesRosters() throws Exception {
+		int fromRosters = 0;
+		for(int course = 1; course <= COURSES; course++) {
+			for(Student s : man.getStudentsEnrolledInCourse(course)) {
+				boolean found = false;
+				for(Course c : man.getCoursesOfStudent(s.getId())) {
+					found |= c.getCode() == course;
+				}
+				assertTrue(found);
+				fromRosters++;
+			}
+		}
+		int fromIndex = 0;
+		for(int student = 1; student <= STUDENTS; student++) {
+			fromIndex += man.getCoursesOfStudent(student).size();
+		}
+		assertEquals(fromRosters, fromIndex);
+	}
+
+	@DisplayName ("Tests related to the sequential behaviour of the concurrent manager")
+	@Nested
+	class SequentialTests {
+		@Test
+		void testSameErrorsAsEnrollmentManager() {
+			assertThrows(CourseAlreadyExistsException.class, () -> man.registerCourse(1, "Course1", "Coordinator1"));
+			assertThrows(StudentAlreadyExistsException.class, () -> man.registerStudent(1, "Student1", "student1@gmail.com"));
+			assertThrows(MissingStudentException.class, () -> man.enroll(1, STUDENTS + 1));
+			assertThrows(MissingCourseException.class, () -> man.enroll(COURSES + 1, 1));
+			assertThrows(StudentNotEnrolledException.class, () -> man.cancelEnrollment(1, 1));
+			assertThrows(MissingCourseException.class, () -> man.restartCourse(COURSES + 1));
+		}
+
+		@Test
+		void testEnrollCancelRestart() throws Exception {
+			man.enroll(1, 3);
+			man.enroll(1, 1);
+			man.enroll(1, 2);
+			assertThrows(StudentAlreadyEnrolledException.class, () -> man.enroll(1, 2));
+			man.cancelEnrollment(1, 2);
+			assertEquals(2, man.getStudentsEnrolledInCourse(1).size());
+			assertEquals(3, man.getStudentsEnrolledInCourse(1).get(1).getId());
+			man.restartCourse(1);
+			assertEquals(0, man.getStudentsEnrolledInCourse(1).size());
+		}
+
+		@Test
+		void testTryEnroll() throws Exception {
+			assertEquals(EnrollmentOutcome.MISSING_STUDENT, man.tryEnroll(1, STUDENTS + 1));
+			assertEquals(EnrollmentOutcome.MISSING_COURSE, man.tryEnroll(COURSES + 1, 1));
+			assertEquals(EnrollmentOutcome.ENROLLED, man.tryEnroll(1, 1));
+			assertEquals(EnrollmentOutcome.ALREADY_ENROLLED, man.tryEnroll(1, 1));
+			assertEquals(1, man.getCoursesOfStudent(1).size());
+		}
+
+		@Test
+		void testPagesAndStreams() throws Exception {
+			man.enrollAll(1, new int[] {9, 3, 5, 7});
+			assertEquals(Arrays.asList(5, 7), ids(man.getStudentsEnrolledInCourse(1, 3, 2)));
+			assertEquals(Arrays.asList(101, 102), ids(man.getStudents(100, 2)));
+			assertEquals(COURSES, man.getCourses(COURSES - 1, 5).get(0).getCode());
+			assertEquals(STUDENTS, man.streamStudents().parallel().count());
+			assertEquals(24, man.streamStudentsEnrolledInCourse(1).parallel().mapToInt(Student::getId).sum());
+			assertThrows(IllegalArgumentException.class, () -> man.getStudents(0, 0));
+		}
+	}
+
+	@DisplayName ("Stress tests checking the invariants under concurrent access")
+	@Nested
+	class StressTests {
+		@Test
+		void testCapacityAndUniquenessUnderRace() throws Exception {
+			AtomicInteger successes = new AtomicInteger();
+			AtomicInteger seed = new AtomicInteger();
+			runConcurrently(() -> {
+				Random random = new Random(seed.incrementAndGet());
+				for(int attempt = 0; attempt < COURSES * STUDENTS; attempt++) {
+					int course = 1 + random.nextInt(COURSES);
+					int student = 1 + random.nextInt(STUDENTS);
+					try {
+						man.enroll(course, student);
+						successes.incrementAndGet();
+					} catch (FullCourseException | StudentAlreadyEnrolledException e) {
+						// Expected outcomes when several threads compete for the same seat.
+					}
+				}
+				return null;
+			});
+			int total = 0;
+			for(int course = 1; course <= COURSES; course++) {
+				List<Student> roster = man.getStudentsEnrolledInCourse(course);
+				assertRosterInvariants(roster);
+				total += roster.size();
+			}
+			assertEquals(successes.get(), total);
+		}
+
+		@Test
+		void testEveryCourseFillsExactlyOnce() throws Exception {
+			runConcurrently(() -> {
+				for(int course = 1; course <= COURSES; course++) {
+					for(int student = 1; student <= STUDENTS; student++) {
+						try {
+							man.enroll(course, student);
+						} catch (FullCourseException | StudentAlreadyEnrolledException e) {
+							// Expected outcomes when several threads compete for the same seat.
+						}
+					}
+				}
+				return null;
+			});
+			for(int course = 1; course <= COURSES; course++) {
+				List<Student> roster = man.getStudentsEnrolledInCourse(course);
+				assertRosterInvariants(roster);
+				assertEquals(50, roster.size());
+			}
+		}
+
+		@Test
+		void testTryEnrollUnderRace() throws Exception {
+			AtomicInteger enrolled = new AtomicInteger();
+			runConcurrently(() -> {
+				for(int course = 1; course <= COURSES; course++) {
+					for(int student = 1; student <= STUDENTS; student++) {
+						EnrollmentOutcome outcome = man.tryEnroll(course, student);
+						if(outcome == EnrollmentOutcome.ENROLLED) {
+							enrolled.incrementAndGet();
+						} else {
+							assertTrue(outcome == EnrollmentOutcome.COURSE_FULL || outcome == EnrollmentOutcome.ALREADY_ENROLLED);
+						}
+					}
+				}
+				return null;
+			});
+			assertEquals(50 * COURSES, enrolled.get());
+			for(int course = 1; course <= COURSES; course++) {
+				assertRosterInvariants(man.getStudentsEnrolledInCourse(course));
+			}
+		}
+
+		@Test
+		void testScheduleConflictsUnderRace() throws Exception {
+			Timetable timetable = Timetable.EMPTY.with(DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+			for(int course = COURSES + 1; course <= COURSES + THREADS; course++) {
+				man.registerCourse(course, "Course" + course, "Coordinator" + course, STUDENTS, timetable);
+			}
+			AtomicInteger next = new AtomicInteger();
+			runConcurrently(() -> {
+				// Every thread tries its own course first, so the threads race for the same students.
+				int first = next.getAndIncrement();
+				for(int student = 1; student <= STUDENTS; student++) {
+					for(int i = 0; i < THREADS; i++) {
+						int course = COURSES + 1 + (first + i) % THREADS;
+						if(student % 2 == 0) {
+							man.tryEnroll(course, student);
+						} else {
+							man.enrollAll(course, new int[] {student});
+						}
+					}
+				}
+				return null;
+			});
+			for(int student = 1; student <= STUDENTS; student++) {
+				assertEquals(1, man.getCoursesOfStudent(student).size());
+			}
+			int enrolled = 0;
+			for(int course = COURSES + 1; course <= COURSES + THREADS; course++) {
+				enrolled += man.getEnrollmentCount(course);
+			}
+			assertEquals(STUDENTS, enrolled);
+		}
+
+		@Test
+		void testPrerequisitesUnderRace() throws Exception {
+			man.registerCourse(COURSES + 1, "Thesis", "Coordinator", STUDENTS);
+			AtomicInteger next = new AtomicInteger();
+			runConcurrently(() -> {
+				// Every thread builds the same chain of prerequisites while its students complete the courses.
+				int thread = next.getAndIncrement();
+				for(int course = COURSES; course >= 1; course--) {
+					man.addPrerequisite(course + 1, course);
+				}
+				for(int student = 1 + thread; student <= STUDENTS; student += THREADS) {
+					for(int course = student % 2 == 0 ? 1 : 2; course <= COURSES; course++) {
+						man.completeCourse(course, student);
+					}
+					if(student % 3 == 0) {
+						man.tryEnroll(COURSES + 1, student);
+					} else {
+						man.enrollAll(COURSES + 1, new int[] {student});
+					}
+				}
+				return null;
+			});
+			List<Integer> expected = new ArrayList<>();
+			for(int student = 2; student <= STUDENTS; student += 2) {
+				expected.add(student);
+			}
+			assertEquals(expected, ids(man.getStudentsEnrolledInCourse(COURSES + 1)));
+			assertEquals(COURSES, man.getPrerequisites(COURSES + 1).get(0).getCode());
+			assertThrows(IllegalArgumentException.class, () -> man.addPrerequisite(1, COURSES + 1));
+		}
+
+		@Test
+		void testBatchesAndSingleEnrollmentsShareTheCapacity() throws Exception {
+			AtomicInteger seed = new AtomicInteger();
+			runConcurrently(() -> {
+				Random random = new Random(seed.incrementAndGet());
+				for(int course = 1; course <= COURSES; course++) {
+					if(random.nextBoolean()) {
+						int[] batch = new int[STUDENTS];
+						for(int i = 0; i < STUDENTS; i++) {
+							batch[i] = 1 + random.nextInt(STUDENTS);
+						}
+						man.enrollAll(course, batch);
+					} else {
+						for(int student = 1; student <= STUDENTS; student++) {
+							try {
+								man.enroll(course, student);
+							} catch (FullCourseException | StudentAlreadyEnrolledException e) {
+								// Expected outcomes when several threads compete for the same seat.
+							}
+						}
+					}
+				}
+				return null;
+			});
+			for(int course = 1; course <= COURSES; course++) {
+				assertRosterInvariants(man.getStudentsEnrolledInCourse(course));
+			}
+			assertIndexMatchesRosters();
+		}
+
+		@Test
+		void testEmailsStayUniqueUnderRace() throws Exception {
+			AtomicInteger nextId = new AtomicInteger(STUDENTS);
+			runConcurrently(() -> {
+				for(int i = 0; i < STUDENTS; i++) {
+					try {
+						man.registerStudent(nextId.incrementAndGet(), "Student", "new" + i + "@gmail.com");
+					} catch (StudentAlreadyExistsException e) {
+						// Expected when another thread has registered the same e-mail first.
+					}
+				}
+				return null;
+			});
+			assertEquals(2 * STUDENTS, man.getStudents().size());
+			for(int i = 0; i < STUDENTS; i++) {
+				assertEquals("new" + i + "@gmail.com", man.findStudentByEmail("new" + i + "@gmail.com").getEmailAddress());
+			}
+		}
+
+		@Test
+		void testWaitlistChurn() throws Exception {
+			man.registerCourse(COURSES + 1, "Seminar", "Coordinator", 5);
+			int seminar = COURSES + 1;
+			AtomicInteger seed = new AtomicInteger();
+			runConcurrently(() -> {
+				Random random = new Random(seed.incrementAndGet());
+				for(int attempt = 0; attempt < COURSES * STUDENTS; attempt++) {
+					int student = 1 + random.nextInt(STUDENTS);
+					try {
+						switch(random.nextInt(3)) {
+							case 0:
+								man.enrollOrWaitlist(seminar, student);
+								break;
+							case 1:
+								man.cancelEnrollment(seminar, student);
+								break;
+							default:
+								man.leaveWaitlist(seminar, student);
+								break;
+						}
+					} catch (StudentAlreadyEnrolledException | StudentNotEnrolledException e) {
+						// Expected outcomes when several threads work on the same course.
+					}
+				}
+				return null;
+			});
+			List<Student> roster = man.getStudentsEnrolledInCourse(seminar);
+			List<Student> waitlist = man.getWaitlist(seminar);
+			assertTrue(roster.size() <= 5);
+			assertTrue(waitlist.isEmpty() || roster.size() == 5);
+			List<Integer> enrolled = new ArrayList<>();
+			for(Student s : roster) {
+				enrolled.add(s.getId());
+			}
+			for(Student s : waitlist) {
+				assertTrue(!enrolled.contains(s.getId()));
+			}
+			int fromIndex = 0;
+			for(int student = 1; student <= STUDENTS; student++) {
+				fromIndex += man.getCoursesOfStudent(student).size();
+			}
+			assertEquals(roster.size(), fromIndex);
+		}
+
+		@Test
+		void testReadersSeeConsistentVersions() throws Exception {
+			AtomicInteger seed = new AtomicInteger();
+			AtomicInteger reads = new AtomicInteger();
+			runConcurrently(() -> {
+				int thread = seed.incrementAndGet();
+				Random random = new Random(thread);
+				for(int attempt = 0; attempt < COURSES * STUDENTS; attempt++) {
+					int course = 1 + random.nextInt(COURSES);
+					if(thread % 2 == 0) {
+						List<Student> roster = man.getStudentsEnrolledInCourse(course);
+						int size = roster.size();
+						assertRosterInvariants(roster);
+						assertEquals(size, roster.size());
+						reads.incrementAndGet();
+						continue;
+					}
+					int student = 1 + random.nextInt(STUDENTS);
+					try {
+						if(random.nextBoolean()) {
+							man.enroll(course, student);
+						} else {
+							man.cancelEnrollment(course, student);
+						}
+					} catch (FullCourseException | StudentAlreadyEnrolledException | StudentNotEnrolledException e) {
+						// Expected outcomes when several threads work on the same roster.
+					}
+				}
+				return null;
+			});
+			assertEquals(THREADS / 2 * COURSES * STUDENTS, reads.get());
+			assertIndexMatchesRosters();
+		}
+
+		@Test
+		void testEnrollCancelChurn() throws Exception {
+			AtomicInteger seed = new AtomicInteger();
+			runConcurrently(() -> {
+				Random random = new Random(seed.incrementAndGet());
+				for(int attempt = 0; attempt < COURSES * STUDENTS; attempt++) {
+					int course = 1 + random.nextInt(COURSES);
+					int student = 1 + random.nextInt(STUDENTS);
+					try {
+						if(random.nextBoolean()) {
+							man.enroll(course, student);
+						} else {
+							man.cancelEnrollment(course, student);
+						}
+					} catch (FullCourseException | StudentAlreadyEnrolledException | StudentNotEnrolledException e) {
+						// Expected outcomes when several threads work on the same roster.
+					}
+				}
+				return null;
+			});
+			for(int course = 1; course <= COURSES; course++) {
+				assertRosterInvariants(man.getStudentsEnrolledInCourse(course));
+			}
+			assertIndexMatchesRosters();
+		}
+	}
+}
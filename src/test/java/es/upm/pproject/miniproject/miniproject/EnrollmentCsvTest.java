@@ -0,0 +1,157 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EnrollmentCsvTest {
+	@TempDir
+	Path dir;
+
+	private EnrollmentManager man;
+
+	@BeforeEach
+	void runBeforeEach() {
+		man = new EnrollmentManager();
+		man.setLogVerbosity(LogVerbosity.QUIET);
+	}
+
+	private Path write(String name, String text) throws Exception {
+		return Files.write(dir.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static List<Integer> ids(List<Student> students) {
+		List<Integer> ids = new ArrayList<>();
+		for(Student student : students) {
+			ids.add(student.getId());
+		}
+		return ids;
+	}
+
+	@Test
+	void testRoundTrip() throws Exception {
+		man.registerCourse(1, "Course, \"One\"", "Coordinator1", 2);
+		man.registerCourse(2, "Cálculo", "Coordinadora Núñez");
+		man.registerStudent(1, "Student1", "student1@gmail.com");
+		man.registerStudent(2, "Ana María", "ana@gmail.com");
+		man.registerStudent(3, "Student3", "student3@gmail.com");
+		man.enroll(1, 3);
+		man.enroll(1, 1);
+		man.enroll(2, 2);
+		assertEquals(3, EnrollmentCsv.exportStudents(man, dir.resolve("students.csv")));
+		assertEquals(2, EnrollmentCsv.exportCourses(man, dir.resolve("courses.csv")));
+		assertEquals(3, EnrollmentCsv.exportEnrollments(man, dir.resolve("enrollments.csv")));
+
+		EnrollmentManager copy = new EnrollmentManager();
+		copy.setLogVerbosity(LogVerbosity.SUMMARY);
+		assertEquals(0, EnrollmentCsv.importCourses(dir.resolve("courses.csv"), copy).getFailureCount());
+		assertEquals(0, EnrollmentCsv.importStudents(dir.resolve("students.csv"), copy).getFailureCount());
+		assertEquals(0, EnrollmentCsv.importEnrollments(dir.resolve("enrollments.csv"), copy).getFailureCount());
+		assertEquals(LogVerbosity.SUMMARY, copy.getLogVerbosity());
+		Course course = copy.getCourses(0, 1).get(0);
+		assertEquals("Course, \"One\"", course.getName());
+		assertEquals(2, course.getCapacity());
+		assertEquals("Coordinadora Núñez", copy.getCourses(1, 1).get(0).getCoordinator());
+		assertEquals("Ana María", copy.findStudentByEmail("ana@gmail.com").getName());
+		assertEquals(Arrays.asList(1, 3), ids(copy.getStudentsEnrolledInCourse(1)));
+		assertEquals(Arrays.asList(2), ids(copy.getStudentsEnrolledInCourse(2)));
+	}
+
+	@Test
+	void testBadRecordsAreReported() throws Exception {
+		Path students = write("students.csv", "id,name,email\r\n"
+				+ "1,Student1,student1@gmail.com\r\n"
+				+ "\r\n"
+				+ "2,Student2\r\n"
+				+ "3, ,student3@gmail.com\r\n"
+				+ "4,Student4,student4.gmail.com\r\n"
+				+ "x,Student5,student5@gmail.com\r\n"
+				+ "99999999999,Student6,student6@gmail.com\r\n"
+				+ "1,Student7,student7@gmail.com\r\n"
+				+ " 8 ,\"Student, 8\",student8@gmail.com");
+		EnrollmentCsv.ImportReport report = EnrollmentCsv.importStudents(students, man);
+		assertEquals(8, report.size());
+		assertEquals(Arrays.asList(4, 5, 6, 7, 8, 9), new ArrayList<>(report.getFailuresByLine().keySet()));
+		assertEquals(10, report.getLine(7));
+		assertEquals(2, report.getSuccessCount());
+		assertTrue(report.getFailure(1) instanceof IllegalArgumentException);
+		assertTrue(report.getFailure(2) instanceof StudentBlankInputException);
+		assertTrue(report.getFailure(3) instanceof EmailFormatException);
+		assertTrue(report.getFailure(4) instanceof IllegalArgumentException);
+		assertTrue(report.getFailure(5) instanceof IllegalArgumentException);
+		assertTrue(report.getFailure(6) instanceof StudentAlreadyExistsException);
+		assertEquals("Student, 8", man.findStudentByEmail("student8@gmail.com").getName());
+
+		Path courses = write("courses.csv", "1,Course1,Coordinator1,1\n2,Course2,Coordinator2,\n3,Course3,Coordinator3,0\n1,Course1,Coordinator1,5\n");
+		report = EnrollmentCsv.importCourses(courses, man);
+		assertEquals(Arrays.asList(2, 3), new ArrayList<>(report.getFailures().keySet()));
+		assertEquals(Arrays.asList(3, 4), new ArrayList<>(report.getFailuresByLine().keySet()));
+		assertTrue(report.getFailure(2) instanceof CourseBlankInputException);
+		assertTrue(report.getFailure(3) instanceof CourseAlreadyExistsException);
+		assertEquals(Course.DEFAULT_CAPACITY, man.getCourses(1, 1).get(0).getCapacity());
+
+		Path enrollments = write("enrollments.csv", "course,student\n1,8\n1,1\n9,1\n2,7\n2,1\n2,1\n");
+		report = EnrollmentCsv.importEnrollments(enrollments, man);
+		assertEquals(Arrays.asList(1, 2, 3, 5), new ArrayList<>(report.getFailures().keySet()));
+		assertTrue(report.getFailure(1) instanceof FullCourseException);
+		assertTrue(report.getFailure(2) instanceof MissingCourseException);
+		assertTrue(report.getFailure(3) instanceof MissingStudentException);
+		assertTrue(report.getFailure(5) instanceof StudentAlreadyEnrolledException);
+		assertEquals(Arrays.asList(8), ids(man.getStudentsEnrolledInCourse(1)));
+		assertEquals(Arrays.asList(1), ids(man.getStudentsEnrolledInCourse(2)));
+	}
+
+	@Test
+	void testChunksAreParsedInOrder() throws Exception {
+		StringBuilder csv = new StringBuilder("id,name,email\n");
+		for(int i = 1; i <= 20_000; i++) {
+			if(i % 1000 == 0) {
+				csv.append(i).append(",Student").append(i).append('\n');
+			} else {
+				csv.append(i).append(",Student").append(i).append(",student").append(i).append("@gmail.com\n");
+			}
+		}
+		EnrollmentCsv.ImportReport report = EnrollmentCsv.importStudents(write("students.csv", csv.toString()), man, 4096);
+		assertEquals(20_000, report.size());
+		assertEquals(20, report.getFailureCount());
+		for(int index : report.getFailures().keySet()) {
+			assertEquals(999, index % 1000);
+		}
+		for(int index = 0; index < report.size(); index++) {
+			assertEquals(index + 2, report.getLine(index));
+		}
+		assertEquals(19_980, man.getStudents().size());
+		assertEquals(19_999, man.findStudentByEmail("student19999@gmail.com").getId());
+		assertThrows(IOException.class, () -> EnrollmentCsv.importStudents(dir.resolve("missing.csv"), man));
+	}
+
+	@Test
+	void testMalformedFirstRowIsReported() throws Exception {
+		EnrollmentCsv.ImportReport report = EnrollmentCsv.importStudents(write("students.csv", "x,Student1,student1@gmail.com\n2,Student2,student2@gmail.com\n"), man);
+		assertEquals(2, report.size());
+		assertTrue(report.getFailure(0) instanceof IllegalArgumentException);
+		assertEquals(1, report.getLine(0));
+
+		report = EnrollmentCsv.importStudents(write("header.csv", " ID , Name ,\"EMAIL\"\r\n3,Student3,student3@gmail.com\r\n"), man);
+		assertEquals(1, report.size());
+		assertEquals(2, report.getLine(0));
+		assertEquals(Arrays.asList(2, 3), ids(new ArrayList<>(man.getStudents())));
+	}
+
+	@Test
+	void testLineBreaksAreNotExported() throws Exception {
+		man.registerCourse(1, "Course\n1", "Coordinator1", 10);
+		assertThrows(IOException.class, () -> EnrollmentCsv.exportCourses(man, dir.resolve("courses.csv")));
+	}
+}
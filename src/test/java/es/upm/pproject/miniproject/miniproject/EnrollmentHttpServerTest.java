@@ -0,0 +1,229 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EnrollmentHttpServerTest {
+	private ConcurrentEnrollmentManager man;
+	private EnrollmentHttpServer server;
+
+	private int status;
+	private String response;
+
+	@BeforeEach
+	void runBeforeEach() throws Exception {
+		man = new ConcurrentEnrollmentManager();
+		man.setLogVerbosity(LogVerbosity.QUIET);
+		EnrollmentHttpServer.enableNoDelay();
+		server = EnrollmentHttpServer.start(man, 0);
+	}
+
+	@AfterEach
+	void runAfterEach() throws Exception {
+		server.close();
+	}
+
+	private Object send(String method, String path, String body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+		connection.setRequestMethod(method);
+		if(body != null) {
+			connection.setDoOutput(true);
+			try(OutputStream out = connection.getOutputStream()) {
+				out.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		status = connection.getResponseCode();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+		if(in != null) {
+			try(InputStream response = in) {
+				byte[] chunk = new byte[4096];
+				for(int read = response.read(chunk); read >= 0; read = response.read(chunk)) {
+					bytes.write(chunk, 0, read);
+				}
+			}
+		}
+		response = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		return response.isEmpty() ? null : Json.parse(response);
+	}
+
+	private static List<Long> ids(Object list, String member) {
+		List<Long> ids = new ArrayList<>();
+		for(Object item : (List<?>) list) {
+			ids.add((Long) ((Map<?, ?>) item).get(member));
+		}
+		return ids;
+	}
+
+	private String error(Object body) {
+		return (String) ((Map<?, ?>) body).get("error");
+	}
+
+	@Test
+	void testRegisterAndEnroll() throws Exception {
+		send("POST", "/courses", "{\"code\": 1, \"name\": \"Course1\", \"coordinator\": \"Coordinator1\", \"capacity\": 2}");
+		assertEquals(201, status);
+		send("POST", "/courses", "{\"code\": 2, \"name\": \"Course2\", \"coordinator\": \"Coordinator2\","
+				+ " \"timetable\": [{\"day\": \"MONDAY\", \"start\": \"09:00\", \"end\": \"11:00\"}]}");
+		assertEquals(201, status);
+		assertEquals(Course.DEFAULT_CAPACITY, man.getCourses(1, 1).get(0).getCapacity());
+		assertTrue(!man.getCourses(1, 1).get(0).getTimetable().isEmpty());
+		Object report = send("POST", "/students", "[{\"id\": 1, \"name\": \"Student1\", \"email\": \"student1@gmail.com\"},"
+				+ " {\"id\": 2, \"name\": \"Student2\", \"email\": \"student2@gmail.com\"},"
+				+ " {\"id\": 3, \"name\": \"Student3\", \"email\": \"student3@gmail.com\"},"
+				+ " {\"id\": 3, \"name\": \"Student3\", \"email\": \"other@gmail.com\"}]");
+		assertEquals(200, status);
+		assertEquals(3L, ((Map<?, ?>) report).get("succeeded"));
+		assertEquals(Arrays.asList(3L), ids(((Map<?, ?>) report).get("failures"), "index"));
+		send("POST", "/students", "{\"id\": 4, \"name\": \"Student \\\"4\\\"\", \"email\": \"student4@gmail.com\"}");
+		assertEquals(201, status);
+
+		send("POST", "/courses/1/enrollments", "{\"student\": 2}");
+		assertEquals(204, status);
+		report = send("POST", "/courses/1/enrollments", "{\"students\": [1, 2, 9]}");
+		assertEquals(1L, ((Map<?, ?>) report).get("succeeded"));
+		assertEquals(Arrays.asList(1L, 2L), ids(send("GET", "/courses/1/enrollments", null), "id"));
+		assertEquals(Arrays.asList(2L), ids(send("GET", "/courses/1/enrollments?after=1&limit=5", null), "id"));
+		assertEquals(2L, ((Map<?, ?>) send("GET", "/courses/1/enrollments/count", null)).get("count"));
+		assertEquals("COURSE_FULL", ((Map<?, ?>) send("POST", "/courses/1/enrollments?mode=try", "{\"student\": 3}")).get("outcome"));
+		assertEquals(false, ((Map<?, ?>) send("POST", "/courses/1/waitlist", "{\"student\": 4}")).get("enrolled"));
+		assertEquals(Arrays.asList(4L), ids(send("GET", "/courses/1/waitlist", null), "id"));
+		send("DELETE", "/courses/1/enrollments/1", null);
+		assertEquals(204, status);
+		assertEquals(Arrays.asList(2L, 4L), ids(send("GET", "/courses/1/enrollments", null), "id"));
+		assertEquals(Arrays.asList(1L), ids(send("GET", "/students/4/courses", null), "code"));
+		Object found = send("GET", "/students?email=STUDENT4@gmail.com", null);
+		assertEquals("Student \"4\"", ((Map<?, ?>) found).get("name"));
+		assertEquals(Arrays.asList(2L, 3L), ids(send("GET", "/students?after=1&limit=2", null), "id"));
+		assertEquals(Arrays.asList(1L, 2L), ids(send("GET", "/courses", null), "code"));
+
+		send("POST", "/courses/1/completions", "{\"student\": 3}");
+		assertEquals(204, status);
+		send("POST", "/courses/2/prerequisites", "{\"course\": 1}");
+		assertEquals(204, status);
+		assertEquals(Arrays.asList(1L), ids(send("GET", "/courses/2/prerequisites", null), "code"));
+		assertEquals(Arrays.asList(1L), ids(send("GET", "/students/3/completions", null), "code"));
+		send("POST", "/courses/1/restart", null);
+		assertEquals(0, man.getEnrollmentCount(1));
+		send("PUT", "/verbosity", "{\"verbosity\": \"SUMMARY\"}");
+		assertEquals(204, status);
+		assertEquals(LogVerbosity.SUMMARY, man.getLogVerbosity());
+	}
+
+	@Test
+	void testErrors() throws Exception {
+		man.registerCourse(1, "Course1", "Coordinator1", 2);
+		man.registerStudent(1, "Student1", "student1@gmail.com");
+		man.registerStudent(2, "Student2", "student2@gmail.com");
+		man.registerStudent(3, "Student3", "student3@gmail.com");
+		assertEquals("MissingCourseException", error(send("GET", "/courses/9/enrollments", null)));
+		assertEquals(404, status);
+		assertEquals("MissingStudentException", error(send("POST", "/courses/1/enrollments", "{\"student\": 9}")));
+		assertEquals(404, status);
+		send("POST", "/courses/1/enrollments", "{\"student\": 1}");
+		assertEquals("StudentAlreadyEnrolledException", error(send("POST", "/courses/1/enrollments", "{\"student\": 1}")));
+		assertEquals(409, status);
+		send("POST", "/courses/1/enrollments", "{\"student\": 2}");
+		assertEquals("FullCourseException", error(send("POST", "/courses/1/enrollments", "{\"student\": 3}")));
+		assertEquals(409, status);
+		assertEquals("StudentNotEnrolledException", error(send("DELETE", "/courses/1/enrollments/3", null)));
+		assertEquals(404, status);
+		assertEquals("CourseAlreadyExistsException", error(send("POST", "/courses", "{\"code\": 1, \"name\": \"C\", \"coordinator\": \"D\"}")));
+		assertEquals(409, status);
+		assertEquals("EmailFormatException", error(send("POST", "/students", "{\"id\": 3, \"name\": \"S\", \"email\": \"nope\"}")));
+		assertEquals(400, status);
+		assertEquals("IllegalArgumentException", error(send("POST", "/courses/1/enrollments", "{\"student\": ")));
+		assertEquals(400, status);
+		assertEquals("IllegalArgumentException", error(send("POST", "/courses/1/enrollments", "{\"student\": \"1\"}")));
+		assertEquals(400, status);
+		assertEquals("IllegalArgumentException", error(send("GET", "/courses/one/enrollments", null)));
+		assertEquals(400, status);
+		send("GET", "/teachers", null);
+		assertEquals(404, status);
+		send("DELETE", "/courses", null);
+		assertEquals(405, status);
+		server.setMaxBodySize(32);
+		assertEquals("PayloadTooLargeException", error(send("POST", "/students", "{\"id\": 4, \"name\": \"Student4\", \"email\": \"student4@gmail.com\"}")));
+		assertEquals(413, status);
+		assertEquals(3, man.getStudents().size());
+		assertThrows(IllegalArgumentException.class, () -> server.setMaxBodySize(0));
+		server.setMaxBodySize(EnrollmentHttpServer.DEFAULT_MAX_BODY_SIZE);
+		StringBuilder nested = new StringBuilder();
+		for(int i = 0; i < 200_000; i++) {
+			nested.append('[');
+		}
+		assertEquals("IllegalArgumentException", error(send("POST", "/students", nested.toString())));
+		assertEquals(400, status);
+	}
+
+	@Test
+	void testLargeRosterIsStreamed() throws Exception {
+		man.registerCourse(1, "Course1", "Coordinator1", 5000);
+		int[] ids = new int[5000];
+		for(int i = 1; i <= ids.length; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+			ids[i - 1] = i;
+		}
+		man.enrollAll(1, ids);
+		List<Long> roster = ids(send("GET", "/courses/1/enrollments", null), "id");
+		assertEquals(5000, roster.size());
+		assertEquals(Long.valueOf(5000), roster.get(4999));
+	}
+
+	@Test
+	void testJson() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		Json.Writer json = new Json.Writer(sb);
+		json.beginObject().name("a").value("x\"\\\n\u0001").name("b").beginArray().value(1).value(true).value((String) null).endArray()
+			.name("c").beginObject().endObject().endObject();
+		Map<?, ?> parsed = (Map<?, ?>) Json.parse(sb.toString());
+		assertEquals("x\"\\\n\u0001", parsed.get("a"));
+		assertEquals(Arrays.asList(1L, true, null), parsed.get("b"));
+		assertTrue(((Map<?, ?>) parsed.get("c")).isEmpty());
+		assertEquals(Arrays.asList(-1.5e3, "\u00e9"), Json.parse(" [ -1.5e3 , \"\\u00e9\" ] "));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("[1, 2"));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": 1} x"));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("{a: 1}"));
+		StringBuilder deepest = new StringBuilder();
+		for(int i = 0; i < Json.MAX_DEPTH; i++) {
+			deepest.insert(0, i % 2 == 0 ? "[" : "{\"a\": ").append(i % 2 == 0 ? "]" : "}");
+		}
+		Json.parse(deepest.toString());
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("[" + deepest + "]"));
+	}
+
+	@Test
+	void testLoadGenerator() throws Exception {
+		EnrollmentLoadGenerator generator = new EnrollmentLoadGenerator("http://localhost:" + server.getPort() + "/", 5, 50, 10);
+		generator.prepare();
+		generator.prepare();
+		EnrollmentLoadGenerator.Report report = generator.run(4, 50, 50, 25, 7);
+		assertEquals(200, report.getCount());
+		for(EnrollmentLoadGenerator.Operation operation : EnrollmentLoadGenerator.Operation.values()) {
+			assertEquals(0, report.getErrors(operation));
+			assertTrue(report.getLatencies(operation).getCount() > 0);
+		}
+		assertTrue(report.getThroughput() > 0);
+		assertTrue(report.toString().contains("throughput"));
+		for(int code = 1; code <= 5; code++) {
+			assertTrue(man.getEnrollmentCount(code) <= 10);
+		}
+		assertThrows(IllegalArgumentException.class, () -> generator.run(1, 1, 80, 30, 0));
+	}
+}
@@ -0,0 +1,123 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EnrollmentPipelineTest {
+	private ConcurrentEnrollmentManager man;
+
+	@BeforeEach
+	void runBeforeEach() throws Exception {
+		man = new ConcurrentEnrollmentManager();
+		man.setLogVerbosity(LogVerbosity.QUIET);
+		man.registerCourse(1, "Course1", "Coordinator1", 50);
+		man.registerCourse(2, "Course2", "Coordinator2", 1);
+		for(int i = 1; i <= 200; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+	}
+
+	@Test
+	void testOutcomes() throws Exception {
+		try(EnrollmentPipeline pipeline = new EnrollmentPipeline(man)) {
+			assertEquals(EnrollmentOutcome.ENROLLED, pipeline.enroll(2, 1).get());
+			assertEquals(EnrollmentOutcome.ALREADY_ENROLLED, pipeline.enroll(2, 1).get());
+			assertEquals(EnrollmentOutcome.COURSE_FULL, pipeline.enroll(2, 2).get());
+			assertEquals(EnrollmentOutcome.MISSING_STUDENT, pipeline.enroll(2, 201).get());
+			assertEquals(EnrollmentOutcome.MISSING_COURSE, pipeline.enroll(3, 1).get());
+		}
+		assertEquals(1, man.getStudentsEnrolledInCourse(2).get(0).getId());
+	}
+
+	@Test
+	void testBatchesAndCoalescing() throws Exception {
+		Queue<Runnable> tasks = new ArrayDeque<>();
+		EnrollmentPipeline pipeline = new EnrollmentPipeline(man, tasks::add, 4);
+		List<CompletableFuture<EnrollmentOutcome>> futures = new ArrayList<>();
+		for(int i = 10; i >= 1; i--) {
+			futures.add(pipeline.enroll(1, i));
+		}
+		assertSame(futures.get(0), pipeline.enroll(1, 10));
+		assertEquals(1, pipeline.getCoalescedCount());
+		assertEquals(1, tasks.size());
+		while(!tasks.isEmpty()) {
+			tasks.poll().run();
+		}
+		assertEquals(3, pipeline.getBatchCount());
+		for(CompletableFuture<EnrollmentOutcome> future : futures) {
+			assertEquals(EnrollmentOutcome.ENROLLED, future.getNow(null));
+		}
+		assertEquals(10, man.getEnrollmentCount(1));
+		assertEquals(1, man.getStudentsEnrolledInCourse(1).get(0).getId());
+	}
+
+	@Test
+	void testHotCourse() throws Exception {
+		ExecutorService clients = Executors.newFixedThreadPool(8);
+		try(EnrollmentPipeline pipeline = new EnrollmentPipeline(man)) {
+			List<Future<List<CompletableFuture<EnrollmentOutcome>>>> submitted = new ArrayList<>();
+			for(int t = 0; t < 8; t++) {
+				submitted.add(clients.submit(() -> {
+					List<CompletableFuture<EnrollmentOutcome>> outcomes = new ArrayList<>();
+					for(int student = 1; student <= 200; student++) {
+						outcomes.add(pipeline.enroll(1, student));
+					}
+					return outcomes;
+				}));
+			}
+			// Coalesced callers share a future, which must only be counted once.
+			Set<CompletableFuture<EnrollmentOutcome>> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+			for(Future<List<CompletableFuture<EnrollmentOutcome>>> f : submitted) {
+				distinct.addAll(f.get());
+			}
+			int enrolled = 0;
+			for(CompletableFuture<EnrollmentOutcome> outcome : distinct) {
+				EnrollmentOutcome o = outcome.get();
+				assertTrue(o == EnrollmentOutcome.ENROLLED || o == EnrollmentOutcome.COURSE_FULL || o == EnrollmentOutcome.ALREADY_ENROLLED);
+				if(o == EnrollmentOutcome.ENROLLED) {
+					enrolled++;
+				}
+			}
+			assertEquals(50, enrolled);
+			assertEquals(8 * 200, distinct.size() + pipeline.getCoalescedCount());
+		} finally {
+			clients.shutdown();
+		}
+		List<Student> roster = man.getStudentsEnrolledInCourse(1);
+		assertEquals(50, roster.size());
+		for(int i = 1; i < roster.size(); i++) {
+			assertTrue(roster.get(i - 1).getId() < roster.get(i).getId());
+		}
+	}
+
+	@Test
+	void testClosed() throws Exception {
+		EnrollmentPipeline pipeline = new EnrollmentPipeline(man);
+		CompletableFuture<EnrollmentOutcome> accepted = pipeline.enroll(1, 1);
+		pipeline.close();
+		assertTrue(accepted.isDone());
+		CompletableFuture<EnrollmentOutcome> rejected = pipeline.enroll(1, 2);
+		ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+		assertTrue(e.getCause() instanceof IllegalStateException);
+		assertFalse(man.getCoursesOfStudent(2).size() > 0);
+		assertThrows(IllegalArgumentException.class, () -> new EnrollmentPipeline(man, Runnable::run, 0));
+	}
+}
@@ -0,0 +1,104 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EnrollmentReportTest {
+	private EnrollmentManager man;
+
+	@BeforeEach
+	void runBeforeEach() throws Exception {
+		man = new EnrollmentManager();
+		man.setLogVerbosity(LogVerbosity.SUMMARY);
+		man.registerCourse(1, "Course1", "Coordinator A", 4);
+		man.registerCourse(2, "Course2", "Coordinator B", 2);
+		man.registerCourse(3, "Course3", "Coordinator A");
+		for(int i = 1; i <= 6; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+		man.enrollAll(1, new int[] {1, 2, 3});
+		man.enrollAll(2, new int[] {1, 2});
+		man.enroll(3, 1);
+	}
+
+	private static void assertExpected(EnrollmentReport report) {
+		assertEquals(0.75, report.getFillRates().get(1));
+		assertEquals(1.0, report.getFillRates().get(2));
+		assertEquals(0.02, report.getFillRates().get(3));
+		assertEquals(6.0 / 56, report.getOverallFillRate());
+		assertEquals(2, (int) report.getCoursesPerCoordinator().get("Coordinator A"));
+		assertEquals(1, (int) report.getCoursesPerCoordinator().get("Coordinator B"));
+		assertArrayEquals(new int[] {0, 1, 1, 1}, report.getRosterSizeHistogram());
+		assertArrayEquals(new int[] {3, 1, 1, 1}, report.getCoursesPerStudentHistogram());
+		assertEquals(6, report.getEnrollmentCount());
+		assertEquals(3, report.getStudentsWithoutEnrollments().size());
+		assertEquals(4, report.getStudentsWithoutEnrollments().get(0).getId());
+		assertEquals(6, report.getStudentsWithoutEnrollments().get(2).getId());
+	}
+
+	@Test
+	void testReport() {
+		assertExpected(EnrollmentReport.of(man));
+		assertEquals(LogVerbosity.SUMMARY, man.getLogVerbosity());
+	}
+
+	@Test
+	void testReportOfConcurrentManagerOnOwnPool() throws Exception {
+		ConcurrentEnrollmentManager concurrent = new ConcurrentEnrollmentManager();
+		for(Course c : man.getCourses()) {
+			concurrent.registerCourse(c.getCode(), c.getName(), c.getCoordinator(), c.getCapacity());
+		}
+		concurrent.registerStudents(man.getStudents());
+		for(Course c : man.getCourses()) {
+			for(Student s : man.getStudentsEnrolledInCourse(c.getCode())) {
+				concurrent.enroll(c.getCode(), s.getId());
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			assertExpected(EnrollmentReport.of(concurrent, pool));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void testEmptyManager() {
+		EnrollmentReport report = EnrollmentReport.of(new ConcurrentEnrollmentManager());
+		assertEquals(0, report.getFillRates().size());
+		assertEquals(0.0, report.getOverallFillRate());
+		assertEquals(0, report.getRosterSizeHistogram().length);
+		assertEquals(0, report.getStudentsWithoutEnrollments().size());
+	}
+
+	@Test
+	void testMillionEnrollments() throws Exception {
+		EnrollmentManager large = new EnrollmentManager();
+		large.setLogVerbosity(LogVerbosity.QUIET);
+		int courses = 20000;
+		int students = 200000;
+		for(int c = 1; c <= courses; c++) {
+			large.registerCourse(c, "Course" + c, "Coordinator" + (c % 100));
+		}
+		for(int s = 1; s <= students; s++) {
+			large.registerStudent(s, "Student" + s, "student" + s + "@gmail.com");
+		}
+		int[] batch = new int[50];
+		for(int c = 1; c <= courses; c++) {
+			for(int i = 0; i < batch.length; i++) {
+				batch[i] = 1 + (int) (((long) c * 50 + i) % (students - 1000));
+			}
+			large.enrollAll(c, batch);
+		}
+		EnrollmentReport report = EnrollmentReport.of(large);
+		assertEquals(1000000, report.getEnrollmentCount());
+		assertEquals(1.0, report.getOverallFillRate());
+		assertEquals(1000, report.getStudentsWithoutEnrollments().size());
+		assertEquals(students - 1000 + 1, report.getStudentsWithoutEnrollments().get(0).getId());
+		assertEquals(200, (int) report.getCoursesPerCoordinator().get("Coordinator7"));
+	}
+}
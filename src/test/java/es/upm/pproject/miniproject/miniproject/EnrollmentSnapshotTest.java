@@ -0,0 +1,200 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EnrollmentSnapshotTest {
+	@TempDir
+	Path dir;
+
+	private EnrollmentManager man;
+
+	@BeforeEach
+	void runBeforeEach() throws Exception {
+		man = new EnrollmentManager();
+		man.setLogVerbosity(LogVerbosity.SUMMARY);
+		man.registerCourse(2, "Course2", "Coordinator2");
+		man.registerCourse(1, "Cálculo I", "Coordinadora Ñ");
+		man.registerCourse(3, "Course3", "Coordinator3");
+		for(int i = 1; i <= 60; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+		for(int i = 1; i <= 50; i++) {
+			man.enroll(1, i);
+		}
+		man.enroll(2, 60);
+		man.enroll(2, 7);
+	}
+
+	private static List<Integer> ids(List<Student> students) {
+		List<Integer> ids = new ArrayList<>();
+		for(Student s : students) {
+			ids.add(s.getId());
+		}
+		return ids;
+	}
+
+	private void assertSameState(InterfaceEnrollmentManager restored) throws Exception {
+		assertEquals(man.getCourses().size(), restored.getCourses().size());
+		assertEquals(man.getStudents().size(), restored.getStudents().size());
+		List<Course> expected = new ArrayList<>(man.getCourses());
+		List<Course> actual = new ArrayList<>(restored.getCourses());
+		for(int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getCode(), actual.get(i).getCode());
+			assertEquals(expected.get(i).getName(), actual.get(i).getName());
+			assertEquals(expected.get(i).getCoordinator(), actual.get(i).getCoordinator());
+			int code = expected.get(i).getCode();
+			assertEquals(ids(man.getStudentsEnrolledInCourse(code)), ids(restored.getStudentsEnrolledInCourse(code)));
+		}
+		assertEquals("student7@gmail.com", new ArrayList<>(restored.getStudents()).get(6).getEmailAddress());
+		assertEquals(2, restored.getCoursesOfStudent(7).size());
+	}
+
+	@Test
+	void testRoundTrip() throws Exception {
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		EnrollmentManager restored = EnrollmentSnapshot.load(file);
+		assertSameState(restored);
+		assertEquals(LogVerbosity.FULL, restored.getLogVerbosity());
+		assertEquals(LogVerbosity.SUMMARY, man.getLogVerbosity());
+	}
+
+	@Test
+	void testRoundTripIntoConcurrentManager() throws Exception {
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		ConcurrentEnrollmentManager restored = new ConcurrentEnrollmentManager();
+		EnrollmentSnapshot.load(file, restored);
+		assertSameState(restored);
+	}
+
+	@Test
+	void testSaveReplacesPreviousSnapshot() throws Exception {
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(new EnrollmentManager(), file);
+		EnrollmentSnapshot.save(man, file);
+		assertSameState(EnrollmentSnapshot.load(file));
+		assertEquals(Arrays.asList(file), Arrays.asList(Files.list(dir).toArray()));
+	}
+
+	@Test
+	void testCapacitiesAndWaitlists() throws Exception {
+		man.registerCourse(4, "Seminar", "Coordinator4", 2);
+		man.enroll(4, 9);
+		man.enroll(4, 8);
+		man.enrollOrWaitlist(4, 30);
+		man.enrollOrWaitlist(4, 3);
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		EnrollmentManager restored = EnrollmentSnapshot.load(file);
+		assertSameState(restored);
+		assertEquals(2, new ArrayList<>(restored.getCourses()).get(3).getCapacity());
+		assertEquals(Arrays.asList(30, 3), ids(restored.getWaitlist(4)));
+		restored.cancelEnrollment(4, 9);
+		assertEquals(Arrays.asList(8, 30), ids(restored.getStudentsEnrolledInCourse(4)));
+	}
+
+	@Test
+	void testWaitlistedStudentsWithConflictingEnrollments() throws Exception {
+		Timetable monday = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+		man.registerCourse(4, "Seminar", "Coordinator4", 1, monday);
+		man.registerCourse(5, "Workshop", "Coordinator5", 10, monday);
+		man.enroll(4, 9);
+		man.enrollOrWaitlist(4, 30);
+		man.enroll(5, 30);
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		ConcurrentEnrollmentManager restored = new ConcurrentEnrollmentManager();
+		restored.setLogVerbosity(LogVerbosity.QUIET);
+		EnrollmentSnapshot.load(file, restored);
+		assertEquals(Arrays.asList(30), ids(restored.getWaitlist(4)));
+		assertEquals(Arrays.asList(30), ids(restored.getStudentsEnrolledInCourse(5)));
+		assertEquals(Arrays.asList(30), ids(EnrollmentSnapshot.load(file).getWaitlist(4)));
+	}
+
+	@Test
+	void testTimetables() throws Exception {
+		Timetable timetable = Timetable.EMPTY.with(DayOfWeek.WEDNESDAY, LocalTime.of(8, 0), LocalTime.of(10, 0));
+		man.registerCourse(4, "Course4", "Coordinator4", 10, timetable);
+		man.registerCourse(5, "Course5", "Coordinator5", 10, timetable);
+		man.enroll(4, 55);
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		EnrollmentManager restored = EnrollmentSnapshot.load(file);
+		assertSameState(restored);
+		assertEquals(timetable, new ArrayList<>(restored.getCourses()).get(4).getTimetable());
+		assertEquals(Timetable.EMPTY, new ArrayList<>(restored.getCourses()).get(0).getTimetable());
+		assertThrows(ScheduleConflictException.class, () -> restored.enroll(5, 55));
+	}
+
+	@Test
+	void testPrerequisites() throws Exception {
+		man.addPrerequisite(2, 3);
+		man.addPrerequisite(3, 1);
+		man.completeCourse(1, 55);
+		man.completeCourse(3, 55);
+		man.completeCourse(1, 56);
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		EnrollmentManager restored = EnrollmentSnapshot.load(file);
+		// Student 60 was enrolled in course 2 before its prerequisite was added, and must keep the seat.
+		assertSameState(restored);
+		assertEquals(3, restored.getPrerequisites(2).get(0).getCode());
+		assertEquals(2, restored.getCompletedCourses(55).size());
+		restored.enroll(2, 55);
+		assertThrows(MissingPrerequisiteException.class, () -> restored.enroll(2, 56));
+		assertThrows(IllegalArgumentException.class, () -> restored.addPrerequisite(1, 2));
+	}
+
+	@Test
+	void testUnsupportedVersion() throws Exception {
+		Path file = dir.resolve("newer.bin");
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.putInt(EnrollmentSnapshot.MAGIC).putInt(EnrollmentSnapshot.VERSION + 1);
+		Files.write(file, buffer.array());
+		assertThrows(IOException.class, () -> EnrollmentSnapshot.load(file));
+		assertFalse(QuietScope.isActive());
+	}
+
+	@Test
+	void testNotASnapshot() throws Exception {
+		Path file = dir.resolve("other.bin");
+		Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		assertThrows(IOException.class, () -> EnrollmentSnapshot.load(file));
+	}
+
+	@Test
+	void testTruncatedSnapshot() throws Exception {
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+		assertThrows(IOException.class, () -> EnrollmentSnapshot.load(file));
+	}
+
+	@Test
+	void testSnapshotDoesNotFit() throws Exception {
+		Path file = dir.resolve("state.bin");
+		EnrollmentSnapshot.save(man, file);
+		EnrollmentManager other = new EnrollmentManager();
+		other.registerCourse(1, "Course1", "Coordinator1");
+		assertThrows(IOException.class, () -> EnrollmentSnapshot.load(file, other));
+		assertEquals(LogVerbosity.FULL, other.getLogVerbosity());
+		assertFalse(QuietScope.isActive());
+	}
+}
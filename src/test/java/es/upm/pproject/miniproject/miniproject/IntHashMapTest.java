@@ -0,0 +1,118 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+public class IntHashMapTest {
+
+	@Test
+	void testBasicOperations() {
+		IntHashMap<String> map = new IntHashMap<>();
+		assertNull(map.get(1));
+		assertNull(map.put(1, "one"));
+		assertNull(map.put(0, "zero"));
+		assertNull(map.put(-5, "minus five"));
+		assertEquals("one", map.put(1, "uno"));
+		assertEquals("uno", map.putIfAbsent(1, "one"));
+		assertEquals("two", map.computeIfAbsent(2, k -> "two"));
+		assertEquals(4, map.size());
+		assertEquals("zero", map.get(0));
+		assertEquals("none", map.getOrDefault(7, "none"));
+		assertEquals(Arrays.asList("minus five", "zero", "uno", "two"), new ArrayList<>(map.values()));
+		assertEquals(Arrays.asList("uno", "two"), list(map.valuesAfter(0)));
+		assertEquals(Arrays.asList("zero", "uno", "two"), list(map.valuesAfter(-1)));
+		assertEquals("zero", map.remove(0));
+		assertNull(map.remove(0));
+		assertTrue(!map.containsKey(0));
+		assertThrows(IllegalArgumentException.class, () -> map.put(3, null));
+	}
+
+	@Test
+	void testValuesAreLiveViews() {
+		IntHashMap<String> map = new IntHashMap<>();
+		map.put(2, "two");
+		Collection<String> values = map.values();
+		map.put(1, "one");
+		assertEquals(2, values.size());
+		assertEquals(Arrays.asList("one", "two"), new ArrayList<>(values));
+		assertThrows(UnsupportedOperationException.class, () -> values.add("three"));
+		assertEquals(2, map.values().parallelStream().count());
+	}
+
+	@Test
+	void testIterationInterleavedWithModifications() {
+		IntHashMap<Integer> map = new IntHashMap<>();
+		for(int key = 10; key <= 50; key += 10) {
+			map.put(key, key);
+		}
+		Iterator<Integer> iterator = map.valuesAfter(10);
+		assertEquals(20, iterator.next());
+		map.put(15, 15);
+		map.put(25, 25);
+		map.remove(30);
+		List<Integer> rest = list(iterator);
+		assertEquals(Arrays.asList(25, 40, 50), rest);
+		Iterator<Integer> all = map.values().iterator();
+		map.put(5, 5);
+		assertEquals(5, all.next());
+		map.put(60, 60);
+		map.remove(60);
+		map.put(55, 55);
+		assertEquals(Arrays.asList(40, 50, 55), list(map.valuesAfter(30)));
+	}
+
+	@Test
+	void testSameContentsAsTreeMap() {
+		IntHashMap<Integer> map = new IntHashMap<>();
+		TreeMap<Integer, Integer> expected = new TreeMap<>();
+		Random random = new Random(7);
+		for(int i = 0; i < 200000; i++) {
+			// A small key range makes collisions, removals in the middle of runs and reinsertions frequent.
+			int key = random.nextInt(5000) * (random.nextBoolean() ? 1 : 1 << 16);
+			if(random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			assertEquals(expected.size(), map.size());
+			if(i % 1000 == 0) {
+				// The sorted keys are built by this listing and then extended or dropped by the next modifications.
+				assertEquals(new ArrayList<>(expected.keySet()), toList(map.sortedKeys()));
+			}
+		}
+		for(int key : expected.keySet()) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+		assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+		assertEquals(new ArrayList<>(expected.values()), Arrays.asList(map.values().parallelStream().toArray(Integer[]::new)));
+		int[] keys = map.sortedKeys();
+		assertEquals(expected.size(), keys.length);
+		assertEquals(expected.firstKey(), keys[0]);
+		assertEquals(new ArrayList<>(expected.tailMap(keys[10], false).values()), list(map.valuesAfter(keys[10])));
+	}
+
+	private static List<Integer> toList(int[] keys) {
+		List<Integer> list = new ArrayList<>();
+		for(int key : keys) {
+			list.add(key);
+		}
+		return list;
+	}
+
+	private static <T> List<T> list(Iterator<T> iterator) {
+		List<T> list = new ArrayList<>();
+		iterator.forEachRemaining(list::add);
+		return list;
+	}
+}
@@ -0,0 +1,464 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournaledEnrollmentManagerTest {
+	@TempDir
+	Path dir;
+
+	private JournaledEnrollmentManager open(int batchSize) throws IOException {
+		EnrollmentManager inner = new EnrollmentManager();
+		inner.setLogVerbosity(LogVerbosity.QUIET);
+		return JournaledEnrollmentManager.open(dir, inner, batchSize, 0);
+	}
+
+	private static void populate(InterfaceEnrollmentManager man) throws Exception {
+		man.registerCourse(1, "Cálculo I", "Coordinadora Ñ");
+		man.registerCourse(2, "Course2", "Coordinator2");
+		for(int i = 1; i <= 10; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+		man.enroll(1, 3);
+		man.enroll(1, 1);
+		man.enroll(2, 3);
+		man.cancelEnrollment(1, 3);
+		man.enrollAll(2, new int[] {5, 4, 11, 5});
+		man.restartCourse(1);
+		assertEquals(EnrollmentOutcome.ENROLLED, man.tryEnroll(1, 9));
+	}
+
+	private static List<Integer> ids(List<Student> students) {
+		List<Integer> ids = new ArrayList<>();
+		for(Student s : students) {
+			ids.add(s.getId());
+		}
+		return ids;
+	}
+
+	private static Set<String> files(Path dir) throws IOException {
+		Set<String> names = new TreeSet<>();
+		Files.list(dir).forEach(p -> names.add(p.getFileName().toString()));
+		return names;
+	}
+
+	private static void assertPopulated(InterfaceEnrollmentManager man) throws Exception {
+		assertEquals(2, man.getCourses().size());
+		assertEquals(10, man.getStudents().size());
+		assertEquals("Coordinadora Ñ", man.getCourses().iterator().next().getCoordinator());
+		assertEquals(Arrays.asList(9), ids(man.getStudentsEnrolledInCourse(1)));
+		assertEquals(Arrays.asList(3, 4, 5), ids(man.getStudentsEnrolledInCourse(2)));
+		assertEquals(1, man.getCoursesOfStudent(3).size());
+	}
+
+	@Test
+	void testRecoversAfterClose() throws Exception {
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			populate(man);
+			assertThrows(StudentAlreadyEnrolledException.class, () -> man.enroll(1, 9));
+			assertEquals(EnrollmentOutcome.ALREADY_ENROLLED, man.tryEnroll(1, 9));
+		}
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			assertPopulated(man);
+			assertEquals(LogVerbosity.QUIET, man.getLogVerbosity());
+		}
+	}
+
+	@Test
+	void testRecoversCapacitiesAndWaitlists() throws Exception {
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			populate(man);
+			man.registerCourse(3, "Seminar", "Coordinator3", 2);
+			man.enrollOrWaitlist(3, 1);
+			man.enrollOrWaitlist(3, 2);
+			man.enrollOrWaitlist(3, 6);
+			man.enrollOrWaitlist(3, 7);
+			man.enrollOrWaitlist(3, 8);
+			man.leaveWaitlist(3, 7);
+			man.cancelEnrollment(3, 1);
+		}
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			assertEquals(Arrays.asList(2, 6), ids(man.getStudentsEnrolledInCourse(3)));
+			assertEquals(Arrays.asList(8), ids(man.getWaitlist(3)));
+			man.compact();
+		}
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			assertEquals(2, new ArrayList<>(man.getCourses()).get(2).getCapacity());
+			assertEquals(Arrays.asList(8), ids(man.getWaitlist(3)));
+		}
+	}
+
+	@Test
+	void testRecoversTimetables() throws Exception {
+		Timetable timetable = Timetable.EMPTY.with(DayOfWeek.FRIDAY, LocalTime.of(12, 0), LocalTime.of(14, 0));
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			populate(man);
+			man.registerCourse(3, "Lab3", "Coordinator3", 5, timetable);
+			man.registerCourse(4, "Lab4", "Coordinator4", 5, timetable);
+			man.enroll(3, 1);
+		}
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			assertEquals(timetable, new ArrayList<>(man.getCourses()).get(3).getTimetable());
+			assertThrows(ScheduleConflictException.class, () -> man.enroll(4, 1));
+			man.compact();
+		}
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			assertEquals(EnrollmentOutcome.SCHEDULE_CONFLICT, man.tryEnroll(4, 1));
+		}
+	}
+
+	@Test
+	void testRecoversPrerequisites() throws Exception {
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			populate(man);
+			man.addPrerequisite(2, 1);
+			man.completeCourse(1, 6);
+		}
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			assertEquals(EnrollmentOutcome.MISSING_PREREQUISITE, man.tryEnroll(2, 7));
+			man.compact();
+		}
+		try(JournaledEnrollmentManager man = open(JournaledEnrollmentManager.DEFAULT_BATCH_SIZE)) {
+			assertEquals(1, man.getPrerequisites(2).size());
+			assertEquals(EnrollmentOutcome.ENROLLED, man.tryEnroll(2, 6));
+			assertThrows(MissingPrerequisiteException.class, () -> man.enroll(2, 7));
+		}
+	}
+
+	@Test
+	void testRecoversForcedRecordsWithoutClose() throws Exception {
+		JournaledEnrollmentManager crashed = open(1);
+		populate(crashed);
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertPopulated(man);
+		}
+	}
+
+	@Test
+	void testPendingRecordsAreNotWrittenBeforeTheBatchIsFull() throws Exception {
+		JournaledEnrollmentManager crashed = open(1000);
+		populate(crashed);
+		try(JournaledEnrollmentManager man = open(1000)) {
+			assertEquals(0, man.getCourses().size());
+		}
+		crashed.flush();
+		try(JournaledEnrollmentManager man = open(1000)) {
+			assertPopulated(man);
+		}
+	}
+
+	@Test
+	void testBatchesJournalOnlyTheirSuccessfulItems() throws Exception {
+		try(JournaledEnrollmentManager man = open(1)) {
+			man.registerCourse(1, "Course1", "Coordinator1");
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			BatchReport registered = man.registerStudents(Arrays.asList(new Student(2, "Student2", "student2@gmail.com"),
+					new Student(1, "Student1", "student1@gmail.com"), new Student(3, "Student3", "student3@gmail.com")));
+			assertEquals(1, registered.getFailureCount());
+			man.enroll(1, 3);
+			BatchReport enrolled = man.enrollAll(1, new int[] {3, 2, 7, 1});
+			assertEquals(2, enrolled.getFailureCount());
+		}
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertEquals(3, man.getStudents().size());
+			assertEquals(Arrays.asList(1, 2, 3), ids(man.getStudentsEnrolledInCourse(1)));
+		}
+	}
+
+	@Test
+	void testTornRecordIsDiscarded() throws Exception {
+		try(JournaledEnrollmentManager man = open(1)) {
+			populate(man);
+			man.enroll(1, 10);
+		}
+		Path journal = dir.resolve("journal-0.log");
+		long complete = Files.size(journal);
+		byte[] bytes = Files.readAllBytes(journal);
+		Files.write(journal, Arrays.copyOf(bytes, bytes.length - 3));
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertPopulated(man);
+			assertTrue(Files.size(journal) < complete - 3);
+			man.enroll(1, 10);
+		}
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertEquals(Arrays.asList(9, 10), ids(man.getStudentsEnrolledInCourse(1)));
+		}
+	}
+
+	@Test
+	void testCorruptedRecordIsDiscarded() throws Exception {
+		try(JournaledEnrollmentManager man = open(1)) {
+			populate(man);
+		}
+		Files.write(dir.resolve("journal-0.log"), new byte[] {0, 0, 0, 9, 1, 2, 3, 4, 3, 0, 0, 0, 1, 0, 0, 0, 2}, StandardOpenOption.APPEND);
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertPopulated(man);
+		}
+	}
+
+	@Test
+	void testCompaction() throws Exception {
+		try(JournaledEnrollmentManager man = open(1)) {
+			populate(man);
+			man.compact();
+			assertEquals(new TreeSet<>(Arrays.asList("journal-1.log", "snapshot-1.bin")), files(dir));
+			assertEquals(0, Files.size(dir.resolve("journal-1.log")));
+			man.enroll(1, 10);
+		}
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertEquals(Arrays.asList(9, 10), ids(man.getStudentsEnrolledInCourse(1)));
+			man.cancelEnrollment(1, 10);
+			man.compact();
+			assertEquals(new TreeSet<>(Arrays.asList("journal-2.log", "snapshot-2.bin")), files(dir));
+		}
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertPopulated(man);
+		}
+	}
+
+	@Test
+	void testCompactionKeepsWaitlistedStudentsWithConflictingEnrollments() throws Exception {
+		Timetable monday = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+		try(JournaledEnrollmentManager man = open(1)) {
+			man.registerCourse(1, "Course1", "Coordinator1", 1, monday);
+			man.registerCourse(2, "Course2", "Coordinator2", 10, monday);
+			man.registerStudent(1, "Student1", "student1@gmail.com");
+			man.registerStudent(2, "Student2", "student2@gmail.com");
+			man.enroll(1, 1);
+			assertFalse(man.enrollOrWaitlist(1, 2));
+			man.enroll(2, 2);
+			man.compact();
+		}
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertEquals(Arrays.asList(2), ids(man.getWaitlist(1)));
+			assertEquals(Arrays.asList(2), ids(man.getStudentsEnrolledInCourse(2)));
+			man.cancelEnrollment(1, 1);
+			assertEquals(0, man.getWaitlist(1).size());
+			assertEquals(0, man.getEnrollmentCount(1));
+		}
+	}
+
+	@Test
+	void testCrashDuringCompaction() throws Exception {
+		try(JournaledEnrollmentManager man = open(1)) {
+			populate(man);
+		}
+		EnrollmentManager state = new EnrollmentManager();
+		state.setLogVerbosity(LogVerbosity.QUIET);
+		populate(state);
+		EnrollmentSnapshot.save(state, dir.resolve("snapshot-1.bin"));
+		Files.write(dir.resolve("snapshot-2.bin.tmp"), new byte[] {1, 2, 3});
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertPopulated(man);
+			assertEquals(new TreeSet<>(Arrays.asList("journal-1.log", "snapshot-1.bin")), files(dir));
+		}
+	}
+
+	@Test
+	void testJournalDoesNotMatchTheManager() throws Exception {
+		try(JournaledEnrollmentManager man = open(1)) {
+			populate(man);
+		}
+		EnrollmentManager other = new EnrollmentManager();
+		other.registerCourse(1, "Course1", "Coordinator1");
+		assertThrows(IOException.class, () -> JournaledEnrollmentManager.open(dir, other));
+		assertThrows(IllegalArgumentException.class, () -> JournaledEnrollmentManager.open(dir, new EnrollmentManager(), 0, 0));
+	}
+
+	@Test
+	void testBackgroundFlush() throws Exception {
+		JournaledEnrollmentManager crashed = JournaledEnrollmentManager.open(dir, new ConcurrentEnrollmentManager(), 1000, 5);
+		populate(crashed);
+		long deadline = System.currentTimeMillis() + 10_000;
+		while(Files.size(dir.resolve("journal-0.log")) == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		Thread.sleep(50);
+		try(JournaledEnrollmentManager man = JournaledEnrollmentManager.open(dir, new ConcurrentEnrollmentManager(), 1000, 0)) {
+			assertPopulated(man);
+		}
+		crashed.close();
+	}
+
+	@Test
+	void testJournalFailsStopAfterAFailedWrite() throws Exception {
+		Path file = dir.resolve("journal-0.log");
+		FailingChannel channel = new FailingChannel(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+		EnrollmentJournal journal = new EnrollmentJournal(channel);
+		journal.registerCourse(1, "Course1", "Coordinator1");
+		journal.registerStudent(1, "Student1", "student1@gmail.com");
+		journal.flush();
+		journal.enroll(1, 1);
+		journal.registerStudent(2, "Student2", "student2@gmail.com");
+		// The next write stores a few bytes of the first record and fails, leaving a torn record in the file.
+		channel.failAfter = 5;
+		assertThrows(IOException.class, journal::flush);
+		channel.failAfter = -1;
+		assertEquals(0, journal.pending());
+		assertThrows(UncheckedIOException.class, () -> journal.enroll(1, 2));
+		assertThrows(IOException.class, journal::flush);
+		assertThrows(IOException.class, journal::close);
+		EnrollmentManager recovered = new EnrollmentManager();
+		recovered.setLogVerbosity(LogVerbosity.QUIET);
+		assertEquals(2, EnrollmentJournal.replay(file, recovered));
+		assertEquals(0, recovered.getEnrollmentCount(1));
+		assertEquals(1, recovered.getStudents().size());
+	}
+
+	@Test
+	void testFailedJournalRejectsMutationsUntilCompacted() throws Exception {
+		try(JournaledEnrollmentManager man = open(1)) {
+			populate(man);
+			// Closing the journal's channel behind its back makes the next flush fail.
+			Field field = JournaledEnrollmentManager.class.getDeclaredField("journal");
+			field.setAccessible(true);
+			EnrollmentJournal journal = (EnrollmentJournal) field.get(man);
+			Field channel = EnrollmentJournal.class.getDeclaredField("channel");
+			channel.setAccessible(true);
+			((FileChannel) channel.get(journal)).close();
+			assertThrows(UncheckedIOException.class, () -> man.enroll(1, 2));
+			assertEquals(Arrays.asList(2, 9), ids(man.getStudentsEnrolledInCourse(1)));
+			assertThrows(UncheckedIOException.class, () -> man.enroll(1, 4));
+			assertEquals(Arrays.asList(2, 9), ids(man.getStudentsEnrolledInCourse(1)));
+			man.compact();
+			man.enroll(1, 4);
+		}
+		try(JournaledEnrollmentManager man = open(1)) {
+			assertEquals(Arrays.asList(2, 4, 9), ids(man.getStudentsEnrolledInCourse(1)));
+		}
+	}
+
+	/**
+	 * A file channel that writes through another one until {@code failAfter} bytes have been written, and then fails.
+	 */
+	private static final class FailingChannel extends FileChannel {
+		private final FileChannel delegate;
+		int failAfter = -1;
+
+		FailingChannel(FileChannel delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if(failAfter < 0) {
+				return delegate.write(src);
+			}
+			if(failAfter == 0) {
+				throw new IOException("Injected failure.");
+			}
+			ByteBuffer part = src.duplicate();
+			part.limit(Math.min(src.limit(), src.position() + failAfter));
+			int written = delegate.write(part);
+			src.position(src.position() + written);
+			failAfter -= written;
+			return written;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			return delegate.read(dst);
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return delegate.read(dsts, offset, length);
+		}
+
+		@Override
+		public long position() throws IOException {
+			return delegate.position();
+		}
+
+		@Override
+		public FileChannel position(long newPosition) throws IOException {
+			delegate.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			return delegate.size();
+		}
+
+		@Override
+		public FileChannel truncate(long size) throws IOException {
+			delegate.truncate(size);
+			return this;
+		}
+
+		@Override
+		public void force(boolean metaData) throws IOException {
+			delegate.force(metaData);
+		}
+
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return delegate.transferTo(position, count, target);
+		}
+
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			return delegate.transferFrom(src, position, count);
+		}
+
+		@Override
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return delegate.read(dst, position);
+		}
+
+		@Override
+		public int write(ByteBuffer src, long position) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return delegate.map(mode, position, size);
+		}
+
+		@Override
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return delegate.lock(position, size, shared);
+		}
+
+		@Override
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return delegate.tryLock(position, size, shared);
+		}
+
+		@Override
+		protected void implCloseChannel() throws IOException {
+			delegate.close();
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedStudentStoreTest {
+	@TempDir
+	Path dir;
+
+	private static List<Integer> ids(Iterable<Student> students) {
+		List<Integer> ids = new ArrayList<>();
+		for(Student s : students) {
+			ids.add(s.getId());
+		}
+		return ids;
+	}
+
+	@Test
+	void testAddAndGet() throws Exception {
+		try(MappedStudentStore store = MappedStudentStore.open(dir)) {
+			assertTrue(store.add(new Student(7, "Íñigo Núñez", "inigo@upm.es")));
+			assertTrue(store.add(new Student(3, "Student3", "student3@gmail.com")));
+			assertFalse(store.add(new Student(7, "Other", "other@gmail.com")));
+			assertEquals(2, store.size());
+			assertTrue(store.contains(3));
+			assertFalse(store.contains(4));
+			assertFalse(store.contains(-1));
+			assertNull(store.get(4));
+			Student s = store.get(7);
+			assertEquals(7, s.getId());
+			assertEquals("Íñigo Núñez", s.getName());
+			assertEquals("inigo@upm.es", s.getEmailAddress());
+		}
+	}
+
+	@Test
+	void testValuesAreSortedAcrossSegments() throws Exception {
+		try(MappedStudentStore store = MappedStudentStore.open(dir)) {
+			int[] added = {Integer.MAX_VALUE, MappedStudentStore.SEGMENT_SLOTS, 5, MappedStudentStore.SEGMENT_SLOTS - 1, 1};
+			for(int id : added) {
+				store.add(new Student(id, "Student" + id, "student" + id + "@gmail.com"));
+			}
+			assertEquals(Arrays.asList(1, 5, MappedStudentStore.SEGMENT_SLOTS - 1, MappedStudentStore.SEGMENT_SLOTS, Integer.MAX_VALUE), ids(store.values()));
+			assertEquals(5, store.values().size());
+			assertEquals("student2147483647@gmail.com", store.get(Integer.MAX_VALUE).getEmailAddress());
+		}
+	}
+
+	@Test
+	void testIteratorAfterAndParallelStream() throws Exception {
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			long sum = 0;
+			for(int i = 1; i <= 500; i++) {
+				int id = i * 4001;
+				store.add(new Student(id, "Student" + i, "student" + i + "@gmail.com"));
+				sum += id;
+			}
+			List<Integer> after = new ArrayList<>();
+			store.iteratorAfter(4001 * 250 - 1).forEachRemaining(s -> after.add(s.getId()));
+			assertEquals(251, after.size());
+			assertEquals(4001 * 250, (int) after.get(0));
+			assertFalse(store.iteratorAfter(4001 * 500).hasNext());
+			assertEquals(1, store.iteratorAfter(-5).next().getId() / 4001);
+			assertEquals(sum, store.values().parallelStream().mapToLong(Student::getId).sum());
+			assertEquals(ids(store.values()), Arrays.asList(store.values().parallelStream().map(Student::getId).toArray(Integer[]::new)));
+		}
+	}
+
+	@Test
+	void testRecordsDoNotCrossChunks() throws Exception {
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			for(int i = 1; i <= 1000; i++) {
+				store.add(new Student(i, "Student" + i, "student" + i + "@gmail.com"));
+			}
+			for(int i = 1; i <= 1000; i++) {
+				assertEquals("Student" + i, store.get(i).getName());
+			}
+			char[] big = new char[5000];
+			Arrays.fill(big, 'x');
+			assertThrows(IllegalArgumentException.class, () -> store.add(new Student(1001, new String(big), "big@gmail.com")));
+			assertFalse(store.contains(1001));
+		}
+	}
+
+	@Test
+	void testReopen() throws Exception {
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			for(int i = 1; i <= 300; i++) {
+				store.add(new Student(3 * i, "Student" + i, "student" + i + "@gmail.com"));
+			}
+		}
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			assertEquals(300, store.size());
+			assertEquals("Student100", store.get(300).getName());
+			store.add(new Student(1, "Student0", "student0@gmail.com"));
+			assertEquals(1, store.values().iterator().next().getId());
+			assertEquals(301, ids(store.values()).size());
+		}
+	}
+
+	@Test
+	void testEmailIndex() throws Exception {
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			for(int i = 1; i <= 2000; i++) {
+				assertTrue(store.add(new Student(i, "Student" + i, "Student" + i + "@gmail.com")));
+			}
+			assertFalse(store.add(new Student(2001, "Other", " student7@GMAIL.com ")));
+			assertEquals(2000, store.size());
+			assertEquals(1500, store.getByEmail("STUDENT1500@gmail.com").getId());
+			assertNull(store.getByEmail("student2001@gmail.com"));
+		}
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			assertEquals(2000, store.getByEmail("student2000@gmail.com").getId());
+		}
+		Files.delete(dir.resolve("students.eml"));
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			assertEquals(1, store.getByEmail("student1@gmail.com").getId());
+			assertFalse(store.add(new Student(2001, "Other", "student1@gmail.com")));
+			assertTrue(store.add(new Student(2001, "Student2001", "student2001@gmail.com")));
+		}
+		try(MappedStudentStore store = MappedStudentStore.open(dir, 4096)) {
+			assertEquals(2001, store.getByEmail("student2001@gmail.com").getId());
+		}
+	}
+
+	@Test
+	void testNotAStore() throws Exception {
+		Files.write(dir.resolve("students.dat"), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		assertThrows(IOException.class, () -> MappedStudentStore.open(dir));
+	}
+
+	@Test
+	void testEnrollmentManagerWithMappedStore() throws Exception {
+		try(MappedStudentStore store = MappedStudentStore.open(dir)) {
+			EnrollmentManager man = new EnrollmentManager(store);
+			man.setLogVerbosity(LogVerbosity.QUIET);
+			man.registerCourse(1, "Course1", "Coordinator1");
+			for(int i = 1; i <= 60; i++) {
+				man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+			}
+			assertThrows(StudentAlreadyExistsException.class, () -> man.registerStudent(1, "Student1", "student1@gmail.com"));
+			man.enroll(1, 2);
+			man.enrollAll(1, new int[] {1, 61, 3});
+			assertEquals(Arrays.asList(1, 2, 3), ids(man.getStudentsEnrolledInCourse(1)));
+			assertEquals(0, man.getCoursesOfStudent(60).size());
+			assertThrows(MissingStudentException.class, () -> man.getCoursesOfStudent(61));
+			man.cancelEnrollment(1, 2);
+			assertEquals(1, man.getCoursesOfStudent(1).size());
+			assertEquals(60, man.getStudents().size());
+		}
+		try(MappedStudentStore store = MappedStudentStore.open(dir)) {
+			EnrollmentManager man = new EnrollmentManager(store);
+			assertEquals(60, man.getStudents().size());
+			assertThrows(StudentAlreadyExistsException.class, () -> man.registerStudent(60, "Student60", "student60@gmail.com"));
+			assertEquals(0, man.getCoursesOfStudent(60).size());
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.stream.IntStream;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MeteredEnrollmentManagerTest {
+	private EnrollmentMetrics metrics;
+	private MeteredEnrollmentManager man;
+
+	@BeforeEach
+	void runBeforeEach() throws Exception {
+		metrics = new EnrollmentMetrics();
+		EnrollmentManager delegate = new EnrollmentManager();
+		delegate.setLogVerbosity(LogVerbosity.QUIET);
+		man = new MeteredEnrollmentManager(delegate, metrics);
+		man.registerCourse(1, "Course1", "Coordinator1", 2);
+		man.registerCourse(2, "Course2", "Coordinator2");
+		for(int i = 1; i <= 4; i++) {
+			man.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+	}
+
+	@Test
+	void testCountsPerOutcome() throws Exception {
+		man.enroll(1, 1);
+		assertThrows(StudentAlreadyEnrolledException.class, () -> man.enroll(1, 1));
+		man.enroll(1, 2);
+		assertThrows(FullCourseException.class, () -> man.enroll(1, 3));
+		assertThrows(MissingCourseException.class, () -> man.enroll(9, 1));
+		assertEquals(2, metrics.getCount("enroll", MeteredEnrollmentManager.SUCCESS));
+		assertEquals(1, metrics.getCount("enroll", "FullCourseException"));
+		assertEquals(1, metrics.getCount("enroll", "StudentAlreadyEnrolledException"));
+		assertEquals(1, metrics.getCount("enroll", "MissingCourseException"));
+		assertEquals(0, metrics.getCount("enroll", "MissingStudentException"));
+		assertEquals(4, metrics.getCount("registerStudent", MeteredEnrollmentManager.SUCCESS));
+		assertEquals(5, metrics.getLatency("enroll").getCount());
+		assertEquals(2L, (long) metrics.getCounts().get("registerCourse.success"));
+		assertNull(metrics.getLatency("cancelEnrollment"));
+	}
+
+	@Test
+	void testRosterGauges() throws Exception {
+		assertEquals(2, metrics.getObservedCourses());
+		man.enroll(2, 1);
+		man.enrollAll(2, new int[] {2, 3});
+		assertEquals(3, metrics.getRosterSize(2));
+		man.cancelEnrollment(2, 3);
+		assertEquals(2, metrics.getRosterSize(2));
+		man.enroll(1, 1);
+		man.enroll(1, 2);
+		assertTrue(!man.enrollOrWaitlist(1, 3));
+		man.cancelEnrollment(1, 1);
+		assertEquals(2, metrics.getRosterSize(1));
+		assertEquals(4, metrics.getTotalEnrollments());
+		man.restartCourse(2);
+		assertEquals(0, metrics.getRosterSize(2));
+		assertEquals(2, metrics.getLargestRosterSize());
+	}
+
+	@Test
+	void testConcurrentGaugesOfNewCourses() {
+		EnrollmentMetrics concurrent = new EnrollmentMetrics();
+		IntStream.rangeClosed(1, 2000).parallel().forEach(code -> {
+			concurrent.recordRosterSize(code, 1);
+			concurrent.recordRosterSize(code, code);
+		});
+		assertEquals(2000, concurrent.getObservedCourses());
+		assertEquals(2000, concurrent.getLargestRosterSize());
+		assertEquals(2000L * 2001 / 2, concurrent.getTotalEnrollments());
+		assertEquals(0, concurrent.getRosterSize(2001));
+	}
+
+	@Test
+	void testGaugesOfManyCourses() {
+		EnrollmentMetrics many = new EnrollmentMetrics();
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			for(int code = 1; code <= 200_000; code++) {
+				many.recordRosterSize(code, 1);
+			}
+		});
+		assertEquals(200_000, many.getObservedCourses());
+		assertEquals(200_000L, many.getTotalEnrollments());
+		assertEquals(1, many.getRosterSize(200_000));
+	}
+
+	@Test
+	void testLatencies() throws Exception {
+		for(int i = 0; i < 100; i++) {
+			man.enroll(2, 1);
+			man.cancelEnrollment(2, 1);
+		}
+		LatencyHistogram latency = metrics.getLatency("enroll");
+		assertEquals(100, latency.getCount());
+		assertTrue(latency.getPercentile(50) > 0);
+		assertTrue(latency.getPercentile(50) <= latency.getPercentile(99));
+		assertTrue(latency.getPercentile(99) <= latency.getMax());
+		assertEquals(latency.getMax(), latency.getPercentile(100));
+		metrics.reset();
+		assertEquals(0, latency.getCount());
+		assertEquals(0, metrics.getCount("enroll", MeteredEnrollmentManager.SUCCESS));
+	}
+
+	@Test
+	void testHistogramAccuracy() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(long value = 1; value <= 1000000; value++) {
+			histogram.record(value);
+		}
+		assertEquals(1000000, histogram.getCount());
+		assertEquals(1000000, histogram.getMax());
+		assertEquals(500000.5, histogram.getMean());
+		for(double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+			double expected = percentile * 10000;
+			long estimate = histogram.getPercentile(percentile);
+			assertTrue(estimate >= expected && estimate < expected * (1 + 1.0 / LatencyHistogram.SUB_BUCKETS), percentile + ": " + estimate);
+		}
+		for(long value : new long[] {0, 15, 16, 17, 1000, Long.MAX_VALUE}) {
+			int index = LatencyHistogram.indexOf(value);
+			assertTrue(index < LatencyHistogram.BUCKETS);
+			assertTrue(value <= LatencyHistogram.highestValueOf(index));
+			assertTrue(index == 0 || value > LatencyHistogram.highestValueOf(index - 1));
+		}
+		assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+	}
+
+	@Test
+	void testJmx() throws Exception {
+		man.enroll(1, 1);
+		assertThrows(StudentAlreadyEnrolledException.class, () -> man.enroll(1, 1));
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = metrics.registerMBean("test");
+		try {
+			TabularData counts = (TabularData) server.getAttribute(name, "Counts");
+			assertEquals(1L, counts.get(new Object[] {"enroll.success"}).get("value"));
+			assertEquals(1L, counts.get(new Object[] {"enroll.StudentAlreadyEnrolledException"}).get("value"));
+			assertEquals(1L, server.getAttribute(name, "TotalEnrollments"));
+			assertEquals(2, server.getAttribute(name, "ObservedCourses"));
+			server.invoke(name, "reset", null, null);
+			assertEquals(0, metrics.getCount("enroll", MeteredEnrollmentManager.SUCCESS));
+		} finally {
+			server.unregisterMBean(name);
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PartitionedEnrollmentManagerTest {
+	@TempDir
+	Path dir;
+
+	private PartitionedEnrollmentManager man;
+
+	@BeforeEach
+	void runBeforeEach() {
+		man = new PartitionedEnrollmentManager();
+	}
+
+	@AfterEach
+	void runAfterEach() throws Exception {
+		man.close();
+	}
+
+	private static void populate(InterfaceEnrollmentManager term, int courses) throws Exception {
+		term.setLogVerbosity(LogVerbosity.QUIET);
+		for(int i = 1; i <= courses; i++) {
+			term.registerCourse(i, "Course" + i, "Coordinator" + i, 2);
+		}
+		for(int i = 1; i <= 5; i++) {
+			term.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+	}
+
+	private static List<Integer> ids(List<?> items) {
+		List<Integer> ids = new ArrayList<>();
+		for(Object item : items) {
+			ids.add(item instanceof Student ? ((Student) item).getId() : ((Course) item).getCode());
+		}
+		return ids;
+	}
+
+	@Test
+	void testShardsAreIndependent() throws Exception {
+		InterfaceEnrollmentManager north = man.shard("north", "2024-1");
+		InterfaceEnrollmentManager south = man.shard("south", "2024-1");
+		populate(north, 2);
+		populate(south, 1);
+		north.enroll(1, 1);
+		south.enroll(1, 2);
+		assertSame(north, man.shard("north", "2024-1"));
+		assertEquals(Arrays.asList(1), ids(north.getStudentsEnrolledInCourse(1)));
+		assertEquals(Arrays.asList(2), ids(south.getStudentsEnrolledInCourse(1)));
+		assertThrows(MissingCourseException.class, () -> south.enroll(2, 1));
+		man.shard("north", "2023-2");
+		assertEquals(Arrays.asList(Partition.of("north", "2023-2"), Partition.of("north", "2024-1"), Partition.of("south", "2024-1")), man.getPartitions());
+		assertEquals("north/2023-2", man.getPartitions().get(0).toString());
+		assertThrows(IllegalArgumentException.class, () -> man.shard(" ", "2024-1"));
+	}
+
+	@Test
+	void testFanOut() throws Exception {
+		populate(man.shard("north", "2023-2"), 2);
+		populate(man.shard("north", "2024-1"), 2);
+		populate(man.shard("south", "2024-1"), 2);
+		man.shard("north", "2023-2").enroll(1, 1);
+		man.shard("north", "2023-2").enroll(2, 1);
+		man.shard("north", "2024-1").enroll(2, 1);
+		man.shard("south", "2024-1").enroll(1, 1);
+		man.shard("north", "2025-1").setLogVerbosity(LogVerbosity.QUIET);
+		SortedMap<Partition, List<Course>> courses = man.getCoursesOfStudent("north", 1);
+		assertEquals(Arrays.asList(Partition.of("north", "2023-2"), Partition.of("north", "2024-1")), new ArrayList<>(courses.keySet()));
+		assertEquals(Arrays.asList(1, 2), ids(courses.get(Partition.of("north", "2023-2"))));
+		SortedMap<Partition, Integer> counts = man.fanOut(partition -> partition.getTerm().equals("2024-1"), shard -> shard.getEnrollmentCount(1));
+		assertEquals(Integer.valueOf(0), counts.get(Partition.of("north", "2024-1")));
+		assertEquals(Integer.valueOf(1), counts.get(Partition.of("south", "2024-1")));
+		assertThrows(IllegalStateException.class, () -> man.fanOut("north", shard -> {
+			throw new IllegalStateException("Failed query.");
+		}));
+	}
+
+	@Test
+	void testArchive() throws Exception {
+		InterfaceEnrollmentManager live = man.shard("north", "2024-1");
+		populate(live, 3);
+		live.registerCourse(4, "Course4", "Coordinator4", 2, Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+		live.enrollAll(1, new int[] {3, 1});
+		live.enrollOrWaitlist(1, 5);
+		live.enrollOrWaitlist(1, 4);
+		live.enroll(2, 1);
+		live.addPrerequisite(3, 2);
+		live.completeCourse(2, 4);
+		live.enroll(3, 4);
+		man.archive("north", "2024-1");
+		assertTrue(man.isArchived("north", "2024-1"));
+		assertFalse(man.isArchived("south", "2024-1"));
+		InterfaceEnrollmentManager archived = man.shard("north", "2024-1");
+		assertEquals(Arrays.asList(1, 3), ids(archived.getStudentsEnrolledInCourse(1)));
+		assertEquals(Arrays.asList(5, 4), ids(archived.getWaitlist(1)));
+		assertEquals(Arrays.asList(3), ids(archived.getStudentsEnrolledInCourse(1, 1, 5)));
+		assertEquals(Arrays.asList(1, 2), ids(archived.getCoursesOfStudent(1)));
+		assertEquals(Arrays.asList(2), ids(archived.getPrerequisites(3)));
+		assertEquals(Arrays.asList(2), ids(archived.getCompletedCourses(4)));
+		assertEquals(0, archived.getCoursesOfStudent(2).size());
+		assertEquals(2, archived.getEnrollmentCount(1));
+		assertEquals(2, archived.findStudentByEmail(" Student2@GMAIL.com").getId());
+		assertEquals(Arrays.asList(3, 4), ids(archived.getCourses(2, 5)));
+		assertEquals(Arrays.asList(1, 2), ids(archived.getStudents(0, 2)));
+		assertEquals(5, archived.streamStudents().count());
+		assertEquals(live.getCourses(3, 1).get(0).getTimetable(), archived.getCourses(3, 1).get(0).getTimetable());
+		assertThrows(MissingCourseException.class, () -> archived.getStudentsEnrolledInCourse(9));
+		assertThrows(MissingStudentException.class, () -> archived.getCoursesOfStudent(9));
+		assertThrows(MissingStudentException.class, () -> archived.findStudentByEmail("nobody@gmail.com"));
+		assertThrows(UnsupportedOperationException.class, () -> archived.enroll(2, 2));
+		assertThrows(UnsupportedOperationException.class, () -> archived.tryEnroll(2, 2));
+		assertThrows(IllegalArgumentException.class, () -> man.archive("west", "2024-1"));
+	}
+
+	@Test
+	void testConcurrentFirstAccessCreatesOneShard() throws Exception {
+		AtomicInteger created = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try(PartitionedEnrollmentManager counted = new PartitionedEnrollmentManager(partition -> {
+			created.incrementAndGet();
+			return new ConcurrentEnrollmentManager();
+		}, executor)) {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<InterfaceEnrollmentManager>> shards = new ArrayList<>();
+			for(int i = 0; i < 8; i++) {
+				shards.add(executor.submit(() -> {
+					start.await();
+					return counted.shard("north", "2024-1");
+				}));
+			}
+			start.countDown();
+			for(Future<InterfaceEnrollmentManager> shard : shards) {
+				assertSame(shards.get(0).get(), shard.get());
+			}
+			assertEquals(1, created.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void testArchiveClosesJournaledShards() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try(PartitionedEnrollmentManager journaled = new PartitionedEnrollmentManager(partition -> {
+			try {
+				EnrollmentManager inner = new EnrollmentManager();
+				inner.setLogVerbosity(LogVerbosity.QUIET);
+				return JournaledEnrollmentManager.open(dir.resolve(partition.getTenant()).resolve(partition.getTerm()), inner, 1000, 0);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}, executor)) {
+			populate(journaled.shard("north", "2024-1"), 1);
+			journaled.shard("north", "2024-1").enroll(1, 2);
+			journaled.archive("north", "2024-1");
+			assertEquals(Arrays.asList(2), ids(journaled.shard("north", "2024-1").getStudentsEnrolledInCourse(1)));
+		} finally {
+			executor.shutdown();
+		}
+		EnrollmentManager recovered = new EnrollmentManager();
+		recovered.setLogVerbosity(LogVerbosity.QUIET);
+		try(JournaledEnrollmentManager reopened = JournaledEnrollmentManager.open(dir.resolve("north").resolve("2024-1"), recovered)) {
+			assertEquals(Arrays.asList(2), ids(reopened.getStudentsEnrolledInCourse(1)));
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package es.upm.pproject.miniproject.miniproject;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SeatLotteryTest {
+	private EnrollmentManager man;
+
+	@BeforeEach
+	void runBeforeEach() throws Exception {
+		man = newManager();
+	}
+
+	private static EnrollmentManager newManager() throws Exception {
+		EnrollmentManager manager = new EnrollmentManager();
+		manager.setLogVerbosity(LogVerbosity.QUIET);
+		manager.registerCourse(1, "Course1", "Coordinator1", 2);
+		manager.registerCourse(2, "Course2", "Coordinator2", 2);
+		manager.registerCourse(3, "Course3", "Coordinator3", 10);
+		for(int i = 1; i <= 10; i++) {
+			manager.registerStudent(i, "Student" + i, "student" + i + "@gmail.com");
+		}
+		return manager;
+	}
+
+	@Test
+	void testReproducibleWhateverTheArrivalOrder() throws Exception {
+		SeatLottery forward = new SeatLottery(7, 1);
+		SeatLottery backward = new SeatLottery(7, 1);
+		for(int i = 1; i <= 10; i++) {
+			forward.request(i, 0, 1, 2);
+			backward.request(11 - i, 0, 1, 2);
+		}
+		EnrollmentManager other = newManager();
+		SeatLottery.Allocation a = forward.allocate(man);
+		SeatLottery.Allocation b = backward.allocate(other);
+		assertEquals(4, a.getSeatCount());
+		for(int i = 1; i <= 10; i++) {
+			assertArrayEquals(a.getCourses(i), b.getCourses(i));
+			assertEquals(a.getCourses(i).length, man.getCoursesOfStudent(i).size());
+		}
+		assertEquals(2, man.getEnrollmentCount(1));
+		assertEquals(2, man.getEnrollmentCount(2));
+	}
+
+	@Test
+	void testPriorityIsServedFirst() throws Exception {
+		SeatLottery lottery = new SeatLottery(3, 1);
+		for(int i = 1; i <= 10; i++) {
+			lottery.request(i, i == 9 || i == 10 ? 1 : 0, 1);
+		}
+		SeatLottery.Allocation allocation = lottery.allocate(man);
+		assertArrayEquals(new int[] {1}, allocation.getCourses(9));
+		assertArrayEquals(new int[] {1}, allocation.getCourses(10));
+		assertEquals(2, allocation.getSeatCount());
+		assertEquals(9, man.getStudentsEnrolledInCourse(1).get(0).getId());
+	}
+
+	@Test
+	void testRoundsAndPreferences() throws Exception {
+		SeatLottery lottery = new SeatLottery(1, 2);
+		lottery.request(1, 0, 1, 3, 2);
+		lottery.request(2, 0, 1, 2, 3);
+		lottery.request(3, 0, 1, 1, 2);
+		SeatLottery.Allocation allocation = lottery.allocate(man);
+		// Three students want two seats of course 1: one of them misses it and gets later preferences instead.
+		int missing = 0;
+		int seats = 0;
+		for(int i = 1; i <= 3; i++) {
+			int[] courses = allocation.getCourses(i);
+			assertTrue(courses.length >= 1 && courses.length <= 2);
+			if(courses[0] != 1) {
+				missing++;
+			}
+			seats += courses.length;
+			assertEquals(courses.length, man.getCoursesOfStudent(i).size());
+		}
+		assertEquals(1, missing);
+		assertEquals(seats, allocation.getSeatCount());
+		assertEquals(2, man.getEnrollmentCount(2));
+		assertEquals(2, man.getEnrollmentCount(1));
+	}
+
+	@Test
+	void testSkipsUnknownAndEnrolled() throws Exception {
+		man.enroll(1, 1);
+		SeatLottery lottery = new SeatLottery(1, 2);
+		lottery.request(1, 0, 1, 2);
+		lottery.request(11, 0, 2);
+		lottery.request(2, 0, 4, 3);
+		SeatLottery.Allocation allocation = lottery.allocate(man);
+		assertArrayEquals(new int[] {2}, allocation.getCourses(1));
+		assertArrayEquals(new int[0], allocation.getCourses(11));
+		assertArrayEquals(new int[] {3}, allocation.getCourses(2));
+		assertEquals(2, allocation.getSeatCount());
+		assertTrue(allocation.getCommitFailures().isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> lottery.request(1, -1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SeatLottery(1, 0));
+	}
+
+	@Test
+	void testTimetableConflictsAreSkippedInTheDraft() throws Exception {
+		Timetable nineToEleven = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(11, 0));
+		Timetable tenToTwelve = Timetable.EMPTY.with(DayOfWeek.MONDAY, LocalTime.of(10, 0), LocalTime.of(12, 0));
+		man.registerCourse(4, "Course4", "Coordinator4", 1, nineToEleven);
+		man.registerCourse(5, "Course5", "Coordinator5", 1, tenToTwelve);
+		man.registerCourse(6, "Course6", "Coordinator6", 5, nineToEleven);
+		man.enroll(6, 1);
+		SeatLottery lottery = new SeatLottery(1, 2);
+		// Student 1 already meets at the time of course 5, and student 2 prefers course 5 to course 4, which overlaps it.
+		lottery.request(1, 3, 5);
+		lottery.request(2, 2, 5, 4);
+		lottery.request(3, 1, 5);
+		lottery.request(4, 0, 4);
+		SeatLottery.Allocation allocation = lottery.allocate(man);
+		assertArrayEquals(new int[0], allocation.getCourses(1));
+		assertArrayEquals(new int[] {5}, allocation.getCourses(2));
+		assertArrayEquals(new int[0], allocation.getCourses(3));
+		assertArrayEquals(new int[] {4}, allocation.getCourses(4));
+		assertEquals(2, allocation.getSeatCount());
+		assertTrue(allocation.getCommitFailures().isEmpty());
+	}
+
+	@Test
+	void testStudentsWithoutPrerequisitesAreSkippedInTheDraft() throws Exception {
+		man.registerCourse(7, "Course7", "Coordinator7", 1);
+		man.registerCourse(8, "Course8", "Coordinator8");
+		man.registerCourse(9, "Course9", "Coordinator9");
+		man.addPrerequisite(7, 8);
+		man.addPrerequisite(8, 9);
+		man.completeCourse(8, 5);
+		man.completeCourse(9, 5);
+		// Student 6 has completed the direct prerequisite of course 7, but not the prerequisite of that one.
+		man.completeCourse(8, 6);
+		SeatLottery lottery = new SeatLottery(1, 1);
+		lottery.request(6, 1, 7);
+		lottery.request(5, 0, 7);
+		SeatLottery.Allocation allocation = lottery.allocate(man);
+		assertArrayEquals(new int[0], allocation.getCourses(6));
+		assertArrayEquals(new int[] {7}, allocation.getCourses(5));
+		assertTrue(allocation.getCommitFailures().isEmpty());
+	}
+
+	@Test
+	void testHundredsOfThousandsOfStudents() throws Exception {
+		EnrollmentManager large = new EnrollmentManager();
+		large.setLogVerbosity(LogVerbosity.QUIET);
+		int courses = 20000;
+		int students = 200000;
+		for(int c = 1; c <= courses; c++) {
+			large.registerCourse(c, "Course" + c, "Coordinator", 15);
+		}
+		for(int s = 1; s <= students; s++) {
+			large.registerStudent(s, "Student" + s, "student" + s + "@gmail.com");
+		}
+		SeatLottery lottery = new SeatLottery(42, 2);
+		SplittableRandom random = new SplittableRandom(42);
+		for(int s = 1; s <= students; s++) {
+			// Popular courses have the lowest codes.
+			lottery.request(s, 0, 1 + random.nextInt(100), 1 + random.nextInt(courses), 1 + random.nextInt(courses), 1 + random.nextInt(courses));
+		}
+		SeatLottery.Allocation allocation = lottery.allocate(large);
+		long enrolled = 0;
+		for(int c = 1; c <= courses; c++) {
+			int size = large.getEnrollmentCount(c);
+			assertTrue(size <= 15);
+			enrolled += size;
+		}
+		assertEquals(enrolled, allocation.getSeatCount());
+		assertEquals(15, large.getEnrollmentCount(1));
+		assertTrue(allocation.getSeatCount() > students);
+	}
+}